@@ -1,5 +1,7 @@
 package com.choice.testing.drivers;
 
+import com.choice.testing.proxy.RecordReplayProxy;
+import com.choice.testing.utils.ActionTimingRecorder;
 import io.appium.java_client.AppiumDriver;
 import io.appium.java_client.android.AndroidDriver;
 import io.appium.java_client.ios.IOSDriver;
@@ -9,23 +11,42 @@ import org.openqa.selenium.chrome.ChromeDriver;
 import org.openqa.selenium.chrome.ChromeOptions;
 import org.openqa.selenium.firefox.FirefoxDriver;
 import org.openqa.selenium.remote.DesiredCapabilities;
+import org.openqa.selenium.support.events.EventFiringDecorator;
 
+import java.io.IOException;
 import java.net.MalformedURLException;
+import java.net.ServerSocket;
 import java.net.URL;
 import java.time.Duration;
 import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class DriverManager {
     private static final ThreadLocal<WebDriver> webDriver = new ThreadLocal<>();
     private static final ThreadLocal<AppiumDriver> mobileDriver = new ThreadLocal<>();
     private static final Random random = new Random();
     private static int debuggingPort = 9222;
+    // Port of the current thread's Chrome; parallel sessions after the first get a free port each
+    private static final ThreadLocal<Integer> sessionDebuggingPort = new ThreadLocal<>();
+    private static final Set<Integer> portsInUse = ConcurrentHashMap.newKeySet();
 
     public static void initializeWebDriver(String browserType) {
+        initializeWebDriver(browserType, false);
+    }
+
+    /**
+     * @param headless run Chrome without a window, e.g. for many concurrent browser users on one agent
+     */
+    public static void initializeWebDriver(String browserType, boolean headless) {
         switch (browserType.toLowerCase()) {
             case "chrome":
                 WebDriverManager.chromedriver().setup();
                 ChromeOptions chromeOptions = getChromeOptionsWithRemoteDebugging();
+                if (headless) {
+                    chromeOptions.addArguments("--headless=new");
+                    chromeOptions.addArguments("--window-size=1366,768");
+                }
                 webDriver.set(new ChromeDriver(chromeOptions));
                 break;
                 
@@ -38,6 +59,11 @@ public class DriverManager {
                 throw new IllegalArgumentException("Browser not supported: " + browserType);
         }
         
+        // Route every command through the timing listener for the per-step timeline
+        if (ActionTimingRecorder.isEnabled()) {
+            webDriver.set(new EventFiringDecorator<>(new ActionTimingRecorder.DriverListener()).decorate(getWebDriver()));
+        }
+        
         getWebDriver().manage().timeouts().implicitlyWait(Duration.ofSeconds(5));
         // Skip window maximize for headless mode performance
         
@@ -104,6 +130,11 @@ public class DriverManager {
             webDriver.get().quit();
             webDriver.remove();
         }
+        Integer port = sessionDebuggingPort.get();
+        if (port != null) {
+            portsInUse.remove(port);
+            sessionDebuggingPort.remove();
+        }
     }
 
     public static void quitMobileDriver() {
@@ -117,7 +148,7 @@ public class DriverManager {
         ChromeOptions chromeOptions = new ChromeOptions();
         
         // Enable remote debugging for Lighthouse integration
-        chromeOptions.addArguments("--remote-debugging-port=" + debuggingPort);
+        chromeOptions.addArguments("--remote-debugging-port=" + allocateDebuggingPort());
         chromeOptions.addArguments("--remote-allow-origins=*");
         
         // Performance optimization options
@@ -132,17 +163,54 @@ public class DriverManager {
         chromeOptions.addArguments("--disable-renderer-backgrounding");
         chromeOptions.addArguments("--disable-backgrounding-occluded-windows");
         
+        // Route page traffic through the record/replay proxy when proxy.mode is set.
+        // HTTPS is intercepted with the proxy's self-signed certificate.
+        RecordReplayProxy proxy = RecordReplayProxy.shared();
+        if (proxy != null) {
+            chromeOptions.addArguments("--proxy-server=127.0.0.1:" + proxy.getPort());
+            chromeOptions.addArguments("--ignore-certificate-errors");
+            chromeOptions.setAcceptInsecureCerts(true);
+        }
+        
         // Optional: Remove headless for Lighthouse (Lighthouse works better with visible browser)
         // chromeOptions.addArguments("--headless");
         
         return chromeOptions;
     }
     
+    /**
+     * Debugging port of the current thread's Chrome session, or the configured port when none is open
+     */
     public static int getDebuggingPort() {
-        return debuggingPort;
+        Integer port = sessionDebuggingPort.get();
+        return port != null ? port : debuggingPort;
     }
     
     public static void setDebuggingPort(int port) {
         debuggingPort = port;
     }
+    
+    /**
+     * The configured port goes to the first session; concurrent sessions get an ephemeral port
+     * so each Chrome (and the Lighthouse/CDP clients attached to it) stays separate
+     */
+    private static int allocateDebuggingPort() {
+        Integer previous = sessionDebuggingPort.get();
+        if (previous != null) {
+            portsInUse.remove(previous);
+        }
+        
+        int port = debuggingPort;
+        if (!portsInUse.add(port)) {
+            do {
+                try (ServerSocket socket = new ServerSocket(0)) {
+                    port = socket.getLocalPort();
+                } catch (IOException e) {
+                    throw new IllegalStateException("No free port for Chrome remote debugging", e);
+                }
+            } while (!portsInUse.add(port));
+        }
+        sessionDebuggingPort.set(port);
+        return port;
+    }
 }
@@ -0,0 +1,452 @@
+package com.choice.testing.load;
+
+import com.choice.testing.config.ConfigManager;
+import com.choice.testing.load.HttpLoadGenerator.LoadResult;
+import com.choice.testing.load.HttpLoadGenerator.RequestStats;
+import com.choice.testing.utils.NetworkRecorder;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.qameta.allure.Allure;
+import org.HdrHistogram.Histogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+/**
+ * Turns the XHR and fetch calls a browser journey made into API load scenarios.
+ *
+ * Calls from NetworkRecorder are grouped by URL template: path segments that look like
+ * identifiers (numbers, UUIDs, hashes, codes like FL123, dates) become {id1}, {id2}, ... and
+ * query values become {name} of their parameter. Each template is an ApiSpec with a feeder of
+ * the values observed for it and the response times the browser saw, which later load runs are
+ * checked against for latency drift.
+ *
+ * Specs are stored as api-scenarios/<test>.json and replayed by pointing load.scenario.file at them.
+ */
+public class ApiScenarioCapture {
+
+    private static final Logger logger = LoggerFactory.getLogger(ApiScenarioCapture.class);
+    private static final ObjectMapper objectMapper = new ObjectMapper()
+        .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    private static final Set<String> API_TYPES = Set.of("xhr", "fetch");
+    private static final Pattern DYNAMIC_SEGMENT = Pattern.compile(
+        "\\d+|[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}|[0-9a-fA-F]{16,}"
+            + "|\\d{4}-\\d{2}-\\d{2}|(?=[A-Za-z0-9_-]{4,}$)(?=.*[A-Za-z])(?=.*\\d)[A-Za-z0-9_-]+");
+    private static final String BODY = "body";
+
+    /**
+     * One endpoint template with what was observed for it
+     */
+    public static class ApiSpec {
+        private String name;
+        private String method;
+        private String urlTemplate;
+        private String contentType;
+        private List<String> parameters = new ArrayList<>();
+        private List<Map<String, String>> feeder = new ArrayList<>();
+        private RequestStats recordedLatency;
+
+        // Getters and setters
+        // "METHOD /path/{id1}", the name load results are reported under
+        public String getName() { return name; }
+        public void setName(String name) { this.name = name; }
+
+        public String getMethod() { return method; }
+        public void setMethod(String method) { this.method = method; }
+
+        // Absolute URL with {placeholders} for path identifiers and query values
+        public String getUrlTemplate() { return urlTemplate; }
+        public void setUrlTemplate(String urlTemplate) { this.urlTemplate = urlTemplate; }
+
+        public String getContentType() { return contentType; }
+        public void setContentType(String contentType) { this.contentType = contentType; }
+
+        // Placeholder names, plus "body" for calls that sent one
+        public List<String> getParameters() { return parameters; }
+        public void setParameters(List<String> parameters) { this.parameters = parameters; }
+
+        // Distinct observed parameter values, one row per call
+        public List<Map<String, String>> getFeeder() { return feeder; }
+        public void setFeeder(List<Map<String, String>> feeder) { this.feeder = feeder; }
+
+        // Browser-observed time from send to last byte, without time queued in the browser
+        public RequestStats getRecordedLatency() { return recordedLatency; }
+        public void setRecordedLatency(RequestStats recordedLatency) { this.recordedLatency = recordedLatency; }
+    }
+
+    public static class ApiScenario {
+        private String name;
+        private String capturedAt;
+        private String throttlingProfile;
+        private List<ApiSpec> specs = new ArrayList<>();
+
+        // Getters and setters
+        public String getName() { return name; }
+        public void setName(String name) { this.name = name; }
+
+        public String getCapturedAt() { return capturedAt; }
+        public void setCapturedAt(String capturedAt) { this.capturedAt = capturedAt; }
+
+        public String getThrottlingProfile() { return throttlingProfile; }
+        public void setThrottlingProfile(String throttlingProfile) { this.throttlingProfile = throttlingProfile; }
+
+        public List<ApiSpec> getSpecs() { return specs; }
+        public void setSpecs(List<ApiSpec> specs) { this.specs = specs; }
+    }
+
+    public static class DriftResult {
+        private String name;
+        private String percentile;
+        private double baselineMs;
+        private double observedMs;
+        private double change;
+        private boolean drifted;
+
+        // Getters and setters
+        public String getName() { return name; }
+        public void setName(String name) { this.name = name; }
+
+        public String getPercentile() { return percentile; }
+        public void setPercentile(String percentile) { this.percentile = percentile; }
+
+        public double getBaselineMs() { return baselineMs; }
+        public void setBaselineMs(double baselineMs) { this.baselineMs = baselineMs; }
+
+        public double getObservedMs() { return observedMs; }
+        public void setObservedMs(double observedMs) { this.observedMs = observedMs; }
+
+        // Relative change, 0.5 = 50% slower
+        public double getChange() { return change; }
+        public void setChange(double change) { this.change = change; }
+
+        public boolean isDrifted() { return drifted; }
+        public void setDrifted(boolean drifted) { this.drifted = drifted; }
+    }
+
+    public static boolean isEnabled() {
+        return Boolean.parseBoolean(System.getProperty("api.capture.enabled",
+            ConfigManager.getProperty("api.capture.enabled", "false")));
+    }
+
+    /**
+     * Group the first-party XHR and fetch calls of a network report into specs
+     */
+    public static ApiScenario capture(NetworkRecorder.NetworkReport report, String name) {
+        int maxFeederRows = ConfigManager.getIntProperty("api.capture.max.feeder.rows", 100);
+        Map<String, ApiSpec> specs = new LinkedHashMap<>();
+        Map<String, Histogram> latencies = new LinkedHashMap<>();
+        Map<String, long[]> errors = new LinkedHashMap<>();
+
+        for (NetworkRecorder.RequestRecord record : report.requests()) {
+            if (!API_TYPES.contains(String.valueOf(record.getResourceType()).toLowerCase(Locale.ROOT))
+                || record.isThirdParty() || record.isFailed() || record.getStatus() == 0 || record.getTotalMs() < 0
+                || !"network".equals(record.getCacheStatus())) {
+                continue;
+            }
+            Map<String, String> row = new LinkedHashMap<>();
+            String template = templateOf(record.getUrl(), row);
+            if (template == null) {
+                continue;
+            }
+            if (record.getPostData() != null) {
+                row.put(BODY, record.getPostData());
+            }
+
+            String key = record.getMethod() + " " + template;
+            ApiSpec spec = specs.computeIfAbsent(key, k -> {
+                ApiSpec created = new ApiSpec();
+                created.setName(record.getMethod() + " " + pathOf(template));
+                created.setMethod(record.getMethod());
+                created.setUrlTemplate(template);
+                created.setContentType(record.getRequestContentType());
+                return created;
+            });
+            for (String parameter : row.keySet()) {
+                if (!spec.getParameters().contains(parameter)) {
+                    spec.getParameters().add(parameter);
+                }
+            }
+            if (spec.getFeeder().size() < maxFeederRows && !spec.getFeeder().contains(row)) {
+                spec.getFeeder().add(row);
+            }
+
+            double serverMs = record.getTotalMs() - Math.max(0, record.getBlockedMs());
+            latencies.computeIfAbsent(key, k -> new Histogram(HttpLoadGenerator.HIGHEST_TRACKABLE_MICROS, HttpLoadGenerator.SIGNIFICANT_DIGITS))
+                .recordValue(Math.min(HttpLoadGenerator.HIGHEST_TRACKABLE_MICROS, Math.max(0, (long) (serverMs * 1000))));
+            if (record.getStatus() >= 400) {
+                errors.computeIfAbsent(key, k -> new long[1])[0]++;
+            }
+        }
+
+        ApiScenario scenario = new ApiScenario();
+        scenario.setName(name);
+        scenario.setCapturedAt(LocalDateTime.now().toString());
+        scenario.setThrottlingProfile(report.getThrottlingProfile());
+        for (Map.Entry<String, ApiSpec> entry : specs.entrySet()) {
+            ApiSpec spec = entry.getValue();
+            spec.setRecordedLatency(RequestStats.from(spec.getName(), latencies.get(entry.getKey()), 0,
+                errors.getOrDefault(entry.getKey(), new long[1])[0]));
+            scenario.getSpecs().add(spec);
+        }
+        return scenario;
+    }
+
+    /**
+     * URL with identifiers and query values replaced by placeholders, their values put in row;
+     * null for URLs that cannot be parsed
+     */
+    static String templateOf(String url, Map<String, String> row) {
+        URI uri;
+        try {
+            uri = URI.create(url);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        if (uri.getScheme() == null || uri.getRawAuthority() == null) {
+            return null;
+        }
+
+        StringBuilder template = new StringBuilder(uri.getScheme()).append("://").append(uri.getRawAuthority());
+        int originLength = template.length();
+        String path = uri.getRawPath() != null ? uri.getRawPath() : "";
+        int ids = 0;
+        for (String segment : path.split("/", -1)) {
+            if (segment.isEmpty()) {
+                continue;
+            }
+            template.append('/');
+            if (DYNAMIC_SEGMENT.matcher(segment).matches()) {
+                String placeholder = "id" + (++ids);
+                row.put(placeholder, segment);
+                template.append('{').append(placeholder).append('}');
+            } else {
+                template.append(segment);
+            }
+        }
+        if (template.length() == originLength || path.endsWith("/")) {
+            template.append('/');
+        }
+
+        if (uri.getRawQuery() != null && !uri.getRawQuery().isEmpty()) {
+            // Sorted, so the same parameters in another order are the same template
+            Map<String, String> query = new TreeMap<>();
+            for (String pair : uri.getRawQuery().split("&")) {
+                int equals = pair.indexOf('=');
+                query.put(equals < 0 ? pair : pair.substring(0, equals), equals < 0 ? "" : pair.substring(equals + 1));
+            }
+            List<String> params = new ArrayList<>();
+            for (Map.Entry<String, String> param : query.entrySet()) {
+                String placeholder = row.containsKey(param.getKey()) ? "q." + param.getKey() : param.getKey();
+                row.put(placeholder, param.getValue());
+                params.add(param.getKey() + "={" + placeholder + "}");
+            }
+            template.append('?').append(String.join("&", params));
+        }
+        return template.toString();
+    }
+
+    private static String pathOf(String template) {
+        String withoutOrigin = template.substring(template.indexOf('/', template.indexOf("://") + 3));
+        int query = withoutOrigin.indexOf('?');
+        return query < 0 ? withoutOrigin : withoutOrigin.substring(0, query);
+    }
+
+    /**
+     * Load requests for a scenario: each spec once per feeder row, interleaved so virtual users
+     * cycle through every endpoint and every observed value. Dates are shifted by the days since
+     * the capture, so recorded check-in dates stay in the future.
+     */
+    public static List<LoadRequest> toLoadRequests(ApiScenario scenario) {
+        HarReplay.Rewriter shiftDates = HarReplay.shiftDates(
+            LocalDateTime.parse(scenario.getCapturedAt()).toLocalDate(), LocalDate.now());
+        int rows = 0;
+        for (ApiSpec spec : scenario.getSpecs()) {
+            rows = Math.max(rows, Math.max(1, spec.getFeeder().size()));
+        }
+
+        List<LoadRequest> requests = new ArrayList<>();
+        for (int i = 0; i < rows; i++) {
+            for (ApiSpec spec : scenario.getSpecs()) {
+                Map<String, String> row = spec.getFeeder().isEmpty()
+                    ? Collections.emptyMap() : spec.getFeeder().get(i % spec.getFeeder().size());
+                String url = spec.getUrlTemplate();
+                for (Map.Entry<String, String> value : row.entrySet()) {
+                    url = url.replace("{" + value.getKey() + "}", value.getValue());
+                }
+                LoadRequest request = new LoadRequest(spec.getName(), spec.getMethod(), url, null, row.get(BODY),
+                    spec.getContentType());
+                requests.add(shiftDates.rewrite(request, Collections.emptyMap()));
+            }
+        }
+        return requests;
+    }
+
+    public static ApiScenario load(Path file) throws IOException {
+        return objectMapper.readValue(Files.readString(file), ApiScenario.class);
+    }
+
+    /**
+     * The scenario at load.scenario.file, or null when none is configured
+     */
+    public static ApiScenario configuredScenario() throws IOException {
+        String file = System.getProperty("load.scenario.file", ConfigManager.getProperty("load.scenario.file", ""));
+        return file.trim().isEmpty() ? null : load(Paths.get(file.trim()));
+    }
+
+    /**
+     * Capture the scenario of a finished test, compare it with the stored spec and store it
+     * when there is none yet or api.capture.update.baseline is set
+     */
+    public static ApiScenario captureAndAttach(NetworkRecorder.NetworkReport report) {
+        if (report == null) {
+            return null;
+        }
+        ApiScenario scenario = capture(report, report.getTestName());
+        if (scenario.getSpecs().isEmpty()) {
+            return scenario;
+        }
+        attachToAllure(scenario);
+
+        Path file = Paths.get(ConfigManager.getProperty("api.capture.dir", "api-scenarios"),
+            scenario.getName().replaceAll("[^a-zA-Z0-9]", "_") + ".json");
+        try {
+            if (Files.exists(file)) {
+                attachDriftToAllure(detectDrift(load(file), scenario));
+                if (!Boolean.parseBoolean(ConfigManager.getProperty("api.capture.update.baseline", "false"))) {
+                    return scenario;
+                }
+            }
+            Files.createDirectories(file.getParent());
+            Files.writeString(file, objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(scenario));
+            System.out.println("📡 API scenario with " + scenario.getSpecs().size() + " endpoints stored to " + file);
+        } catch (IOException e) {
+            logger.warn("Failed to store API scenario for {}", scenario.getName(), e);
+        }
+        return scenario;
+    }
+
+    /**
+     * Percentile drift of a load run against the stored spec, with api.drift.* thresholds
+     */
+    public static List<DriftResult> detectDrift(ApiScenario baseline, LoadResult result) {
+        Map<String, RequestStats> observed = new LinkedHashMap<>();
+        for (RequestStats stats : result.getRequests()) {
+            observed.put(stats.getName(), stats);
+        }
+        return detectDrift(baseline, observed);
+    }
+
+    /**
+     * Percentile drift of a newer capture against the stored spec
+     */
+    public static List<DriftResult> detectDrift(ApiScenario baseline, ApiScenario newer) {
+        Map<String, RequestStats> observed = new LinkedHashMap<>();
+        for (ApiSpec spec : newer.getSpecs()) {
+            observed.put(spec.getName(), spec.getRecordedLatency());
+        }
+        return detectDrift(baseline, observed);
+    }
+
+    private static List<DriftResult> detectDrift(ApiScenario baseline, Map<String, RequestStats> observed) {
+        return detectDrift(baseline, observed,
+            Double.parseDouble(ConfigManager.getProperty("api.drift.tolerance", "0.25")),
+            Double.parseDouble(ConfigManager.getProperty("api.drift.min.delta.ms", "20")));
+    }
+
+    /**
+     * A percentile has drifted when it is both tolerance (relative) and minDeltaMs (absolute)
+     * slower than the spec; endpoints missing from either side are not compared
+     */
+    static List<DriftResult> detectDrift(ApiScenario baseline, Map<String, RequestStats> observed,
+                                         double tolerance, double minDeltaMs) {
+        List<DriftResult> results = new ArrayList<>();
+        Set<String> compared = new LinkedHashSet<>();
+        for (ApiSpec spec : baseline.getSpecs()) {
+            RequestStats current = observed.get(spec.getName());
+            if (current == null || current.getRequests() == 0 || spec.getRecordedLatency() == null || !compared.add(spec.getName())) {
+                continue;
+            }
+            RequestStats recorded = spec.getRecordedLatency();
+            addDrift(results, spec.getName(), "p50", recorded.getP50Ms(), current.getP50Ms(), tolerance, minDeltaMs);
+            addDrift(results, spec.getName(), "p90", recorded.getP90Ms(), current.getP90Ms(), tolerance, minDeltaMs);
+            addDrift(results, spec.getName(), "p95", recorded.getP95Ms(), current.getP95Ms(), tolerance, minDeltaMs);
+            addDrift(results, spec.getName(), "p99", recorded.getP99Ms(), current.getP99Ms(), tolerance, minDeltaMs);
+        }
+        return results;
+    }
+
+    private static void addDrift(List<DriftResult> results, String name, String percentile, double baselineMs,
+                                 double observedMs, double tolerance, double minDeltaMs) {
+        DriftResult drift = new DriftResult();
+        drift.setName(name);
+        drift.setPercentile(percentile);
+        drift.setBaselineMs(baselineMs);
+        drift.setObservedMs(observedMs);
+        drift.setChange(baselineMs > 0 ? (observedMs - baselineMs) / baselineMs : 0);
+        drift.setDrifted(observedMs - baselineMs >= minDeltaMs && (baselineMs <= 0 || drift.getChange() > tolerance));
+        results.add(drift);
+    }
+
+    public static void attachToAllure(ApiScenario scenario) {
+        StringBuilder report = new StringBuilder();
+        report.append("# Captured API Scenario: ").append(scenario.getName()).append("\n\n");
+        report.append("| Endpoint | Calls | Feeder Rows | Parameters | p50 (ms) | p95 (ms) | p99 (ms) |\n");
+        report.append("|----------|-------|-------------|------------|----------|----------|----------|\n");
+        for (ApiSpec spec : scenario.getSpecs()) {
+            RequestStats latency = spec.getRecordedLatency();
+            report.append(String.format("| %s | %d | %d | %s | %.0f | %.0f | %.0f |%n", spec.getName(), latency.getRequests(),
+                spec.getFeeder().size(), String.join(", ", spec.getParameters()), latency.getP50Ms(),
+                latency.getP95Ms(), latency.getP99Ms()));
+        }
+        try {
+            Allure.addAttachment("API Scenario - " + scenario.getName(), "text/markdown",
+                new ByteArrayInputStream(report.toString().getBytes(StandardCharsets.UTF_8)), ".md");
+            Allure.addAttachment("API Scenario Spec", "application/json",
+                new ByteArrayInputStream(objectMapper.writerWithDefaultPrettyPrinter().writeValueAsBytes(scenario)), ".json");
+        } catch (IOException e) {
+            logger.warn("Failed to attach API scenario {}", scenario.getName(), e);
+        }
+        Allure.parameter("Captured API Endpoints", scenario.getSpecs().size());
+    }
+
+    public static void attachDriftToAllure(List<DriftResult> drift) {
+        if (drift.isEmpty()) {
+            return;
+        }
+        long drifted = drift.stream().filter(DriftResult::isDrifted).count();
+        StringBuilder report = new StringBuilder();
+        report.append("# API Latency Drift\n\n");
+        report.append(drifted > 0 ? "⚠️ " + drifted + " percentiles drifted from the captured spec\n\n" : "✅ No drift from the captured spec\n\n");
+        report.append("| Endpoint | Percentile | Spec (ms) | Now (ms) | Change | Drifted |\n");
+        report.append("|----------|------------|-----------|----------|--------|---------|\n");
+        for (DriftResult result : drift) {
+            report.append(String.format("| %s | %s | %.1f | %.1f | %+.0f%% | %s |%n", result.getName(), result.getPercentile(),
+                result.getBaselineMs(), result.getObservedMs(), result.getChange() * 100, result.isDrifted() ? "❌" : "✅"));
+        }
+        Allure.addAttachment("API Latency Drift", "text/markdown",
+            new ByteArrayInputStream(report.toString().getBytes(StandardCharsets.UTF_8)), ".md");
+        Allure.parameter("Drifted Percentiles", drifted);
+        if (drifted > 0) {
+            System.out.println("⚠️ " + drifted + " API latency percentiles drifted from the captured spec");
+        }
+    }
+}
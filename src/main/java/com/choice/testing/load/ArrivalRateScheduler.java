@@ -0,0 +1,500 @@
+package com.choice.testing.load;
+
+import com.choice.testing.config.ConfigManager;
+import com.choice.testing.load.HttpLoadGenerator.RequestStats;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.qameta.allure.Allure;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.apache.hc.client5.http.async.methods.SimpleHttpRequest;
+import org.apache.hc.client5.http.async.methods.SimpleHttpResponse;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.http.RequestNotExecutedException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-model load: requests are issued from a precomputed arrival schedule at the target rate,
+ * whether or not earlier responses have come back.
+ *
+ * Closed loops (send, wait, send) slow down with the system under test and so under-report
+ * latency exactly when it matters - coordinated omission. Here every request carries its
+ * intended start time and is reported twice:
+ * - corrected: from the intended start, so time spent waiting behind a stalled server counts
+ * - uncorrected: from the moment it was actually sent, i.e. what a closed loop would have seen
+ *
+ * One dispatcher thread walks the schedule, parking until each arrival and sending everything
+ * that is due in one pass; sends are non-blocking, so the dispatcher is not the bottleneck at
+ * 10k+ requests per second. Its own lag behind the schedule is reported so that can be checked.
+ */
+public class ArrivalRateScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(ArrivalRateScheduler.class);
+    private static final ObjectMapper objectMapper = new ObjectMapper()
+        .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    private static final String PERFORMANCE_DATA_DIR = "performance-history";
+    // Park rather than spin when the next arrival is further away than this. On a single core
+    // spinning would starve the I/O threads, so there the dispatcher always parks.
+    private static final long SPIN_THRESHOLD_NANOS = Runtime.getRuntime().availableProcessors() > 1
+        ? TimeUnit.MICROSECONDS.toNanos(200) : 0;
+    private static final long BACKPRESSURE_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+    private static final long START_DELAY_NANOS = TimeUnit.MILLISECONDS.toNanos(20);
+
+    public enum Distribution {
+        // Evenly spaced arrivals
+        UNIFORM,
+        // Exponential gaps, as independent users arriving at random would produce
+        POISSON
+    }
+
+    public static class ArrivalRateResult {
+        private String name;
+        private String timestamp;
+        private double targetRate;
+        private long rampMs;
+        private String distribution;
+        private long scheduled;
+        private long sent;
+        private double achievedRate;
+        private int peakInFlight;
+        private double sendLagP99Ms;
+        private double sendLagMaxMs;
+        private RequestStats corrected;
+        private RequestStats uncorrected;
+        private List<RequestStats> correctedByRequest = new ArrayList<>();
+        private List<RequestStats> uncorrectedByRequest = new ArrayList<>();
+        private Histogram correctedHistogram;
+        private Histogram uncorrectedHistogram;
+
+        // Getters and setters
+        public String getName() { return name; }
+        public void setName(String name) { this.name = name; }
+
+        public String getTimestamp() { return timestamp; }
+        public void setTimestamp(String timestamp) { this.timestamp = timestamp; }
+
+        public double getTargetRate() { return targetRate; }
+        public void setTargetRate(double targetRate) { this.targetRate = targetRate; }
+
+        public long getRampMs() { return rampMs; }
+        public void setRampMs(long rampMs) { this.rampMs = rampMs; }
+
+        public String getDistribution() { return distribution; }
+        public void setDistribution(String distribution) { this.distribution = distribution; }
+
+        public long getScheduled() { return scheduled; }
+        public void setScheduled(long scheduled) { this.scheduled = scheduled; }
+
+        public long getSent() { return sent; }
+        public void setSent(long sent) { this.sent = sent; }
+
+        // Requests sent per second of schedule
+        public double getAchievedRate() { return achievedRate; }
+        public void setAchievedRate(double achievedRate) { this.achievedRate = achievedRate; }
+
+        public int getPeakInFlight() { return peakInFlight; }
+        public void setPeakInFlight(int peakInFlight) { this.peakInFlight = peakInFlight; }
+
+        // How late the dispatcher sent requests relative to their intended start
+        public double getSendLagP99Ms() { return sendLagP99Ms; }
+        public void setSendLagP99Ms(double sendLagP99Ms) { this.sendLagP99Ms = sendLagP99Ms; }
+
+        public double getSendLagMaxMs() { return sendLagMaxMs; }
+        public void setSendLagMaxMs(double sendLagMaxMs) { this.sendLagMaxMs = sendLagMaxMs; }
+
+        public RequestStats getCorrected() { return corrected; }
+        public void setCorrected(RequestStats corrected) { this.corrected = corrected; }
+
+        public RequestStats getUncorrected() { return uncorrected; }
+        public void setUncorrected(RequestStats uncorrected) { this.uncorrected = uncorrected; }
+
+        public List<RequestStats> getCorrectedByRequest() { return correctedByRequest; }
+        public void setCorrectedByRequest(List<RequestStats> correctedByRequest) { this.correctedByRequest = correctedByRequest; }
+
+        public List<RequestStats> getUncorrectedByRequest() { return uncorrectedByRequest; }
+        public void setUncorrectedByRequest(List<RequestStats> uncorrectedByRequest) { this.uncorrectedByRequest = uncorrectedByRequest; }
+
+        // Latencies in microseconds; not kept in history
+        @JsonIgnore
+        public Histogram getCorrectedHistogram() { return correctedHistogram; }
+        @JsonIgnore
+        public void setCorrectedHistogram(Histogram correctedHistogram) { this.correctedHistogram = correctedHistogram; }
+
+        @JsonIgnore
+        public Histogram getUncorrectedHistogram() { return uncorrectedHistogram; }
+        @JsonIgnore
+        public void setUncorrectedHistogram(Histogram uncorrectedHistogram) { this.uncorrectedHistogram = uncorrectedHistogram; }
+    }
+
+    private final List<LoadRequest> scenario;
+    private final double ratePerSecond;
+    private final long durationMs;
+    private final long rampMs;
+    private final Distribution distribution;
+    private final int maxConnections;
+    private final int maxInFlight;
+    private final long timeoutMs;
+
+    /**
+     * @param rampMs the rate grows linearly from 0 to ratePerSecond over this period, then holds
+     * @param maxInFlight requests outstanding before the dispatcher waits; waiting delays the
+     *                    send but not the intended start, so the corrected latency still counts it
+     */
+    public ArrivalRateScheduler(List<LoadRequest> scenario, double ratePerSecond, long durationMs, long rampMs,
+                                Distribution distribution, int maxConnections, int maxInFlight, long timeoutMs) {
+        if (scenario.isEmpty()) {
+            throw new IllegalArgumentException("Load scenario has no requests");
+        }
+        if (ratePerSecond <= 0 || durationMs <= 0 || rampMs > durationMs) {
+            throw new IllegalArgumentException("Arrival rate needs a positive rate and duration, and a ramp no longer than the duration");
+        }
+        this.scenario = new ArrayList<>(scenario);
+        this.ratePerSecond = ratePerSecond;
+        this.durationMs = durationMs;
+        this.rampMs = rampMs;
+        this.distribution = distribution;
+        this.maxConnections = maxConnections;
+        this.maxInFlight = maxInFlight;
+        this.timeoutMs = timeoutMs;
+    }
+
+    public static boolean isEnabled() {
+        return Boolean.parseBoolean(System.getProperty("load.arrival.enabled",
+            ConfigManager.getProperty("load.arrival.enabled", "false")));
+    }
+
+    /**
+     * Scheduler for load.requests at load.arrival.rate; -Dload.arrival.rate overrides the rate
+     */
+    public static ArrivalRateScheduler fromConfig() {
+        return new ArrivalRateScheduler(LoadRequest.fromConfig(),
+            Double.parseDouble(System.getProperty("load.arrival.rate", ConfigManager.getProperty("load.arrival.rate", "100"))),
+            LoadProfile.parseDurationMs(ConfigManager.getProperty("load.arrival.duration", "60s")),
+            LoadProfile.parseDurationMs(ConfigManager.getProperty("load.arrival.ramp", "0")),
+            Distribution.valueOf(ConfigManager.getProperty("load.arrival.distribution", "uniform").trim().toUpperCase(Locale.ROOT)),
+            ConfigManager.getIntProperty("load.max.connections", 0),
+            ConfigManager.getIntProperty("load.arrival.max.in.flight", 10000),
+            ConfigManager.getIntProperty("load.timeout.ms", 30000));
+    }
+
+    /**
+     * Intended start of every request in nanoseconds from the start of the run
+     */
+    public static long[] buildSchedule(double ratePerSecond, long durationMs, long rampMs, Distribution distribution, long seed) {
+        double ratePerNano = ratePerSecond / 1e9;
+        double rampNanos = rampMs * 1e6;
+        double durationNanos = durationMs * 1e6;
+        // Arrivals expected during the ramp (a triangle) and in total
+        double rampArrivals = ratePerNano * rampNanos / 2;
+        long total = (long) (rampArrivals + ratePerNano * (durationNanos - rampNanos));
+
+        long[] schedule = new long[(int) total];
+        Random random = new Random(seed);
+        double arrivals = 0;
+        for (int i = 0; i < schedule.length; i++) {
+            // Step in "arrival count" space and map back to time through the inverse of the
+            // cumulative arrival curve, so both distributions follow the ramp
+            arrivals += distribution == Distribution.POISSON ? -Math.log(1 - random.nextDouble()) : 1;
+            double nanos = arrivals <= rampArrivals
+                ? Math.sqrt(2 * arrivals * rampNanos / ratePerNano)
+                : rampNanos + (arrivals - rampArrivals) / ratePerNano;
+            if (nanos >= durationNanos) {
+                return Arrays.copyOf(schedule, i);
+            }
+            schedule[i] = (long) nanos;
+        }
+        return schedule;
+    }
+
+    /**
+     * Walk the schedule, wait for outstanding responses and return both latency views
+     */
+    public ArrivalRateResult run(String name) {
+        long[] schedule = buildSchedule(ratePerSecond, durationMs, rampMs, distribution, System.nanoTime());
+        int connections = maxConnections > 0 ? maxConnections : Math.min(maxInFlight, Math.max(64, (int) ratePerSecond));
+        System.out.println(String.format("📬 Arrival rate %s: %d requests at %.0f req/s over %ds (%s)",
+            name, schedule.length, ratePerSecond, durationMs / 1000, distribution.name().toLowerCase()));
+
+        try (CloseableHttpAsyncClient client = HttpLoadGenerator.buildClient(connections, timeoutMs)) {
+            client.start();
+            ArrivalRateResult result = new Dispatch(client, schedule).execute(name);
+
+            System.out.println(String.format("📬 %s: %.0f req/s achieved, p99 corrected %.0fms vs uncorrected %.0fms, send lag p99 %.2fms",
+                name, result.getAchievedRate(), result.getCorrected().getP99Ms(), result.getUncorrected().getP99Ms(),
+                result.getSendLagP99Ms()));
+            return result;
+        } catch (IOException e) {
+            throw new IllegalStateException("Arrival rate run " + name + " failed to close its client", e);
+        }
+    }
+
+    private static class NameStats {
+        final Recorder corrected = new Recorder(HttpLoadGenerator.HIGHEST_TRACKABLE_MICROS, HttpLoadGenerator.SIGNIFICANT_DIGITS);
+        final Recorder uncorrected = new Recorder(HttpLoadGenerator.HIGHEST_TRACKABLE_MICROS, HttpLoadGenerator.SIGNIFICANT_DIGITS);
+        final LongAdder errorResponses = new LongAdder();
+        final LongAdder failures = new LongAdder();
+    }
+
+    private class Dispatch {
+        private final CloseableHttpAsyncClient client;
+        private final long[] schedule;
+        private final Map<String, NameStats> stats = new LinkedHashMap<>();
+        private final List<SimpleHttpRequest> httpRequests = new ArrayList<>();
+        private final Histogram sendLag = new Histogram(HttpLoadGenerator.HIGHEST_TRACKABLE_MICROS, HttpLoadGenerator.SIGNIFICANT_DIGITS);
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private int peakInFlight;
+
+        Dispatch(CloseableHttpAsyncClient client, long[] schedule) {
+            this.client = client;
+            this.schedule = schedule;
+            for (LoadRequest request : scenario) {
+                stats.putIfAbsent(request.getName(), new NameStats());
+                httpRequests.add(HttpLoadGenerator.toHttpRequest(request));
+            }
+        }
+
+        ArrivalRateResult execute(String name) {
+            long startNanos = System.nanoTime() + START_DELAY_NANOS;
+            int sent = 0;
+            for (; sent < schedule.length; sent++) {
+                long intended = startNanos + schedule[sent];
+                long wait = intended - System.nanoTime();
+                while (wait > 0) {
+                    if (wait > SPIN_THRESHOLD_NANOS) {
+                        LockSupport.parkNanos(wait - SPIN_THRESHOLD_NANOS);
+                    } else {
+                        Thread.onSpinWait();
+                    }
+                    wait = intended - System.nanoTime();
+                }
+                while (inFlight.get() >= maxInFlight) {
+                    LockSupport.parkNanos(BACKPRESSURE_PARK_NANOS);
+                }
+                if (Thread.currentThread().isInterrupted()) {
+                    logger.warn("Arrival rate run {} interrupted after {} requests", name, sent);
+                    break;
+                }
+
+                int current = inFlight.incrementAndGet();
+                if (current > peakInFlight) {
+                    peakInFlight = current;
+                }
+                long sentNanos = System.nanoTime();
+                sendLag.recordValue(Math.min(HttpLoadGenerator.HIGHEST_TRACKABLE_MICROS,
+                    TimeUnit.NANOSECONDS.toMicros(sentNanos - intended)));
+                new ResponseCallback(sent % httpRequests.size(), intended).dispatch(sentNanos);
+            }
+            long scheduleEnd = System.nanoTime();
+            drain();
+            return buildResult(name, sent, (scheduleEnd - startNanos) / 1e9);
+        }
+
+        private void drain() {
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs + 1000);
+            while (inFlight.get() > 0 && System.nanoTime() < deadline) {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+            }
+            if (inFlight.get() > 0) {
+                logger.warn("{} requests still in flight after the drain timeout", inFlight.get());
+            }
+        }
+
+        private ArrivalRateResult buildResult(String name, int sent, double scheduleSeconds) {
+            ArrivalRateResult result = new ArrivalRateResult();
+            result.setName(name);
+            result.setTimestamp(LocalDateTime.now().toString());
+            result.setTargetRate(ratePerSecond);
+            result.setRampMs(rampMs);
+            result.setDistribution(distribution.name().toLowerCase());
+            result.setScheduled(schedule.length);
+            result.setSent(sent);
+            result.setAchievedRate(scheduleSeconds > 0 ? sent / scheduleSeconds : 0);
+            result.setPeakInFlight(peakInFlight);
+            result.setSendLagP99Ms(sendLag.getValueAtPercentile(99) / 1000.0);
+            result.setSendLagMaxMs(sendLag.getMaxValue() / 1000.0);
+
+            Histogram allCorrected = new Histogram(HttpLoadGenerator.HIGHEST_TRACKABLE_MICROS, HttpLoadGenerator.SIGNIFICANT_DIGITS);
+            Histogram allUncorrected = new Histogram(HttpLoadGenerator.HIGHEST_TRACKABLE_MICROS, HttpLoadGenerator.SIGNIFICANT_DIGITS);
+            long failures = 0;
+            long errorResponses = 0;
+            for (Map.Entry<String, NameStats> entry : stats.entrySet()) {
+                NameStats nameStats = entry.getValue();
+                Histogram corrected = nameStats.corrected.getIntervalHistogram();
+                Histogram uncorrected = nameStats.uncorrected.getIntervalHistogram();
+                long nameFailures = nameStats.failures.sum();
+                long nameErrors = nameStats.errorResponses.sum();
+                result.getCorrectedByRequest().add(RequestStats.from(entry.getKey(), corrected, nameFailures, nameErrors));
+                result.getUncorrectedByRequest().add(RequestStats.from(entry.getKey(), uncorrected, nameFailures, nameErrors));
+                allCorrected.add(corrected);
+                allUncorrected.add(uncorrected);
+                failures += nameFailures;
+                errorResponses += nameErrors;
+            }
+            result.setCorrectedHistogram(allCorrected);
+            result.setUncorrectedHistogram(allUncorrected);
+            result.setCorrected(RequestStats.from("All requests", allCorrected, failures, errorResponses));
+            result.setUncorrected(RequestStats.from("All requests", allUncorrected, failures, errorResponses));
+            return result;
+        }
+
+        private class ResponseCallback implements FutureCallback<SimpleHttpResponse> {
+            private final int index;
+            private final long intendedNanos;
+            private final NameStats nameStats;
+            private long sentNanos;
+            private boolean resent;
+
+            ResponseCallback(int index, long intendedNanos) {
+                this.index = index;
+                this.intendedNanos = intendedNanos;
+                this.nameStats = stats.get(scenario.get(index).getName());
+            }
+
+            void dispatch(long sentNanos) {
+                this.sentNanos = sentNanos;
+                client.execute(httpRequests.get(index), this);
+            }
+
+            @Override
+            public void completed(SimpleHttpResponse response) {
+                long now = System.nanoTime();
+                nameStats.corrected.recordValue(micros(now - intendedNanos));
+                nameStats.uncorrected.recordValue(micros(now - sentNanos));
+                if (response.getCode() >= 400) {
+                    nameStats.errorResponses.increment();
+                }
+                inFlight.decrementAndGet();
+            }
+
+            @Override
+            public void failed(Exception ex) {
+                // A pooled connection the server had already closed; nothing reached the server
+                if (ex instanceof RequestNotExecutedException && !resent) {
+                    resent = true;
+                    dispatch(System.nanoTime());
+                    return;
+                }
+                nameStats.failures.increment();
+                logger.debug("Load request failed: {}", ex.toString());
+                inFlight.decrementAndGet();
+            }
+
+            @Override
+            public void cancelled() {
+                inFlight.decrementAndGet();
+            }
+
+            private long micros(long nanos) {
+                return Math.min(HttpLoadGenerator.HIGHEST_TRACKABLE_MICROS, TimeUnit.NANOSECONDS.toMicros(nanos));
+            }
+        }
+    }
+
+    /**
+     * Attach corrected and uncorrected percentiles side by side and, if load.export.history is
+     * set, append the result to the history store
+     */
+    public static void attachToAllure(ArrivalRateResult result) {
+        StringBuilder report = new StringBuilder();
+        report.append("# Arrival Rate: ").append(result.getName()).append("\n\n");
+        report.append(String.format("Target %.0f req/s (%s arrivals%s), achieved %.0f req/s: %d of %d scheduled requests sent, peak %d in flight.%n",
+            result.getTargetRate(), result.getDistribution(),
+            result.getRampMs() > 0 ? String.format(", %ds ramp", result.getRampMs() / 1000) : "",
+            result.getAchievedRate(), result.getSent(), result.getScheduled(), result.getPeakInFlight()));
+        report.append(String.format("Dispatcher lag behind schedule: p99 %.2fms, max %.2fms.%n%n",
+            result.getSendLagP99Ms(), result.getSendLagMaxMs()));
+        report.append("Corrected latency is measured from each request's intended start; uncorrected from when it was actually sent.\n\n");
+        report.append("| Request | View | Count | Errors | p50 (ms) | p90 (ms) | p99 (ms) | Max (ms) |\n");
+        report.append("|---------|------|-------|--------|----------|----------|----------|----------|\n");
+        List<RequestStats> corrected = new ArrayList<>(result.getCorrectedByRequest());
+        List<RequestStats> uncorrected = new ArrayList<>(result.getUncorrectedByRequest());
+        corrected.add(result.getCorrected());
+        uncorrected.add(result.getUncorrected());
+        for (int i = 0; i < corrected.size(); i++) {
+            appendRow(report, corrected.get(i), "corrected");
+            appendRow(report, uncorrected.get(i), "uncorrected");
+        }
+
+        Allure.addAttachment("Arrival Rate - " + result.getName(), "text/markdown",
+            new ByteArrayInputStream(report.toString().getBytes(StandardCharsets.UTF_8)), ".md");
+        Allure.addAttachment("Arrival Rate Percentiles (CSV)", "text/csv",
+            new ByteArrayInputStream(toCsv(result).getBytes(StandardCharsets.UTF_8)), ".csv");
+        Allure.parameter("Arrival Rate (req/s)", String.format("%.0f", result.getTargetRate()));
+        Allure.parameter("Corrected p99 (ms)", String.format("%.1f", result.getCorrected().getP99Ms()));
+
+        if (Boolean.parseBoolean(ConfigManager.getProperty("load.export.history", "false"))) {
+            try {
+                storeHistory(result);
+            } catch (IOException e) {
+                logger.warn("Failed to store arrival rate history", e);
+            }
+        }
+    }
+
+    private static void appendRow(StringBuilder report, RequestStats stats, String view) {
+        report.append(String.format("| %s | %s | %d | %d | %.1f | %.1f | %.1f | %.1f |%n", stats.getName(), view,
+            stats.getRequests(), stats.getErrors(), stats.getP50Ms(), stats.getP90Ms(), stats.getP99Ms(), stats.getMaxMs()));
+    }
+
+    /**
+     * Percentile curves of both views, one row per percentile
+     */
+    private static String toCsv(ArrivalRateResult result) {
+        StringBuilder csv = new StringBuilder("percentile,corrected_ms,uncorrected_ms\n");
+        if (result.getCorrectedHistogram() == null || result.getCorrectedHistogram().getTotalCount() == 0) {
+            return csv.toString();
+        }
+        for (double percentile : new double[] {50, 75, 90, 95, 99, 99.9, 99.99, 100}) {
+            csv.append(String.format("%s,%.2f,%.2f%n", percentile,
+                result.getCorrectedHistogram().getValueAtPercentile(percentile) / 1000.0,
+                result.getUncorrectedHistogram().getValueAtPercentile(percentile) / 1000.0));
+        }
+        return csv.toString();
+    }
+
+    /**
+     * Append to performance-history/<name>_arrival.json, keeping the last 100 runs
+     */
+    private static void storeHistory(ArrivalRateResult result) throws IOException {
+        Files.createDirectories(Paths.get(PERFORMANCE_DATA_DIR));
+        String fileName = result.getName().replaceAll("[^a-zA-Z0-9]", "_") + "_arrival.json";
+        Path filePath = Paths.get(PERFORMANCE_DATA_DIR, fileName);
+
+        List<ArrivalRateResult> history = new ArrayList<>();
+        if (Files.exists(filePath)) {
+            try {
+                history = objectMapper.readValue(Files.readString(filePath), new TypeReference<List<ArrivalRateResult>>(){});
+            } catch (Exception e) {
+                logger.warn("Failed to load existing arrival rate history, starting fresh", e);
+            }
+        }
+        history.add(result);
+        if (history.size() > 100) {
+            history = history.subList(history.size() - 100, history.size());
+        }
+        Files.writeString(filePath, objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(history));
+    }
+}
@@ -0,0 +1,682 @@
+package com.choice.testing.load;
+
+import com.choice.testing.config.ConfigManager;
+import com.choice.testing.drivers.DriverManager;
+import com.choice.testing.pages.ChoiceHotelsHomePage;
+import com.choice.testing.pages.HotelDetailsPage;
+import com.choice.testing.pages.HotelSearchResultsPage;
+import com.choice.testing.utils.ChromeResourceSampler;
+import com.choice.testing.utils.HostContentionGuard;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.qameta.allure.Allure;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Browser-level load: N concurrent headless Chrome users running the page-object journey, so
+ * front-end cost is part of the picture that protocol load misses.
+ *
+ * Each user is a thread with its own driver from DriverManager's ThreadLocal, and therefore its
+ * own debugging port and ChromeResourceSampler. Users join evenly over the ramp and repeat the
+ * journey until the run ends. Step latencies go into HdrHistogram across all users; host CPU and
+ * available memory are sampled every second against the number of active users. Each user
+ * level reached on the ramp is judged sustainable while host CPU, free memory and journey p95
+ * stay within the configured limits, which answers how many users one agent can carry.
+ */
+public class BrowserJourneyLoadRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(BrowserJourneyLoadRunner.class);
+    private static final ObjectMapper objectMapper = new ObjectMapper()
+        .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    private static final String PERFORMANCE_DATA_DIR = "performance-history";
+    private static final long HOST_SAMPLE_INTERVAL_MS = 1000;
+
+    /**
+     * A named part of the journey, run on the user's thread against its own driver
+     */
+    public static class JourneyStep {
+        private final String name;
+        private final Runnable action;
+
+        public JourneyStep(String name, Runnable action) {
+            this.name = name;
+            this.action = action;
+        }
+
+        public String getName() { return name; }
+        public Runnable getAction() { return action; }
+    }
+
+    public static class StepStats {
+        private String name;
+        private long completed;
+        private long failures;
+        private double p50Ms;
+        private double p95Ms;
+        private double p99Ms;
+        private double maxMs;
+
+        // Getters and setters
+        public String getName() { return name; }
+        public void setName(String name) { this.name = name; }
+
+        public long getCompleted() { return completed; }
+        public void setCompleted(long completed) { this.completed = completed; }
+
+        public long getFailures() { return failures; }
+        public void setFailures(long failures) { this.failures = failures; }
+
+        public double getP50Ms() { return p50Ms; }
+        public void setP50Ms(double p50Ms) { this.p50Ms = p50Ms; }
+
+        public double getP95Ms() { return p95Ms; }
+        public void setP95Ms(double p95Ms) { this.p95Ms = p95Ms; }
+
+        public double getP99Ms() { return p99Ms; }
+        public void setP99Ms(double p99Ms) { this.p99Ms = p99Ms; }
+
+        public double getMaxMs() { return maxMs; }
+        public void setMaxMs(double maxMs) { this.maxMs = maxMs; }
+    }
+
+    public static class LevelStats {
+        private int users;
+        private int seconds;
+        private double hostCpuPercent;
+        private double memoryUsedMb;
+        private double freeMemoryMb;
+        private long journeys;
+        private double journeyP50Ms;
+        private double journeyP95Ms;
+        private boolean sustainable;
+        private String limitedBy;
+
+        // Getters and setters
+        // Active browser users while these samples were taken
+        public int getUsers() { return users; }
+        public void setUsers(int users) { this.users = users; }
+
+        public int getSeconds() { return seconds; }
+        public void setSeconds(int seconds) { this.seconds = seconds; }
+
+        public double getHostCpuPercent() { return hostCpuPercent; }
+        public void setHostCpuPercent(double hostCpuPercent) { this.hostCpuPercent = hostCpuPercent; }
+
+        // Drop in host MemAvailable since before the first browser started
+        public double getMemoryUsedMb() { return memoryUsedMb; }
+        public void setMemoryUsedMb(double memoryUsedMb) { this.memoryUsedMb = memoryUsedMb; }
+
+        // Lowest host MemAvailable seen at this level
+        public double getFreeMemoryMb() { return freeMemoryMb; }
+        public void setFreeMemoryMb(double freeMemoryMb) { this.freeMemoryMb = freeMemoryMb; }
+
+        public long getJourneys() { return journeys; }
+        public void setJourneys(long journeys) { this.journeys = journeys; }
+
+        public double getJourneyP50Ms() { return journeyP50Ms; }
+        public void setJourneyP50Ms(double journeyP50Ms) { this.journeyP50Ms = journeyP50Ms; }
+
+        public double getJourneyP95Ms() { return journeyP95Ms; }
+        public void setJourneyP95Ms(double journeyP95Ms) { this.journeyP95Ms = journeyP95Ms; }
+
+        public boolean isSustainable() { return sustainable; }
+        public void setSustainable(boolean sustainable) { this.sustainable = sustainable; }
+
+        public String getLimitedBy() { return limitedBy; }
+        public void setLimitedBy(String limitedBy) { this.limitedBy = limitedBy; }
+    }
+
+    public static class UserStats {
+        private int user;
+        private int debuggingPort;
+        private int journeys;
+        private int failures;
+        private double browserCpuSeconds;
+        private double peakRssMb;
+
+        // Getters and setters
+        public int getUser() { return user; }
+        public void setUser(int user) { this.user = user; }
+
+        public int getDebuggingPort() { return debuggingPort; }
+        public void setDebuggingPort(int debuggingPort) { this.debuggingPort = debuggingPort; }
+
+        public int getJourneys() { return journeys; }
+        public void setJourneys(int journeys) { this.journeys = journeys; }
+
+        public int getFailures() { return failures; }
+        public void setFailures(int failures) { this.failures = failures; }
+
+        // From the user's ChromeResourceSampler; 0 where /proc is not available
+        public double getBrowserCpuSeconds() { return browserCpuSeconds; }
+        public void setBrowserCpuSeconds(double browserCpuSeconds) { this.browserCpuSeconds = browserCpuSeconds; }
+
+        public double getPeakRssMb() { return peakRssMb; }
+        public void setPeakRssMb(double peakRssMb) { this.peakRssMb = peakRssMb; }
+    }
+
+    public static class BrowserLoadResult {
+        private String name;
+        private String timestamp;
+        private int users;
+        private long rampMs;
+        private long durationMs;
+        private double wallClockSeconds;
+        private int sustainableUsers;
+        private String limitedBy;
+        private List<StepStats> steps = new ArrayList<>();
+        private List<LevelStats> levels = new ArrayList<>();
+        private List<UserStats> userStats = new ArrayList<>();
+
+        // Getters and setters
+        public String getName() { return name; }
+        public void setName(String name) { this.name = name; }
+
+        public String getTimestamp() { return timestamp; }
+        public void setTimestamp(String timestamp) { this.timestamp = timestamp; }
+
+        public int getUsers() { return users; }
+        public void setUsers(int users) { this.users = users; }
+
+        public long getRampMs() { return rampMs; }
+        public void setRampMs(long rampMs) { this.rampMs = rampMs; }
+
+        public long getDurationMs() { return durationMs; }
+        public void setDurationMs(long durationMs) { this.durationMs = durationMs; }
+
+        public double getWallClockSeconds() { return wallClockSeconds; }
+        public void setWallClockSeconds(double wallClockSeconds) { this.wallClockSeconds = wallClockSeconds; }
+
+        // Highest user level before the first level that broke a limit
+        public int getSustainableUsers() { return sustainableUsers; }
+        public void setSustainableUsers(int sustainableUsers) { this.sustainableUsers = sustainableUsers; }
+
+        public String getLimitedBy() { return limitedBy; }
+        public void setLimitedBy(String limitedBy) { this.limitedBy = limitedBy; }
+
+        public List<StepStats> getSteps() { return steps; }
+        public void setSteps(List<StepStats> steps) { this.steps = steps; }
+
+        public List<LevelStats> getLevels() { return levels; }
+        public void setLevels(List<LevelStats> levels) { this.levels = levels; }
+
+        public List<UserStats> getUserStats() { return userStats; }
+        public void setUserStats(List<UserStats> userStats) { this.userStats = userStats; }
+    }
+
+    private final int users;
+    private final long rampMs;
+    private final long durationMs;
+    private final long thinkTimeMs;
+    private final List<JourneyStep> journey;
+
+    public BrowserJourneyLoadRunner(int users, long rampMs, long durationMs, long thinkTimeMs, List<JourneyStep> journey) {
+        if (users <= 0 || journey.isEmpty()) {
+            throw new IllegalArgumentException("Browser load needs at least one user and one journey step");
+        }
+        this.users = users;
+        this.rampMs = rampMs;
+        this.durationMs = durationMs;
+        this.thinkTimeMs = thinkTimeMs;
+        this.journey = new ArrayList<>(journey);
+    }
+
+    public static boolean isEnabled() {
+        return Boolean.parseBoolean(System.getProperty("browser.load.enabled",
+            ConfigManager.getProperty("browser.load.enabled", "false")));
+    }
+
+    /**
+     * Runner for the hotel search journey with browser.load.* settings; -Dbrowser.load.users overrides the user count
+     */
+    public static BrowserJourneyLoadRunner fromConfig() {
+        return new BrowserJourneyLoadRunner(
+            Integer.parseInt(System.getProperty("browser.load.users", ConfigManager.getProperty("browser.load.users", "4"))),
+            LoadProfile.parseDurationMs(ConfigManager.getProperty("browser.load.ramp", "60s")),
+            LoadProfile.parseDurationMs(ConfigManager.getProperty("browser.load.duration", "5m")),
+            ConfigManager.getIntProperty("browser.load.think.time.ms", 2000),
+            hotelSearchJourney());
+    }
+
+    /**
+     * Home page search, then a random hotel from the results, then its details page
+     */
+    public static List<JourneyStep> hotelSearchJourney() {
+        String destination = ConfigManager.getProperty("test.destination", "Orlando, FL");
+        int checkinDays = ConfigManager.getIntProperty("test.checkin.days.future", 7);
+        int checkoutDays = ConfigManager.getIntProperty("test.checkout.days.future", 9);
+        int rooms = ConfigManager.getIntProperty("test.rooms", 1);
+        int adults = ConfigManager.getIntProperty("test.adults", 2);
+
+        return Arrays.asList(
+            new JourneyStep("Hotel Search", () -> {
+                ChoiceHotelsHomePage homePage = new ChoiceHotelsHomePage();
+                homePage.navigateToHomePage();
+                homePage.performHotelSearch(destination, checkinDays, checkoutDays, rooms, adults);
+            }),
+            new JourneyStep("Select Hotel", () -> {
+                HotelSearchResultsPage resultsPage = new HotelSearchResultsPage();
+                if (!resultsPage.hasSearchResults()) {
+                    throw new IllegalStateException("No hotels in search results");
+                }
+                resultsPage.selectRandomHotelAndViewDetails();
+            }),
+            new JourneyStep("Hotel Details", () -> {
+                HotelDetailsPage detailsPage = new HotelDetailsPage();
+                detailsPage.waitForPageSettled();
+                if (!detailsPage.isOnHotelDetailsPage()) {
+                    throw new IllegalStateException("Not on a hotel details page: " + detailsPage.getCurrentUrl());
+                }
+            }));
+    }
+
+    public BrowserLoadResult run(String name) {
+        System.out.println(String.format("🌐 Browser load %s: %d headless users over %ds ramp, %ds total",
+            name, users, rampMs / 1000, durationMs / 1000));
+        return new Run().execute(name);
+    }
+
+    private static Histogram newHistogram() {
+        return new Histogram(HttpLoadGenerator.HIGHEST_TRACKABLE_MICROS, HttpLoadGenerator.SIGNIFICANT_DIGITS);
+    }
+
+    private static long micros(long nanos) {
+        return Math.min(HttpLoadGenerator.HIGHEST_TRACKABLE_MICROS, TimeUnit.NANOSECONDS.toMicros(nanos));
+    }
+
+    private static class HostSample {
+        final int users;
+        final double cpuPercent;
+        final double memAvailableMb;
+
+        HostSample(int users, double cpuPercent, double memAvailableMb) {
+            this.users = users;
+            this.cpuPercent = cpuPercent;
+            this.memAvailableMb = memAvailableMb;
+        }
+    }
+
+    private class Run {
+        private final Map<String, Recorder> stepLatencies = new LinkedHashMap<>();
+        private final Map<String, AtomicInteger> stepFailures = new LinkedHashMap<>();
+        // Journey durations keyed by the number of active users when the journey started
+        private final Map<Integer, Recorder> journeysByLevel = new ConcurrentHashMap<>();
+        private final List<HostSample> hostSamples = new ArrayList<>();
+        private final List<UserStats> userStats = new ArrayList<>();
+        private final AtomicInteger activeUsers = new AtomicInteger();
+        private volatile boolean running = true;
+        private long deadlineNanos;
+
+        Run() {
+            for (JourneyStep step : journey) {
+                stepLatencies.put(step.getName(), new Recorder(HttpLoadGenerator.HIGHEST_TRACKABLE_MICROS, HttpLoadGenerator.SIGNIFICANT_DIGITS));
+                stepFailures.put(step.getName(), new AtomicInteger());
+            }
+        }
+
+        BrowserLoadResult execute(String name) {
+            long startNanos = System.nanoTime();
+            deadlineNanos = startNanos + TimeUnit.MILLISECONDS.toNanos(durationMs);
+            double baselineMemAvailableMb = readMemAvailableMb();
+
+            Thread hostSampler = new Thread(this::sampleHost, "browser-load-host-sampler");
+            hostSampler.setDaemon(true);
+            hostSampler.start();
+
+            ExecutorService userThreads = Executors.newFixedThreadPool(users, runnable -> {
+                Thread thread = new Thread(runnable, "browser-load-user");
+                thread.setDaemon(true);
+                return thread;
+            });
+            for (int user = 0; user < users; user++) {
+                int id = user + 1;
+                long startDelayMs = users > 1 ? rampMs * user / users : 0;
+                userThreads.execute(() -> runUser(id, startDelayMs));
+            }
+
+            userThreads.shutdown();
+            try {
+                // Users finish their current journey after the deadline, then quit their browsers
+                if (!userThreads.awaitTermination(durationMs + TimeUnit.MINUTES.toMillis(5), TimeUnit.MILLISECONDS)) {
+                    logger.warn("Browser users did not finish in time, abandoning them");
+                    userThreads.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                userThreads.shutdownNow();
+            }
+            running = false;
+            hostSampler.interrupt();
+
+            return buildResult(name, baselineMemAvailableMb, (System.nanoTime() - startNanos) / 1e9);
+        }
+
+        private void runUser(int id, long startDelayMs) {
+            UserStats stats = new UserStats();
+            stats.setUser(id);
+            try {
+                Thread.sleep(startDelayMs);
+                if (System.nanoTime() >= deadlineNanos) {
+                    return;
+                }
+                DriverManager.initializeWebDriver("chrome", true);
+                stats.setDebuggingPort(DriverManager.getDebuggingPort());
+                ChromeResourceSampler.startForCurrentSession();
+                activeUsers.incrementAndGet();
+                try {
+                    while (running && System.nanoTime() < deadlineNanos) {
+                        if (runJourney()) {
+                            stats.setJourneys(stats.getJourneys() + 1);
+                        } else {
+                            stats.setFailures(stats.getFailures() + 1);
+                        }
+                        Thread.sleep(thinkTimeMs);
+                    }
+                } finally {
+                    activeUsers.decrementAndGet();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                logger.warn("Browser user {} could not start: {}", id, e.getMessage());
+            } finally {
+                ChromeResourceSampler.ResourceReport report = ChromeResourceSampler.stopCurrent();
+                if (report != null) {
+                    stats.setBrowserCpuSeconds(report.getTotalCpuSeconds());
+                    stats.setPeakRssMb(report.getPeakRssMb());
+                }
+                try {
+                    DriverManager.quitWebDriver();
+                } catch (Exception e) {
+                    logger.debug("Browser user {} quit failed: {}", id, e.getMessage());
+                }
+                synchronized (userStats) {
+                    userStats.add(stats);
+                }
+            }
+        }
+
+        /**
+         * One pass through the journey; a failed step ends the pass
+         */
+        private boolean runJourney() {
+            int level = activeUsers.get();
+            long journeyStart = System.nanoTime();
+            for (JourneyStep step : journey) {
+                ChromeResourceSampler.markStep(step.getName());
+                long stepStart = System.nanoTime();
+                try {
+                    step.getAction().run();
+                } catch (Exception e) {
+                    stepFailures.get(step.getName()).incrementAndGet();
+                    logger.debug("Journey step {} failed: {}", step.getName(), e.getMessage());
+                    return false;
+                }
+                stepLatencies.get(step.getName()).recordValue(micros(System.nanoTime() - stepStart));
+            }
+            journeysByLevel.computeIfAbsent(level,
+                key -> new Recorder(HttpLoadGenerator.HIGHEST_TRACKABLE_MICROS, HttpLoadGenerator.SIGNIFICANT_DIGITS))
+                .recordValue(micros(System.nanoTime() - journeyStart));
+            return true;
+        }
+
+        private void sampleHost() {
+            long[] previous = readCpuTicks();
+            while (running) {
+                try {
+                    Thread.sleep(HOST_SAMPLE_INTERVAL_MS);
+                } catch (InterruptedException e) {
+                    return;
+                }
+                long[] current = readCpuTicks();
+                double cpuPercent = 0;
+                if (previous != null && current != null) {
+                    long total = 0;
+                    for (int i = 0; i < current.length; i++) {
+                        total += current[i] - previous[i];
+                    }
+                    // idle and iowait
+                    long idle = (current[3] - previous[3]) + (current.length > 4 ? current[4] - previous[4] : 0);
+                    cpuPercent = total > 0 ? (total - idle) * 100.0 / total : 0;
+                }
+                previous = current;
+                synchronized (hostSamples) {
+                    hostSamples.add(new HostSample(activeUsers.get(), cpuPercent, readMemAvailableMb()));
+                }
+            }
+        }
+
+        private BrowserLoadResult buildResult(String name, double baselineMemAvailableMb, double wallClockSeconds) {
+            BrowserLoadResult result = new BrowserLoadResult();
+            result.setName(name);
+            result.setTimestamp(LocalDateTime.now().toString());
+            result.setUsers(users);
+            result.setRampMs(rampMs);
+            result.setDurationMs(durationMs);
+            result.setWallClockSeconds(wallClockSeconds);
+
+            for (Map.Entry<String, Recorder> entry : stepLatencies.entrySet()) {
+                Histogram histogram = entry.getValue().getIntervalHistogram();
+                StepStats stats = new StepStats();
+                stats.setName(entry.getKey());
+                stats.setCompleted(histogram.getTotalCount());
+                stats.setFailures(stepFailures.get(entry.getKey()).get());
+                if (histogram.getTotalCount() > 0) {
+                    stats.setP50Ms(histogram.getValueAtPercentile(50) / 1000.0);
+                    stats.setP95Ms(histogram.getValueAtPercentile(95) / 1000.0);
+                    stats.setP99Ms(histogram.getValueAtPercentile(99) / 1000.0);
+                    stats.setMaxMs(histogram.getMaxValue() / 1000.0);
+                }
+                result.getSteps().add(stats);
+            }
+
+            userStats.sort((a, b) -> Integer.compare(a.getUser(), b.getUser()));
+            result.setUserStats(userStats);
+            result.setLevels(buildLevels(baselineMemAvailableMb));
+            judgeCapacity(result);
+            return result;
+        }
+
+        private List<LevelStats> buildLevels(double baselineMemAvailableMb) {
+            Map<Integer, List<HostSample>> samplesByLevel = new TreeMap<>();
+            for (HostSample sample : hostSamples) {
+                if (sample.users > 0) {
+                    samplesByLevel.computeIfAbsent(sample.users, key -> new ArrayList<>()).add(sample);
+                }
+            }
+
+            List<LevelStats> levels = new ArrayList<>();
+            for (Map.Entry<Integer, List<HostSample>> entry : samplesByLevel.entrySet()) {
+                LevelStats level = new LevelStats();
+                level.setUsers(entry.getKey());
+                level.setSeconds(entry.getValue().size());
+                double cpu = 0;
+                double minMemAvailable = Double.MAX_VALUE;
+                for (HostSample sample : entry.getValue()) {
+                    cpu += sample.cpuPercent;
+                    minMemAvailable = Math.min(minMemAvailable, sample.memAvailableMb);
+                }
+                level.setHostCpuPercent(cpu / entry.getValue().size());
+                level.setMemoryUsedMb(Math.max(0, baselineMemAvailableMb - minMemAvailable));
+                level.setFreeMemoryMb(minMemAvailable);
+
+                Recorder journeys = journeysByLevel.get(entry.getKey());
+                Histogram histogram = journeys != null ? journeys.getIntervalHistogram() : newHistogram();
+                level.setJourneys(histogram.getTotalCount());
+                if (histogram.getTotalCount() > 0) {
+                    level.setJourneyP50Ms(histogram.getValueAtPercentile(50) / 1000.0);
+                    level.setJourneyP95Ms(histogram.getValueAtPercentile(95) / 1000.0);
+                }
+                levels.add(level);
+            }
+            return levels;
+        }
+    }
+
+    /**
+     * Mark each level sustainable or not against browser.load.max.cpu.percent,
+     * browser.load.min.free.memory.mb and browser.load.max.degradation (journey p95 relative to
+     * the lowest level that completed journeys), and set the highest level before the first failure
+     */
+    static void judgeCapacity(BrowserLoadResult result) {
+        double maxCpuPercent = Double.parseDouble(ConfigManager.getProperty("browser.load.max.cpu.percent", "85"));
+        double minFreeMemoryMb = Double.parseDouble(ConfigManager.getProperty("browser.load.min.free.memory.mb", "1024"));
+        double maxDegradation = Double.parseDouble(ConfigManager.getProperty("browser.load.max.degradation", "1.5"));
+
+        double baselineP95 = 0;
+        for (LevelStats level : result.getLevels()) {
+            if (level.getJourneys() > 0) {
+                baselineP95 = level.getJourneyP95Ms();
+                break;
+            }
+        }
+
+        result.setSustainableUsers(0);
+        for (LevelStats level : result.getLevels()) {
+            List<String> limits = new ArrayList<>();
+            if (level.getHostCpuPercent() > maxCpuPercent) {
+                limits.add(String.format("CPU %.0f%% > %.0f%%", level.getHostCpuPercent(), maxCpuPercent));
+            }
+            // MemAvailable reads 0 off Linux, which says nothing about this level
+            if (level.getFreeMemoryMb() > 0 && level.getFreeMemoryMb() < minFreeMemoryMb) {
+                limits.add(String.format("free memory below %.0fMB", minFreeMemoryMb));
+            }
+            if (baselineP95 > 0 && level.getJourneys() > 0 && level.getJourneyP95Ms() > baselineP95 * maxDegradation) {
+                limits.add(String.format("journey p95 %.1fx the lowest level", level.getJourneyP95Ms() / baselineP95));
+            }
+            level.setSustainable(limits.isEmpty());
+            level.setLimitedBy(limits.isEmpty() ? null : String.join(", ", limits));
+
+            if (level.isSustainable() && result.getLimitedBy() == null) {
+                result.setSustainableUsers(level.getUsers());
+            } else if (!level.isSustainable() && result.getLimitedBy() == null) {
+                result.setLimitedBy(level.getUsers() + " users: " + level.getLimitedBy());
+            }
+        }
+    }
+
+    private static long[] readCpuTicks() {
+        try {
+            return HostContentionGuard.readAggregateCpuTicks();
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private static double readMemAvailableMb() {
+        try {
+            return HostContentionGuard.readMemAvailableKb() / 1024.0;
+        } catch (Exception e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Attach step percentiles, the per-level capacity table and per-user browser usage to Allure
+     * and, if load.export.history is set, append the result to the history store
+     */
+    public static void attachToAllure(BrowserLoadResult result) {
+        StringBuilder report = new StringBuilder();
+        report.append("# Browser Journey Load: ").append(result.getName()).append("\n\n");
+        report.append(String.format("%d headless users, %ds ramp, %ds run (%.0fs wall clock).%n%n",
+            result.getUsers(), result.getRampMs() / 1000, result.getDurationMs() / 1000, result.getWallClockSeconds()));
+        report.append(String.format("**Sustainable users on this agent: %d**%s%n%n", result.getSustainableUsers(),
+            result.getLimitedBy() != null ? " (limit reached at " + result.getLimitedBy() + ")" : " (no limit reached)"));
+
+        report.append("## Step Latency Across Users\n\n");
+        report.append("| Step | Completed | Failures | p50 (ms) | p95 (ms) | p99 (ms) | Max (ms) |\n");
+        report.append("|------|-----------|----------|----------|----------|----------|----------|\n");
+        for (StepStats step : result.getSteps()) {
+            report.append(String.format("| %s | %d | %d | %.0f | %.0f | %.0f | %.0f |%n", step.getName(), step.getCompleted(),
+                step.getFailures(), step.getP50Ms(), step.getP95Ms(), step.getP99Ms(), step.getMaxMs()));
+        }
+
+        report.append("\n## Capacity by Active Users\n\n");
+        report.append("| Users | Seconds | Host CPU (%) | Memory Used (MB) | Journeys | Journey p50 (ms) | Journey p95 (ms) | Sustainable |\n");
+        report.append("|-------|---------|--------------|------------------|----------|------------------|------------------|-------------|\n");
+        for (LevelStats level : result.getLevels()) {
+            report.append(String.format("| %d | %d | %.0f | %.0f | %d | %.0f | %.0f | %s |%n", level.getUsers(), level.getSeconds(),
+                level.getHostCpuPercent(), level.getMemoryUsedMb(), level.getJourneys(), level.getJourneyP50Ms(),
+                level.getJourneyP95Ms(), level.isSustainable() ? "✅" : "❌ " + level.getLimitedBy()));
+        }
+
+        report.append("\n## Browsers\n\n");
+        report.append("| User | Port | Journeys | Failures | Browser CPU (s) | Peak RSS (MB) |\n");
+        report.append("|------|------|----------|----------|-----------------|---------------|\n");
+        for (UserStats user : result.getUserStats()) {
+            report.append(String.format("| %d | %d | %d | %d | %.1f | %.0f |%n", user.getUser(), user.getDebuggingPort(),
+                user.getJourneys(), user.getFailures(), user.getBrowserCpuSeconds(), user.getPeakRssMb()));
+        }
+
+        Allure.addAttachment("Browser Load - " + result.getName(), "text/markdown",
+            new ByteArrayInputStream(report.toString().getBytes(StandardCharsets.UTF_8)), ".md");
+        Allure.addAttachment("Browser Load Levels (CSV)", "text/csv",
+            new ByteArrayInputStream(toCsv(result).getBytes(StandardCharsets.UTF_8)), ".csv");
+        Allure.parameter("Browser Users", result.getUsers());
+        Allure.parameter("Sustainable Users", result.getSustainableUsers());
+
+        if (Boolean.parseBoolean(ConfigManager.getProperty("load.export.history", "false"))) {
+            try {
+                storeHistory(result);
+            } catch (IOException e) {
+                logger.warn("Failed to store browser load history", e);
+            }
+        }
+    }
+
+    private static String toCsv(BrowserLoadResult result) {
+        StringBuilder csv = new StringBuilder("users,seconds,host_cpu_percent,memory_used_mb,journeys,journey_p50_ms,journey_p95_ms,sustainable\n");
+        for (LevelStats level : result.getLevels()) {
+            csv.append(String.format("%d,%d,%.1f,%.0f,%d,%.0f,%.0f,%s%n", level.getUsers(), level.getSeconds(),
+                level.getHostCpuPercent(), level.getMemoryUsedMb(), level.getJourneys(), level.getJourneyP50Ms(),
+                level.getJourneyP95Ms(), level.isSustainable()));
+        }
+        return csv.toString();
+    }
+
+    /**
+     * Append to performance-history/<name>_browser_load.json, keeping the last 100 runs
+     */
+    private static void storeHistory(BrowserLoadResult result) throws IOException {
+        Files.createDirectories(Paths.get(PERFORMANCE_DATA_DIR));
+        String fileName = result.getName().replaceAll("[^a-zA-Z0-9]", "_") + "_browser_load.json";
+        Path filePath = Paths.get(PERFORMANCE_DATA_DIR, fileName);
+
+        List<BrowserLoadResult> history = new ArrayList<>();
+        if (Files.exists(filePath)) {
+            try {
+                history = objectMapper.readValue(Files.readString(filePath), new TypeReference<List<BrowserLoadResult>>(){});
+            } catch (Exception e) {
+                logger.warn("Failed to load existing browser load history, starting fresh", e);
+            }
+        }
+        history.add(result);
+        if (history.size() > 100) {
+            history = history.subList(history.size() - 100, history.size());
+        }
+        Files.writeString(filePath, objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(history));
+    }
+}
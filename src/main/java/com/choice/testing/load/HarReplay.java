@@ -0,0 +1,839 @@
+package com.choice.testing.load;
+
+import com.choice.testing.config.ConfigManager;
+import com.choice.testing.load.HttpLoadGenerator.IntervalSample;
+import com.choice.testing.load.HttpLoadGenerator.LoadResult;
+import com.choice.testing.load.HttpLoadGenerator.RequestStats;
+import io.qameta.allure.Allure;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.apache.hc.client5.http.async.methods.SimpleHttpResponse;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.RequestNotExecutedException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.UnaryOperator;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Protocol-level replay of a recorded browser journey: each virtual user walks the HarScript
+ * with its recorded dependencies and gaps, so the backend sees the request mix, parallelism and
+ * pacing of real browser traffic at a concurrency browsers could never reach.
+ *
+ * Dynamic values are handled per user session. Extractors read live responses (a token, a
+ * cookie) into the session and rewriters apply the session to each request before it is sent.
+ * Built in are correlations (a regex whose recorded value is swapped for the live one), a cookie
+ * jar and a date shift that keeps recorded check-in dates in the future.
+ *
+ * Requests go through HttpLoadGenerator's pooled client and results come back as its LoadResult,
+ * so the report and history match protocol load runs.
+ */
+public class HarReplay {
+
+    private static final Logger logger = LoggerFactory.getLogger(HarReplay.class);
+    private static final long TICK_MS = 50;
+    private static final long SAMPLE_INTERVAL_MS = 1000;
+    private static final int BROWSER_CONNECTIONS_PER_HOST = 6;
+    private static final Pattern ISO_DATE = Pattern.compile("\\b(\\d{4}-\\d{2}-\\d{2})\\b");
+
+    /**
+     * A live response as seen by extractors
+     */
+    public static class ReplayResponse {
+        private final int status;
+        private final Map<String, List<String>> headers;
+        private final String body;
+
+        public ReplayResponse(int status, Map<String, List<String>> headers, String body) {
+            this.status = status;
+            this.headers = headers;
+            this.body = body;
+        }
+
+        static ReplayResponse from(SimpleHttpResponse response) {
+            Map<String, List<String>> headers = new LinkedHashMap<>();
+            for (Header header : response.getHeaders()) {
+                headers.computeIfAbsent(header.getName().toLowerCase(Locale.ROOT), key -> new ArrayList<>()).add(header.getValue());
+            }
+            return new ReplayResponse(response.getCode(), headers, response.getBodyText());
+        }
+
+        public int getStatus() { return status; }
+
+        // Lowercase header names
+        public Map<String, List<String>> getHeaders() { return headers; }
+
+        public List<String> getHeaders(String name) {
+            return headers.getOrDefault(name.toLowerCase(Locale.ROOT), Collections.emptyList());
+        }
+
+        // Null for an empty body
+        public String getBody() { return body; }
+
+        /**
+         * Headers as "name: value" lines followed by the body, the text correlations search
+         */
+        String searchableText() {
+            StringBuilder text = new StringBuilder();
+            headers.forEach((name, values) -> values.forEach(value -> text.append(name).append(": ").append(value).append('\n')));
+            if (body != null) {
+                text.append(body);
+            }
+            return text.toString();
+        }
+    }
+
+    /**
+     * Reads dynamic values out of a live response into the user's session. Called on the
+     * client's I/O threads, possibly for parallel responses of one user at once.
+     */
+    public interface Extractor {
+        void extract(HarScript.Entry entry, ReplayResponse response, Map<String, String> session);
+    }
+
+    /**
+     * Returns the request to send in place of the recorded one, given the user's session
+     */
+    public interface Rewriter {
+        LoadRequest rewrite(LoadRequest request, Map<String, String> session);
+    }
+
+    /**
+     * Swaps a recorded dynamic value for the one the live server issued to this user. The
+     * recorded value is the first match of the regex's first group in the recorded responses;
+     * the live value is its latest match in this user's responses. "${name}" in a request is
+     * replaced too, for HARs recorded without response bodies.
+     */
+    public static class Correlation implements Extractor, Rewriter {
+        private final String name;
+        private final Pattern pattern;
+        private String recordedValue;
+        private final LongAdder extracted = new LongAdder();
+
+        public Correlation(String name, String regex) {
+            this.name = name;
+            this.pattern = Pattern.compile(regex);
+        }
+
+        void learn(HarScript script) {
+            for (HarScript.Entry entry : script.getEntries()) {
+                Matcher matcher = pattern.matcher(new ReplayResponse(entry.getRecordedStatus(),
+                    entry.getRecordedResponseHeaders(), entry.getRecordedResponseBody()).searchableText());
+                if (matcher.find()) {
+                    recordedValue = matcher.group(1);
+                    return;
+                }
+            }
+            logger.warn("Correlation {} matched no recorded response, only its placeholder will be rewritten", name);
+        }
+
+        @Override
+        public void extract(HarScript.Entry entry, ReplayResponse response, Map<String, String> session) {
+            Matcher matcher = pattern.matcher(response.searchableText());
+            if (matcher.find()) {
+                session.put(name, matcher.group(1));
+                extracted.increment();
+            }
+        }
+
+        @Override
+        public LoadRequest rewrite(LoadRequest request, Map<String, String> session) {
+            String live = session.get(name);
+            if (live == null) {
+                return request;
+            }
+            return mapText(request, text -> {
+                String rewritten = text.replace("${" + name + "}", live);
+                if (recordedValue != null && !recordedValue.isEmpty()) {
+                    rewritten = rewritten.replace(recordedValue, live)
+                        .replace(URLEncoder.encode(recordedValue, StandardCharsets.UTF_8), URLEncoder.encode(live, StandardCharsets.UTF_8));
+                }
+                return rewritten;
+            });
+        }
+
+        public String getName() { return name; }
+        public String getRecordedValue() { return recordedValue; }
+        public long getExtracted() { return extracted.sum(); }
+    }
+
+    /**
+     * Per-user cookies from Set-Cookie, sent on later requests over the recorded Cookie header
+     */
+    public static class CookieJar implements Extractor, Rewriter {
+        private static final String PREFIX = "cookie.";
+
+        @Override
+        public void extract(HarScript.Entry entry, ReplayResponse response, Map<String, String> session) {
+            for (String setCookie : response.getHeaders("set-cookie")) {
+                String pair = setCookie.split(";", 2)[0];
+                int equals = pair.indexOf('=');
+                if (equals > 0) {
+                    session.put(PREFIX + pair.substring(0, equals).trim(), pair.substring(equals + 1).trim());
+                }
+            }
+        }
+
+        @Override
+        public LoadRequest rewrite(LoadRequest request, Map<String, String> session) {
+            Map<String, String> cookies = new LinkedHashMap<>();
+            String recordedHeader = null;
+            for (Map.Entry<String, String> header : request.getHeaders().entrySet()) {
+                if ("cookie".equalsIgnoreCase(header.getKey())) {
+                    recordedHeader = header.getKey();
+                    for (String pair : header.getValue().split(";")) {
+                        int equals = pair.indexOf('=');
+                        if (equals > 0) {
+                            cookies.put(pair.substring(0, equals).trim(), pair.substring(equals + 1).trim());
+                        }
+                    }
+                }
+            }
+            boolean live = false;
+            for (Map.Entry<String, String> value : session.entrySet()) {
+                if (value.getKey().startsWith(PREFIX)) {
+                    cookies.put(value.getKey().substring(PREFIX.length()), value.getValue());
+                    live = true;
+                }
+            }
+            if (!live) {
+                return request;
+            }
+            Map<String, String> headers = new LinkedHashMap<>(request.getHeaders());
+            if (recordedHeader != null) {
+                headers.remove(recordedHeader);
+            }
+            headers.put("Cookie", cookies.entrySet().stream()
+                .map(cookie -> cookie.getKey() + "=" + cookie.getValue()).collect(Collectors.joining("; ")));
+            return new LoadRequest(request.getName(), request.getMethod(), request.getUrl(), headers,
+                request.getBody(), request.getContentType());
+        }
+    }
+
+    /**
+     * Moves every yyyy-MM-dd date in URLs and bodies by the days since the recording, so
+     * check-in and check-out dates stay the same distance in the future
+     */
+    public static Rewriter shiftDates(LocalDate recordedOn, LocalDate replayedOn) {
+        long days = ChronoUnit.DAYS.between(recordedOn, replayedOn);
+        UnaryOperator<String> shift = text -> {
+            Matcher matcher = ISO_DATE.matcher(text);
+            StringBuffer shifted = new StringBuffer();
+            while (matcher.find()) {
+                String replacement;
+                try {
+                    replacement = LocalDate.parse(matcher.group(1)).plusDays(days).toString();
+                } catch (DateTimeParseException e) {
+                    replacement = matcher.group(1);
+                }
+                matcher.appendReplacement(shifted, replacement);
+            }
+            matcher.appendTail(shifted);
+            return shifted.toString();
+        };
+        return (request, session) -> days == 0 ? request : new LoadRequest(request.getName(), request.getMethod(),
+            shift.apply(request.getUrl()), request.getHeaders(),
+            request.getBody() != null ? shift.apply(request.getBody()) : null, request.getContentType());
+    }
+
+    /**
+     * The request with the operator applied to its URL, header values and body
+     */
+    static LoadRequest mapText(LoadRequest request, UnaryOperator<String> operator) {
+        Map<String, String> headers = new LinkedHashMap<>();
+        request.getHeaders().forEach((name, value) -> headers.put(name, operator.apply(value)));
+        return new LoadRequest(request.getName(), request.getMethod(), operator.apply(request.getUrl()), headers,
+            request.getBody() != null ? operator.apply(request.getBody()) : null, request.getContentType());
+    }
+
+    public static class ReplayResult {
+        private String name;
+        private int scriptEntries;
+        private int skippedEntries;
+        private int longestChain;
+        private double recordedDurationMs;
+        private double timeScale;
+        private long iterationsStarted;
+        private long iterationsCompleted;
+        private double meanIterationMs;
+        private long statusMismatches;
+        private Map<String, Long> correlations = new LinkedHashMap<>();
+        private LoadResult load;
+
+        // Getters and setters
+        public String getName() { return name; }
+        public void setName(String name) { this.name = name; }
+
+        public int getScriptEntries() { return scriptEntries; }
+        public void setScriptEntries(int scriptEntries) { this.scriptEntries = scriptEntries; }
+
+        public int getSkippedEntries() { return skippedEntries; }
+        public void setSkippedEntries(int skippedEntries) { this.skippedEntries = skippedEntries; }
+
+        public int getLongestChain() { return longestChain; }
+        public void setLongestChain(int longestChain) { this.longestChain = longestChain; }
+
+        public double getRecordedDurationMs() { return recordedDurationMs; }
+        public void setRecordedDurationMs(double recordedDurationMs) { this.recordedDurationMs = recordedDurationMs; }
+
+        public double getTimeScale() { return timeScale; }
+        public void setTimeScale(double timeScale) { this.timeScale = timeScale; }
+
+        public long getIterationsStarted() { return iterationsStarted; }
+        public void setIterationsStarted(long iterationsStarted) { this.iterationsStarted = iterationsStarted; }
+
+        public long getIterationsCompleted() { return iterationsCompleted; }
+        public void setIterationsCompleted(long iterationsCompleted) { this.iterationsCompleted = iterationsCompleted; }
+
+        public double getMeanIterationMs() { return meanIterationMs; }
+        public void setMeanIterationMs(double meanIterationMs) { this.meanIterationMs = meanIterationMs; }
+
+        // Responses whose status class differs from the recording, usually a missing correlation
+        public long getStatusMismatches() { return statusMismatches; }
+        public void setStatusMismatches(long statusMismatches) { this.statusMismatches = statusMismatches; }
+
+        // Live values extracted per correlation
+        public Map<String, Long> getCorrelations() { return correlations; }
+        public void setCorrelations(Map<String, Long> correlations) { this.correlations = correlations; }
+
+        public LoadResult getLoad() { return load; }
+        public void setLoad(LoadResult load) { this.load = load; }
+    }
+
+    private final HarScript script;
+    private final LoadProfile profile;
+    private final double timeScale;
+    private final long iterationPauseMs;
+    private final int maxConnections;
+    private final long timeoutMs;
+    private final List<Extractor> extractors = new ArrayList<>();
+    private final List<Rewriter> rewriters = new ArrayList<>();
+    private final List<Correlation> correlations = new ArrayList<>();
+
+    /**
+     * @param profile ramp or step profile; users replay the journey back to back rather than at a request rate
+     * @param timeScale multiplier on recorded gaps: 1 keeps the recorded think time, 0 sends each
+     *                  request as soon as its dependency completes
+     * @param iterationPauseMs pause between a user's journeys
+     * @param maxConnections pool size; 0 allows each user as many connections as a browser would use
+     */
+    public HarReplay(HarScript script, LoadProfile profile, double timeScale, long iterationPauseMs, int maxConnections, long timeoutMs) {
+        if (profile.getKind() == LoadProfile.Kind.RATE) {
+            throw new IllegalArgumentException("HAR replay keeps the recorded pacing, use a ramp or step profile");
+        }
+        this.script = script;
+        this.profile = profile;
+        this.timeScale = Math.max(0, timeScale);
+        this.iterationPauseMs = iterationPauseMs;
+        this.maxConnections = maxConnections > 0 ? maxConnections
+            : Math.max(1, profile.peakUsers()) * Math.min(BROWSER_CONNECTIONS_PER_HOST, maxParallelRequests(script));
+        this.timeoutMs = timeoutMs;
+    }
+
+    private static int maxParallelRequests(HarScript script) {
+        int parallel = script.getRoots().size();
+        for (HarScript.Entry entry : script.getEntries()) {
+            parallel = Math.max(parallel, entry.getDependents().size());
+        }
+        return Math.max(1, parallel);
+    }
+
+    /**
+     * Swap the recorded value of a regex's first group for each user's live value
+     */
+    public HarReplay correlate(String name, String regex) {
+        Correlation correlation = new Correlation(name, regex);
+        correlation.learn(script);
+        correlations.add(correlation);
+        extractors.add(correlation);
+        rewriters.add(correlation);
+        return this;
+    }
+
+    public HarReplay withCookies() {
+        CookieJar cookieJar = new CookieJar();
+        extractors.add(cookieJar);
+        rewriters.add(cookieJar);
+        return this;
+    }
+
+    public HarReplay withDateShift() {
+        rewriters.add(shiftDates(LocalDate.ofInstant(script.getRecordedAt(), ZoneId.systemDefault()), LocalDate.now()));
+        return this;
+    }
+
+    public HarReplay addExtractor(Extractor extractor) {
+        extractors.add(extractor);
+        return this;
+    }
+
+    public HarReplay addRewriter(Rewriter rewriter) {
+        rewriters.add(rewriter);
+        return this;
+    }
+
+    public static boolean isEnabled() {
+        return Boolean.parseBoolean(System.getProperty("har.replay.enabled",
+            ConfigManager.getProperty("har.replay.enabled", "false")));
+    }
+
+    /**
+     * Replay of har.replay.file with the har.replay.* settings; -Dhar.replay.file and
+     * -Dhar.replay.profile override the configured ones
+     */
+    public static HarReplay fromConfig() throws IOException {
+        String harFile = System.getProperty("har.replay.file", ConfigManager.getProperty("har.replay.file", ""));
+        if (harFile.trim().isEmpty()) {
+            throw new IllegalArgumentException("har.replay.file is not set");
+        }
+        HarScript script = HarScript.load(Paths.get(harFile.trim()),
+            csvSet(ConfigManager.getProperty("har.replay.hosts", "")),
+            csvSet(ConfigManager.getProperty("har.replay.resource.types", "Document,XHR,Fetch")));
+        LoadProfile profile = LoadProfile.parse(System.getProperty("har.replay.profile",
+            ConfigManager.getProperty("har.replay.profile", "ramp:users=100,ramp=60s,hold=120s")));
+
+        HarReplay replay = new HarReplay(script, profile,
+            Double.parseDouble(ConfigManager.getProperty("har.replay.time.scale", "1.0")),
+            ConfigManager.getIntProperty("har.replay.iteration.pause.ms", 5000),
+            ConfigManager.getIntProperty("har.replay.max.connections", 0),
+            ConfigManager.getIntProperty("load.timeout.ms", 30000));
+        if (Boolean.parseBoolean(ConfigManager.getProperty("har.replay.cookies", "true"))) {
+            replay.withCookies();
+        }
+        if (Boolean.parseBoolean(ConfigManager.getProperty("har.replay.shift.dates", "true"))) {
+            replay.withDateShift();
+        }
+        // ';'-separated name=regex entries
+        for (String correlation : ConfigManager.getProperty("har.replay.correlations", "").split(";")) {
+            int equals = correlation.indexOf('=');
+            if (equals > 0) {
+                replay.correlate(correlation.substring(0, equals).trim(), correlation.substring(equals + 1).trim());
+            }
+        }
+        return replay;
+    }
+
+    private static Set<String> csvSet(String value) {
+        Set<String> values = new HashSet<>();
+        for (String part : value.split(",")) {
+            if (!part.trim().isEmpty() && !"all".equalsIgnoreCase(part.trim())) {
+                values.add(part.trim());
+            }
+        }
+        return values;
+    }
+
+    public HarScript getScript() {
+        return script;
+    }
+
+    public ReplayResult run(String name) {
+        System.out.println(String.format("🎞️ HAR replay %s: %d requests per journey (longest chain %d, %.1fs recorded) at %s, time scale %.2f",
+            name, script.getEntries().size(), script.getLongestChain(), script.getDurationMs() / 1000, profile, timeScale));
+        try (CloseableHttpAsyncClient client = HttpLoadGenerator.buildClient(maxConnections, timeoutMs)) {
+            client.start();
+            ReplayResult result = new Run(client).execute(name);
+
+            System.out.println(String.format("🎞️ %s: %d journeys completed, %d requests, %.0f req/s, p95 %.0fms, %d errors, %d status mismatches",
+                name, result.getIterationsCompleted(), result.getLoad().getOverall().getRequests(),
+                result.getLoad().getThroughputPerSecond(), result.getLoad().getOverall().getP95Ms(),
+                result.getLoad().getOverall().getErrors(), result.getStatusMismatches()));
+            return result;
+        } catch (IOException e) {
+            throw new IllegalStateException("HAR replay " + name + " failed to close its client", e);
+        }
+    }
+
+    private static class NameStats {
+        final Recorder recorder = new Recorder(HttpLoadGenerator.HIGHEST_TRACKABLE_MICROS, HttpLoadGenerator.SIGNIFICANT_DIGITS);
+        final LongAdder errorResponses = new LongAdder();
+        final LongAdder failures = new LongAdder();
+        final Histogram cumulative = new Histogram(HttpLoadGenerator.HIGHEST_TRACKABLE_MICROS, HttpLoadGenerator.SIGNIFICANT_DIGITS);
+        Histogram interval;
+        long totalErrorResponses;
+        long totalFailures;
+    }
+
+    /**
+     * State of one replay; the controller loop runs on the calling thread
+     */
+    private class Run {
+        private final CloseableHttpAsyncClient client;
+        private final Map<String, NameStats> stats = new LinkedHashMap<>();
+        private final ScheduledExecutorService scheduler;
+        private final AtomicInteger activeUsers = new AtomicInteger();
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicInteger peakInFlight = new AtomicInteger();
+        private final LongAdder iterationsStarted = new LongAdder();
+        private final LongAdder iterationsCompleted = new LongAdder();
+        private final LongAdder iterationNanos = new LongAdder();
+        private final LongAdder statusMismatches = new LongAdder();
+        private final List<IntervalSample> timeline = new ArrayList<>();
+        private volatile boolean running = true;
+        private long startNanos;
+        private long lastSampleNanos;
+
+        Run(CloseableHttpAsyncClient client) {
+            this.client = client;
+            for (HarScript.Entry entry : script.getEntries()) {
+                stats.putIfAbsent(entry.getName(), new NameStats());
+            }
+            this.scheduler = Executors.newScheduledThreadPool(Math.max(2, Runtime.getRuntime().availableProcessors() / 2), runnable -> {
+                Thread thread = new Thread(runnable, "har-replay-scheduler");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+
+        ReplayResult execute(String name) {
+            List<ReplayUser> users = new ArrayList<>();
+            int peakUsers = 0;
+            startNanos = System.nanoTime();
+            lastSampleNanos = startNanos;
+            try {
+                long elapsedMs;
+                while ((elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos)) < profile.getDurationMs()) {
+                    int target = profile.usersAt(elapsedMs);
+                    while (users.size() < target) {
+                        ReplayUser user = new ReplayUser();
+                        users.add(user);
+                        activeUsers.incrementAndGet();
+                        user.startIteration();
+                    }
+                    while (users.size() > target) {
+                        users.remove(users.size() - 1).stopped = true;
+                        activeUsers.decrementAndGet();
+                    }
+                    peakUsers = Math.max(peakUsers, users.size());
+
+                    if (System.nanoTime() - lastSampleNanos >= TimeUnit.MILLISECONDS.toNanos(SAMPLE_INTERVAL_MS)) {
+                        sample();
+                    }
+                    Thread.sleep(TICK_MS);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                logger.warn("HAR replay {} interrupted", name);
+            } finally {
+                running = false;
+                drain();
+                scheduler.shutdownNow();
+            }
+            long endNanos = System.nanoTime();
+            sample();
+            return buildResult(name, peakUsers, (endNanos - startNanos) / 1e9);
+        }
+
+        private void drain() {
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs + 1000);
+            while (inFlight.get() > 0 && System.nanoTime() < deadline) {
+                try {
+                    Thread.sleep(TICK_MS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+            if (inFlight.get() > 0) {
+                logger.warn("{} replayed requests still in flight after the drain timeout", inFlight.get());
+            }
+        }
+
+        private void sample() {
+            long now = System.nanoTime();
+            double seconds = (now - lastSampleNanos) / 1e9;
+            lastSampleNanos = now;
+
+            Histogram interval = new Histogram(HttpLoadGenerator.HIGHEST_TRACKABLE_MICROS, HttpLoadGenerator.SIGNIFICANT_DIGITS);
+            long failures = 0;
+            long errorResponses = 0;
+            for (NameStats nameStats : stats.values()) {
+                nameStats.interval = nameStats.recorder.getIntervalHistogram(nameStats.interval);
+                nameStats.cumulative.add(nameStats.interval);
+                interval.add(nameStats.interval);
+                long intervalFailures = nameStats.failures.sumThenReset();
+                long intervalErrors = nameStats.errorResponses.sumThenReset();
+                nameStats.totalFailures += intervalFailures;
+                nameStats.totalErrorResponses += intervalErrors;
+                failures += intervalFailures;
+                errorResponses += intervalErrors;
+            }
+
+            IntervalSample sample = new IntervalSample();
+            sample.setSecond((now - startNanos) / 1e9);
+            sample.setActiveUsers(activeUsers.get());
+            sample.setInFlight(inFlight.get());
+            sample.setRequests(interval.getTotalCount() + failures);
+            sample.setErrors(errorResponses + failures);
+            sample.setRequestsPerSecond(seconds > 0 ? sample.getRequests() / seconds : 0);
+            if (interval.getTotalCount() > 0) {
+                sample.setP50Ms(interval.getValueAtPercentile(50) / 1000.0);
+                sample.setP95Ms(interval.getValueAtPercentile(95) / 1000.0);
+                sample.setP99Ms(interval.getValueAtPercentile(99) / 1000.0);
+            }
+            timeline.add(sample);
+        }
+
+        private ReplayResult buildResult(String name, int peakUsers, double wallClockSeconds) {
+            LoadResult load = new LoadResult();
+            load.setName(name);
+            load.setTimestamp(LocalDateTime.now().toString());
+            load.setProfile(profile.toString());
+            load.setEngine("har replay");
+            load.setWallClockSeconds(wallClockSeconds);
+            load.setPeakUsers(peakUsers);
+            load.setPeakInFlight(peakInFlight.get());
+            load.setTimeline(timeline);
+
+            Histogram all = new Histogram(HttpLoadGenerator.HIGHEST_TRACKABLE_MICROS, HttpLoadGenerator.SIGNIFICANT_DIGITS);
+            long failures = 0;
+            long errorResponses = 0;
+            for (Map.Entry<String, NameStats> entry : stats.entrySet()) {
+                NameStats nameStats = entry.getValue();
+                load.getRequests().add(RequestStats.from(entry.getKey(), nameStats.cumulative,
+                    nameStats.totalFailures, nameStats.totalErrorResponses));
+                all.add(nameStats.cumulative);
+                failures += nameStats.totalFailures;
+                errorResponses += nameStats.totalErrorResponses;
+            }
+            load.setHistogram(all);
+            load.setOverall(RequestStats.from("All requests", all, failures, errorResponses));
+            load.setThroughputPerSecond(wallClockSeconds > 0 ? load.getOverall().getRequests() / wallClockSeconds : 0);
+
+            ReplayResult result = new ReplayResult();
+            result.setName(name);
+            result.setScriptEntries(script.getEntries().size());
+            result.setSkippedEntries(script.getSkippedEntries());
+            result.setLongestChain(script.getLongestChain());
+            result.setRecordedDurationMs(script.getDurationMs());
+            result.setTimeScale(timeScale);
+            result.setIterationsStarted(iterationsStarted.sum());
+            result.setIterationsCompleted(iterationsCompleted.sum());
+            result.setMeanIterationMs(iterationsCompleted.sum() > 0 ? iterationNanos.sum() / 1e6 / iterationsCompleted.sum() : 0);
+            result.setStatusMismatches(statusMismatches.sum());
+            for (Correlation correlation : correlations) {
+                result.getCorrelations().put(correlation.getName(), correlation.getExtracted());
+            }
+            result.setLoad(load);
+            return result;
+        }
+
+        private class ReplayUser {
+            private volatile boolean stopped;
+            private final Map<String, String> session = new ConcurrentHashMap<>();
+
+            void startIteration() {
+                if (running && !stopped) {
+                    iterationsStarted.increment();
+                    new Iteration(this).start();
+                }
+            }
+
+            void iterationDone(long durationNanos) {
+                iterationsCompleted.increment();
+                iterationNanos.add(durationNanos);
+                if (!running || stopped) {
+                    return;
+                }
+                try {
+                    scheduler.schedule(this::startIteration, iterationPauseMs, TimeUnit.MILLISECONDS);
+                } catch (RejectedExecutionException e) {
+                    // Run ended between the check and the schedule
+                }
+            }
+        }
+
+        /**
+         * One walk through the script. Each entry is sent its scaled gap after its dependency
+         * completes, whatever the outcome, as a browser would carry on after a failed request.
+         */
+        private class Iteration {
+            private final ReplayUser user;
+            private final AtomicInteger remaining = new AtomicInteger(script.getEntries().size());
+            private final long startedNanos = System.nanoTime();
+
+            Iteration(ReplayUser user) {
+                this.user = user;
+            }
+
+            void start() {
+                for (int root : script.getRoots()) {
+                    schedule(script.getEntries().get(root));
+                }
+            }
+
+            private void schedule(HarScript.Entry entry) {
+                if (!running || user.stopped) {
+                    return;
+                }
+                long delayNanos = (long) (entry.getGapMs() * timeScale * 1_000_000);
+                if (delayNanos <= 0) {
+                    send(entry);
+                    return;
+                }
+                try {
+                    scheduler.schedule(() -> send(entry), delayNanos, TimeUnit.NANOSECONDS);
+                } catch (RejectedExecutionException e) {
+                    // Run ended between the check and the schedule
+                }
+            }
+
+            private void send(HarScript.Entry entry) {
+                if (!running || user.stopped) {
+                    return;
+                }
+                LoadRequest request = entry.getRequest();
+                for (Rewriter rewriter : rewriters) {
+                    request = rewriter.rewrite(request, user.session);
+                }
+                int current = inFlight.incrementAndGet();
+                peakInFlight.accumulateAndGet(current, Math::max);
+                new ResponseCallback(this, entry, request).dispatch();
+            }
+
+            void completed(HarScript.Entry entry) {
+                for (int dependent : entry.getDependents()) {
+                    schedule(script.getEntries().get(dependent));
+                }
+                if (remaining.decrementAndGet() == 0) {
+                    user.iterationDone(System.nanoTime() - startedNanos);
+                }
+            }
+        }
+
+        private class ResponseCallback implements FutureCallback<SimpleHttpResponse> {
+            private final Iteration iteration;
+            private final HarScript.Entry entry;
+            private final LoadRequest request;
+            private final NameStats nameStats;
+            private long sentNanos;
+            private boolean resent;
+
+            ResponseCallback(Iteration iteration, HarScript.Entry entry, LoadRequest request) {
+                this.iteration = iteration;
+                this.entry = entry;
+                this.request = request;
+                this.nameStats = stats.get(entry.getName());
+            }
+
+            void dispatch() {
+                sentNanos = System.nanoTime();
+                client.execute(HttpLoadGenerator.toHttpRequest(request), this);
+            }
+
+            @Override
+            public void completed(SimpleHttpResponse response) {
+                nameStats.recorder.recordValue(Math.min(HttpLoadGenerator.HIGHEST_TRACKABLE_MICROS,
+                    TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - sentNanos)));
+                if (response.getCode() >= 400) {
+                    nameStats.errorResponses.increment();
+                }
+                if (response.getCode() / 100 != entry.getRecordedStatus() / 100) {
+                    statusMismatches.increment();
+                }
+                if (!extractors.isEmpty()) {
+                    ReplayResponse replayResponse = ReplayResponse.from(response);
+                    for (Extractor extractor : extractors) {
+                        try {
+                            extractor.extract(entry, replayResponse, iteration.user.session);
+                        } catch (RuntimeException e) {
+                            logger.debug("Extractor failed on {}: {}", entry.getName(), e.toString());
+                        }
+                    }
+                }
+                done();
+            }
+
+            @Override
+            public void failed(Exception ex) {
+                // A pooled connection the server had already closed; nothing reached the server
+                if (ex instanceof RequestNotExecutedException && !resent && running) {
+                    resent = true;
+                    dispatch();
+                    return;
+                }
+                nameStats.failures.increment();
+                logger.debug("Replayed request failed: {}", ex.toString());
+                done();
+            }
+
+            @Override
+            public void cancelled() {
+                done();
+            }
+
+            private void done() {
+                inFlight.decrementAndGet();
+                iteration.completed(entry);
+            }
+        }
+    }
+
+    /**
+     * Attach the replayed script and its correlations to Allure, then the load report and
+     * history through HttpLoadGenerator
+     */
+    public static void attachToAllure(ReplayResult result, HarScript script) {
+        StringBuilder report = new StringBuilder();
+        report.append("# HAR Replay: ").append(result.getName()).append("\n\n");
+        report.append(String.format("%d requests per journey (%d skipped from the HAR), longest dependency chain %d, %.1fs recorded, time scale %.2f.%n%n",
+            result.getScriptEntries(), result.getSkippedEntries(), result.getLongestChain(),
+            result.getRecordedDurationMs() / 1000, result.getTimeScale()));
+        report.append(String.format("%d journeys started, %d completed, mean journey %.1fs, %d responses with a different status class than recorded.%n%n",
+            result.getIterationsStarted(), result.getIterationsCompleted(), result.getMeanIterationMs() / 1000,
+            result.getStatusMismatches()));
+
+        if (!result.getCorrelations().isEmpty()) {
+            report.append("## Correlations\n\n");
+            report.append("| Name | Live Values Extracted |\n");
+            report.append("|------|-----------------------|\n");
+            result.getCorrelations().forEach((name, extracted) ->
+                report.append(String.format("| %s | %d |%n", name, extracted)));
+            report.append("\n");
+        }
+
+        report.append("## Script\n\n");
+        report.append("| # | Request | Type | Waits For | Gap (ms) | Recorded (ms) | Recorded Status |\n");
+        report.append("|---|---------|------|-----------|----------|---------------|-----------------|\n");
+        for (HarScript.Entry entry : script.getEntries()) {
+            report.append(String.format("| %d | %s | %s | %s | %.0f | %.0f | %d |%n", entry.getIndex() + 1, entry.getName(),
+                entry.getResourceType(), entry.getDependsOn() < 0 ? "start" : "#" + (entry.getDependsOn() + 1),
+                entry.getGapMs(), entry.getDurationMs(), entry.getRecordedStatus()));
+        }
+
+        Allure.addAttachment("HAR Replay - " + result.getName(), "text/markdown",
+            new ByteArrayInputStream(report.toString().getBytes(StandardCharsets.UTF_8)), ".md");
+        Allure.parameter("Journeys Completed", result.getIterationsCompleted());
+        HttpLoadGenerator.attachToAllure(result.getLoad());
+    }
+}
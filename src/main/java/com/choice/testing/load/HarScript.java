@@ -0,0 +1,265 @@
+package com.choice.testing.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * The request sequence of a recorded HAR, with the timing a replay needs to look like the
+ * original browser traffic.
+ *
+ * Each entry depends on the request that finished last before it started, which is the closest
+ * thing a HAR has to "the response that triggered this one". The gap between that response and
+ * the entry's start is the browser's processing and the user's think time; requests that were
+ * in flight together share a dependency and replay in parallel. Entries with no earlier
+ * finished request are roots, timed from the start of the journey.
+ *
+ * Only first-party requests of the chosen resource types are kept; cached and failed entries
+ * never reached the server and are dropped.
+ */
+public final class HarScript {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final Set<String> SKIPPED_HEADERS = new HashSet<>(Arrays.asList(
+        "host", "content-length", "connection", "accept-encoding", "transfer-encoding", "upgrade"));
+    private static final Set<String> CACHED = new HashSet<>(Arrays.asList("memory", "disk", "service-worker", "prefetch"));
+
+    public static class Entry {
+        private final int index;
+        private final String name;
+        private final LoadRequest request;
+        private final String resourceType;
+        private final double startMs;
+        private final double durationMs;
+        private final int recordedStatus;
+        private final Map<String, List<String>> recordedResponseHeaders;
+        private final String recordedResponseBody;
+        private int dependsOn = -1;
+        private double gapMs;
+        private final List<Integer> dependents = new ArrayList<>();
+
+        Entry(int index, String name, LoadRequest request, String resourceType, double startMs, double durationMs,
+              int recordedStatus, Map<String, List<String>> recordedResponseHeaders, String recordedResponseBody) {
+            this.index = index;
+            this.name = name;
+            this.request = request;
+            this.resourceType = resourceType;
+            this.startMs = startMs;
+            this.durationMs = durationMs;
+            this.recordedStatus = recordedStatus;
+            this.recordedResponseHeaders = recordedResponseHeaders;
+            this.recordedResponseBody = recordedResponseBody;
+        }
+
+        public int getIndex() { return index; }
+
+        // "METHOD /path", the name latencies are reported under
+        public String getName() { return name; }
+
+        // The request as recorded, before any rewriting
+        public LoadRequest getRequest() { return request; }
+
+        public String getResourceType() { return resourceType; }
+
+        // Start relative to the first kept entry
+        public double getStartMs() { return startMs; }
+
+        public double getDurationMs() { return durationMs; }
+
+        public double getEndMs() { return startMs + durationMs; }
+
+        public int getRecordedStatus() { return recordedStatus; }
+
+        // Lowercase header names; empty when the HAR was written without headers
+        public Map<String, List<String>> getRecordedResponseHeaders() { return recordedResponseHeaders; }
+
+        // Null when the HAR was written without bodies
+        public String getRecordedResponseBody() { return recordedResponseBody; }
+
+        // Index of the entry this one waits for, -1 for a root
+        public int getDependsOn() { return dependsOn; }
+
+        // Recorded time from the dependency's end (or the journey start for a root) to this entry's start
+        public double getGapMs() { return gapMs; }
+
+        public List<Integer> getDependents() { return dependents; }
+    }
+
+    private final List<Entry> entries;
+    private final List<Integer> roots = new ArrayList<>();
+    private final Instant recordedAt;
+    private final int skippedEntries;
+
+    private HarScript(List<Entry> entries, Instant recordedAt, int skippedEntries) {
+        this.entries = Collections.unmodifiableList(entries);
+        this.recordedAt = recordedAt;
+        this.skippedEntries = skippedEntries;
+        linkDependencies();
+    }
+
+    public static HarScript load(Path harFile, Set<String> hosts, Set<String> resourceTypes) throws IOException {
+        return parse(Files.readString(harFile), hosts, resourceTypes);
+    }
+
+    /**
+     * @param hosts hosts to keep; empty keeps the host of the first request
+     * @param resourceTypes resource types to keep, case-insensitive; empty keeps every type.
+     *                      Entries without a _resourceType are always kept.
+     * @throws IllegalArgumentException when the HAR has no entries left to replay
+     */
+    public static HarScript parse(String harJson, Set<String> hosts, Set<String> resourceTypes) throws IOException {
+        JsonNode harEntries = objectMapper.readTree(harJson).path("log").path("entries");
+        if (!harEntries.isArray() || harEntries.size() == 0) {
+            throw new IllegalArgumentException("HAR has no entries");
+        }
+
+        List<JsonNode> ordered = new ArrayList<>();
+        harEntries.forEach(ordered::add);
+        ordered.sort(Comparator.comparing(entry -> parseTime(entry.path("startedDateTime").asText())));
+
+        Set<String> keptHosts = hosts.stream().map(host -> host.toLowerCase(Locale.ROOT)).collect(Collectors.toSet());
+        if (keptHosts.isEmpty()) {
+            keptHosts.add(hostOf(ordered.get(0).path("request").path("url").asText()));
+        }
+        Set<String> keptTypes = resourceTypes.stream().map(type -> type.toLowerCase(Locale.ROOT)).collect(Collectors.toSet());
+
+        List<JsonNode> kept = new ArrayList<>();
+        for (JsonNode entry : ordered) {
+            String type = entry.path("_resourceType").asText("").toLowerCase(Locale.ROOT);
+            String cacheStatus = entry.path("_cacheStatus").asText("").toLowerCase(Locale.ROOT);
+            if (keptHosts.contains(hostOf(entry.path("request").path("url").asText()))
+                && (keptTypes.isEmpty() || type.isEmpty() || keptTypes.contains(type))
+                && entry.path("response").path("status").asInt(0) > 0
+                && !CACHED.contains(cacheStatus)) {
+                kept.add(entry);
+            }
+        }
+        if (kept.isEmpty()) {
+            throw new IllegalArgumentException("No HAR entries left to replay for hosts " + keptHosts + " and types " + keptTypes);
+        }
+
+        Instant firstStart = parseTime(kept.get(0).path("startedDateTime").asText());
+        List<Entry> entries = new ArrayList<>();
+        for (JsonNode harEntry : kept) {
+            JsonNode request = harEntry.path("request");
+            JsonNode response = harEntry.path("response");
+            String method = request.path("method").asText("GET");
+            String url = request.path("url").asText();
+
+            Map<String, String> headers = new LinkedHashMap<>();
+            for (JsonNode header : request.path("headers")) {
+                String headerName = header.path("name").asText();
+                if (!headerName.startsWith(":") && !SKIPPED_HEADERS.contains(headerName.toLowerCase(Locale.ROOT))) {
+                    headers.put(headerName, header.path("value").asText());
+                }
+            }
+            JsonNode postData = request.path("postData");
+            String body = postData.hasNonNull("text") ? postData.path("text").asText() : null;
+            String contentType = postData.hasNonNull("mimeType") ? postData.path("mimeType").asText() : null;
+
+            Map<String, List<String>> responseHeaders = new LinkedHashMap<>();
+            for (JsonNode header : response.path("headers")) {
+                responseHeaders.computeIfAbsent(header.path("name").asText().toLowerCase(Locale.ROOT), key -> new ArrayList<>())
+                    .add(header.path("value").asText());
+            }
+            JsonNode content = response.path("content");
+            String responseBody = content.hasNonNull("text") && !"base64".equals(content.path("encoding").asText())
+                ? content.path("text").asText() : null;
+
+            double startMs = Duration.between(firstStart, parseTime(harEntry.path("startedDateTime").asText())).toNanos() / 1e6;
+            String name = method + " " + pathOf(url);
+            entries.add(new Entry(entries.size(), name, new LoadRequest(name, method, url, headers, body, contentType),
+                harEntry.path("_resourceType").asText(""), Math.max(0, startMs), Math.max(0, harEntry.path("time").asDouble(0)),
+                response.path("status").asInt(), responseHeaders, responseBody));
+        }
+        return new HarScript(entries, firstStart, ordered.size() - kept.size());
+    }
+
+    private void linkDependencies() {
+        for (Entry entry : entries) {
+            Entry dependency = null;
+            for (Entry earlier : entries) {
+                if (earlier.index >= entry.index) {
+                    break;
+                }
+                if (earlier.getEndMs() <= entry.startMs && (dependency == null || earlier.getEndMs() > dependency.getEndMs())) {
+                    dependency = earlier;
+                }
+            }
+            if (dependency == null) {
+                entry.gapMs = entry.startMs;
+                roots.add(entry.index);
+            } else {
+                entry.dependsOn = dependency.index;
+                entry.gapMs = entry.startMs - dependency.getEndMs();
+                dependency.dependents.add(entry.index);
+            }
+        }
+    }
+
+    public List<Entry> getEntries() { return entries; }
+
+    // Entries that wait for no other request
+    public List<Integer> getRoots() { return roots; }
+
+    public Instant getRecordedAt() { return recordedAt; }
+
+    // Entries dropped by the host, type, cache and status filters
+    public int getSkippedEntries() { return skippedEntries; }
+
+    // Recorded journey length, first start to last end
+    public double getDurationMs() {
+        return entries.stream().mapToDouble(Entry::getEndMs).max().orElse(0);
+    }
+
+    // Longest run of requests that wait on each other
+    public int getLongestChain() {
+        int[] depth = new int[entries.size()];
+        int longest = 0;
+        for (Entry entry : entries) {
+            depth[entry.index] = entry.dependsOn < 0 ? 1 : depth[entry.dependsOn] + 1;
+            longest = Math.max(longest, depth[entry.index]);
+        }
+        return longest;
+    }
+
+    private static Instant parseTime(String isoTime) {
+        return OffsetDateTime.parse(isoTime).toInstant();
+    }
+
+    private static String hostOf(String url) {
+        try {
+            String host = URI.create(url).getHost();
+            return host != null ? host.toLowerCase(Locale.ROOT) : "";
+        } catch (IllegalArgumentException e) {
+            return "";
+        }
+    }
+
+    private static String pathOf(String url) {
+        try {
+            String path = URI.create(url).getRawPath();
+            return path != null && !path.isEmpty() ? path : "/";
+        } catch (IllegalArgumentException e) {
+            return url;
+        }
+    }
+}
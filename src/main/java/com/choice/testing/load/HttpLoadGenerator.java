@@ -0,0 +1,736 @@
+package com.choice.testing.load;
+
+import com.choice.testing.config.ConfigManager;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.qameta.allure.Allure;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.apache.hc.client5.http.async.methods.SimpleHttpRequest;
+import org.apache.hc.client5.http.async.methods.SimpleHttpResponse;
+import org.apache.hc.client5.http.async.methods.SimpleRequestBuilder;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.client5.http.impl.async.HttpAsyncClients;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManagerBuilder;
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.RequestNotExecutedException;
+import org.apache.hc.core5.reactor.IOReactorConfig;
+import org.apache.hc.core5.util.Timeout;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Protocol-level load: thousands of virtual users replaying a list of HTTP requests against the
+ * hotel search endpoints, without a browser.
+ *
+ * Requests go through one pooled httpclient5 async client. On the ASYNC engine a virtual user is
+ * just a callback chain, so users cost no threads; on the VIRTUAL_THREADS engine (JDK 21+) each
+ * user is a blocking loop on its own virtual thread. Latencies are recorded in HdrHistogram in
+ * microseconds, per request name and per one-second interval.
+ */
+public class HttpLoadGenerator {
+
+    private static final Logger logger = LoggerFactory.getLogger(HttpLoadGenerator.class);
+    private static final ObjectMapper objectMapper = new ObjectMapper()
+        .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    private static final String PERFORMANCE_DATA_DIR = "performance-history";
+    static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(5);
+    static final int SIGNIFICANT_DIGITS = 3;
+    private static final long TICK_MS = 50;
+    private static final long SAMPLE_INTERVAL_MS = 1000;
+
+    public enum Engine {
+        ASYNC, VIRTUAL_THREADS;
+
+        /**
+         * "auto" picks virtual threads when the running JDK has them
+         */
+        public static Engine resolve(String value) {
+            String normalized = value.trim().toUpperCase(Locale.ROOT).replace('-', '_');
+            if ("AUTO".equals(normalized)) {
+                return Runtime.version().feature() >= 21 ? VIRTUAL_THREADS : ASYNC;
+            }
+            return Engine.valueOf(normalized);
+        }
+    }
+
+    public static class RequestStats {
+        private String name;
+        private long requests;
+        private long errors;
+        private double meanMs;
+        private double p50Ms;
+        private double p90Ms;
+        private double p95Ms;
+        private double p99Ms;
+        private double maxMs;
+
+        static RequestStats from(String name, Histogram histogram, long failures, long errorResponses) {
+            RequestStats stats = new RequestStats();
+            stats.setName(name);
+            stats.setRequests(histogram.getTotalCount() + failures);
+            stats.setErrors(errorResponses + failures);
+            if (histogram.getTotalCount() > 0) {
+                stats.setMeanMs(histogram.getMean() / 1000.0);
+                stats.setP50Ms(histogram.getValueAtPercentile(50) / 1000.0);
+                stats.setP90Ms(histogram.getValueAtPercentile(90) / 1000.0);
+                stats.setP95Ms(histogram.getValueAtPercentile(95) / 1000.0);
+                stats.setP99Ms(histogram.getValueAtPercentile(99) / 1000.0);
+                stats.setMaxMs(histogram.getMaxValue() / 1000.0);
+            }
+            return stats;
+        }
+
+        // Getters and setters
+        public String getName() { return name; }
+        public void setName(String name) { this.name = name; }
+
+        public long getRequests() { return requests; }
+        public void setRequests(long requests) { this.requests = requests; }
+
+        // HTTP status >= 400 plus connection failures and timeouts
+        public long getErrors() { return errors; }
+        public void setErrors(long errors) { this.errors = errors; }
+
+        public double getMeanMs() { return meanMs; }
+        public void setMeanMs(double meanMs) { this.meanMs = meanMs; }
+
+        public double getP50Ms() { return p50Ms; }
+        public void setP50Ms(double p50Ms) { this.p50Ms = p50Ms; }
+
+        public double getP90Ms() { return p90Ms; }
+        public void setP90Ms(double p90Ms) { this.p90Ms = p90Ms; }
+
+        public double getP95Ms() { return p95Ms; }
+        public void setP95Ms(double p95Ms) { this.p95Ms = p95Ms; }
+
+        public double getP99Ms() { return p99Ms; }
+        public void setP99Ms(double p99Ms) { this.p99Ms = p99Ms; }
+
+        public double getMaxMs() { return maxMs; }
+        public void setMaxMs(double maxMs) { this.maxMs = maxMs; }
+    }
+
+    public static class IntervalSample {
+        private double second;
+        private int activeUsers;
+        private int inFlight;
+        private long requests;
+        private long errors;
+        private double requestsPerSecond;
+        private double p50Ms;
+        private double p95Ms;
+        private double p99Ms;
+
+        // Getters and setters
+        // End of the interval, in seconds since the run started
+        public double getSecond() { return second; }
+        public void setSecond(double second) { this.second = second; }
+
+        public int getActiveUsers() { return activeUsers; }
+        public void setActiveUsers(int activeUsers) { this.activeUsers = activeUsers; }
+
+        public int getInFlight() { return inFlight; }
+        public void setInFlight(int inFlight) { this.inFlight = inFlight; }
+
+        public long getRequests() { return requests; }
+        public void setRequests(long requests) { this.requests = requests; }
+
+        public long getErrors() { return errors; }
+        public void setErrors(long errors) { this.errors = errors; }
+
+        public double getRequestsPerSecond() { return requestsPerSecond; }
+        public void setRequestsPerSecond(double requestsPerSecond) { this.requestsPerSecond = requestsPerSecond; }
+
+        public double getP50Ms() { return p50Ms; }
+        public void setP50Ms(double p50Ms) { this.p50Ms = p50Ms; }
+
+        public double getP95Ms() { return p95Ms; }
+        public void setP95Ms(double p95Ms) { this.p95Ms = p95Ms; }
+
+        public double getP99Ms() { return p99Ms; }
+        public void setP99Ms(double p99Ms) { this.p99Ms = p99Ms; }
+    }
+
+    public static class LoadResult {
+        private String name;
+        private String timestamp;
+        private String profile;
+        private String engine;
+        private double wallClockSeconds;
+        private int peakUsers;
+        private int peakInFlight;
+        private double throughputPerSecond;
+        private RequestStats overall;
+        private List<RequestStats> requests = new ArrayList<>();
+        private List<IntervalSample> timeline = new ArrayList<>();
+        private Histogram histogram;
+
+        // Getters and setters
+        public String getName() { return name; }
+        public void setName(String name) { this.name = name; }
+
+        public String getTimestamp() { return timestamp; }
+        public void setTimestamp(String timestamp) { this.timestamp = timestamp; }
+
+        public String getProfile() { return profile; }
+        public void setProfile(String profile) { this.profile = profile; }
+
+        public String getEngine() { return engine; }
+        public void setEngine(String engine) { this.engine = engine; }
+
+        public double getWallClockSeconds() { return wallClockSeconds; }
+        public void setWallClockSeconds(double wallClockSeconds) { this.wallClockSeconds = wallClockSeconds; }
+
+        public int getPeakUsers() { return peakUsers; }
+        public void setPeakUsers(int peakUsers) { this.peakUsers = peakUsers; }
+
+        public int getPeakInFlight() { return peakInFlight; }
+        public void setPeakInFlight(int peakInFlight) { this.peakInFlight = peakInFlight; }
+
+        public double getThroughputPerSecond() { return throughputPerSecond; }
+        public void setThroughputPerSecond(double throughputPerSecond) { this.throughputPerSecond = throughputPerSecond; }
+
+        public RequestStats getOverall() { return overall; }
+        public void setOverall(RequestStats overall) { this.overall = overall; }
+
+        public List<RequestStats> getRequests() { return requests; }
+        public void setRequests(List<RequestStats> requests) { this.requests = requests; }
+
+        public List<IntervalSample> getTimeline() { return timeline; }
+        public void setTimeline(List<IntervalSample> timeline) { this.timeline = timeline; }
+
+        // All latencies of the run in microseconds; not kept in history
+        @JsonIgnore
+        public Histogram getHistogram() { return histogram; }
+        @JsonIgnore
+        public void setHistogram(Histogram histogram) { this.histogram = histogram; }
+    }
+
+    private final LoadProfile profile;
+    private final List<LoadRequest> scenario;
+    private final Engine engine;
+    private final int maxConnections;
+    private final long timeoutMs;
+    private final long thinkTimeMs;
+
+    /**
+     * @param maxConnections pool size; 0 sizes the pool to the profile's peak users
+     * @param thinkTimeMs pause between a user's requests on ramp and step profiles
+     */
+    public HttpLoadGenerator(LoadProfile profile, List<LoadRequest> scenario, Engine engine,
+                             int maxConnections, long timeoutMs, long thinkTimeMs) {
+        if (scenario.isEmpty()) {
+            throw new IllegalArgumentException("Load scenario has no requests");
+        }
+        this.profile = profile;
+        this.scenario = new ArrayList<>(scenario);
+        this.engine = engine;
+        this.maxConnections = maxConnections > 0 ? maxConnections : Math.max(1, profile.peakUsers());
+        this.timeoutMs = timeoutMs;
+        this.thinkTimeMs = thinkTimeMs;
+    }
+
+    public static boolean isEnabled() {
+        return Boolean.parseBoolean(System.getProperty("load.enabled",
+            ConfigManager.getProperty("load.enabled", "false")));
+    }
+
+    /**
+     * Generator for load.profile and load.requests, or the captured API scenario at
+     * load.scenario.file when set; -Dload.profile overrides the configured profile
+     */
+    public static HttpLoadGenerator fromConfig() throws IOException {
+        LoadProfile profile = LoadProfile.parse(System.getProperty("load.profile",
+            ConfigManager.getProperty("load.profile", "ramp:users=100,ramp=30s,hold=60s")));
+        ApiScenarioCapture.ApiScenario scenario = ApiScenarioCapture.configuredScenario();
+        return new HttpLoadGenerator(profile, scenario != null ? ApiScenarioCapture.toLoadRequests(scenario) : LoadRequest.fromConfig(),
+            Engine.resolve(ConfigManager.getProperty("load.engine", "auto")),
+            ConfigManager.getIntProperty("load.max.connections", 0),
+            ConfigManager.getIntProperty("load.timeout.ms", 30000),
+            ConfigManager.getIntProperty("load.think.time.ms", 0));
+    }
+
+    public LoadProfile getProfile() {
+        return profile;
+    }
+
+    /**
+     * Run the profile to completion, wait for in-flight requests and return the latencies
+     */
+    public LoadResult run(String name) {
+        System.out.println("🚦 Load " + name + ": " + profile + " on " + engine.name().toLowerCase().replace('_', ' ') + " engine");
+        try (CloseableHttpAsyncClient client = buildClient(maxConnections, timeoutMs)) {
+            client.start();
+            LoadResult result = new Run(client).execute(name);
+
+            System.out.println(String.format("🚦 %s: %d requests, %.0f req/s, p95 %.0fms, p99 %.0fms, %d errors",
+                name, result.getOverall().getRequests(), result.getThroughputPerSecond(),
+                result.getOverall().getP95Ms(), result.getOverall().getP99Ms(), result.getOverall().getErrors()));
+            return result;
+        } catch (IOException e) {
+            throw new IllegalStateException("Load run " + name + " failed to close its client", e);
+        }
+    }
+
+    /**
+     * Pooled async client shared by all virtual users of a run
+     */
+    static CloseableHttpAsyncClient buildClient(int maxConnections, long timeoutMs) {
+        Timeout timeout = Timeout.ofMilliseconds(timeoutMs);
+        return HttpAsyncClients.custom()
+            .setConnectionManager(PoolingAsyncClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxConnections)
+                .setMaxConnPerRoute(maxConnections)
+                .setDefaultConnectionConfig(ConnectionConfig.custom().setConnectTimeout(timeout).build())
+                .build())
+            .setIOReactorConfig(IOReactorConfig.custom()
+                .setIoThreadCount(Runtime.getRuntime().availableProcessors())
+                .setSoTimeout(timeout)
+                .build())
+            .setDefaultRequestConfig(RequestConfig.custom()
+                .setConnectionRequestTimeout(timeout)
+                .setResponseTimeout(timeout)
+                .build())
+            // Virtual users must not share a cookie jar
+            .disableCookieManagement()
+            .build();
+    }
+
+    static SimpleHttpRequest toHttpRequest(LoadRequest request) {
+        SimpleRequestBuilder builder = SimpleRequestBuilder.create(request.getMethod()).setUri(request.getUrl());
+        for (Map.Entry<String, String> header : request.getHeaders().entrySet()) {
+            builder.addHeader(header.getKey(), header.getValue());
+        }
+        if (request.getBody() != null) {
+            builder.setBody(request.getBody(), request.getContentType() != null
+                ? ContentType.parse(request.getContentType()) : ContentType.APPLICATION_JSON);
+        }
+        return builder.build();
+    }
+
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("The virtual threads engine needs JDK 21 or newer", e);
+        }
+    }
+
+    /**
+     * Per-request-name recorders. The map is built before the run and never modified, so it is
+     * read from I/O threads without locking.
+     */
+    private static class NameStats {
+        final Recorder recorder = new Recorder(HIGHEST_TRACKABLE_MICROS, SIGNIFICANT_DIGITS);
+        final LongAdder errorResponses = new LongAdder();
+        final LongAdder failures = new LongAdder();
+        final Histogram cumulative = new Histogram(HIGHEST_TRACKABLE_MICROS, SIGNIFICANT_DIGITS);
+        Histogram interval;
+        long totalErrorResponses;
+        long totalFailures;
+    }
+
+    /**
+     * State of one run; the controller loop runs on the calling thread
+     */
+    private class Run {
+        private final CloseableHttpAsyncClient client;
+        private final Map<String, NameStats> stats = new LinkedHashMap<>();
+        private final ScheduledExecutorService scheduler;
+        private final ExecutorService userThreads;
+        private final AtomicInteger activeUsers = new AtomicInteger();
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicInteger peakInFlight = new AtomicInteger();
+        private final List<IntervalSample> timeline = new ArrayList<>();
+        private final List<SimpleHttpRequest> httpRequests = new ArrayList<>();
+        private volatile boolean running = true;
+        private long startNanos;
+        private long lastSampleNanos;
+
+        Run(CloseableHttpAsyncClient client) {
+            this.client = client;
+            for (LoadRequest request : scenario) {
+                stats.putIfAbsent(request.getName(), new NameStats());
+                httpRequests.add(toHttpRequest(request));
+            }
+            this.scheduler = Executors.newScheduledThreadPool(Math.max(2, Runtime.getRuntime().availableProcessors() / 2), runnable -> {
+                Thread thread = new Thread(runnable, "load-scheduler");
+                thread.setDaemon(true);
+                return thread;
+            });
+            this.userThreads = engine == Engine.VIRTUAL_THREADS ? newVirtualThreadExecutor() : null;
+        }
+
+        LoadResult execute(String name) {
+            List<VirtualUser> users = new ArrayList<>();
+            int peakUsers = 0;
+            startNanos = System.nanoTime();
+            lastSampleNanos = startNanos;
+            try {
+                long elapsedMs;
+                while ((elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos)) < profile.getDurationMs()) {
+                    int target = profile.usersAt(elapsedMs);
+                    while (users.size() < target) {
+                        VirtualUser user = new VirtualUser();
+                        users.add(user);
+                        activeUsers.incrementAndGet();
+                        user.start();
+                    }
+                    while (users.size() > target) {
+                        users.remove(users.size() - 1).stopped = true;
+                        activeUsers.decrementAndGet();
+                    }
+                    peakUsers = Math.max(peakUsers, users.size());
+
+                    if (System.nanoTime() - lastSampleNanos >= TimeUnit.MILLISECONDS.toNanos(SAMPLE_INTERVAL_MS)) {
+                        sample();
+                    }
+                    Thread.sleep(TICK_MS);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                logger.warn("Load run {} interrupted", name);
+            } finally {
+                running = false;
+                for (VirtualUser user : users) {
+                    user.stopped = true;
+                }
+                drain();
+                scheduler.shutdownNow();
+                if (userThreads != null) {
+                    userThreads.shutdownNow();
+                }
+            }
+            long endNanos = System.nanoTime();
+            sample();
+            return buildResult(name, peakUsers, (endNanos - startNanos) / 1e9);
+        }
+
+        /**
+         * Wait for requests already sent so their latencies are not lost
+         */
+        private void drain() {
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs + 1000);
+            while (inFlight.get() > 0 && System.nanoTime() < deadline) {
+                try {
+                    Thread.sleep(TICK_MS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+            if (inFlight.get() > 0) {
+                logger.warn("{} requests still in flight after the drain timeout", inFlight.get());
+            }
+        }
+
+        private void sample() {
+            long now = System.nanoTime();
+            double seconds = (now - lastSampleNanos) / 1e9;
+            lastSampleNanos = now;
+
+            Histogram interval = new Histogram(HIGHEST_TRACKABLE_MICROS, SIGNIFICANT_DIGITS);
+            long failures = 0;
+            long errorResponses = 0;
+            for (NameStats nameStats : stats.values()) {
+                nameStats.interval = nameStats.recorder.getIntervalHistogram(nameStats.interval);
+                nameStats.cumulative.add(nameStats.interval);
+                interval.add(nameStats.interval);
+                long intervalFailures = nameStats.failures.sumThenReset();
+                long intervalErrors = nameStats.errorResponses.sumThenReset();
+                nameStats.totalFailures += intervalFailures;
+                nameStats.totalErrorResponses += intervalErrors;
+                failures += intervalFailures;
+                errorResponses += intervalErrors;
+            }
+
+            IntervalSample sample = new IntervalSample();
+            sample.setSecond((now - startNanos) / 1e9);
+            sample.setActiveUsers(activeUsers.get());
+            sample.setInFlight(inFlight.get());
+            sample.setRequests(interval.getTotalCount() + failures);
+            sample.setErrors(errorResponses + failures);
+            sample.setRequestsPerSecond(seconds > 0 ? sample.getRequests() / seconds : 0);
+            if (interval.getTotalCount() > 0) {
+                sample.setP50Ms(interval.getValueAtPercentile(50) / 1000.0);
+                sample.setP95Ms(interval.getValueAtPercentile(95) / 1000.0);
+                sample.setP99Ms(interval.getValueAtPercentile(99) / 1000.0);
+            }
+            timeline.add(sample);
+        }
+
+        private LoadResult buildResult(String name, int peakUsers, double wallClockSeconds) {
+            LoadResult result = new LoadResult();
+            result.setName(name);
+            result.setTimestamp(LocalDateTime.now().toString());
+            result.setProfile(profile.toString());
+            result.setEngine(engine.name().toLowerCase());
+            result.setWallClockSeconds(wallClockSeconds);
+            result.setPeakUsers(peakUsers);
+            result.setPeakInFlight(peakInFlight.get());
+            result.setTimeline(timeline);
+
+            Histogram all = new Histogram(HIGHEST_TRACKABLE_MICROS, SIGNIFICANT_DIGITS);
+            long failures = 0;
+            long errorResponses = 0;
+            for (Map.Entry<String, NameStats> entry : stats.entrySet()) {
+                NameStats nameStats = entry.getValue();
+                result.getRequests().add(RequestStats.from(entry.getKey(), nameStats.cumulative,
+                    nameStats.totalFailures, nameStats.totalErrorResponses));
+                all.add(nameStats.cumulative);
+                failures += nameStats.totalFailures;
+                errorResponses += nameStats.totalErrorResponses;
+            }
+            result.setHistogram(all);
+            result.setOverall(RequestStats.from("All requests", all, failures, errorResponses));
+            result.setThroughputPerSecond(wallClockSeconds > 0 ? result.getOverall().getRequests() / wallClockSeconds : 0);
+            return result;
+        }
+
+        /**
+         * Send one request; completion records the latency and then runs onDone. The returned
+         * future completes once the request is finished either way.
+         */
+        private CompletableFuture<Void> send(int index, Runnable onDone) {
+            int current = inFlight.incrementAndGet();
+            peakInFlight.accumulateAndGet(current, Math::max);
+            ResponseCallback callback = new ResponseCallback(index, onDone);
+            callback.dispatch();
+            return callback.finished;
+        }
+
+        private class ResponseCallback implements FutureCallback<SimpleHttpResponse> {
+            private final int index;
+            private final Runnable onDone;
+            private final NameStats nameStats;
+            private final CompletableFuture<Void> finished = new CompletableFuture<>();
+            private long sentNanos;
+            private boolean resent;
+
+            ResponseCallback(int index, Runnable onDone) {
+                this.index = index;
+                this.onDone = onDone;
+                this.nameStats = stats.get(scenario.get(index).getName());
+            }
+
+            void dispatch() {
+                sentNanos = System.nanoTime();
+                client.execute(httpRequests.get(index), this);
+            }
+
+            @Override
+            public void completed(SimpleHttpResponse response) {
+                nameStats.recorder.recordValue(Math.min(HIGHEST_TRACKABLE_MICROS,
+                    TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - sentNanos)));
+                if (response.getCode() >= 400) {
+                    nameStats.errorResponses.increment();
+                }
+                done();
+            }
+
+            @Override
+            public void failed(Exception ex) {
+                // A pooled connection the server had already closed; nothing reached the server
+                if (ex instanceof RequestNotExecutedException && !resent && running) {
+                    resent = true;
+                    dispatch();
+                    return;
+                }
+                nameStats.failures.increment();
+                logger.debug("Load request failed: {}", ex.toString());
+                done();
+            }
+
+            @Override
+            public void cancelled() {
+                done();
+            }
+
+            private void done() {
+                inFlight.decrementAndGet();
+                finished.complete(null);
+                if (onDone != null) {
+                    onDone.run();
+                }
+            }
+        }
+
+        private class VirtualUser {
+            private volatile boolean stopped;
+            private int step;
+            private long nextStartNanos;
+
+            void start() {
+                // Paced users start at random offsets within one interval so they do not fire together
+                long pacing = profile.pacingNanos(activeUsers.get());
+                long initialDelay = pacing > 0 ? ThreadLocalRandom.current().nextLong(pacing) : 0;
+                if (userThreads != null) {
+                    userThreads.execute(() -> runBlocking(initialDelay));
+                } else {
+                    scheduleNext(initialDelay);
+                }
+            }
+
+            private void runBlocking(long initialDelay) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(initialDelay);
+                    while (isActive()) {
+                        sendNext(null).join();
+                        TimeUnit.NANOSECONDS.sleep(nextDelayNanos());
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+
+            private void sendAsync() {
+                if (isActive()) {
+                    sendNext(() -> scheduleNext(nextDelayNanos()));
+                }
+            }
+
+            private void scheduleNext(long delayNanos) {
+                if (!isActive()) {
+                    return;
+                }
+                try {
+                    scheduler.schedule(this::sendAsync, delayNanos, TimeUnit.NANOSECONDS);
+                } catch (RejectedExecutionException e) {
+                    // Run ended between the check and the schedule
+                }
+            }
+
+            private CompletableFuture<Void> sendNext(Runnable onDone) {
+                if (nextStartNanos == 0) {
+                    nextStartNanos = System.nanoTime();
+                }
+                int index = step;
+                step = (step + 1) % scenario.size();
+                return send(index, onDone);
+            }
+
+            /**
+             * Paced users keep a fixed schedule and skip ahead rather than burst when they fall
+             * behind; unpaced users just think
+             */
+            private long nextDelayNanos() {
+                long pacing = profile.pacingNanos(activeUsers.get());
+                if (pacing <= 0) {
+                    return TimeUnit.MILLISECONDS.toNanos(thinkTimeMs);
+                }
+                long now = System.nanoTime();
+                nextStartNanos = Math.max(nextStartNanos + pacing, now);
+                return nextStartNanos - now;
+            }
+
+            private boolean isActive() {
+                return running && !stopped;
+            }
+        }
+    }
+
+    /**
+     * Attach the per-request table, the timeline and the full percentile distribution to Allure
+     * and, if load.export.history is set, append the result to the history store
+     */
+    public static void attachToAllure(LoadResult result) {
+        StringBuilder report = new StringBuilder();
+        report.append("# Load Test: ").append(result.getName()).append("\n\n");
+        report.append(String.format("%s on the %s engine: %.0fs, peak %d users, peak %d in flight, %.0f req/s%n%n",
+            result.getProfile(), result.getEngine(), result.getWallClockSeconds(), result.getPeakUsers(),
+            result.getPeakInFlight(), result.getThroughputPerSecond()));
+        report.append("| Request | Count | Errors | Mean (ms) | p50 (ms) | p90 (ms) | p95 (ms) | p99 (ms) | Max (ms) |\n");
+        report.append("|---------|-------|--------|-----------|----------|----------|----------|----------|----------|\n");
+        List<RequestStats> rows = new ArrayList<>(result.getRequests());
+        rows.add(result.getOverall());
+        for (RequestStats stats : rows) {
+            report.append(String.format("| %s | %d | %d | %.1f | %.1f | %.1f | %.1f | %.1f | %.1f |%n",
+                stats.getName(), stats.getRequests(), stats.getErrors(), stats.getMeanMs(), stats.getP50Ms(),
+                stats.getP90Ms(), stats.getP95Ms(), stats.getP99Ms(), stats.getMaxMs()));
+        }
+
+        Allure.addAttachment("Load Test - " + result.getName(), "text/markdown",
+            new ByteArrayInputStream(report.toString().getBytes(StandardCharsets.UTF_8)), ".md");
+        Allure.addAttachment("Load Test Timeline (CSV)", "text/csv",
+            new ByteArrayInputStream(toCsv(result).getBytes(StandardCharsets.UTF_8)), ".csv");
+        if (result.getHistogram() != null) {
+            ByteArrayOutputStream distribution = new ByteArrayOutputStream();
+            result.getHistogram().outputPercentileDistribution(new PrintStream(distribution, true), 1000.0);
+            Allure.addAttachment("Load Test Latency Distribution (ms)", "text/plain",
+                new ByteArrayInputStream(distribution.toByteArray()), ".hgrm");
+        }
+        Allure.parameter("Load Profile", result.getProfile());
+        Allure.parameter("Load p95 (ms)", String.format("%.1f", result.getOverall().getP95Ms()));
+
+        if (Boolean.parseBoolean(ConfigManager.getProperty("load.export.history", "false"))) {
+            try {
+                storeHistory(result);
+            } catch (IOException e) {
+                logger.warn("Failed to store load test history", e);
+            }
+        }
+    }
+
+    private static String toCsv(LoadResult result) {
+        StringBuilder csv = new StringBuilder("second,active_users,in_flight,requests,errors,requests_per_second,p50_ms,p95_ms,p99_ms\n");
+        for (IntervalSample sample : result.getTimeline()) {
+            csv.append(String.format("%.1f,%d,%d,%d,%d,%.1f,%.1f,%.1f,%.1f%n", sample.getSecond(), sample.getActiveUsers(),
+                sample.getInFlight(), sample.getRequests(), sample.getErrors(), sample.getRequestsPerSecond(),
+                sample.getP50Ms(), sample.getP95Ms(), sample.getP99Ms()));
+        }
+        return csv.toString();
+    }
+
+    /**
+     * Append to performance-history/<name>_load.json, keeping the last 100 runs
+     */
+    private static void storeHistory(LoadResult result) throws IOException {
+        Files.createDirectories(Paths.get(PERFORMANCE_DATA_DIR));
+        String fileName = result.getName().replaceAll("[^a-zA-Z0-9]", "_") + "_load.json";
+        Path filePath = Paths.get(PERFORMANCE_DATA_DIR, fileName);
+
+        List<LoadResult> history = new ArrayList<>();
+        if (Files.exists(filePath)) {
+            try {
+                history = objectMapper.readValue(Files.readString(filePath), new TypeReference<List<LoadResult>>(){});
+            } catch (Exception e) {
+                logger.warn("Failed to load existing load test history, starting fresh", e);
+            }
+        }
+        history.add(result);
+        if (history.size() > 100) {
+            history = history.subList(history.size() - 100, history.size());
+        }
+        Files.writeString(filePath, objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(history));
+    }
+}
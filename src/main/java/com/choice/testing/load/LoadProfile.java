@@ -0,0 +1,155 @@
+package com.choice.testing.load;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * How many virtual users run over time, and how fast each of them issues requests.
+ *
+ * - ramp: users grow linearly from 0 to the target over the ramp period, then hold
+ * - rate: a fixed pool of users paced so together they issue a constant number of requests per second
+ * - step: users start at one level and grow by a fixed amount at every step boundary
+ *
+ * Profiles are written as "kind:key=value,...", e.g. "ramp:users=2000,ramp=60s,hold=120s",
+ * "rate:rps=500,users=200,duration=60s" or "step:start=100,step=100,every=30s,steps=10".
+ * Durations accept ms, s and m suffixes; a bare number is seconds.
+ */
+public final class LoadProfile {
+
+    public enum Kind { RAMP, RATE, STEP }
+
+    private final Kind kind;
+    private final int users;
+    private final long rampMs;
+    private final long durationMs;
+    private final double requestsPerSecond;
+    private final int stepUsers;
+    private final long stepMs;
+
+    private LoadProfile(Kind kind, int users, long rampMs, long durationMs, double requestsPerSecond, int stepUsers, long stepMs) {
+        this.kind = kind;
+        this.users = users;
+        this.rampMs = rampMs;
+        this.durationMs = durationMs;
+        this.requestsPerSecond = requestsPerSecond;
+        this.stepUsers = stepUsers;
+        this.stepMs = stepMs;
+    }
+
+    public static LoadProfile rampUp(int users, long rampMs, long holdMs) {
+        return new LoadProfile(Kind.RAMP, users, rampMs, rampMs + holdMs, 0, 0, 0);
+    }
+
+    public static LoadProfile constantRate(double requestsPerSecond, int users, long durationMs) {
+        return new LoadProfile(Kind.RATE, users, 0, durationMs, requestsPerSecond, 0, 0);
+    }
+
+    public static LoadProfile step(int startUsers, int stepUsers, long stepMs, int steps) {
+        if (stepMs <= 0 || steps <= 0) {
+            throw new IllegalArgumentException("Step profile needs a positive step duration and step count");
+        }
+        return new LoadProfile(Kind.STEP, startUsers, 0, stepMs * steps, 0, stepUsers, stepMs);
+    }
+
+    /**
+     * @throws IllegalArgumentException for an unknown kind or a missing required key
+     */
+    public static LoadProfile parse(String spec) {
+        int colon = spec.indexOf(':');
+        String kind = (colon < 0 ? spec : spec.substring(0, colon)).trim().toLowerCase(Locale.ROOT);
+        Map<String, String> values = new LinkedHashMap<>();
+        if (colon >= 0) {
+            for (String pair : spec.substring(colon + 1).split(",")) {
+                String[] keyValue = pair.split("=", 2);
+                if (keyValue.length == 2) {
+                    values.put(keyValue[0].trim().toLowerCase(Locale.ROOT), keyValue[1].trim());
+                }
+            }
+        }
+
+        switch (kind) {
+            case "ramp":
+                return rampUp(Integer.parseInt(required(values, "users", spec)),
+                    parseDurationMs(values.getOrDefault("ramp", "0")), parseDurationMs(values.getOrDefault("hold", "0")));
+            case "rate":
+                return constantRate(Double.parseDouble(required(values, "rps", spec)),
+                    Integer.parseInt(required(values, "users", spec)), parseDurationMs(required(values, "duration", spec)));
+            case "step":
+                return step(Integer.parseInt(required(values, "start", spec)), Integer.parseInt(required(values, "step", spec)),
+                    parseDurationMs(required(values, "every", spec)), Integer.parseInt(required(values, "steps", spec)));
+            default:
+                throw new IllegalArgumentException("Unknown load profile '" + kind + "', expected ramp, rate or step");
+        }
+    }
+
+    private static String required(Map<String, String> values, String key, String spec) {
+        String value = values.get(key);
+        if (value == null) {
+            throw new IllegalArgumentException("Load profile '" + spec + "' is missing " + key);
+        }
+        return value;
+    }
+
+    static long parseDurationMs(String value) {
+        String trimmed = value.trim().toLowerCase(Locale.ROOT);
+        if (trimmed.endsWith("ms")) {
+            return Long.parseLong(trimmed.substring(0, trimmed.length() - 2).trim());
+        }
+        if (trimmed.endsWith("m")) {
+            return Math.round(Double.parseDouble(trimmed.substring(0, trimmed.length() - 1).trim()) * 60_000);
+        }
+        if (trimmed.endsWith("s")) {
+            trimmed = trimmed.substring(0, trimmed.length() - 1).trim();
+        }
+        return Math.round(Double.parseDouble(trimmed) * 1000);
+    }
+
+    /**
+     * Target number of virtual users at the given time since the start of the run
+     */
+    public int usersAt(long elapsedMs) {
+        switch (kind) {
+            case RAMP:
+                if (rampMs <= 0 || elapsedMs >= rampMs) {
+                    return users;
+                }
+                return (int) Math.max(1, (long) users * elapsedMs / rampMs);
+            case STEP:
+                return users + stepUsers * (int) Math.min(elapsedMs / stepMs, durationMs / stepMs - 1);
+            default:
+                return users;
+        }
+    }
+
+    /**
+     * Interval between one user's request starts so the active users together hit the target
+     * rate, in nanoseconds; 0 when requests are not paced
+     */
+    public long pacingNanos(int activeUsers) {
+        if (kind != Kind.RATE || requestsPerSecond <= 0) {
+            return 0;
+        }
+        return (long) (activeUsers * 1_000_000_000L / requestsPerSecond);
+    }
+
+    public int peakUsers() {
+        return kind == Kind.STEP ? usersAt(durationMs - 1) : users;
+    }
+
+    public Kind getKind() { return kind; }
+    public long getDurationMs() { return durationMs; }
+    public double getRequestsPerSecond() { return requestsPerSecond; }
+
+    @Override
+    public String toString() {
+        switch (kind) {
+            case RAMP:
+                return String.format("ramp to %d users over %ds, hold %ds", users, rampMs / 1000, (durationMs - rampMs) / 1000);
+            case RATE:
+                return String.format("%.0f req/s from %d users for %ds", requestsPerSecond, users, durationMs / 1000);
+            default:
+                return String.format("%d users +%d every %ds for %d steps", users, stepUsers, stepMs / 1000, durationMs / stepMs);
+        }
+    }
+}
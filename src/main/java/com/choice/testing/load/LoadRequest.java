@@ -0,0 +1,80 @@
+package com.choice.testing.load;
+
+import com.choice.testing.config.ConfigManager;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * One HTTP request in a load scenario. Latencies are reported per request name.
+ */
+public class LoadRequest {
+
+    private final String name;
+    private final String method;
+    private final String url;
+    private final Map<String, String> headers;
+    private final String body;
+    private final String contentType;
+
+    public LoadRequest(String name, String method, String url, Map<String, String> headers, String body, String contentType) {
+        this.name = name;
+        this.method = method.toUpperCase(Locale.ROOT);
+        this.url = url;
+        this.headers = headers != null ? headers : new LinkedHashMap<>();
+        this.body = body;
+        this.contentType = contentType;
+    }
+
+    public static LoadRequest get(String name, String url) {
+        return new LoadRequest(name, "GET", url, null, null, null);
+    }
+
+    public static LoadRequest post(String name, String url, String body, String contentType) {
+        return new LoadRequest(name, "POST", url, null, body, contentType);
+    }
+
+    /**
+     * Requests from load.requests: ';'-separated "name|METHOD|path" entries resolved against
+     * load.base.url. {destination}, {checkin}, {checkout}, {rooms} and {adults} are filled from
+     * the hotel search test data.
+     */
+    public static List<LoadRequest> fromConfig() {
+        String baseUrl = ConfigManager.getProperty("load.base.url", ConfigManager.getProperty("base.url"));
+        List<LoadRequest> requests = new ArrayList<>();
+        for (String entry : ConfigManager.getProperty("load.requests", "").split(";")) {
+            if (entry.trim().isEmpty()) {
+                continue;
+            }
+            String[] parts = entry.trim().split("\\|", 3);
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("Expected name|METHOD|path in load.requests, got '" + entry + "'");
+            }
+            String path = expandSearchPlaceholders(parts[2].trim());
+            requests.add(new LoadRequest(parts[0].trim(), parts[1].trim(), path.startsWith("http") ? path : baseUrl + path,
+                null, null, null));
+        }
+        return requests;
+    }
+
+    private static String expandSearchPlaceholders(String path) {
+        LocalDate today = LocalDate.now();
+        return path
+            .replace("{destination}", ConfigManager.getProperty("test.destination", "Orlando, FL").replace(" ", "%20").replace(",", "%2C"))
+            .replace("{checkin}", today.plusDays(ConfigManager.getIntProperty("test.checkin.days.future", 7)).toString())
+            .replace("{checkout}", today.plusDays(ConfigManager.getIntProperty("test.checkout.days.future", 9)).toString())
+            .replace("{rooms}", ConfigManager.getProperty("test.rooms", "1"))
+            .replace("{adults}", ConfigManager.getProperty("test.adults", "2"));
+    }
+
+    public String getName() { return name; }
+    public String getMethod() { return method; }
+    public String getUrl() { return url; }
+    public Map<String, String> getHeaders() { return headers; }
+    public String getBody() { return body; }
+    public String getContentType() { return contentType; }
+}
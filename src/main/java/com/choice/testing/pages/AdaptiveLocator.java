@@ -0,0 +1,290 @@
+package com.choice.testing.pages;
+
+import com.choice.testing.config.ConfigManager;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.WebElement;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Locator with several alternative selectors that learns which one matches and how fast.
+ *
+ * The comma-separated @FindBy fallbacks run as one selector under the 5s implicit wait, and
+ * an invalid part such as :contains() makes the whole lookup fail. This class splits them,
+ * turns :contains() into XPath, and tries each alternative with the implicit wait off, best
+ * ranked first. The ranking is kept in locator.rankings.file (under target/ by default, since it
+ * is a per-machine cache rather than history), so later runs go straight to the selector that
+ * matched before.
+ */
+public class AdaptiveLocator {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdaptiveLocator.class);
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final Path RANKINGS_FILE =
+        Paths.get(ConfigManager.getProperty("locator.rankings.file", "target/locator-rankings.json"));
+
+    // tag, .class/#id chain and the text of a simple "tag.class:contains('text')" selector
+    private static final Pattern CONTAINS_SELECTOR =
+        Pattern.compile("^([a-zA-Z][\\w-]*)?((?:[.#][\\w-]+)*):contains\\((['\"])(.*)\\3\\)$");
+    private static final Pattern CLASS_OR_ID = Pattern.compile("([.#])([\\w-]+)");
+
+    private static final Map<String, Map<String, AlternativeStats>> rankings = loadRankings();
+    private static volatile boolean dirty;
+
+    private final String name;
+    private final List<By> alternatives;
+
+    /**
+     * Match statistics for one alternative of one locator
+     */
+    public static class AlternativeStats {
+        private long attempts;
+        private long hits;
+        private double totalHitMs;
+
+        // Getters and setters
+        public long getAttempts() { return attempts; }
+        public void setAttempts(long attempts) { this.attempts = attempts; }
+
+        public long getHits() { return hits; }
+        public void setHits(long hits) { this.hits = hits; }
+
+        public double getTotalHitMs() { return totalHitMs; }
+        public void setTotalHitMs(double totalHitMs) { this.totalHitMs = totalHitMs; }
+
+        public double hitRate() {
+            return attempts > 0 ? (double) hits / attempts : 0;
+        }
+
+        public double averageHitMs() {
+            return hits > 0 ? totalHitMs / hits : Double.MAX_VALUE;
+        }
+    }
+
+    public AdaptiveLocator(String name, List<By> alternatives) {
+        this.name = name;
+        this.alternatives = new ArrayList<>(alternatives);
+    }
+
+    /**
+     * Build from a comma-separated CSS fallback list as used in @FindBy.
+     * Alternatives using the jQuery-only :contains() are converted to XPath.
+     */
+    public static AdaptiveLocator fromCss(String name, String commaSeparatedCss) {
+        List<By> alternatives = new ArrayList<>();
+        for (String selector : splitSelectorList(commaSeparatedCss)) {
+            By by = toBy(selector);
+            if (by != null) {
+                alternatives.add(by);
+            } else {
+                logger.warn("Dropping unsupported selector '{}' from locator {}", selector, name);
+            }
+        }
+        return new AdaptiveLocator(name, alternatives);
+    }
+
+    /**
+     * First element of the best matching alternative. Polls all alternatives until one
+     * matches or locator.timeout.ms passes; returns null when nothing matched.
+     */
+    public WebElement find(WebDriver driver) {
+        List<WebElement> elements = findAll(driver);
+        return elements.isEmpty() ? null : elements.get(0);
+    }
+
+    /**
+     * All elements of the best matching alternative, or an empty list after locator.timeout.ms
+     */
+    public List<WebElement> findAll(WebDriver driver) {
+        long deadline = System.currentTimeMillis() + ConfigManager.getIntProperty("locator.timeout.ms", 5000);
+        long pollMs = ConfigManager.getIntProperty("locator.poll.interval.ms", 100);
+
+        Duration implicitWait = driver.manage().timeouts().getImplicitWaitTimeout();
+        driver.manage().timeouts().implicitlyWait(Duration.ZERO);
+        try {
+            while (true) {
+                List<WebElement> elements = tryAlternatives(driver);
+                if (!elements.isEmpty() || System.currentTimeMillis() >= deadline) {
+                    return elements;
+                }
+                try {
+                    Thread.sleep(pollMs);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return elements;
+                }
+            }
+        } finally {
+            driver.manage().timeouts().implicitlyWait(implicitWait);
+        }
+    }
+
+    /**
+     * One pass over the alternatives in ranked order, stopping at the first that matches
+     */
+    private List<WebElement> tryAlternatives(WebDriver driver) {
+        if (alternatives.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Map<String, AlternativeStats> stats = rankings.computeIfAbsent(name, key -> new ConcurrentHashMap<>());
+        List<By> ranked = rankedAlternatives(stats);
+        String previousWinner = ranked.get(0).toString();
+
+        for (By alternative : ranked) {
+            AlternativeStats alternativeStats = stats.computeIfAbsent(alternative.toString(), key -> new AlternativeStats());
+            long start = System.nanoTime();
+            List<WebElement> elements;
+            try {
+                elements = driver.findElements(alternative);
+            } catch (WebDriverException e) {
+                elements = Collections.emptyList();
+            }
+            double elapsedMs = (System.nanoTime() - start) / 1_000_000.0;
+
+            synchronized (alternativeStats) {
+                alternativeStats.attempts++;
+                if (!elements.isEmpty()) {
+                    alternativeStats.hits++;
+                    alternativeStats.totalHitMs += elapsedMs;
+                }
+            }
+            dirty = true;
+
+            if (!elements.isEmpty()) {
+                if (!alternative.toString().equals(previousWinner)) {
+                    logger.info("Locator {} now prefers {} ({} ms)", name, alternative, String.format("%.1f", elapsedMs));
+                    saveRankings();
+                }
+                return elements;
+            }
+        }
+        return Collections.emptyList();
+    }
+
+    /**
+     * Highest hit rate first, then lowest average match time; unseen alternatives keep declaration order
+     */
+    private List<By> rankedAlternatives(Map<String, AlternativeStats> stats) {
+        List<By> ranked = new ArrayList<>(alternatives);
+        ranked.sort(Comparator
+            .comparingDouble((By by) -> -statsFor(stats, by).hitRate())
+            .thenComparingDouble(by -> statsFor(stats, by).averageHitMs()));
+        return ranked;
+    }
+
+    private static AlternativeStats statsFor(Map<String, AlternativeStats> stats, By by) {
+        AlternativeStats alternativeStats = stats.get(by.toString());
+        return alternativeStats != null ? alternativeStats : new AlternativeStats();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Write the rankings if anything changed since the last save
+     */
+    public static synchronized void saveRankings() {
+        if (!dirty) {
+            return;
+        }
+        try {
+            Files.createDirectories(RANKINGS_FILE.getParent());
+            Files.writeString(RANKINGS_FILE, objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(rankings));
+            dirty = false;
+        } catch (Exception e) {
+            logger.warn("Failed to save locator rankings", e);
+        }
+    }
+
+    private static Map<String, Map<String, AlternativeStats>> loadRankings() {
+        Map<String, Map<String, AlternativeStats>> loaded = new ConcurrentHashMap<>();
+        if (!Files.exists(RANKINGS_FILE)) {
+            return loaded;
+        }
+        try {
+            Map<String, Map<String, AlternativeStats>> stored = objectMapper.readValue(Files.readString(RANKINGS_FILE),
+                new TypeReference<Map<String, Map<String, AlternativeStats>>>(){});
+            stored.forEach((locator, stats) -> loaded.put(locator, new ConcurrentHashMap<>(stats)));
+        } catch (Exception e) {
+            logger.warn("Failed to load locator rankings, starting fresh", e);
+        }
+        return loaded;
+    }
+
+    /**
+     * Split on top-level commas only - commas inside [...], (...) or quotes belong to the selector
+     */
+    static List<String> splitSelectorList(String selectorList) {
+        List<String> parts = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        int depth = 0;
+        char quote = 0;
+
+        for (char c : selectorList.toCharArray()) {
+            if (quote != 0) {
+                if (c == quote) {
+                    quote = 0;
+                }
+            } else if (c == '\'' || c == '"') {
+                quote = c;
+            } else if (c == '[' || c == '(') {
+                depth++;
+            } else if (c == ']' || c == ')') {
+                depth--;
+            } else if (c == ',' && depth == 0) {
+                parts.add(current.toString().trim());
+                current.setLength(0);
+                continue;
+            }
+            current.append(c);
+        }
+        if (current.toString().trim().length() > 0) {
+            parts.add(current.toString().trim());
+        }
+        return parts;
+    }
+
+    private static By toBy(String selector) {
+        if (!selector.contains(":contains(")) {
+            return By.cssSelector(selector);
+        }
+
+        Matcher matcher = CONTAINS_SELECTOR.matcher(selector);
+        if (!matcher.matches()) {
+            return null;
+        }
+
+        StringBuilder xpath = new StringBuilder("//").append(matcher.group(1) != null ? matcher.group(1) : "*");
+        Matcher classOrId = CLASS_OR_ID.matcher(matcher.group(2));
+        while (classOrId.find()) {
+            if (".".equals(classOrId.group(1))) {
+                xpath.append("[contains(concat(' ', normalize-space(@class), ' '), ' ").append(classOrId.group(2)).append(" ')]");
+            } else {
+                xpath.append("[@id='").append(classOrId.group(2)).append("']");
+            }
+        }
+
+        String text = matcher.group(4);
+        String literal = text.contains("'") ? "\"" + text + "\"" : "'" + text + "'";
+        xpath.append("[contains(normalize-space(.), ").append(literal).append(")]");
+        return By.xpath(xpath.toString());
+    }
+}
@@ -1,6 +1,9 @@
 package com.choice.testing.pages;
 
 import com.choice.testing.drivers.DriverManager;
+import com.choice.testing.utils.ActionTimingRecorder;
+import com.choice.testing.utils.InteractionLatencyRecorder;
+import com.choice.testing.utils.SmartWait;
 import org.openqa.selenium.By;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
@@ -9,14 +12,36 @@ import org.openqa.selenium.support.ui.WebDriverWait;
 import org.openqa.selenium.support.ui.ExpectedConditions;
 
 import java.time.Duration;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 public abstract class BasePage {
     protected WebDriver driver;
     protected WebDriverWait wait;
     
+    /**
+     * WebDriverWait that reports its time as wait time to ActionTimingRecorder,
+     * so polling commands are not counted as WebDriver time
+     */
+    private static class TimedWait extends WebDriverWait {
+        TimedWait(WebDriver driver, Duration timeout) {
+            super(driver, timeout);
+        }
+        
+        @Override
+        public <V> V until(Function<? super WebDriver, V> isTrue) {
+            long waitStart = ActionTimingRecorder.beginWait();
+            try {
+                return super.until(isTrue);
+            } finally {
+                ActionTimingRecorder.endWait("WebDriverWait", waitStart);
+            }
+        }
+    }
+    
     public BasePage() {
         this.driver = DriverManager.getWebDriver();
-        this.wait = new WebDriverWait(driver, Duration.ofSeconds(5));
+        this.wait = new TimedWait(driver, Duration.ofSeconds(5));
         PageFactory.initElements(driver, this);
     }
     
@@ -25,13 +50,74 @@ public abstract class BasePage {
     }
     
     protected void clickElement(WebElement element) {
-        wait.until(ExpectedConditions.elementToBeClickable(element)).click();
+        clickElement(element, "click");
+    }
+    
+    /**
+     * Click and report the interaction's latency under the given name
+     */
+    protected void clickElement(WebElement element, String interactionName) {
+        timed("clickElement", () -> {
+            WebElement clickable = wait.until(ExpectedConditions.elementToBeClickable(element));
+            InteractionLatencyRecorder.beforeInteraction(driver, interactionName);
+            clickable.click();
+            InteractionLatencyRecorder.afterInteraction(driver);
+        });
     }
     
     protected void sendKeys(WebElement element, String text) {
-        wait.until(ExpectedConditions.visibilityOf(element));
-        element.clear();
-        element.sendKeys(text);
+        sendKeys(element, text, "type");
+    }
+    
+    /**
+     * Type text and report the keypress latencies under the given name
+     */
+    protected void sendKeys(WebElement element, String text, String interactionName) {
+        timed("sendKeys", () -> {
+            wait.until(ExpectedConditions.visibilityOf(element));
+            element.clear();
+            InteractionLatencyRecorder.beforeInteraction(driver, interactionName);
+            element.sendKeys(text);
+            InteractionLatencyRecorder.afterInteraction(driver);
+        });
+    }
+    
+    /**
+     * Report the duration of a page action to ActionTimingRecorder. WebDriver commands are
+     * attributed to the calling page method automatically; this is for spans that need their own label.
+     */
+    protected <T> T timed(String label, Supplier<T> action) {
+        long actionStart = ActionTimingRecorder.beginAction();
+        try {
+            return action.get();
+        } finally {
+            ActionTimingRecorder.endAction(label, actionStart);
+        }
+    }
+    
+    protected void timed(String label, Runnable action) {
+        long actionStart = ActionTimingRecorder.beginAction();
+        try {
+            action.run();
+        } finally {
+            ActionTimingRecorder.endAction(label, actionStart);
+        }
+    }
+    
+    public SmartWait.WaitResult waitForNetworkIdle() {
+        return SmartWait.waitForNetworkIdle(driver, SmartWait.getDefaultTimeout());
+    }
+    
+    public SmartWait.WaitResult waitForDomQuiescence() {
+        return SmartWait.waitForDomQuiescence(driver, SmartWait.getDefaultTimeout());
+    }
+    
+    public SmartWait.WaitResult waitForElementStable(WebElement element) {
+        return SmartWait.waitForElementStable(driver, element, SmartWait.getDefaultTimeout());
+    }
+    
+    public SmartWait.WaitResult waitForPageSettled() {
+        return SmartWait.waitForPageSettled(driver, SmartWait.getDefaultTimeout());
     }
     
     public String getPageTitle() {
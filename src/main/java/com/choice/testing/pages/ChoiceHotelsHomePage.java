@@ -10,9 +10,9 @@ import java.time.format.DateTimeFormatter;
 
 public class ChoiceHotelsHomePage extends BasePage {
     
-    // Navigation elements
-    @FindBy(css = "a[href*='hotels'], .nav-link:contains('Find'), button:contains('Find')")
-    private WebElement findHotelNavLink;
+    // Navigation elements - adaptive because the fallbacks include :contains(), which is not valid CSS
+    private static final AdaptiveLocator findHotelNavLink = AdaptiveLocator.fromCss(
+        "ChoiceHotelsHomePage.findHotelNavLink", "a[href*='hotels'], .nav-link:contains('Find'), button:contains('Find')");
     
     @FindBy(css = "button[data-testid='find-hotel'], .find-hotel-btn, .search-btn")
     private WebElement findHotelButton;
@@ -57,8 +57,9 @@ public class ChoiceHotelsHomePage extends BasePage {
     public void clickFindHotelInNav() {
         try {
             // Try multiple approaches to find the nav element
-            if (isElementPresent(findHotelNavLink)) {
-                clickElement(findHotelNavLink);
+            WebElement navLink = findHotelNavLink.find(driver);
+            if (navLink != null && isElementPresent(navLink)) {
+                clickElement(navLink, "Open Find a Hotel");
             } else if (isElementPresent(findHotelLinkXPath)) {
                 clickElement(findHotelLinkXPath);
             } else {
@@ -94,11 +95,11 @@ public class ChoiceHotelsHomePage extends BasePage {
     public void enterDestination(String destination) {
         try {
             wait.until(ExpectedConditions.elementToBeClickable(destinationInput));
-            sendKeys(destinationInput, destination);
+            sendKeys(destinationInput, destination, "Type destination");
             System.out.println("✅ Entered destination: " + destination);
             
-            // Wait a moment for autocomplete suggestions to appear and disappear
-            Thread.sleep(1000);
+            // Wait for autocomplete suggestions to settle
+            waitForDomQuiescence();
             
         } catch (Exception e) {
             System.out.println("⚠️  Could not find destination input field");
@@ -117,11 +118,11 @@ public class ChoiceHotelsHomePage extends BasePage {
         try {
             // Click check-in date button to open date picker
             wait.until(ExpectedConditions.elementToBeClickable(checkinDateInput));
-            clickElement(checkinDateInput);
+            clickElement(checkinDateInput, "Open check-in date picker");
             System.out.println("✅ Clicked check-in date button");
             
             // Wait for date picker to open and try to set date
-            Thread.sleep(1000);
+            waitForDomQuiescence();
             
             // Try to find and click the date in the calendar
             try {
@@ -130,7 +131,7 @@ public class ChoiceHotelsHomePage extends BasePage {
                 org.openqa.selenium.WebElement dateElement = driver.findElement(
                     org.openqa.selenium.By.xpath("//button[contains(@aria-label, '" + dayOfMonth + "') or text()='" + dayOfMonth + "']")
                 );
-                clickElement(dateElement);
+                clickElement(dateElement, "Select check-in date");
                 System.out.println("✅ Selected check-in date: " + checkinStr);
             } catch (Exception dateEx) {
                 System.out.println("⚠️  Could not find specific date in calendar, using default");
@@ -138,15 +139,15 @@ public class ChoiceHotelsHomePage extends BasePage {
                 checkinDateInput.sendKeys(org.openqa.selenium.Keys.ESCAPE);
             }
             
-            // Small delay before checkout date
-            Thread.sleep(500);
+            // Let the picker close before opening checkout date
+            waitForDomQuiescence();
             
             // Click check-out date button
             wait.until(ExpectedConditions.elementToBeClickable(checkoutDateInput));
-            clickElement(checkoutDateInput);
+            clickElement(checkoutDateInput, "Open check-out date picker");
             System.out.println("✅ Clicked check-out date button");
             
-            Thread.sleep(1000);
+            waitForDomQuiescence();
             
             // Try to find and click checkout date
             try {
@@ -154,7 +155,7 @@ public class ChoiceHotelsHomePage extends BasePage {
                 org.openqa.selenium.WebElement checkoutDateElement = driver.findElement(
                     org.openqa.selenium.By.xpath("//button[contains(@aria-label, '" + checkoutDay + "') or text()='" + checkoutDay + "']")
                 );
-                clickElement(checkoutDateElement);
+                clickElement(checkoutDateElement, "Select check-out date");
                 System.out.println("✅ Selected check-out date: " + checkoutStr);
             } catch (Exception dateEx) {
                 System.out.println("⚠️  Could not find checkout date in calendar, using default");
@@ -170,11 +171,11 @@ public class ChoiceHotelsHomePage extends BasePage {
         try {
             // Click the rooms & guests dropdown button to open the occupancy dropdown
             wait.until(ExpectedConditions.elementToBeClickable(roomsDropdown));
-            clickElement(roomsDropdown);
+            clickElement(roomsDropdown, "Open rooms dropdown");
             System.out.println("✅ Clicked Rooms & Guests dropdown");
             
             // Wait for dropdown to open
-            Thread.sleep(1000);
+            waitForElementStable(adultsDropdown);
             
             // Set adults count using the number input
             try {
@@ -200,7 +201,7 @@ public class ChoiceHotelsHomePage extends BasePage {
                         );
                         for (int i = currentAdults; i < adults; i++) {
                             clickElement(plusButton);
-                            Thread.sleep(200);
+                            waitForDomQuiescence();
                         }
                     } else if (adults < currentAdults) {
                         // Click - button to decrease  
@@ -209,7 +210,7 @@ public class ChoiceHotelsHomePage extends BasePage {
                         );
                         for (int i = currentAdults; i > adults; i--) {
                             clickElement(minusButton);
-                            Thread.sleep(200);
+                            waitForDomQuiescence();
                         }
                     }
                     System.out.println("✅ Set adults to " + adults + " using +/- buttons");
@@ -252,11 +253,11 @@ public class ChoiceHotelsHomePage extends BasePage {
     public void clickSearch() {
         try {
             wait.until(ExpectedConditions.elementToBeClickable(searchButton));
-            clickElement(searchButton);
+            clickElement(searchButton, "Search");
             System.out.println("✅ Clicked Search button");
             
             // Wait for search results or next page to load
-            Thread.sleep(3000);
+            waitForPageSettled();
             
         } catch (Exception e) {
             System.out.println("⚠️  Could not find search button, trying alternatives");
@@ -286,24 +287,18 @@ public class ChoiceHotelsHomePage extends BasePage {
     public void performHotelSearch(String destination, int checkinDays, int checkoutDays, int rooms, int adults) {
         System.out.println("🏨 Starting hotel search flow...");
 
-        try {
-            clickFindHotelInNav();
-            Thread.sleep(2000);
+        clickFindHotelInNav();
+        // The nav link may load a new page or just reveal the search form
+        waitForPageSettled();
 
-            selectAllTypeHotels();
-            Thread.sleep(1500);
+        selectAllTypeHotels();
+        waitForDomQuiescence();
 
-            enterDestination(destination);
-            Thread.sleep(2000);
+        enterDestination(destination);
 
-            enterDates(checkinDays, checkoutDays);
-            selectRoomsAndGuests(rooms, adults);
-            clickSearch();
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            System.err.println("⚠️ Error during hotel search: " + e.getMessage());
-            e.printStackTrace();
-        }
+        enterDates(checkinDays, checkoutDays);
+        selectRoomsAndGuests(rooms, adults);
+        clickSearch();
 
         System.out.println("🏨 Hotel search completed!");
     }    
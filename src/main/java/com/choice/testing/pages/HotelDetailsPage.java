@@ -4,7 +4,9 @@ import org.openqa.selenium.WebElement;
 import org.openqa.selenium.support.FindBy;
 import org.openqa.selenium.support.ui.ExpectedConditions;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 public class HotelDetailsPage extends BasePage {
     
@@ -134,7 +136,7 @@ public class HotelDetailsPage extends BasePage {
     public void clickViewRooms() {
         try {
             if (hasViewRoomsButton()) {
-                clickElement(viewRoomsButton);
+                clickElement(viewRoomsButton, "View rooms");
                 System.out.println("📚 Clicked View Rooms button");
             } else {
                 System.out.println("⚠️ View Rooms button not found");
@@ -145,18 +147,45 @@ public class HotelDetailsPage extends BasePage {
     }
     
     public String getHotelDetailsInfo() {
+        try {
+            wait.until(ExpectedConditions.visibilityOf(hotelName));
+        } catch (Exception e) {
+            // Probe anyway and report what is there
+        }
+        
+        // One script call for all fields instead of an isDisplayed/getText pair per field
+        PageProbe.ProbeResult details = probeHotelDetails();
+        
         StringBuilder info = new StringBuilder();
         info.append("Hotel Details:\n");
-        info.append("Name: ").append(getHotelName()).append("\n");
-        info.append("Address: ").append(getHotelAddress()).append("\n");
-        info.append("Rating: ").append(getHotelRating()).append("\n");
-        info.append("Price: ").append(getHotelPrice()).append("\n");
-        info.append("Phone: ").append(getHotelPhone()).append("\n");
-        info.append("Room Options: ").append(getRoomCardsCount()).append(" available\n");
-        info.append("Has View Rooms Button: ").append(hasViewRoomsButton()).append("\n");
+        info.append("Name: ").append(details.getText("name", "Hotel name not found")).append("\n");
+        info.append("Address: ").append(details.getText("address", "Address not available")).append("\n");
+        info.append("Rating: ").append(details.getText("rating", "Rating not available")).append("\n");
+        info.append("Price: ").append(details.getText("price", "Price not available")).append("\n");
+        info.append("Phone: ").append(details.getText("phone", "Phone not available")).append("\n");
+        info.append("Room Options: ").append(details.get("roomCards").getVisibleCount()).append(" available\n");
+        info.append("Has View Rooms Button: ").append(details.isVisible("viewRoomsButton")).append("\n");
         return info.toString();
     }
     
+    /**
+     * Bulk read of the detail fields. Selectors mirror the @FindBy locators above.
+     */
+    public PageProbe.ProbeResult probeHotelDetails() {
+        Map<String, String> selectors = new LinkedHashMap<>();
+        selectors.put("name", "h1.property-header-h1");
+        selectors.put("description", ".hotel-text p");
+        selectors.put("address", ".headband-address.sticky");
+        selectors.put("phone", ".headband-phone span:nth-child(2)");
+        selectors.put("rating", ".hotel-rating, .property-rating, .rating, .stars");
+        selectors.put("price", ".headband .main-price .price");
+        selectors.put("amenities", ".hotel-amenities, .property-amenities, .amenities");
+        selectors.put("images", ".hotel-images, .property-images, .gallery, .photos");
+        selectors.put("viewRoomsButton", "button.choice-button.primary_cta[data-track-id='CheckAvailability']");
+        selectors.put("roomCards", ".property-rooms-grid-view-card");
+        return PageProbe.probe(driver, selectors);
+    }
+    
     private boolean isElementDisplayed(WebElement element) {
         try {
             return element.isDisplayed();
@@ -1,10 +1,14 @@
 package com.choice.testing.pages;
 
+import com.choice.testing.utils.ScrollSmoothnessBenchmark;
+import org.openqa.selenium.JavascriptExecutor;
 import org.openqa.selenium.WebElement;
 import org.openqa.selenium.support.FindBy;
 import org.openqa.selenium.support.ui.ExpectedConditions;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
 
 public class HotelSearchResultsPage extends BasePage {
@@ -26,9 +30,10 @@ public class HotelSearchResultsPage extends BasePage {
     @FindBy(css = "h1, .page-title")
     private WebElement pageTitle;
     
-    // See Availability buttons - works for both List and Grid view
-    @FindBy(css = "a.choice-button.primary_cta[data-track-id*='CheckAvailability'], a[data-track-id*='CheckAvailability'], button[data-track-id*='CheckAvailability'], .see-availability")
-    private List<WebElement> seeAvailabilityButtons;
+    // See Availability buttons - works for both List and Grid view; goes straight to whichever alternative matched last
+    private static final AdaptiveLocator seeAvailabilityButtons = AdaptiveLocator.fromCss(
+        "HotelSearchResultsPage.seeAvailabilityButtons",
+        "a.choice-button.primary_cta[data-track-id*='CheckAvailability'], a[data-track-id*='CheckAvailability'], button[data-track-id*='CheckAvailability'], .see-availability");
     
     // Removed old map flyout locators - using Grid view approach now
     
@@ -38,8 +43,8 @@ public class HotelSearchResultsPage extends BasePage {
             System.out.println("📍 Current URL: " + getCurrentUrl());
             System.out.println("📄 Page title: " + getPageTitle());
             
-            // Wait for page to load
-            Thread.sleep(5000);
+            // Wait for the results page to finish loading
+            waitForPageSettled();
             
             // Try to find any potential hotel-related elements
             debugPageElements();
@@ -73,15 +78,18 @@ public class HotelSearchResultsPage extends BasePage {
                 "div[class*='hotel']", "div[class*='property']"
             };
             
+            // Probe all selectors in one script call instead of one findElements per selector
+            Map<String, String> selectors = new LinkedHashMap<>();
+            for (String selector : potentialSelectors) {
+                selectors.put(selector, selector);
+            }
+            PageProbe.ProbeResult probe = PageProbe.probe(driver, selectors);
+            
             System.out.println("🔍 Scanning page for potential hotel elements:");
             for (String selector : potentialSelectors) {
-                try {
-                    var elements = driver.findElements(org.openqa.selenium.By.cssSelector(selector));
-                    if (elements.size() > 0) {
-                        System.out.println("   ✅ Found " + elements.size() + " elements matching: " + selector);
-                    }
-                } catch (Exception e) {
-                    // Continue to next selector
+                int count = probe.getCount(selector);
+                if (count > 0) {
+                    System.out.println("   ✅ Found " + count + " elements matching: " + selector);
                 }
             }
         } catch (Exception e) {
@@ -114,11 +122,12 @@ public class HotelSearchResultsPage extends BasePage {
                 // Try switching to Grid view as fallback
                 try {
                     wait.until(ExpectedConditions.elementToBeClickable(gridViewButton));
-                    clickElement(gridViewButton);
+                    clickElement(gridViewButton, "Switch to grid view");
                     System.out.println("✅ Clicked Grid view button");
                     
-                    // Wait for view to load
-                    Thread.sleep(3000);
+                    // Wait for the grid to render
+                    waitForNetworkIdle();
+                    waitForDomQuiescence();
                     
                     int newCount = hotelResults.size();
                     System.out.println("✅ After Grid view switch: " + newCount + " hotel results");
@@ -133,6 +142,25 @@ public class HotelSearchResultsPage extends BasePage {
         }
     }
     
+    /**
+     * Frame smoothness of a scroll down the results from the top of the page
+     */
+    public ScrollSmoothnessBenchmark.SmoothnessResult measureScrollSmoothness() {
+        wait.until(ExpectedConditions.visibilityOfAllElements(hotelResults));
+        ((JavascriptExecutor) driver).executeScript("window.scrollTo(0, 0);");
+        return ScrollSmoothnessBenchmark.measure(driver, "Search Results Scroll", () -> ScrollSmoothnessBenchmark.scroll(driver));
+    }
+    
+    /**
+     * Frame smoothness of the switch to grid view, until the DOM settles
+     */
+    public ScrollSmoothnessBenchmark.SmoothnessResult measureGridViewTransition() {
+        wait.until(ExpectedConditions.elementToBeClickable(gridViewButton));
+        // The sampler waits for the DOM and animations to go idle itself
+        return ScrollSmoothnessBenchmark.measure(driver, "Grid View Toggle",
+            () -> clickElement(gridViewButton, "Switch to grid view"));
+    }
+    
     public boolean isOnSearchResultsPage() {
         try {
             // Check if we're on a results page by URL or page elements
@@ -185,21 +213,22 @@ public class HotelSearchResultsPage extends BasePage {
             ensureHotelResultsVisible();
             
             // Step 2: Find available See Availability buttons
-            wait.until(ExpectedConditions.visibilityOfAllElements(seeAvailabilityButtons));
+            List<WebElement> availabilityButtons = seeAvailabilityButtons.findAll(driver);
             
-            if (seeAvailabilityButtons.isEmpty()) {
+            if (availabilityButtons.isEmpty()) {
                 throw new RuntimeException("No 'See Availability' buttons found on the page");
             }
+            wait.until(ExpectedConditions.visibilityOfAllElements(availabilityButtons));
             
             // Step 3: Select and click a random See Availability button
             Random random = new Random();
-            int randomIndex = random.nextInt(seeAvailabilityButtons.size());
-            WebElement randomSeeAvailabilityButton = seeAvailabilityButtons.get(randomIndex);
+            int randomIndex = random.nextInt(availabilityButtons.size());
+            WebElement randomSeeAvailabilityButton = availabilityButtons.get(randomIndex);
             
-            System.out.println("🎲 Clicking random 'See Availability' button " + (randomIndex + 1) + " of " + seeAvailabilityButtons.size());
+            System.out.println("🎲 Clicking random 'See Availability' button " + (randomIndex + 1) + " of " + availabilityButtons.size());
             
             wait.until(ExpectedConditions.elementToBeClickable(randomSeeAvailabilityButton));
-            clickElement(randomSeeAvailabilityButton);
+            clickElement(randomSeeAvailabilityButton, "See Availability");
             
             System.out.println("✅ Successfully clicked 'See Availability' - navigating to hotel details");
             
@@ -0,0 +1,180 @@
+package com.choice.testing.pages;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Reads count, visibility, text and bounding box for a set of named CSS selectors
+ * in a single executeScript call. Each findElements/isDisplayed/getText is its own
+ * WebDriver round trip, so bulk reads through the page model get slow quickly.
+ */
+public class PageProbe {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper()
+        .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private static final int MAX_TEXT_LENGTH = 500;
+
+    // Visibility follows WebDriver's isDisplayed closely enough for reads: rendered box and not hidden by style
+    private static final String PROBE_SCRIPT =
+        "var selectors = arguments[0], maxText = arguments[1], result = {};" +
+        "function isVisible(el) {" +
+        "  var rect = el.getBoundingClientRect();" +
+        "  if (rect.width === 0 || rect.height === 0) return false;" +
+        "  var style = window.getComputedStyle(el);" +
+        "  return style.visibility !== 'hidden' && style.display !== 'none' && style.opacity !== '0';" +
+        "}" +
+        "Object.keys(selectors).forEach(function(name) {" +
+        "  var probe = {count: 0, visibleCount: 0, visible: false, text: null, box: null, error: null};" +
+        "  try {" +
+        "    var matches = document.querySelectorAll(selectors[name]);" +
+        "    probe.count = matches.length;" +
+        "    for (var i = 0; i < matches.length; i++) {" +
+        "      if (!isVisible(matches[i])) continue;" +
+        "      probe.visibleCount++;" +
+        "      if (!probe.visible) {" +
+        "        var rect = matches[i].getBoundingClientRect();" +
+        "        probe.visible = true;" +
+        "        probe.text = (matches[i].innerText || '').trim().substring(0, maxText);" +
+        "        probe.box = {x: rect.x, y: rect.y, width: rect.width, height: rect.height};" +
+        "      }" +
+        "    }" +
+        "  } catch (e) {" +
+        "    probe.error = e.message;" +
+        "  }" +
+        "  result[name] = probe;" +
+        "});" +
+        "return JSON.stringify(result);";
+
+    public static class BoundingBox {
+        private double x;
+        private double y;
+        private double width;
+        private double height;
+
+        // Getters and setters
+        public double getX() { return x; }
+        public void setX(double x) { this.x = x; }
+
+        public double getY() { return y; }
+        public void setY(double y) { this.y = y; }
+
+        public double getWidth() { return width; }
+        public void setWidth(double width) { this.width = width; }
+
+        public double getHeight() { return height; }
+        public void setHeight(double height) { this.height = height; }
+
+        @Override
+        public String toString() {
+            return String.format("[%.0f,%.0f %.0fx%.0f]", x, y, width, height);
+        }
+    }
+
+    /**
+     * Probe result for one selector. Text and box describe the first visible match.
+     */
+    public static class ElementProbe {
+        private int count;
+        private int visibleCount;
+        private boolean visible;
+        private String text;
+        private BoundingBox box;
+        private String error;
+
+        // Getters and setters
+        public int getCount() { return count; }
+        public void setCount(int count) { this.count = count; }
+
+        public int getVisibleCount() { return visibleCount; }
+        public void setVisibleCount(int visibleCount) { this.visibleCount = visibleCount; }
+
+        public boolean isVisible() { return visible; }
+        public void setVisible(boolean visible) { this.visible = visible; }
+
+        public String getText() { return text; }
+        public void setText(String text) { this.text = text; }
+
+        public BoundingBox getBox() { return box; }
+        public void setBox(BoundingBox box) { this.box = box; }
+
+        public String getError() { return error; }
+        public void setError(String error) { this.error = error; }
+
+        public boolean isPresent() {
+            return count > 0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("ElementProbe{count=%d, visible=%d, text='%s', box=%s%s}",
+                count, visibleCount, text, box, error != null ? ", error=" + error : "");
+        }
+    }
+
+    public static class ProbeResult {
+        private final Map<String, ElementProbe> elements;
+        private final long durationMs;
+
+        ProbeResult(Map<String, ElementProbe> elements, long durationMs) {
+            this.elements = elements;
+            this.durationMs = durationMs;
+        }
+
+        /**
+         * Never null - a name that was not probed reads as an absent element
+         */
+        public ElementProbe get(String name) {
+            ElementProbe probe = elements.get(name);
+            return probe != null ? probe : new ElementProbe();
+        }
+
+        public boolean isVisible(String name) {
+            return get(name).isVisible();
+        }
+
+        public int getCount(String name) {
+            return get(name).getCount();
+        }
+
+        /**
+         * Text of the first visible match, or the fallback if nothing visible matched
+         */
+        public String getText(String name, String fallback) {
+            ElementProbe probe = get(name);
+            return probe.isVisible() && probe.getText() != null ? probe.getText() : fallback;
+        }
+
+        public Map<String, ElementProbe> getElements() {
+            return Collections.unmodifiableMap(elements);
+        }
+
+        public long getDurationMs() {
+            return durationMs;
+        }
+    }
+
+    /**
+     * Probe all named selectors in one round trip. Invalid selectors are reported
+     * per entry in ElementProbe.getError() rather than failing the whole probe.
+     */
+    public static ProbeResult probe(WebDriver driver, Map<String, String> selectors) {
+        long start = System.currentTimeMillis();
+        String json = (String) ((JavascriptExecutor) driver).executeScript(PROBE_SCRIPT, selectors, MAX_TEXT_LENGTH);
+
+        try {
+            Map<String, ElementProbe> elements = objectMapper.readValue(json,
+                new TypeReference<LinkedHashMap<String, ElementProbe>>() {});
+            return new ProbeResult(elements, System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to parse page probe result: " + e.getMessage(), e);
+        }
+    }
+}
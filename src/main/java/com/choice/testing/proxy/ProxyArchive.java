@@ -0,0 +1,207 @@
+package com.choice.testing.proxy;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Recorded responses of a journey: index.json plus one body file per distinct body.
+ *
+ * Lookup tries the exact request first (method, URL and a hash of the request body), then
+ * ignores the body, then the query string, so cache-busting parameters and analytics
+ * payloads still replay. A URL requested several times replays its recordings in order
+ * and keeps serving the last one afterwards.
+ */
+public class ProxyArchive {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProxyArchive.class);
+    private static final ObjectMapper objectMapper = new ObjectMapper()
+        .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    private static final String INDEX_FILE = "index.json";
+    private static final String BODIES_DIR = "bodies";
+
+    private final Path directory;
+    private final List<ArchivedResponse> entries = new ArrayList<>();
+    private final Map<String, List<ArchivedResponse>> byExactKey = new HashMap<>();
+    private final Map<String, List<ArchivedResponse>> byUrl = new HashMap<>();
+    private final Map<String, List<ArchivedResponse>> byPath = new HashMap<>();
+    private final Map<String, Integer> replayPosition = new HashMap<>();
+    private boolean dirty;
+
+    public static class ArchivedResponse {
+        private String method;
+        private String url;
+        private String requestBodyHash;
+        private int status;
+        private Map<String, List<String>> headers = new HashMap<>();
+        private String bodyFile;
+        private long recordedMs;
+
+        // Getters and setters
+        public String getMethod() { return method; }
+        public void setMethod(String method) { this.method = method; }
+
+        public String getUrl() { return url; }
+        public void setUrl(String url) { this.url = url; }
+
+        public String getRequestBodyHash() { return requestBodyHash; }
+        public void setRequestBodyHash(String requestBodyHash) { this.requestBodyHash = requestBodyHash; }
+
+        public int getStatus() { return status; }
+        public void setStatus(int status) { this.status = status; }
+
+        public Map<String, List<String>> getHeaders() { return headers; }
+        public void setHeaders(Map<String, List<String>> headers) { this.headers = headers; }
+
+        public String getBodyFile() { return bodyFile; }
+        public void setBodyFile(String bodyFile) { this.bodyFile = bodyFile; }
+
+        // Upstream time to the complete response while recording, used for "recorded" latency
+        public long getRecordedMs() { return recordedMs; }
+        public void setRecordedMs(long recordedMs) { this.recordedMs = recordedMs; }
+    }
+
+    private ProxyArchive(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Open the archive in a directory, loading its index if one exists
+     */
+    public static ProxyArchive open(Path directory) throws IOException {
+        ProxyArchive archive = new ProxyArchive(directory);
+        Path index = directory.resolve(INDEX_FILE);
+        if (Files.exists(index)) {
+            List<ArchivedResponse> stored = objectMapper.readValue(Files.readString(index),
+                new TypeReference<List<ArchivedResponse>>(){});
+            for (ArchivedResponse entry : stored) {
+                archive.addToIndex(entry);
+            }
+            logger.info("Loaded proxy archive {} ({} responses)", directory, stored.size());
+        }
+        return archive;
+    }
+
+    /**
+     * Store a recorded response; bodies with identical content share one file
+     */
+    public synchronized void record(ArchivedResponse entry, byte[] body) throws IOException {
+        String bodyHash = sha1(body);
+        Path bodyPath = directory.resolve(BODIES_DIR).resolve(bodyHash);
+        if (!Files.exists(bodyPath)) {
+            Files.createDirectories(bodyPath.getParent());
+            Files.write(bodyPath, body);
+        }
+        entry.setBodyFile(BODIES_DIR + "/" + bodyHash);
+        addToIndex(entry);
+        dirty = true;
+    }
+
+    /**
+     * Next recorded response for the request, or null when nothing in the archive matches
+     */
+    public synchronized ArchivedResponse next(String method, String url, byte[] requestBody) {
+        String exactKey = exactKey(method, url, hashOrNull(requestBody));
+        List<ArchivedResponse> candidates = byExactKey.get(exactKey);
+        String positionKey = exactKey;
+        if (candidates == null) {
+            positionKey = urlKey(method, url);
+            candidates = byUrl.get(positionKey);
+        }
+        if (candidates == null) {
+            positionKey = pathKey(method, url);
+            candidates = byPath.get(positionKey);
+        }
+        if (candidates == null) {
+            return null;
+        }
+        int position = replayPosition.getOrDefault(positionKey, 0);
+        replayPosition.put(positionKey, position + 1);
+        return candidates.get(Math.min(position, candidates.size() - 1));
+    }
+
+    public byte[] readBody(ArchivedResponse entry) throws IOException {
+        return Files.readAllBytes(directory.resolve(entry.getBodyFile()));
+    }
+
+    /**
+     * Write the index if anything was recorded since it was loaded
+     */
+    public synchronized void save() throws IOException {
+        if (!dirty) {
+            return;
+        }
+        Files.createDirectories(directory);
+        Files.writeString(directory.resolve(INDEX_FILE),
+            objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(entries));
+        dirty = false;
+        logger.info("Saved proxy archive {} ({} responses)", directory, entries.size());
+    }
+
+    /**
+     * Start replaying every URL from its first recording again
+     */
+    public synchronized void rewind() {
+        replayPosition.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    private void addToIndex(ArchivedResponse entry) {
+        entries.add(entry);
+        byExactKey.computeIfAbsent(exactKey(entry.getMethod(), entry.getUrl(), entry.getRequestBodyHash()),
+            key -> new ArrayList<>()).add(entry);
+        byUrl.computeIfAbsent(urlKey(entry.getMethod(), entry.getUrl()), key -> new ArrayList<>()).add(entry);
+        byPath.computeIfAbsent(pathKey(entry.getMethod(), entry.getUrl()), key -> new ArrayList<>()).add(entry);
+    }
+
+    private static String exactKey(String method, String url, String bodyHash) {
+        return urlKey(method, url) + (bodyHash != null ? " #" + bodyHash : "");
+    }
+
+    private static String urlKey(String method, String url) {
+        return method + " " + url;
+    }
+
+    private static String pathKey(String method, String url) {
+        int query = url.indexOf('?');
+        return method + " " + (query >= 0 ? url.substring(0, query) : url);
+    }
+
+    /**
+     * Hash stored as ArchivedResponse.requestBodyHash; null for requests without a body
+     */
+    public static String hashOrNull(byte[] body) {
+        return body != null && body.length > 0 ? sha1(body) : null;
+    }
+
+    private static String sha1(byte[] data) {
+        try {
+            StringBuilder hex = new StringBuilder();
+            for (byte b : MessageDigest.getInstance("SHA-1").digest(data)) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
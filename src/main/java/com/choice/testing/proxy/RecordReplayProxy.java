@@ -0,0 +1,602 @@
+package com.choice.testing.proxy;
+
+import com.choice.testing.config.ConfigManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSocket;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.KeyStore;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Embedded HTTP(S) proxy that records a journey's responses and replays them offline.
+ *
+ * Chrome is pointed at the proxy through ChromeOptions (see DriverManager). A Selector
+ * accepts connections and hands each one to a worker; HTTPS is intercepted by answering
+ * CONNECT and terminating TLS with a self-signed certificate, which Chrome accepts because
+ * it is started with --ignore-certificate-errors while the proxy is on.
+ *
+ * Only accepting is non-blocking. Connections are served with blocking streams, since TLS is
+ * layered on the same socket with SSLSocket and a request blocks anyway on the upstream fetch,
+ * replay latency and bandwidth pacing. Workers are capped at proxy.max.workers, with further
+ * connections queued, and a keep-alive connection idle for proxy.idle.timeout.ms is closed so
+ * it does not hold a worker.
+ *
+ * RECORD fetches from the real site and stores every response in a ProxyArchive. REPLAY
+ * serves only from the archive, adding proxy.replay.latency.ms before each response (-1
+ * replays the latency seen while recording) and limiting throughput to
+ * proxy.replay.bandwidth.kbps. PASSTHROUGH forwards without recording.
+ */
+public class RecordReplayProxy {
+
+    private static final Logger logger = LoggerFactory.getLogger(RecordReplayProxy.class);
+    private static final String KEYSTORE_PASSWORD = "changeit";
+    private static final int MAX_HEADER_BYTES = 64 * 1024;
+    private static final int WRITE_CHUNK_BYTES = 8 * 1024;
+
+    // Hop-by-hop headers, plus those java.net.http sets itself and refuses from callers
+    private static final Set<String> SKIPPED_REQUEST_HEADERS = new HashSet<>(Arrays.asList(
+        "connection", "proxy-connection", "keep-alive", "proxy-authorization", "te", "trailer",
+        "transfer-encoding", "upgrade", "host", "content-length", "expect", "date", "from", "via", "warning"));
+    private static final Set<String> SKIPPED_RESPONSE_HEADERS = new HashSet<>(Arrays.asList(
+        "connection", "proxy-connection", "keep-alive", "te", "trailer", "transfer-encoding", "upgrade",
+        "content-length", ":status"));
+
+    private static RecordReplayProxy shared;
+
+    public enum Mode { OFF, RECORD, REPLAY, PASSTHROUGH }
+
+    private final Mode mode;
+    private final ProxyArchive archive;
+    private final long replayLatencyMs;
+    private final int bandwidthKbps;
+    private final boolean passthroughOnMiss;
+    private final HttpClient upstream;
+    private final Duration upstreamTimeout;
+    private final int idleTimeoutMs;
+    private final ThreadPoolExecutor workers;
+
+    private ServerSocketChannel serverChannel;
+    private Selector selector;
+    private Thread acceptThread;
+    private SSLContext sslContext;
+    private volatile boolean running;
+
+    private final AtomicInteger recorded = new AtomicInteger();
+    private final AtomicInteger replayed = new AtomicInteger();
+    private final AtomicInteger missed = new AtomicInteger();
+    private final AtomicInteger forwarded = new AtomicInteger();
+
+    public RecordReplayProxy(Mode mode, ProxyArchive archive, long replayLatencyMs, int bandwidthKbps,
+                             boolean passthroughOnMiss, Duration upstreamTimeout) {
+        this.mode = mode;
+        this.archive = archive;
+        this.replayLatencyMs = replayLatencyMs;
+        this.bandwidthKbps = bandwidthKbps;
+        this.passthroughOnMiss = passthroughOnMiss;
+        this.upstreamTimeout = upstreamTimeout;
+        this.upstream = HttpClient.newBuilder()
+            .followRedirects(HttpClient.Redirect.NEVER)
+            .connectTimeout(upstreamTimeout)
+            .build();
+        this.idleTimeoutMs = ConfigManager.getIntProperty("proxy.idle.timeout.ms", 10000);
+        int maxWorkers = ConfigManager.getIntProperty("proxy.max.workers", 64);
+        AtomicInteger threadCount = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(maxWorkers, maxWorkers, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+            runnable -> {
+                Thread thread = new Thread(runnable, "record-replay-proxy-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        this.workers.allowCoreThreadTimeOut(true);
+    }
+
+    public static Mode configuredMode() {
+        return Mode.valueOf(System.getProperty("proxy.mode",
+            ConfigManager.getProperty("proxy.mode", "off")).trim().toUpperCase(Locale.ROOT));
+    }
+
+    /**
+     * The proxy shared by all sessions of this run, started on first use from config.
+     * Returns null when proxy.mode is off.
+     */
+    public static synchronized RecordReplayProxy shared() {
+        if (shared != null) {
+            return shared;
+        }
+        Mode mode = configuredMode();
+        if (mode == Mode.OFF) {
+            return null;
+        }
+        try {
+            Path archiveDir = Paths.get(ConfigManager.getProperty("proxy.archive.dir", "proxy-archives"),
+                System.getProperty("proxy.archive.name", ConfigManager.getProperty("proxy.archive.name", "default")));
+            RecordReplayProxy proxy = new RecordReplayProxy(mode,
+                ProxyArchive.open(archiveDir),
+                ConfigManager.getIntProperty("proxy.replay.latency.ms", 0),
+                ConfigManager.getIntProperty("proxy.replay.bandwidth.kbps", 0),
+                "passthrough".equalsIgnoreCase(ConfigManager.getProperty("proxy.replay.on.miss", "404")),
+                Duration.ofMillis(ConfigManager.getIntProperty("proxy.upstream.timeout.ms", 30000)));
+            proxy.start(ConfigManager.getIntProperty("proxy.port", 0));
+            shared = proxy;
+            return proxy;
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to start record/replay proxy", e);
+        }
+    }
+
+    /**
+     * Stop the shared proxy, saving the archive when recording. Safe to call when none is running.
+     */
+    public static synchronized void stopShared() {
+        if (shared != null) {
+            shared.stop();
+            shared = null;
+        }
+    }
+
+    public void start(int port) throws IOException {
+        if (mode == Mode.REPLAY && archive.size() == 0) {
+            logger.warn("Replaying from an empty archive {} - every request will miss", archive.getDirectory());
+        }
+        sslContext = createSslContext(archive.getDirectory().getParent() != null
+            ? archive.getDirectory().getParent() : archive.getDirectory());
+
+        selector = Selector.open();
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(new InetSocketAddress("127.0.0.1", port));
+        serverChannel.configureBlocking(false);
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+
+        running = true;
+        acceptThread = new Thread(this::acceptLoop, "record-replay-proxy-accept");
+        acceptThread.setDaemon(true);
+        acceptThread.start();
+        logger.info("Record/replay proxy listening on 127.0.0.1:{} in {} mode (archive {})",
+            getPort(), mode, archive.getDirectory());
+    }
+
+    public void stop() {
+        running = false;
+        try {
+            selector.wakeup();
+            acceptThread.join(2000);
+            serverChannel.close();
+            selector.close();
+        } catch (Exception e) {
+            logger.debug("Error closing proxy listener: {}", e.getMessage());
+        }
+        workers.shutdownNow();
+        try {
+            workers.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (mode == Mode.RECORD) {
+            try {
+                archive.save();
+            } catch (IOException e) {
+                logger.warn("Failed to save proxy archive {}", archive.getDirectory(), e);
+            }
+        }
+        logger.info("Record/replay proxy stopped: {}", getStats());
+    }
+
+    public int getPort() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public ProxyArchive getArchive() {
+        return archive;
+    }
+
+    public String getStats() {
+        return String.format("recorded=%d, replayed=%d, missed=%d, forwarded=%d",
+            recorded.get(), replayed.get(), missed.get(), forwarded.get());
+    }
+
+    private void acceptLoop() {
+        while (running) {
+            try {
+                selector.select(500);
+                for (SelectionKey key : selector.selectedKeys()) {
+                    if (key.isValid() && key.isAcceptable()) {
+                        SocketChannel channel = serverChannel.accept();
+                        if (channel != null) {
+                            // Workers use blocking streams so TLS can be layered on the same socket
+                            channel.configureBlocking(true);
+                            workers.execute(() -> handleConnection(channel));
+                        }
+                    }
+                }
+                selector.selectedKeys().clear();
+            } catch (IOException e) {
+                if (running) {
+                    logger.warn("Proxy accept failed: {}", e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void handleConnection(SocketChannel channel) {
+        try (Socket socket = channel.socket()) {
+            socket.setTcpNoDelay(true);
+            // Also bounds the wait for the next request on a keep-alive connection
+            socket.setSoTimeout(idleTimeoutMs);
+            serve(socket, new BufferedInputStream(socket.getInputStream()),
+                new BufferedOutputStream(socket.getOutputStream()), null);
+        } catch (IOException e) {
+            logger.debug("Proxy connection closed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Serve requests on one connection until it closes. Inside a CONNECT tunnel, origin
+     * is the https://host[:port] the tunnel was opened for and request targets are paths.
+     */
+    private void serve(Socket socket, InputStream in, OutputStream out, String origin) throws IOException {
+        while (running) {
+            RequestHead head = readHead(in);
+            if (head == null) {
+                return;
+            }
+
+            if ("CONNECT".equals(head.method)) {
+                out.write("HTTP/1.1 200 Connection Established\r\n\r\n".getBytes(StandardCharsets.ISO_8859_1));
+                out.flush();
+                openTunnel(socket, head.target);
+                return;
+            }
+
+            byte[] body = readBody(in, head);
+            String url = origin != null ? origin + head.target : head.target;
+            ProxiedResponse response;
+            try {
+                response = handle(head, url, body);
+            } catch (Exception e) {
+                logger.debug("Proxy request {} {} failed: {}", head.method, url, e.getMessage());
+                response = ProxiedResponse.error(502, "Upstream request failed: " + e.getMessage());
+            }
+            writeResponse(out, head.method, response);
+
+            if ("close".equalsIgnoreCase(head.header("connection")) || "close".equalsIgnoreCase(head.header("proxy-connection"))) {
+                return;
+            }
+        }
+    }
+
+    private void openTunnel(Socket socket, String authority) throws IOException {
+        int colon = authority.lastIndexOf(':');
+        String host = colon > 0 ? authority.substring(0, colon) : authority;
+        String port = colon > 0 ? authority.substring(colon + 1) : "443";
+
+        SSLSocket tlsSocket = (SSLSocket) sslContext.getSocketFactory()
+            .createSocket(socket, host, socket.getPort(), false);
+        tlsSocket.setUseClientMode(false);
+        tlsSocket.startHandshake();
+
+        String origin = "https://" + host + ("443".equals(port) ? "" : ":" + port);
+        try (SSLSocket tunnel = tlsSocket) {
+            serve(tunnel, new BufferedInputStream(tunnel.getInputStream()),
+                new BufferedOutputStream(tunnel.getOutputStream()), origin);
+        }
+    }
+
+    private ProxiedResponse handle(RequestHead head, String url, byte[] body) throws Exception {
+        switch (mode) {
+            case RECORD:
+                return record(head, url, body);
+
+            case REPLAY:
+                ProxyArchive.ArchivedResponse entry = archive.next(head.method, url, body);
+                if (entry != null) {
+                    replayed.incrementAndGet();
+                    long latency = replayLatencyMs < 0 ? entry.getRecordedMs() : replayLatencyMs;
+                    if (latency > 0) {
+                        Thread.sleep(latency);
+                    }
+                    return new ProxiedResponse(entry.getStatus(), entry.getHeaders(), archive.readBody(entry));
+                }
+                missed.incrementAndGet();
+                logger.debug("Not in archive: {} {}", head.method, url);
+                if (passthroughOnMiss) {
+                    forwarded.incrementAndGet();
+                    return fetch(head, url, body);
+                }
+                return ProxiedResponse.error(404, "Not in archive: " + head.method + " " + url);
+
+            default:
+                forwarded.incrementAndGet();
+                return fetch(head, url, body);
+        }
+    }
+
+    private ProxiedResponse record(RequestHead head, String url, byte[] body) throws Exception {
+        long start = System.nanoTime();
+        ProxiedResponse response = fetch(head, url, body);
+
+        ProxyArchive.ArchivedResponse entry = new ProxyArchive.ArchivedResponse();
+        entry.setMethod(head.method);
+        entry.setUrl(url);
+        entry.setRequestBodyHash(ProxyArchive.hashOrNull(body));
+        entry.setStatus(response.status);
+        entry.setHeaders(response.headers);
+        entry.setRecordedMs((System.nanoTime() - start) / 1_000_000L);
+        archive.record(entry, response.body);
+        recorded.incrementAndGet();
+        return response;
+    }
+
+    private ProxiedResponse fetch(RequestHead head, String url, byte[] body) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(url))
+            .timeout(upstreamTimeout)
+            .method(head.method, body.length > 0
+                ? HttpRequest.BodyPublishers.ofByteArray(body) : HttpRequest.BodyPublishers.noBody());
+        for (String[] header : head.headers) {
+            if (!SKIPPED_REQUEST_HEADERS.contains(header[0].toLowerCase(Locale.ROOT))) {
+                request.header(header[0], header[1]);
+            }
+        }
+
+        // Bodies stay encoded (gzip/br) - Content-Encoding is passed back unchanged
+        HttpResponse<byte[]> response = upstream.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+        Map<String, List<String>> headers = new LinkedHashMap<>();
+        response.headers().map().forEach((name, values) -> {
+            if (!SKIPPED_RESPONSE_HEADERS.contains(name.toLowerCase(Locale.ROOT))) {
+                headers.put(name, new ArrayList<>(values));
+            }
+        });
+        return new ProxiedResponse(response.statusCode(), headers, response.body());
+    }
+
+    private void writeResponse(OutputStream out, String method, ProxiedResponse response) throws IOException {
+        boolean hasBody = !"HEAD".equals(method) && response.status != 204 && response.status != 304
+            && response.status >= 200;
+
+        StringBuilder head = new StringBuilder();
+        head.append("HTTP/1.1 ").append(response.status).append(' ').append(reason(response.status)).append("\r\n");
+        response.headers.forEach((name, values) -> {
+            for (String value : values) {
+                head.append(name).append(": ").append(value).append("\r\n");
+            }
+        });
+        if (hasBody) {
+            head.append("Content-Length: ").append(response.body.length).append("\r\n");
+        }
+        head.append("\r\n");
+        out.write(head.toString().getBytes(StandardCharsets.ISO_8859_1));
+
+        if (hasBody) {
+            writeShaped(out, response.body);
+        }
+        out.flush();
+    }
+
+    /**
+     * Write the body, pacing chunks to proxy.replay.bandwidth.kbps when shaping replays
+     */
+    private void writeShaped(OutputStream out, byte[] body) throws IOException {
+        if (mode != Mode.REPLAY || bandwidthKbps <= 0) {
+            out.write(body);
+            return;
+        }
+        double bytesPerMs = bandwidthKbps * 1000 / 8.0 / 1000.0;
+        long start = System.nanoTime();
+        for (int offset = 0; offset < body.length; offset += WRITE_CHUNK_BYTES) {
+            int length = Math.min(WRITE_CHUNK_BYTES, body.length - offset);
+            out.write(body, offset, length);
+            out.flush();
+            long dueMs = (long) ((offset + length) / bytesPerMs);
+            long elapsedMs = (System.nanoTime() - start) / 1_000_000L;
+            if (dueMs > elapsedMs) {
+                try {
+                    Thread.sleep(dueMs - elapsedMs);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted while shaping response", e);
+                }
+            }
+        }
+    }
+
+    private static RequestHead readHead(InputStream in) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        int lastFour = 0;
+        int b;
+        // Read up to and including the blank line (CRLF CRLF) that ends the head
+        while ((b = in.read()) != -1) {
+            buffer.write(b);
+            lastFour = (lastFour << 8) | b;
+            if (lastFour == 0x0D0A0D0A) {
+                break;
+            }
+            if (buffer.size() > MAX_HEADER_BYTES) {
+                throw new IOException("Request head larger than " + MAX_HEADER_BYTES + " bytes");
+            }
+        }
+        if (lastFour != 0x0D0A0D0A) {
+            return null;
+        }
+
+        String[] lines = buffer.toString(StandardCharsets.ISO_8859_1.name()).split("\r\n");
+        String[] requestLine = lines[0].split(" ");
+        if (requestLine.length < 3) {
+            throw new IOException("Malformed request line: " + lines[0]);
+        }
+        RequestHead head = new RequestHead(requestLine[0], requestLine[1]);
+        for (int i = 1; i < lines.length; i++) {
+            int colon = lines[i].indexOf(':');
+            if (colon > 0) {
+                head.headers.add(new String[] {lines[i].substring(0, colon).trim(), lines[i].substring(colon + 1).trim()});
+            }
+        }
+        return head;
+    }
+
+    private static byte[] readBody(InputStream in, RequestHead head) throws IOException {
+        if ("chunked".equalsIgnoreCase(head.header("transfer-encoding"))) {
+            return readChunked(in);
+        }
+        String contentLength = head.header("content-length");
+        if (contentLength == null) {
+            return new byte[0];
+        }
+        return in.readNBytes(Integer.parseInt(contentLength.trim()));
+    }
+
+    private static byte[] readChunked(InputStream in) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        while (true) {
+            String sizeLine = readLine(in);
+            int size = Integer.parseInt(sizeLine.split(";")[0].trim(), 16);
+            if (size == 0) {
+                // Skip trailers up to the empty line
+                while (!readLine(in).isEmpty()) {
+                    // trailer
+                }
+                return body.toByteArray();
+            }
+            body.write(in.readNBytes(size));
+            readLine(in);
+        }
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        int b;
+        while ((b = in.read()) != -1 && b != '\n') {
+            if (b != '\r') {
+                line.write(b);
+            }
+        }
+        return line.toString(StandardCharsets.ISO_8859_1.name());
+    }
+
+    /**
+     * Self-signed key pair for TLS interception, generated once with keytool and reused
+     */
+    private static SSLContext createSslContext(Path directory) throws IOException {
+        Path keystore = directory.resolve("proxy-tls.p12");
+        if (!Files.exists(keystore)) {
+            Files.createDirectories(directory);
+            String keytool = Paths.get(System.getProperty("java.home"), "bin", "keytool").toString();
+            Process process = new ProcessBuilder(keytool, "-genkeypair", "-alias", "proxy",
+                "-keyalg", "RSA", "-keysize", "2048", "-validity", "3650",
+                "-dname", "CN=Record Replay Proxy", "-ext", "SAN=dns:localhost",
+                "-storetype", "PKCS12", "-keystore", keystore.toString(),
+                "-storepass", KEYSTORE_PASSWORD, "-keypass", KEYSTORE_PASSWORD)
+                .redirectErrorStream(true)
+                .start();
+            try {
+                String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+                if (process.waitFor() != 0) {
+                    throw new IOException("keytool failed: " + output);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while generating proxy certificate", e);
+            }
+        }
+
+        try (InputStream input = Files.newInputStream(keystore)) {
+            KeyStore keyStore = KeyStore.getInstance("PKCS12");
+            keyStore.load(input, KEYSTORE_PASSWORD.toCharArray());
+            KeyManagerFactory keyManagers = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+            keyManagers.init(keyStore, KEYSTORE_PASSWORD.toCharArray());
+            SSLContext context = SSLContext.getInstance("TLS");
+            context.init(keyManagers.getKeyManagers(), null, null);
+            return context;
+        } catch (Exception e) {
+            throw new IOException("Failed to load proxy certificate " + keystore, e);
+        }
+    }
+
+    private static String reason(int status) {
+        switch (status) {
+            case 200: return "OK";
+            case 204: return "No Content";
+            case 301: return "Moved Permanently";
+            case 302: return "Found";
+            case 304: return "Not Modified";
+            case 404: return "Not Found";
+            case 502: return "Bad Gateway";
+            default: return "Status";
+        }
+    }
+
+    private static class RequestHead {
+        private final String method;
+        private final String target;
+        private final List<String[]> headers = new ArrayList<>();
+
+        RequestHead(String method, String target) {
+            this.method = method;
+            this.target = target;
+        }
+
+        String header(String name) {
+            for (String[] header : headers) {
+                if (header[0].equalsIgnoreCase(name)) {
+                    return header[1];
+                }
+            }
+            return null;
+        }
+    }
+
+    private static class ProxiedResponse {
+        private final int status;
+        private final Map<String, List<String>> headers;
+        private final byte[] body;
+
+        ProxiedResponse(int status, Map<String, List<String>> headers, byte[] body) {
+            this.status = status;
+            this.headers = headers;
+            this.body = body;
+        }
+
+        static ProxiedResponse error(int status, String message) {
+            Map<String, List<String>> headers = new LinkedHashMap<>();
+            headers.put("Content-Type", new ArrayList<>(Arrays.asList("text/plain; charset=utf-8")));
+            return new ProxiedResponse(status, headers, message.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+}
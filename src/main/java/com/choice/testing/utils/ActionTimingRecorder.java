@@ -0,0 +1,585 @@
+package com.choice.testing.utils;
+
+import com.choice.testing.config.ConfigManager;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.qameta.allure.Allure;
+import org.openqa.selenium.support.events.WebDriverListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Per-thread timing of WebDriver commands, waits and page-object actions, split by test step.
+ *
+ * Events go into preallocated primitive arrays and are only turned into objects when the
+ * test ends; labels are interned to int indexes in an open-addressing table, so recording
+ * never boxes. Step totals are kept separately, so they stay
+ * exact even when the event buffer is full. Time in a step that is neither a WebDriver
+ * command nor a wait is reported as think time - framework and test code between commands.
+ * WebDriver commands issued while a wait polls count as wait time, not WebDriver time.
+ * Each event is attributed to the outermost page-object method on the stack, so page actions
+ * are broken down without instrumenting the page objects themselves. That costs one stack
+ * walk per recorded event, small next to a WebDriver round trip; the label for a page method
+ * is built once and looked up by class and method name after that.
+ */
+public class ActionTimingRecorder {
+
+    private static final Logger logger = LoggerFactory.getLogger(ActionTimingRecorder.class);
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final String PERFORMANCE_DATA_DIR = "performance-history";
+
+    public static final byte WEBDRIVER = 0;
+    public static final byte WAIT = 1;
+    public static final byte PAGE_ACTION = 2;
+    private static final String[] CATEGORY_NAMES = {"webdriver", "wait", "page"};
+
+    private static final String PAGES_PACKAGE = "com.choice.testing.pages.";
+    private static final StackWalker STACK_WALKER = StackWalker.getInstance(StackWalker.Option.RETAIN_CLASS_REFERENCE);
+    private static final Function<Stream<StackWalker.StackFrame>, StackWalker.StackFrame> OUTERMOST_PAGE_FRAME =
+        ActionTimingRecorder::outermostPageFrame;
+    private static final int NO_PAGE_ACTION = -1;
+    private static final int NO_LABEL = -1;
+    private static final int PAGE_ACTIONS_IN_REPORT = 20;
+
+    private static final String DEFAULT_STEP = "Setup";
+    private static final int MAX_STEPS = 128;
+    private static final boolean ENABLED = Boolean.parseBoolean(System.getProperty("timing.instrumentation.enabled",
+        ConfigManager.getProperty("timing.instrumentation.enabled", "true")));
+
+    private static final ThreadLocal<ActionTimingRecorder> currentRecorder = ThreadLocal.withInitial(ActionTimingRecorder::new);
+
+    private final long origin = System.nanoTime();
+
+    private final long[] eventStart;
+    private final long[] eventDuration;
+    private final byte[] eventCategory;
+    private final short[] eventDepth;
+    private final int[] eventLabel;
+    private final int[] eventPageAction;
+    private int eventCount;
+    private int droppedEvents;
+
+    private final long[] stepStart = new long[MAX_STEPS];
+    private final long[] stepWebDriver = new long[MAX_STEPS];
+    private final long[] stepWait = new long[MAX_STEPS];
+    private final int[] stepLabel = new int[MAX_STEPS];
+    private int stepCount;
+
+    private final List<String> labels = new ArrayList<>();
+    private final LabelTable labelIndex = new LabelTable();
+
+    private int actionDepth;
+    private int waitDepth;
+    private int driverCallDepth;
+    private long driverCallStart;
+
+    private ActionTimingRecorder() {
+        int capacity = ConfigManager.getIntProperty("timing.recorder.capacity", 8192);
+        eventStart = new long[capacity];
+        eventDuration = new long[capacity];
+        eventCategory = new byte[capacity];
+        eventDepth = new short[capacity];
+        eventLabel = new int[capacity];
+        eventPageAction = new int[capacity];
+        openStep(DEFAULT_STEP, origin);
+    }
+
+    public static class StepTiming {
+        private String name;
+        private double wallMs;
+        private double webDriverMs;
+        private double waitMs;
+        private double thinkMs;
+
+        // Getters and setters
+        public String getName() { return name; }
+        public void setName(String name) { this.name = name; }
+
+        public double getWallMs() { return wallMs; }
+        public void setWallMs(double wallMs) { this.wallMs = wallMs; }
+
+        public double getWebDriverMs() { return webDriverMs; }
+        public void setWebDriverMs(double webDriverMs) { this.webDriverMs = webDriverMs; }
+
+        public double getWaitMs() { return waitMs; }
+        public void setWaitMs(double waitMs) { this.waitMs = waitMs; }
+
+        public double getThinkMs() { return thinkMs; }
+        public void setThinkMs(double thinkMs) { this.thinkMs = thinkMs; }
+    }
+
+    public static class StepTimeline {
+        private String testName;
+        private String recordedAt;
+        private String throttlingProfile;
+        private double totalMs;
+        private double webDriverMs;
+        private double waitMs;
+        private double thinkMs;
+        private int eventCount;
+        private int droppedEvents;
+        private List<StepTiming> steps = new ArrayList<>();
+
+        // Getters and setters
+        public String getTestName() { return testName; }
+        public void setTestName(String testName) { this.testName = testName; }
+
+        public String getRecordedAt() { return recordedAt; }
+        public void setRecordedAt(String recordedAt) { this.recordedAt = recordedAt; }
+
+        // Test-level ThrottlingProfile, so runs under different profiles can be told apart
+        public String getThrottlingProfile() { return throttlingProfile; }
+        public void setThrottlingProfile(String throttlingProfile) { this.throttlingProfile = throttlingProfile; }
+
+        public double getTotalMs() { return totalMs; }
+        public void setTotalMs(double totalMs) { this.totalMs = totalMs; }
+
+        public double getWebDriverMs() { return webDriverMs; }
+        public void setWebDriverMs(double webDriverMs) { this.webDriverMs = webDriverMs; }
+
+        public double getWaitMs() { return waitMs; }
+        public void setWaitMs(double waitMs) { this.waitMs = waitMs; }
+
+        public double getThinkMs() { return thinkMs; }
+        public void setThinkMs(double thinkMs) { this.thinkMs = thinkMs; }
+
+        public int getEventCount() { return eventCount; }
+        public void setEventCount(int eventCount) { this.eventCount = eventCount; }
+
+        public int getDroppedEvents() { return droppedEvents; }
+        public void setDroppedEvents(int droppedEvents) { this.droppedEvents = droppedEvents; }
+
+        public List<StepTiming> getSteps() { return steps; }
+        public void setSteps(List<StepTiming> steps) { this.steps = steps; }
+    }
+
+    /**
+     * Times every command sent through the driver. DriverManager wraps drivers with this
+     * through EventFiringDecorator when timing is enabled.
+     */
+    public static class DriverListener implements WebDriverListener {
+        @Override
+        public void beforeAnyCall(Object target, Method method, Object[] args) {
+            beginDriverCall();
+        }
+
+        @Override
+        public void afterAnyCall(Object target, Method method, Object[] args, Object result) {
+            endDriverCall(method.getName());
+        }
+
+        @Override
+        public void onError(Object target, Method method, Object[] args, InvocationTargetException e) {
+            endDriverCall(method.getName());
+        }
+    }
+
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    /**
+     * Discard anything recorded on this thread and start timing a new test
+     */
+    public static void startForCurrentTest() {
+        currentRecorder.remove();
+        if (ENABLED) {
+            currentRecorder.get();
+        }
+    }
+
+    /**
+     * Start attributing time to a new step on the current thread
+     */
+    public static void markStep(String stepName) {
+        if (ENABLED) {
+            currentRecorder.get().openStep(stepName, System.nanoTime());
+        }
+    }
+
+    public static long beginAction() {
+        if (!ENABLED) {
+            return 0;
+        }
+        currentRecorder.get().actionDepth++;
+        return System.nanoTime();
+    }
+
+    public static void endAction(String label, long startNanos) {
+        if (!ENABLED) {
+            return;
+        }
+        ActionTimingRecorder recorder = currentRecorder.get();
+        recorder.actionDepth--;
+        recorder.addEvent(PAGE_ACTION, label, startNanos, System.nanoTime());
+    }
+
+    public static long beginWait() {
+        if (!ENABLED) {
+            return 0;
+        }
+        currentRecorder.get().waitDepth++;
+        return System.nanoTime();
+    }
+
+    public static void endWait(String label, long startNanos) {
+        if (!ENABLED) {
+            return;
+        }
+        long end = System.nanoTime();
+        ActionTimingRecorder recorder = currentRecorder.get();
+        // Only the outermost wait counts, so a wait inside a wait is not added twice
+        if (--recorder.waitDepth == 0) {
+            recorder.stepWait[recorder.stepCount - 1] += end - startNanos;
+            recorder.addEvent(WAIT, label, startNanos, end);
+        }
+    }
+
+    static void beginDriverCall() {
+        if (!ENABLED) {
+            return;
+        }
+        ActionTimingRecorder recorder = currentRecorder.get();
+        if (recorder.driverCallDepth++ == 0) {
+            recorder.driverCallStart = System.nanoTime();
+        }
+    }
+
+    static void endDriverCall(String label) {
+        if (!ENABLED) {
+            return;
+        }
+        long end = System.nanoTime();
+        ActionTimingRecorder recorder = currentRecorder.get();
+        if (recorder.driverCallDepth == 0) {
+            return;
+        }
+        if (--recorder.driverCallDepth == 0 && recorder.waitDepth == 0) {
+            recorder.stepWebDriver[recorder.stepCount - 1] += end - recorder.driverCallStart;
+            recorder.addEvent(WEBDRIVER, label, recorder.driverCallStart, end);
+        }
+    }
+
+    /**
+     * WebDriver and wait time so far, keyed for LighthouseMetrics extra metrics. Think time is
+     * test code between commands, not application performance, so it stays in the timeline only.
+     */
+    public static Map<String, Double> currentExtraMetrics() {
+        Map<String, Double> metrics = new LinkedHashMap<>();
+        if (!ENABLED) {
+            return metrics;
+        }
+        StepTimeline timeline = currentRecorder.get().buildTimeline(null, System.nanoTime());
+        metrics.put("WebDriver Time (ms)", timeline.getWebDriverMs());
+        metrics.put("Wait Time (ms)", timeline.getWaitMs());
+        for (StepTiming step : timeline.getSteps()) {
+            metrics.put("Wait Time (ms) - " + step.getName(), step.getWaitMs());
+        }
+        return metrics;
+    }
+
+    /**
+     * End the current thread's recording: attach the step timeline to Allure and,
+     * if timing.export.history is set, append it to the history store
+     */
+    public static StepTimeline flushAndAttach(String testName) {
+        if (!ENABLED) {
+            return null;
+        }
+        ActionTimingRecorder recorder = currentRecorder.get();
+        currentRecorder.remove();
+
+        long end = System.nanoTime();
+        StepTimeline timeline = recorder.buildTimeline(testName, end);
+        attachTimelineToAllure(timeline, recorder.pageActionsTable(), recorder.eventsCsv(end));
+
+        if (Boolean.parseBoolean(ConfigManager.getProperty("timing.export.history", "false"))) {
+            try {
+                storeTimeline(timeline);
+            } catch (Exception e) {
+                logger.warn("Failed to store step timeline for {}", testName, e);
+            }
+        }
+        return timeline;
+    }
+
+    private void openStep(String name, long now) {
+        if (stepCount == MAX_STEPS) {
+            logger.warn("More than {} steps recorded, '{}' is merged into the previous step", MAX_STEPS, name);
+            return;
+        }
+        stepStart[stepCount] = now;
+        stepLabel[stepCount] = intern(name);
+        stepCount++;
+    }
+
+    private void addEvent(byte category, String label, long start, long end) {
+        if (eventCount == eventStart.length) {
+            droppedEvents++;
+            return;
+        }
+        eventStart[eventCount] = start;
+        eventDuration[eventCount] = end - start;
+        eventCategory[eventCount] = category;
+        eventDepth[eventCount] = (short) actionDepth;
+        eventLabel[eventCount] = intern(label);
+        eventPageAction[eventCount] = callingPageAction();
+        eventCount++;
+    }
+
+    /**
+     * Label index of the outermost page-object method on the current stack, e.g.
+     * "HotelDetailsPage.getHotelName", or NO_PAGE_ACTION outside the page objects
+     */
+    private int callingPageAction() {
+        StackWalker.StackFrame frame = STACK_WALKER.walk(OUTERMOST_PAGE_FRAME);
+        if (frame == null) {
+            return NO_PAGE_ACTION;
+        }
+        Class<?> page = frame.getDeclaringClass();
+        String method = frame.getMethodName();
+        int index = labelIndex.get(page, method);
+        if (index == NO_LABEL) {
+            index = intern(page.getName().substring(PAGES_PACKAGE.length()) + "." + method);
+            labelIndex.put(page, method, index);
+        }
+        return index;
+    }
+
+    private static StackWalker.StackFrame outermostPageFrame(Stream<StackWalker.StackFrame> frames) {
+        StackWalker.StackFrame outermost = null;
+        for (Iterator<StackWalker.StackFrame> iterator = frames.iterator(); iterator.hasNext(); ) {
+            StackWalker.StackFrame frame = iterator.next();
+            if (frame.getClassName().startsWith(PAGES_PACKAGE)) {
+                outermost = frame;
+            }
+        }
+        return outermost;
+    }
+
+    private int intern(String label) {
+        int index = labelIndex.get(null, label);
+        if (index == NO_LABEL) {
+            index = labels.size();
+            labels.add(label);
+            labelIndex.put(null, label, index);
+        }
+        return index;
+    }
+
+    /**
+     * Open-addressing map from (owner, name) to a label index, with int values so lookups never box.
+     * Plain labels have a null owner; page actions are keyed by their class and method name.
+     * Labels are almost always constants, so the identity check usually settles a match.
+     */
+    private static final class LabelTable {
+        private Object[] owners = new Object[64];
+        private String[] names = new String[64];
+        private int[] indexes = new int[64];
+        private int size;
+
+        int get(Object owner, String name) {
+            int mask = names.length - 1;
+            for (int slot = slot(owner, name, mask); names[slot] != null; slot = (slot + 1) & mask) {
+                if (owners[slot] == owner && (names[slot] == name || names[slot].equals(name))) {
+                    return indexes[slot];
+                }
+            }
+            return NO_LABEL;
+        }
+
+        void put(Object owner, String name, int index) {
+            if (2 * (size + 1) > names.length) {
+                grow();
+            }
+            int mask = names.length - 1;
+            int slot = slot(owner, name, mask);
+            while (names[slot] != null) {
+                slot = (slot + 1) & mask;
+            }
+            owners[slot] = owner;
+            names[slot] = name;
+            indexes[slot] = index;
+            size++;
+        }
+
+        private void grow() {
+            Object[] oldOwners = owners;
+            String[] oldNames = names;
+            int[] oldIndexes = indexes;
+            owners = new Object[oldNames.length * 2];
+            names = new String[oldNames.length * 2];
+            indexes = new int[oldNames.length * 2];
+            size = 0;
+            for (int i = 0; i < oldNames.length; i++) {
+                if (oldNames[i] != null) {
+                    put(oldOwners[i], oldNames[i], oldIndexes[i]);
+                }
+            }
+        }
+
+        private static int slot(Object owner, String name, int mask) {
+            int hash = 31 * System.identityHashCode(owner) + name.hashCode();
+            return (hash ^ (hash >>> 16)) & mask;
+        }
+    }
+
+    private StepTimeline buildTimeline(String testName, long end) {
+        StepTimeline timeline = new StepTimeline();
+        timeline.setTestName(testName);
+        timeline.setRecordedAt(LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+        timeline.setThrottlingProfile(ThrottlingManager.testProfile().getName());
+        timeline.setEventCount(eventCount);
+        timeline.setDroppedEvents(droppedEvents);
+
+        for (int i = 0; i < stepCount; i++) {
+            long stepEnd = i + 1 < stepCount ? stepStart[i + 1] : end;
+            StepTiming step = new StepTiming();
+            step.setName(labels.get(stepLabel[i]));
+            step.setWallMs(toMs(stepEnd - stepStart[i]));
+            step.setWebDriverMs(toMs(stepWebDriver[i]));
+            step.setWaitMs(toMs(stepWait[i]));
+            step.setThinkMs(Math.max(0, step.getWallMs() - step.getWebDriverMs() - step.getWaitMs()));
+            timeline.getSteps().add(step);
+
+            timeline.setTotalMs(timeline.getTotalMs() + step.getWallMs());
+            timeline.setWebDriverMs(timeline.getWebDriverMs() + step.getWebDriverMs());
+            timeline.setWaitMs(timeline.getWaitMs() + step.getWaitMs());
+            timeline.setThinkMs(timeline.getThinkMs() + step.getThinkMs());
+        }
+        return timeline;
+    }
+
+    private String eventsCsv(long end) {
+        StringBuilder csv = new StringBuilder("offset_ms,duration_ms,category,depth,step,page_action,label\n");
+        int step = 0;
+        for (int i = 0; i < eventCount; i++) {
+            while (step + 1 < stepCount && stepStart[step + 1] <= eventStart[i]) {
+                step++;
+            }
+            csv.append(String.format("%.1f,%.1f,%s,%d,%s,%s,%s%n",
+                toMs(eventStart[i] - origin), toMs(eventDuration[i]), CATEGORY_NAMES[eventCategory[i]],
+                eventDepth[i], labels.get(stepLabel[step]),
+                eventPageAction[i] != NO_PAGE_ACTION ? labels.get(eventPageAction[i]) : "", labels.get(eventLabel[i])));
+        }
+        return csv.toString();
+    }
+
+    /**
+     * WebDriver and wait time per page-object method, slowest first, as a markdown table
+     */
+    private String pageActionsTable() {
+        Map<Integer, long[]> totals = new HashMap<>();
+        for (int i = 0; i < eventCount; i++) {
+            if (eventPageAction[i] == NO_PAGE_ACTION || eventCategory[i] == PAGE_ACTION) {
+                continue;
+            }
+            // webdriver nanos, wait nanos, commands
+            long[] total = totals.computeIfAbsent(eventPageAction[i], key -> new long[3]);
+            if (eventCategory[i] == WEBDRIVER) {
+                total[0] += eventDuration[i];
+                total[2]++;
+            } else {
+                total[1] += eventDuration[i];
+            }
+        }
+        if (totals.isEmpty()) {
+            return "";
+        }
+
+        List<Map.Entry<Integer, long[]>> sorted = new ArrayList<>(totals.entrySet());
+        sorted.sort((a, b) -> Long.compare(b.getValue()[0] + b.getValue()[1], a.getValue()[0] + a.getValue()[1]));
+
+        StringBuilder table = new StringBuilder();
+        table.append("\n## Page Actions\n\n");
+        table.append("| Page Action | WebDriver | Commands | Wait |\n");
+        table.append("|-------------|-----------|----------|------|\n");
+        for (Map.Entry<Integer, long[]> entry : sorted.subList(0, Math.min(PAGE_ACTIONS_IN_REPORT, sorted.size()))) {
+            table.append("| ").append(labels.get(entry.getKey())).append(" | ")
+                 .append(String.format("%.0f ms", toMs(entry.getValue()[0]))).append(" | ")
+                 .append(entry.getValue()[2]).append(" | ")
+                 .append(String.format("%.0f ms", toMs(entry.getValue()[1]))).append(" |\n");
+        }
+        return table.toString();
+    }
+
+    private static void attachTimelineToAllure(StepTimeline timeline, String pageActionsTable, String eventsCsv) {
+        StringBuilder summary = new StringBuilder();
+        summary.append("# Step Timeline\n\n");
+        summary.append("## Test: ").append(timeline.getTestName()).append("\n\n");
+        summary.append("| Step | Wall | WebDriver | Wait | Think |\n");
+        summary.append("|------|------|-----------|------|-------|\n");
+        for (StepTiming step : timeline.getSteps()) {
+            summary.append("| ").append(step.getName()).append(" | ")
+                   .append(String.format("%.0f ms", step.getWallMs())).append(" | ")
+                   .append(String.format("%.0f ms", step.getWebDriverMs())).append(" | ")
+                   .append(String.format("%.0f ms", step.getWaitMs())).append(" | ")
+                   .append(String.format("%.0f ms", step.getThinkMs())).append(" |\n");
+        }
+        summary.append("| **Total** | ")
+               .append(String.format("%.0f ms", timeline.getTotalMs())).append(" | ")
+               .append(String.format("%.0f ms", timeline.getWebDriverMs())).append(" | ")
+               .append(String.format("%.0f ms", timeline.getWaitMs())).append(" | ")
+               .append(String.format("%.0f ms", timeline.getThinkMs())).append(" |\n");
+        if (timeline.getDroppedEvents() > 0) {
+            summary.append("\n⚠️ ").append(timeline.getDroppedEvents())
+                   .append(" events dropped (buffer full); step totals are still complete\n");
+        }
+        summary.append(pageActionsTable);
+
+        Allure.addAttachment("Step Timeline", "text/markdown",
+            new ByteArrayInputStream(summary.toString().getBytes(StandardCharsets.UTF_8)), ".md");
+        Allure.addAttachment("Step Timeline Events", "text/csv",
+            new ByteArrayInputStream(eventsCsv.getBytes(StandardCharsets.UTF_8)), ".csv");
+
+        Allure.parameter("WebDriver Time", String.format("%.0f ms", timeline.getWebDriverMs()));
+        Allure.parameter("Total Wait Time", String.format("%.0f ms", timeline.getWaitMs()));
+        Allure.parameter("Think Time", String.format("%.0f ms", timeline.getThinkMs()));
+    }
+
+    /**
+     * Append to performance-history/<test>_timeline.json, keeping the last 100 runs
+     */
+    private static void storeTimeline(StepTimeline timeline) throws Exception {
+        String fileName = timeline.getTestName().replaceAll("[^a-zA-Z0-9]", "_") + "_timeline.json";
+        Path filePath = Paths.get(PERFORMANCE_DATA_DIR, fileName);
+        Files.createDirectories(filePath.getParent());
+
+        List<StepTimeline> history = new ArrayList<>();
+        if (Files.exists(filePath)) {
+            try {
+                history = objectMapper.readValue(Files.readString(filePath), new TypeReference<List<StepTimeline>>(){});
+            } catch (Exception e) {
+                logger.warn("Failed to load existing timeline history, starting fresh", e);
+            }
+        }
+
+        history.add(timeline);
+        if (history.size() > 100) {
+            history = history.subList(history.size() - 100, history.size());
+        }
+        Files.writeString(filePath, objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(history));
+    }
+
+    private static double toMs(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
@@ -0,0 +1,637 @@
+package com.choice.testing.utils;
+
+import com.choice.testing.config.ConfigManager;
+import com.choice.testing.drivers.DriverManager;
+import com.choice.testing.proxy.ProxyArchive;
+import com.github.kklisura.cdt.protocol.events.fetch.RequestPaused;
+import com.github.kklisura.cdt.protocol.support.types.EventListener;
+import com.github.kklisura.cdt.protocol.types.fetch.HeaderEntry;
+import com.github.kklisura.cdt.protocol.types.fetch.RequestPattern;
+import com.github.kklisura.cdt.protocol.types.fetch.RequestStage;
+import com.github.kklisura.cdt.protocol.types.fetch.ResponseBody;
+import com.github.kklisura.cdt.services.ChromeDevToolsService;
+import io.qameta.allure.Allure;
+import org.openqa.selenium.WebDriver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * Holds or stubs chosen backend responses through the CDP Fetch domain, so front-end and
+ * backend regressions can be told apart.
+ *
+ * - frontend-only (backend.interceptor.mode): requests matching backend.interceptor.patterns are
+ *   answered from a ProxyArchive after a fixed or the recorded latency. Misses go to the real
+ *   backend and are recorded, so from the second run on backend time no longer moves the metrics.
+ * - sensitivity (sweepLatency): one endpoint is held for increasing added latencies while a journey
+ *   runs, measuring how much of the added time shows up in LCP and INP.
+ *
+ * Paused requests are released from a scheduler thread, so holding one never blocks CDP events.
+ */
+public class BackendLatencyInterceptor {
+
+    private static final Logger logger = LoggerFactory.getLogger(BackendLatencyInterceptor.class);
+    private static final ThreadLocal<BackendLatencyInterceptor> currentInterceptor = new ThreadLocal<>();
+    // Recorded bodies are stored decoded, so these must not be replayed
+    private static final List<String> DROPPED_HEADERS = Arrays.asList("content-encoding", "content-length", "transfer-encoding");
+
+    public enum Mode {
+        OFF, FRONTEND_ONLY;
+
+        public static Mode fromConfig(String value) {
+            return Mode.valueOf(value.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+        }
+    }
+
+    public enum LatencyMode {
+        // Respond exactly latencyMs after the request (stubs), or no sooner than that (held responses)
+        FIXED,
+        // Replay the backend time seen when the response was recorded
+        RECORDED,
+        // Add latencyMs on top of whatever the backend takes
+        ADDED
+    }
+
+    /**
+     * Requests matching a URL glob ('*' and '?') and how to treat them
+     */
+    public static class InterceptRule {
+        private final String urlPattern;
+        private final Pattern regex;
+        private final boolean stub;
+        private final LatencyMode latencyMode;
+        private final long latencyMs;
+        private int matched;
+        private int stubbed;
+        private int recorded;
+        private double backendMsTotal;
+        private int backendSamples;
+        private double injectedMsTotal;
+
+        public InterceptRule(String urlPattern, boolean stub, LatencyMode latencyMode, long latencyMs) {
+            this.urlPattern = urlPattern;
+            this.regex = globToRegex(urlPattern);
+            this.stub = stub;
+            this.latencyMode = latencyMode;
+            this.latencyMs = latencyMs;
+        }
+
+        public String getUrlPattern() { return urlPattern; }
+        public boolean isStub() { return stub; }
+        public LatencyMode getLatencyMode() { return latencyMode; }
+        public long getLatencyMs() { return latencyMs; }
+        public synchronized int getMatched() { return matched; }
+        public synchronized int getStubbed() { return stubbed; }
+        public synchronized int getRecorded() { return recorded; }
+
+        public synchronized double getMeanBackendMs() {
+            return backendSamples > 0 ? backendMsTotal / backendSamples : 0;
+        }
+
+        public synchronized double getMeanInjectedMs() {
+            return matched > 0 ? injectedMsTotal / matched : 0;
+        }
+
+        boolean matches(String url) {
+            return regex.matcher(url).matches();
+        }
+    }
+
+    public static class SensitivityLevel {
+        private long addedLatencyMs;
+        private int samples;
+        private int matchedRequests;
+        private double lcpMs;
+        private double inpMs;
+
+        // Getters and setters
+        public long getAddedLatencyMs() { return addedLatencyMs; }
+        public void setAddedLatencyMs(long addedLatencyMs) { this.addedLatencyMs = addedLatencyMs; }
+
+        public int getSamples() { return samples; }
+        public void setSamples(int samples) { this.samples = samples; }
+
+        // Held requests per run, to confirm the pattern hit something
+        public int getMatchedRequests() { return matchedRequests; }
+        public void setMatchedRequests(int matchedRequests) { this.matchedRequests = matchedRequests; }
+
+        // Medians over the runs
+        public double getLcpMs() { return lcpMs; }
+        public void setLcpMs(double lcpMs) { this.lcpMs = lcpMs; }
+
+        public double getInpMs() { return inpMs; }
+        public void setInpMs(double inpMs) { this.inpMs = inpMs; }
+    }
+
+    public static class SensitivityResult {
+        private String name;
+        private String urlPattern;
+        private List<SensitivityLevel> levels = new ArrayList<>();
+        private double lcpPropagation;
+        private double inpPropagation;
+
+        // Getters and setters
+        public String getName() { return name; }
+        public void setName(String name) { this.name = name; }
+
+        public String getUrlPattern() { return urlPattern; }
+        public void setUrlPattern(String urlPattern) { this.urlPattern = urlPattern; }
+
+        public List<SensitivityLevel> getLevels() { return levels; }
+        public void setLevels(List<SensitivityLevel> levels) { this.levels = levels; }
+
+        // ms of LCP per ms of added backend latency; ~1 means the endpoint is on the critical path
+        public double getLcpPropagation() { return lcpPropagation; }
+        public void setLcpPropagation(double lcpPropagation) { this.lcpPropagation = lcpPropagation; }
+
+        public double getInpPropagation() { return inpPropagation; }
+        public void setInpPropagation(double inpPropagation) { this.inpPropagation = inpPropagation; }
+    }
+
+    private final ChromeDevToolsService session;
+    private final List<InterceptRule> rules;
+    private final ProxyArchive archive;
+    private final ScheduledExecutorService scheduler;
+    private final Map<String, Long> requestStartNanos = new ConcurrentHashMap<>();
+    private EventListener pausedListener;
+
+    private BackendLatencyInterceptor(ChromeDevToolsService session, List<InterceptRule> rules, ProxyArchive archive) {
+        this.session = session;
+        this.rules = rules;
+        this.archive = archive;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "backend-latency-interceptor");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public static Mode configuredMode() {
+        return Mode.fromConfig(System.getProperty("backend.interceptor.mode",
+            ConfigManager.getProperty("backend.interceptor.mode", "off")));
+    }
+
+    public static boolean isSensitivityEnabled() {
+        return Boolean.parseBoolean(System.getProperty("backend.sensitivity.enabled",
+            ConfigManager.getProperty("backend.sensitivity.enabled", "false")));
+    }
+
+    /**
+     * Start the configured mode on the current thread's session. Returns null when the mode is
+     * off or CDP is not available.
+     */
+    public static BackendLatencyInterceptor startForCurrentSession() {
+        if (configuredMode() != Mode.FRONTEND_ONLY) {
+            return null;
+        }
+        LatencyMode latencyMode = LatencyMode.valueOf(
+            ConfigManager.getProperty("backend.interceptor.latency", "fixed").trim().toUpperCase(Locale.ROOT));
+        long latencyMs = ConfigManager.getIntProperty("backend.interceptor.latency.ms", 150);
+
+        List<InterceptRule> rules = new ArrayList<>();
+        for (String pattern : ConfigManager.getProperty("backend.interceptor.patterns", "").split(",")) {
+            if (!pattern.trim().isEmpty()) {
+                rules.add(new InterceptRule(pattern.trim(), true, latencyMode, latencyMs));
+            }
+        }
+        return start(rules);
+    }
+
+    /**
+     * Intercept the given rules on the current thread's session, replacing any running interceptor.
+     * Returns null when CDP is not available or there are no rules.
+     */
+    public static BackendLatencyInterceptor start(List<InterceptRule> rules) {
+        stopCurrent();
+
+        ChromeDevToolsService session = DevToolsSessionManager.getSession();
+        if (session == null || rules.isEmpty()) {
+            return null;
+        }
+
+        ProxyArchive archive = null;
+        try {
+            for (InterceptRule rule : rules) {
+                if (rule.isStub() && archive == null) {
+                    archive = ProxyArchive.open(Paths.get(
+                        ConfigManager.getProperty("backend.interceptor.archive", "proxy-archives/backend-stubs")));
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Could not open backend stub archive: {}", e.getMessage());
+            return null;
+        }
+
+        BackendLatencyInterceptor interceptor = new BackendLatencyInterceptor(session, rules, archive);
+        try {
+            interceptor.attach();
+        } catch (Exception e) {
+            logger.warn("Could not enable CDP Fetch interception: {}", e.getMessage());
+            interceptor.scheduler.shutdownNow();
+            return null;
+        }
+        currentInterceptor.set(interceptor);
+        return interceptor;
+    }
+
+    public static BackendLatencyInterceptor current() {
+        return currentInterceptor.get();
+    }
+
+    /**
+     * Stop intercepting, save newly recorded stubs and attach per-rule counts to Allure
+     */
+    public static void stopAndAttachToAllure(String testName) {
+        BackendLatencyInterceptor interceptor = currentInterceptor.get();
+        if (interceptor == null) {
+            return;
+        }
+        stopCurrent();
+
+        StringBuilder report = new StringBuilder();
+        report.append("# Backend Latency Interception\n\n");
+        report.append("## Test: ").append(testName).append("\n\n");
+        report.append("| Pattern | Handling | Matched | Stubbed | Recorded | Mean Backend (ms) | Mean Injected (ms) |\n");
+        report.append("|---------|----------|---------|---------|----------|-------------------|--------------------|\n");
+        for (InterceptRule rule : interceptor.rules) {
+            report.append(String.format("| `%s` | %s %s%s | %d | %d | %d | %.0f | %.0f |%n",
+                rule.getUrlPattern(), rule.isStub() ? "stub" : "hold", rule.getLatencyMode().name().toLowerCase(),
+                rule.getLatencyMode() != LatencyMode.RECORDED ? " " + rule.getLatencyMs() + "ms" : "",
+                rule.getMatched(), rule.getStubbed(), rule.getRecorded(),
+                rule.getMeanBackendMs(), rule.getMeanInjectedMs()));
+        }
+        Allure.addAttachment("Backend Latency Interception", "text/markdown",
+            new ByteArrayInputStream(report.toString().getBytes(StandardCharsets.UTF_8)), ".md");
+        Allure.parameter("Backend Interception", configuredMode().name().toLowerCase().replace('_', '-'));
+    }
+
+    public static void stopCurrent() {
+        BackendLatencyInterceptor interceptor = currentInterceptor.get();
+        currentInterceptor.remove();
+        if (interceptor != null) {
+            interceptor.detach();
+        }
+    }
+
+    public List<InterceptRule> getRules() {
+        return rules;
+    }
+
+    private void attach() {
+        List<RequestPattern> patterns = new ArrayList<>();
+        for (InterceptRule rule : rules) {
+            patterns.add(pattern(rule.getUrlPattern(), RequestStage.REQUEST));
+            // Responses are needed to record stubs and to hold a response to a fixed minimum
+            if (rule.isStub() || rule.getLatencyMode() == LatencyMode.FIXED) {
+                patterns.add(pattern(rule.getUrlPattern(), RequestStage.RESPONSE));
+            }
+        }
+        pausedListener = session.getFetch().onRequestPaused(event -> scheduler.execute(() -> onPaused(event)));
+        session.getFetch().enable(patterns, false);
+    }
+
+    private void detach() {
+        try {
+            if (pausedListener != null) {
+                pausedListener.unsubscribe();
+            }
+            if (!session.isClosed()) {
+                session.getFetch().disable();
+            }
+        } catch (Exception e) {
+            logger.debug("Error disabling Fetch interception: {}", e.getMessage());
+        }
+        scheduler.shutdownNow();
+        if (archive != null) {
+            try {
+                archive.save();
+            } catch (IOException e) {
+                logger.warn("Failed to save backend stub archive: {}", e.getMessage());
+            }
+        }
+    }
+
+    private static RequestPattern pattern(String urlPattern, RequestStage stage) {
+        RequestPattern pattern = new RequestPattern();
+        pattern.setUrlPattern(urlPattern);
+        pattern.setRequestStage(stage);
+        return pattern;
+    }
+
+    // Runs on the scheduler thread
+
+    private void onPaused(RequestPaused event) {
+        String requestId = event.getRequestId();
+        try {
+            InterceptRule rule = findRule(event.getRequest().getUrl());
+            if (rule == null) {
+                session.getFetch().continueRequest(requestId);
+                return;
+            }
+            if (event.getResponseStatusCode() == null && event.getResponseErrorReason() == null) {
+                onRequestStage(event, rule);
+            } else {
+                onResponseStage(event, rule);
+            }
+        } catch (Exception e) {
+            logger.debug("Could not handle paused request {}: {}", requestId, e.getMessage());
+            release(requestId);
+        }
+    }
+
+    private void onRequestStage(RequestPaused event, InterceptRule rule) {
+        String requestId = event.getRequestId();
+        requestStartNanos.put(requestId, System.nanoTime());
+        synchronized (rule) {
+            rule.matched++;
+        }
+
+        if (rule.isStub()) {
+            String postData = event.getRequest().getPostData();
+            ProxyArchive.ArchivedResponse stub = archive.next(event.getRequest().getMethod(), event.getRequest().getUrl(),
+                postData != null ? postData.getBytes(StandardCharsets.UTF_8) : null);
+            if (stub != null) {
+                long delayMs = stubLatency(rule, stub.getRecordedMs());
+                synchronized (rule) {
+                    rule.stubbed++;
+                    rule.injectedMsTotal += delayMs;
+                }
+                requestStartNanos.remove(requestId);
+                scheduler.schedule(() -> fulfill(requestId, stub), delayMs, TimeUnit.MILLISECONDS);
+                return;
+            }
+        } else if (rule.getLatencyMode() == LatencyMode.ADDED) {
+            synchronized (rule) {
+                rule.injectedMsTotal += rule.getLatencyMs();
+            }
+            scheduler.schedule(() -> release(requestId), rule.getLatencyMs(), TimeUnit.MILLISECONDS);
+            return;
+        }
+        session.getFetch().continueRequest(requestId);
+    }
+
+    private void onResponseStage(RequestPaused event, InterceptRule rule) throws IOException {
+        String requestId = event.getRequestId();
+        Long start = requestStartNanos.remove(requestId);
+        long backendMs = start != null ? TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) : 0;
+        synchronized (rule) {
+            rule.backendMsTotal += backendMs;
+            rule.backendSamples++;
+        }
+
+        if (rule.isStub() && event.getResponseStatusCode() != null) {
+            record(event, backendMs);
+        }
+
+        long holdMs = rule.getLatencyMode() == LatencyMode.FIXED ? Math.max(0, rule.getLatencyMs() - backendMs) : 0;
+        if (holdMs > 0) {
+            synchronized (rule) {
+                rule.injectedMsTotal += holdMs;
+            }
+            scheduler.schedule(() -> release(requestId), holdMs, TimeUnit.MILLISECONDS);
+        } else {
+            session.getFetch().continueRequest(requestId);
+        }
+    }
+
+    private void record(RequestPaused event, long backendMs) throws IOException {
+        ResponseBody responseBody = session.getFetch().getResponseBody(event.getRequestId());
+        byte[] body = Boolean.TRUE.equals(responseBody.getBase64Encoded())
+            ? Base64.getDecoder().decode(responseBody.getBody())
+            : responseBody.getBody().getBytes(StandardCharsets.UTF_8);
+
+        Map<String, List<String>> headers = new HashMap<>();
+        if (event.getResponseHeaders() != null) {
+            for (HeaderEntry header : event.getResponseHeaders()) {
+                if (!DROPPED_HEADERS.contains(header.getName().toLowerCase(Locale.ROOT))) {
+                    headers.computeIfAbsent(header.getName(), name -> new ArrayList<>()).add(header.getValue());
+                }
+            }
+        }
+
+        String postData = event.getRequest().getPostData();
+        ProxyArchive.ArchivedResponse entry = new ProxyArchive.ArchivedResponse();
+        entry.setMethod(event.getRequest().getMethod());
+        entry.setUrl(event.getRequest().getUrl());
+        entry.setRequestBodyHash(ProxyArchive.hashOrNull(postData != null ? postData.getBytes(StandardCharsets.UTF_8) : null));
+        entry.setStatus(event.getResponseStatusCode());
+        entry.setHeaders(headers);
+        entry.setRecordedMs(backendMs);
+        archive.record(entry, body);
+
+        for (InterceptRule rule : rules) {
+            if (rule.matches(entry.getUrl())) {
+                synchronized (rule) {
+                    rule.recorded++;
+                }
+                break;
+            }
+        }
+    }
+
+    private void fulfill(String requestId, ProxyArchive.ArchivedResponse stub) {
+        try {
+            List<HeaderEntry> headers = new ArrayList<>();
+            for (Map.Entry<String, List<String>> header : stub.getHeaders().entrySet()) {
+                for (String value : header.getValue()) {
+                    HeaderEntry entry = new HeaderEntry();
+                    entry.setName(header.getKey());
+                    entry.setValue(value);
+                    headers.add(entry);
+                }
+            }
+            String body = Base64.getEncoder().encodeToString(archive.readBody(stub));
+            session.getFetch().fulfillRequest(requestId, stub.getStatus(), headers, null, body, null);
+        } catch (Exception e) {
+            logger.debug("Could not fulfill {} from stub: {}", stub.getUrl(), e.getMessage());
+            release(requestId);
+        }
+    }
+
+    private void release(String requestId) {
+        try {
+            session.getFetch().continueRequest(requestId);
+        } catch (Exception e) {
+            logger.debug("Could not continue request {}: {}", requestId, e.getMessage());
+        }
+    }
+
+    private InterceptRule findRule(String url) {
+        for (InterceptRule rule : rules) {
+            if (rule.matches(url)) {
+                return rule;
+            }
+        }
+        return null;
+    }
+
+    private static long stubLatency(InterceptRule rule, long recordedMs) {
+        switch (rule.getLatencyMode()) {
+            case RECORDED:
+                return recordedMs;
+            case ADDED:
+                return recordedMs + rule.getLatencyMs();
+            default:
+                return rule.getLatencyMs();
+        }
+    }
+
+    static Pattern globToRegex(String glob) {
+        StringBuilder regex = new StringBuilder();
+        for (char c : glob.toCharArray()) {
+            if (c == '*') {
+                regex.append(".*");
+            } else if (c == '?') {
+                regex.append('.');
+            } else {
+                regex.append(Pattern.quote(String.valueOf(c)));
+            }
+        }
+        return Pattern.compile(regex.toString());
+    }
+
+    // Sensitivity mode
+
+    /**
+     * Run the journey with increasing latency added to one endpoint and fit how much of it reaches
+     * LCP and INP. Levels run ascending on even runs and descending on odd runs to cancel drift.
+     * Any running interceptor on this thread is stopped first.
+     */
+    public static SensitivityResult sweepLatency(String name, String urlPattern, List<Long> addedLatenciesMs,
+                                                 int runs, Consumer<WebDriver> journey) {
+        SensitivityResult result = new SensitivityResult();
+        result.setName(name);
+        result.setUrlPattern(urlPattern);
+
+        stopCurrent();
+        ChromeDevToolsService session = DevToolsSessionManager.getSession();
+        if (session == null) {
+            logger.warn("Backend sensitivity sweep {} skipped - no DevTools session", name);
+            return result;
+        }
+        WebDriver driver = DriverManager.getWebDriver();
+        if (!InteractionLatencyRecorder.isEnabled()) {
+            logger.warn("Interaction latency is disabled, sweep {} measures LCP only - set interaction.latency.enabled=true for INP", name);
+        }
+
+        int levels = addedLatenciesMs.size();
+        double[][] lcp = new double[levels][runs];
+        double[][] inp = new double[levels][runs];
+        int[] samples = new int[levels];
+        int[] matched = new int[levels];
+
+        String collector = LoadMetricsCollector.install(session);
+        System.out.println("🐢 Backend sensitivity " + name + ": " + urlPattern + " at " + addedLatenciesMs + "ms x " + runs + " runs");
+        try {
+            for (int run = 0; run < runs; run++) {
+                for (int step = 0; step < levels; step++) {
+                    int level = run % 2 == 0 ? step : levels - 1 - step;
+                    InterceptRule rule = new InterceptRule(urlPattern, false, LatencyMode.ADDED, addedLatenciesMs.get(level));
+                    try {
+                        driver.get("about:blank");
+                        session.getNetwork().clearBrowserCache();
+                        InteractionLatencyRecorder.takeReport(driver);
+
+                        start(Arrays.asList(rule));
+                        journey.accept(driver);
+                        SmartWait.waitForPageSettled(driver, SmartWait.getDefaultTimeout());
+
+                        double[] metrics = LoadMetricsCollector.read(driver);
+                        InteractionLatencyRecorder.InteractionReport interactions = InteractionLatencyRecorder.takeReport(driver);
+                        if (metrics != null) {
+                            lcp[level][samples[level]] = metrics[LoadMetricsCollector.LCP];
+                            inp[level][samples[level]] = interactions.getInpMs();
+                            samples[level]++;
+                            matched[level] += rule.getMatched();
+                        }
+                    } catch (Exception e) {
+                        logger.warn("Backend sensitivity run at +{}ms failed: {}", addedLatenciesMs.get(level), e.getMessage());
+                    } finally {
+                        stopCurrent();
+                    }
+                }
+            }
+        } finally {
+            LoadMetricsCollector.uninstall(session, collector);
+        }
+
+        List<Double> x = new ArrayList<>();
+        List<Double> lcpMedians = new ArrayList<>();
+        List<Double> inpMedians = new ArrayList<>();
+        for (int level = 0; level < levels; level++) {
+            SensitivityLevel summary = new SensitivityLevel();
+            summary.setAddedLatencyMs(addedLatenciesMs.get(level));
+            summary.setSamples(samples[level]);
+            if (samples[level] > 0) {
+                summary.setMatchedRequests(matched[level] / samples[level]);
+                summary.setLcpMs(median(lcp[level], samples[level]));
+                summary.setInpMs(median(inp[level], samples[level]));
+                x.add((double) addedLatenciesMs.get(level));
+                lcpMedians.add(summary.getLcpMs());
+                inpMedians.add(summary.getInpMs());
+            }
+            result.getLevels().add(summary);
+        }
+        result.setLcpPropagation(slope(x, lcpMedians));
+        result.setInpPropagation(slope(x, inpMedians));
+
+        System.out.println(String.format("🐢 %s: LCP moves %.2fms and INP %.2fms per ms added to %s",
+            name, result.getLcpPropagation(), result.getInpPropagation(), urlPattern));
+        return result;
+    }
+
+    public static void attachToAllure(SensitivityResult result) {
+        StringBuilder report = new StringBuilder();
+        report.append("# Backend Latency Sensitivity: ").append(result.getName()).append("\n\n");
+        report.append("Endpoint: `").append(result.getUrlPattern()).append("`\n\n");
+        report.append(String.format("- LCP propagation: %.2f ms per ms of added latency%n", result.getLcpPropagation()));
+        report.append(String.format("- INP propagation: %.2f ms per ms of added latency%n%n", result.getInpPropagation()));
+        report.append("| Added Latency (ms) | Runs | Held Requests/Run | LCP (ms) | INP (ms) |\n");
+        report.append("|--------------------|------|-------------------|----------|----------|\n");
+        for (SensitivityLevel level : result.getLevels()) {
+            report.append(String.format("| %d | %d | %d | %.0f | %.0f |%n", level.getAddedLatencyMs(), level.getSamples(),
+                level.getMatchedRequests(), level.getLcpMs(), level.getInpMs()));
+        }
+        Allure.addAttachment("Backend Sensitivity - " + result.getName(), "text/markdown",
+            new ByteArrayInputStream(report.toString().getBytes(StandardCharsets.UTF_8)), ".md");
+        Allure.parameter("LCP Backend Propagation", String.format("%.2f", result.getLcpPropagation()));
+    }
+
+    private static double median(double[] values, int n) {
+        double[] sorted = Arrays.copyOf(values, n);
+        Arrays.sort(sorted);
+        return n % 2 == 1 ? sorted[n / 2] : (sorted[n / 2 - 1] + sorted[n / 2]) / 2;
+    }
+
+    private static double slope(List<Double> x, List<Double> y) {
+        if (x.size() < 2) {
+            return 0;
+        }
+        double meanX = x.stream().mapToDouble(Double::doubleValue).average().orElse(0);
+        double meanY = y.stream().mapToDouble(Double::doubleValue).average().orElse(0);
+        double covariance = 0;
+        double variance = 0;
+        for (int i = 0; i < x.size(); i++) {
+            covariance += (x.get(i) - meanX) * (y.get(i) - meanY);
+            variance += (x.get(i) - meanX) * (x.get(i) - meanX);
+        }
+        return variance > 0 ? covariance / variance : 0;
+    }
+}
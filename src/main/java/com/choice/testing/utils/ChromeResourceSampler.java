@@ -0,0 +1,689 @@
+package com.choice.testing.utils;
+
+import com.choice.testing.config.ConfigManager;
+import com.choice.testing.drivers.DriverManager;
+import io.qameta.allure.Allure;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Background sampler for the Chrome process tree driven by the current DriverManager session.
+ * Reads CPU time, RSS and thread counts from /proc into a fixed-size primitive ring buffer,
+ * so taking a sample does not allocate. Only available on Linux; elsewhere it is a no-op.
+ */
+public class ChromeResourceSampler {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChromeResourceSampler.class);
+    private static final ThreadLocal<ChromeResourceSampler> currentSampler = new ThreadLocal<>();
+    private static final Path PROC_DIR = Paths.get("/proc");
+    private static final int MAX_PROCESSES = 128;
+    private static final long CLOCK_TICKS_PER_SECOND = detectClockTicks();
+    private static final long PAGE_SIZE_BYTES = detectPageSize();
+
+    private final int debuggingPort;
+    private final long intervalNanos;
+    private final long rediscoverIntervalNanos;
+    private final int capacity;
+
+    // Ring buffer - one slot per sample, preallocated
+    private final long[] sampleNanos;
+    private final long[] cpuTicks;
+    private final long[] rssBytes;
+    private final int[] threadCounts;
+    private final int[] processCounts;
+    private final int[] rendererCounts;
+    private long sampleCount;
+
+    // Tracked processes - refreshed periodically, reused between samples
+    private final int[] pids = new int[MAX_PROCESSES];
+    private final boolean[] renderers = new boolean[MAX_PROCESSES];
+    private final long[] lastCpuTicks = new long[MAX_PROCESSES];
+    private final RandomAccessFile[] statFiles = new RandomAccessFile[MAX_PROCESSES];
+    private int trackedCount;
+    private long exitedCpuTicks;
+    private final byte[] statBuffer = new byte[1024];
+
+    // Running aggregates survive ring buffer wrap-around
+    private long peakRssBytes;
+    private int peakThreads;
+    private int peakProcesses;
+    private int peakRenderers;
+    private long latestCpuTicks;
+    private long firstCpuTicks;
+
+    private final long startNanos;
+    private final List<StepMark> stepMarks = new ArrayList<>();
+    private volatile boolean running;
+    private Thread samplerThread;
+
+    private static class StepMark {
+        private final String name;
+        private final long nanos;
+        private final long cpuTicks;
+
+        StepMark(String name, long nanos, long cpuTicks) {
+            this.name = name;
+            this.nanos = nanos;
+            this.cpuTicks = cpuTicks;
+        }
+    }
+
+    public static class StepUsage {
+        private String name;
+        private double durationSeconds;
+        private double cpuSeconds;
+        private double peakRssMb;
+
+        public String getName() { return name; }
+        public void setName(String name) { this.name = name; }
+
+        public double getDurationSeconds() { return durationSeconds; }
+        public void setDurationSeconds(double durationSeconds) { this.durationSeconds = durationSeconds; }
+
+        public double getCpuSeconds() { return cpuSeconds; }
+        public void setCpuSeconds(double cpuSeconds) { this.cpuSeconds = cpuSeconds; }
+
+        public double getPeakRssMb() { return peakRssMb; }
+        public void setPeakRssMb(double peakRssMb) { this.peakRssMb = peakRssMb; }
+    }
+
+    public static class ResourceReport {
+        private long sampleCount;
+        private double durationSeconds;
+        private double totalCpuSeconds;
+        private double peakRssMb;
+        private int peakThreads;
+        private int peakProcesses;
+        private int peakRenderers;
+        private List<StepUsage> steps = new ArrayList<>();
+        private String samplesCsv = "";
+
+        public long getSampleCount() { return sampleCount; }
+        public void setSampleCount(long sampleCount) { this.sampleCount = sampleCount; }
+
+        public double getDurationSeconds() { return durationSeconds; }
+        public void setDurationSeconds(double durationSeconds) { this.durationSeconds = durationSeconds; }
+
+        public double getTotalCpuSeconds() { return totalCpuSeconds; }
+        public void setTotalCpuSeconds(double totalCpuSeconds) { this.totalCpuSeconds = totalCpuSeconds; }
+
+        public double getPeakRssMb() { return peakRssMb; }
+        public void setPeakRssMb(double peakRssMb) { this.peakRssMb = peakRssMb; }
+
+        public int getPeakThreads() { return peakThreads; }
+        public void setPeakThreads(int peakThreads) { this.peakThreads = peakThreads; }
+
+        public int getPeakProcesses() { return peakProcesses; }
+        public void setPeakProcesses(int peakProcesses) { this.peakProcesses = peakProcesses; }
+
+        public int getPeakRenderers() { return peakRenderers; }
+        public void setPeakRenderers(int peakRenderers) { this.peakRenderers = peakRenderers; }
+
+        public List<StepUsage> getSteps() { return steps; }
+        public void setSteps(List<StepUsage> steps) { this.steps = steps; }
+
+        public String getSamplesCsv() { return samplesCsv; }
+        public void setSamplesCsv(String samplesCsv) { this.samplesCsv = samplesCsv; }
+
+        public double getAverageCpuPercent() {
+            return durationSeconds > 0 ? (totalCpuSeconds / durationSeconds) * 100 : 0;
+        }
+
+        /**
+         * Metrics in the shape expected by PerformanceRegressionTracker (lower is better)
+         */
+        public Map<String, Double> toExtraMetrics() {
+            Map<String, Double> metrics = new LinkedHashMap<>();
+            metrics.put("Chrome Peak RSS (MB)", peakRssMb);
+            metrics.put("Chrome CPU Seconds", totalCpuSeconds);
+            metrics.put("Chrome Peak Renderers", (double) peakRenderers);
+            for (StepUsage step : steps) {
+                metrics.put("Chrome CPU Seconds - " + step.getName(), step.getCpuSeconds());
+            }
+            return metrics;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("ResourceReport{samples=%d, cpu=%.2fs (%.0f%%), peakRss=%.1fMB, peakRenderers=%d, peakThreads=%d}",
+                sampleCount, totalCpuSeconds, getAverageCpuPercent(), peakRssMb, peakRenderers, peakThreads);
+        }
+    }
+
+    private ChromeResourceSampler(int debuggingPort, long intervalMs, int capacity) {
+        this.debuggingPort = debuggingPort;
+        this.intervalNanos = intervalMs * 1_000_000L;
+        this.rediscoverIntervalNanos = ConfigManager.getIntProperty("resource.sampler.rediscover.interval.ms", 2000) * 1_000_000L;
+        this.capacity = capacity;
+        this.sampleNanos = new long[capacity];
+        this.cpuTicks = new long[capacity];
+        this.rssBytes = new long[capacity];
+        this.threadCounts = new int[capacity];
+        this.processCounts = new int[capacity];
+        this.rendererCounts = new int[capacity];
+        this.startNanos = System.nanoTime();
+    }
+
+    public static boolean isEnabled() {
+        return Boolean.parseBoolean(System.getProperty("resource.sampler.enabled",
+            ConfigManager.getProperty("resource.sampler.enabled", "false")));
+    }
+
+    public static boolean isSupported() {
+        return Files.isDirectory(PROC_DIR) && Files.exists(PROC_DIR.resolve("self/stat"));
+    }
+
+    /**
+     * Start sampling the Chrome process tree of the current thread's WebDriver session
+     */
+    public static ChromeResourceSampler startForCurrentSession() {
+        stopCurrent();
+
+        if (!isSupported()) {
+            logger.info("Chrome resource sampling requires /proc, skipping on this platform");
+            return null;
+        }
+
+        int intervalMs = ConfigManager.getIntProperty("resource.sampler.interval.ms", 250);
+        int capacity = ConfigManager.getIntProperty("resource.sampler.capacity", 2400);
+
+        ChromeResourceSampler sampler = new ChromeResourceSampler(DriverManager.getDebuggingPort(), intervalMs, capacity);
+        sampler.start();
+        currentSampler.set(sampler);
+        return sampler;
+    }
+
+    public static ChromeResourceSampler current() {
+        return currentSampler.get();
+    }
+
+    /**
+     * Mark the start of a named step on the current thread's sampler (no-op when not sampling)
+     */
+    public static void markStep(String stepName) {
+        ChromeResourceSampler sampler = currentSampler.get();
+        if (sampler != null) {
+            sampler.mark(stepName);
+        }
+    }
+
+    /**
+     * Resource metrics collected so far by the current thread's sampler, empty when not sampling
+     */
+    public static Map<String, Double> currentExtraMetrics() {
+        ChromeResourceSampler sampler = currentSampler.get();
+        return sampler != null ? sampler.snapshot().toExtraMetrics() : new HashMap<>();
+    }
+
+    /**
+     * Stop the current thread's sampler and attach its report to Allure
+     */
+    public static ResourceReport stopAndAttachToAllure(String testName) {
+        ResourceReport report = stopCurrent();
+        if (report != null) {
+            attachReportToAllure(report, testName);
+        }
+        return report;
+    }
+
+    public static ResourceReport stopCurrent() {
+        ChromeResourceSampler sampler = currentSampler.get();
+        if (sampler == null) {
+            return null;
+        }
+        currentSampler.remove();
+        return sampler.stop();
+    }
+
+    public void start() {
+        running = true;
+        samplerThread = new Thread(this::runLoop, "chrome-resource-sampler-" + debuggingPort);
+        samplerThread.setDaemon(true);
+        samplerThread.start();
+        logger.info("Chrome resource sampler started (port {}, interval {}ms, capacity {})",
+            debuggingPort, intervalNanos / 1_000_000, capacity);
+    }
+
+    public ResourceReport stop() {
+        running = false;
+        if (samplerThread != null) {
+            LockSupport.unpark(samplerThread);
+            try {
+                samplerThread.join(2000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        closeTrackedFiles();
+
+        ResourceReport report = snapshot();
+        logger.info("Chrome resource sampler stopped: {}", report);
+        return report;
+    }
+
+    public synchronized void mark(String stepName) {
+        stepMarks.add(new StepMark(stepName, System.nanoTime(), latestCpuTicks));
+    }
+
+    private void runLoop() {
+        long nextDiscovery = 0;
+        long nextSample = System.nanoTime();
+
+        while (running) {
+            long now = System.nanoTime();
+            if (now >= nextDiscovery) {
+                discoverProcessTree();
+                nextDiscovery = now + rediscoverIntervalNanos;
+            }
+
+            takeSample(now);
+
+            nextSample += intervalNanos;
+            long sleepNanos = nextSample - System.nanoTime();
+            if (sleepNanos > 0) {
+                LockSupport.parkNanos(sleepNanos);
+            } else {
+                nextSample = System.nanoTime();
+            }
+        }
+    }
+
+    private void takeSample(long now) {
+        long totalCpu = exitedCpuTicks;
+        long totalRssPages = 0;
+        int totalThreads = 0;
+        int liveProcesses = 0;
+        int liveRenderers = 0;
+
+        for (int i = 0; i < trackedCount; i++) {
+            RandomAccessFile statFile = statFiles[i];
+            if (statFile == null) {
+                continue;
+            }
+
+            int length;
+            try {
+                statFile.seek(0);
+                length = statFile.read(statBuffer, 0, statBuffer.length);
+            } catch (IOException e) {
+                // Process exited - keep its CPU time so the cumulative counter never goes backwards
+                retireProcess(i);
+                continue;
+            }
+            if (length <= 0) {
+                retireProcess(i);
+                continue;
+            }
+
+            // Fields after "(comm)": 3=state ... 14=utime 15=stime ... 20=num_threads ... 24=rss
+            int pos = lastIndexOf(statBuffer, length, (byte) ')') + 2;
+            int field = 3;
+            long utime = 0, stime = 0, threads = 0, rss = 0;
+            while (pos < length && field <= 24) {
+                int end = pos;
+                while (end < length && statBuffer[end] != ' ') {
+                    end++;
+                }
+                switch (field) {
+                    case 14: utime = parseLong(statBuffer, pos, end); break;
+                    case 15: stime = parseLong(statBuffer, pos, end); break;
+                    case 20: threads = parseLong(statBuffer, pos, end); break;
+                    case 24: rss = parseLong(statBuffer, pos, end); break;
+                    default: break;
+                }
+                pos = end + 1;
+                field++;
+            }
+
+            lastCpuTicks[i] = utime + stime;
+            totalCpu += utime + stime;
+            totalRssPages += rss;
+            totalThreads += threads;
+            liveProcesses++;
+            if (renderers[i]) {
+                liveRenderers++;
+            }
+        }
+
+        synchronized (this) {
+            int slot = (int) (sampleCount % capacity);
+            sampleNanos[slot] = now;
+            cpuTicks[slot] = totalCpu;
+            rssBytes[slot] = totalRssPages * PAGE_SIZE_BYTES;
+            threadCounts[slot] = totalThreads;
+            processCounts[slot] = liveProcesses;
+            rendererCounts[slot] = liveRenderers;
+            if (sampleCount == 0) {
+                firstCpuTicks = totalCpu;
+            }
+            sampleCount++;
+
+            latestCpuTicks = totalCpu;
+            peakRssBytes = Math.max(peakRssBytes, rssBytes[slot]);
+            peakThreads = Math.max(peakThreads, totalThreads);
+            peakProcesses = Math.max(peakProcesses, liveProcesses);
+            peakRenderers = Math.max(peakRenderers, liveRenderers);
+        }
+    }
+
+    /**
+     * Find the browser process started with our debugging port and all of its descendants.
+     * Runs every few seconds, not per sample, since renderers come and go during navigation.
+     */
+    private void discoverProcessTree() {
+        Map<Integer, Integer> parentByPid = new HashMap<>();
+        Map<Integer, String> cmdlineByPid = new HashMap<>();
+        int browserPid = -1;
+        String portFlag = "--remote-debugging-port=" + debuggingPort;
+
+        File[] entries = PROC_DIR.toFile().listFiles();
+        if (entries == null) {
+            return;
+        }
+
+        for (File entry : entries) {
+            String name = entry.getName();
+            if (!isNumeric(name)) {
+                continue;
+            }
+            int pid = Integer.parseInt(name);
+            try {
+                String stat = new String(Files.readAllBytes(entry.toPath().resolve("stat")), StandardCharsets.UTF_8);
+                String afterComm = stat.substring(stat.lastIndexOf(')') + 2);
+                parentByPid.put(pid, Integer.parseInt(afterComm.split(" ")[1]));
+
+                String cmdline = new String(Files.readAllBytes(entry.toPath().resolve("cmdline")), StandardCharsets.UTF_8)
+                    .replace('\0', ' ');
+                cmdlineByPid.put(pid, cmdline);
+
+                if (cmdline.contains(portFlag) && !cmdline.contains("--type=") && !cmdline.contains("lighthouse")) {
+                    browserPid = pid;
+                }
+            } catch (Exception e) {
+                // Process vanished while scanning
+            }
+        }
+
+        if (browserPid < 0) {
+            logger.debug("No Chrome process found for debugging port {}", debuggingPort);
+            return;
+        }
+
+        List<Integer> tree = new ArrayList<>();
+        tree.add(browserPid);
+        for (int i = 0; i < tree.size(); i++) {
+            int parent = tree.get(i);
+            for (Map.Entry<Integer, Integer> entry : parentByPid.entrySet()) {
+                if (entry.getValue() == parent && !tree.contains(entry.getKey())) {
+                    tree.add(entry.getKey());
+                }
+            }
+        }
+
+        synchronized (this) {
+            // Keep files of processes that are still alive, open files for new ones
+            for (int i = 0; i < trackedCount; i++) {
+                if (statFiles[i] != null && !tree.contains(pids[i])) {
+                    retireProcess(i);
+                }
+            }
+            compactTracked();
+
+            for (int pid : tree) {
+                if (trackedCount >= MAX_PROCESSES || isTracked(pid)) {
+                    continue;
+                }
+                try {
+                    statFiles[trackedCount] = new RandomAccessFile("/proc/" + pid + "/stat", "r");
+                    pids[trackedCount] = pid;
+                    renderers[trackedCount] = cmdlineByPid.getOrDefault(pid, "").contains("--type=renderer");
+                    lastCpuTicks[trackedCount] = 0;
+                    trackedCount++;
+                } catch (IOException e) {
+                    // Exited between scan and open
+                }
+            }
+        }
+    }
+
+    private void retireProcess(int index) {
+        exitedCpuTicks += lastCpuTicks[index];
+        lastCpuTicks[index] = 0;
+        closeQuietly(statFiles[index]);
+        statFiles[index] = null;
+    }
+
+    private void compactTracked() {
+        int write = 0;
+        for (int read = 0; read < trackedCount; read++) {
+            if (statFiles[read] != null) {
+                pids[write] = pids[read];
+                renderers[write] = renderers[read];
+                lastCpuTicks[write] = lastCpuTicks[read];
+                statFiles[write] = statFiles[read];
+                write++;
+            }
+        }
+        for (int i = write; i < trackedCount; i++) {
+            statFiles[i] = null;
+        }
+        trackedCount = write;
+    }
+
+    private boolean isTracked(int pid) {
+        for (int i = 0; i < trackedCount; i++) {
+            if (pids[i] == pid && statFiles[i] != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private synchronized void closeTrackedFiles() {
+        for (int i = 0; i < trackedCount; i++) {
+            closeQuietly(statFiles[i]);
+            statFiles[i] = null;
+        }
+        trackedCount = 0;
+    }
+
+    /**
+     * Build a report from the samples collected so far
+     */
+    public synchronized ResourceReport snapshot() {
+        ResourceReport report = new ResourceReport();
+        long now = System.nanoTime();
+
+        report.setSampleCount(sampleCount);
+        report.setDurationSeconds((now - startNanos) / 1e9);
+        report.setPeakRssMb(peakRssBytes / (1024.0 * 1024.0));
+        report.setPeakThreads(peakThreads);
+        report.setPeakProcesses(peakProcesses);
+        report.setPeakRenderers(peakRenderers);
+
+        report.setTotalCpuSeconds((latestCpuTicks - firstCpuTicks) / (double) CLOCK_TICKS_PER_SECOND);
+
+        for (int i = 0; i < stepMarks.size(); i++) {
+            StepMark mark = stepMarks.get(i);
+            boolean last = i == stepMarks.size() - 1;
+            long endNanos = last ? now : stepMarks.get(i + 1).nanos;
+            long endCpu = last ? latestCpuTicks : stepMarks.get(i + 1).cpuTicks;
+
+            StepUsage usage = new StepUsage();
+            usage.setName(mark.name);
+            usage.setDurationSeconds((endNanos - mark.nanos) / 1e9);
+            long startCpu = Math.max(mark.cpuTicks, firstCpuTicks);
+            usage.setCpuSeconds(Math.max(0, endCpu - startCpu) / (double) CLOCK_TICKS_PER_SECOND);
+            usage.setPeakRssMb(peakRssBetween(mark.nanos, endNanos) / (1024.0 * 1024.0));
+            report.getSteps().add(usage);
+        }
+
+        report.setSamplesCsv(buildSamplesCsv());
+        return report;
+    }
+
+    private long firstRetainedSample() {
+        return Math.max(0, sampleCount - capacity);
+    }
+
+    private long peakRssBetween(long fromNanos, long toNanos) {
+        long peak = 0;
+        for (long i = firstRetainedSample(); i < sampleCount; i++) {
+            int slot = (int) (i % capacity);
+            if (sampleNanos[slot] >= fromNanos && sampleNanos[slot] <= toNanos) {
+                peak = Math.max(peak, rssBytes[slot]);
+            }
+        }
+        return peak;
+    }
+
+    private String buildSamplesCsv() {
+        StringBuilder csv = new StringBuilder();
+        csv.append("Seconds,CpuPercent,RssMB,Threads,Processes,Renderers\n");
+
+        long previousNanos = -1;
+        long previousCpu = 0;
+        for (long i = firstRetainedSample(); i < sampleCount; i++) {
+            int slot = (int) (i % capacity);
+            double cpuPercent = 0;
+            if (previousNanos > 0 && sampleNanos[slot] > previousNanos) {
+                double cpuSeconds = (cpuTicks[slot] - previousCpu) / (double) CLOCK_TICKS_PER_SECOND;
+                cpuPercent = cpuSeconds / ((sampleNanos[slot] - previousNanos) / 1e9) * 100;
+            }
+            csv.append(String.format("%.2f", (sampleNanos[slot] - startNanos) / 1e9)).append(",")
+               .append(String.format("%.1f", Math.max(0, cpuPercent))).append(",")
+               .append(String.format("%.1f", rssBytes[slot] / (1024.0 * 1024.0))).append(",")
+               .append(threadCounts[slot]).append(",")
+               .append(processCounts[slot]).append(",")
+               .append(rendererCounts[slot]).append("\n");
+            previousNanos = sampleNanos[slot];
+            previousCpu = cpuTicks[slot];
+        }
+        return csv.toString();
+    }
+
+    public static void attachReportToAllure(ResourceReport report, String testName) {
+        StringBuilder summary = new StringBuilder();
+        summary.append("# Chrome Resource Usage\n\n");
+        summary.append("## Test: ").append(testName).append("\n\n");
+        summary.append("| Metric | Value |\n");
+        summary.append("|--------|-------|\n");
+        summary.append("| Samples | ").append(report.getSampleCount()).append(" |\n");
+        summary.append("| Duration | ").append(String.format("%.1f s", report.getDurationSeconds())).append(" |\n");
+        summary.append("| CPU time | ").append(String.format("%.2f s (%.0f%% avg)", report.getTotalCpuSeconds(), report.getAverageCpuPercent())).append(" |\n");
+        summary.append("| Peak RSS | ").append(String.format("%.1f MB", report.getPeakRssMb())).append(" |\n");
+        summary.append("| Peak processes | ").append(report.getPeakProcesses()).append(" |\n");
+        summary.append("| Peak renderers | ").append(report.getPeakRenderers()).append(" |\n");
+        summary.append("| Peak threads | ").append(report.getPeakThreads()).append(" |\n");
+
+        if (!report.getSteps().isEmpty()) {
+            summary.append("\n## Per Step\n");
+            summary.append("| Step | Duration | CPU | Peak RSS |\n");
+            summary.append("|------|----------|-----|----------|\n");
+            for (StepUsage step : report.getSteps()) {
+                summary.append("| ").append(step.getName()).append(" | ")
+                       .append(String.format("%.1f s", step.getDurationSeconds())).append(" | ")
+                       .append(String.format("%.2f s", step.getCpuSeconds())).append(" | ")
+                       .append(String.format("%.1f MB", step.getPeakRssMb())).append(" |\n");
+            }
+        }
+
+        Allure.addAttachment("Chrome Resource Usage", "text/markdown",
+            new ByteArrayInputStream(summary.toString().getBytes(StandardCharsets.UTF_8)), ".md");
+        Allure.addAttachment("Chrome Resource Samples", "text/csv",
+            new ByteArrayInputStream(report.getSamplesCsv().getBytes(StandardCharsets.UTF_8)), ".csv");
+
+        Allure.parameter("Chrome Peak RSS", String.format("%.1f MB", report.getPeakRssMb()));
+        Allure.parameter("Chrome CPU Time", String.format("%.2f s", report.getTotalCpuSeconds()));
+    }
+
+    // Parsing helpers that work directly on the reused stat buffer
+
+    private static int lastIndexOf(byte[] buffer, int length, byte value) {
+        for (int i = length - 1; i >= 0; i--) {
+            if (buffer[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static long parseLong(byte[] buffer, int from, int to) {
+        long value = 0;
+        boolean negative = false;
+        for (int i = from; i < to; i++) {
+            byte b = buffer[i];
+            if (b == '-') {
+                negative = true;
+            } else if (b >= '0' && b <= '9') {
+                value = value * 10 + (b - '0');
+            }
+        }
+        return negative ? -value : value;
+    }
+
+    private static boolean isNumeric(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (!Character.isDigit(value.charAt(i))) {
+                return false;
+            }
+        }
+        return !value.isEmpty();
+    }
+
+    private static void closeQuietly(RandomAccessFile file) {
+        if (file != null) {
+            try {
+                file.close();
+            } catch (IOException e) {
+                // Ignore
+            }
+        }
+    }
+
+    private static long detectClockTicks() {
+        try {
+            Process process = new ProcessBuilder("getconf", "CLK_TCK").redirectErrorStream(true).start();
+            String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8).trim();
+            process.waitFor();
+            return Long.parseLong(output);
+        } catch (Exception e) {
+            return 100;
+        }
+    }
+
+    /**
+     * Derive the page size by comparing the RSS reported in pages (statm) and in kB (status)
+     */
+    private static long detectPageSize() {
+        try {
+            String statm = new String(Files.readAllBytes(Paths.get("/proc/self/statm")), StandardCharsets.UTF_8);
+            long rssPages = Long.parseLong(statm.trim().split("\\s+")[1]);
+            for (String line : Files.readAllLines(Paths.get("/proc/self/status"))) {
+                if (line.startsWith("VmRSS:") && rssPages > 0) {
+                    long rssKb = Long.parseLong(line.replaceAll("[^0-9]", ""));
+                    long ratio = rssKb * 1024 / rssPages;
+                    return Long.highestOneBit(ratio + ratio / 2);
+                }
+            }
+        } catch (Exception e) {
+            // Fall through to the common default
+        }
+        return 4096;
+    }
+}
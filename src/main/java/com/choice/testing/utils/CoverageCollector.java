@@ -0,0 +1,651 @@
+package com.choice.testing.utils;
+
+import com.choice.testing.config.ConfigManager;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.kklisura.cdt.protocol.support.types.EventListener;
+import com.github.kklisura.cdt.protocol.types.css.CSSStyleSheetHeader;
+import com.github.kklisura.cdt.protocol.types.css.RuleUsage;
+import com.github.kklisura.cdt.protocol.types.profiler.CoverageRange;
+import com.github.kklisura.cdt.protocol.types.profiler.FunctionCoverage;
+import com.github.kklisura.cdt.protocol.types.profiler.ScriptCoverage;
+import com.github.kklisura.cdt.services.ChromeDevToolsService;
+import io.qameta.allure.Allure;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * JS and CSS coverage of a whole journey: Profiler.startPreciseCoverage for scripts and
+ * CSS.startRuleUsageTracking for stylesheets, taken at every step mark and at the end.
+ *
+ * Coverage is kept per resource (URL and length) as a sorted array of disjoint used
+ * intervals. V8's nested block ranges are flattened with one sweep, and every take is merged
+ * into the resource's intervals with a linear union, so multi-MB bundles cost time
+ * proportional to their range count, never to their size. Sizes are in characters, as the
+ * DevTools Coverage panel counts them.
+ *
+ * Wasted transfer is estimated as each resource's transfer size (from NetworkRecorder) times
+ * its unused fraction. Total unused bytes are tracked per test in
+ * performance-history/<test>_coverage.json and compared with the median of the recent runs.
+ */
+public class CoverageCollector {
+
+    private static final Logger logger = LoggerFactory.getLogger(CoverageCollector.class);
+    private static final ObjectMapper objectMapper = new ObjectMapper()
+        .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    private static final String PERFORMANCE_DATA_DIR = "performance-history";
+    private static final String DEFAULT_STEP = "Setup";
+    private static final long[] NONE = new long[0];
+
+    private static final ThreadLocal<CoverageCollector> currentCollector = new ThreadLocal<>();
+
+    private final ChromeDevToolsService session;
+    private final List<EventListener> listeners = new ArrayList<>();
+    private final Map<String, CSSStyleSheetHeader> styleSheets = new ConcurrentHashMap<>();
+    private final Map<String, Resource> resources = new LinkedHashMap<>();
+    private final List<StepCoverage> steps = new ArrayList<>();
+    private String currentStep = DEFAULT_STEP;
+
+    private CoverageCollector(ChromeDevToolsService session) {
+        this.session = session;
+    }
+
+    /**
+     * Used intervals of one script or stylesheet as [start0, end0, start1, end1, ...]
+     */
+    private static class Resource {
+        private final String url;
+        private final String type;
+        private final long length;
+        private long[] used = NONE;
+
+        private Resource(String url, String type, long length) {
+            this.url = url;
+            this.type = type;
+            this.length = length;
+        }
+    }
+
+    public static class ResourceCoverage {
+        private String url;
+        private String type;
+        private long totalBytes;
+        private long unusedBytes;
+        private long transferBytes;
+        private long wastedTransferBytes;
+
+        // Getters and setters
+        public String getUrl() { return url; }
+        public void setUrl(String url) { this.url = url; }
+
+        // js | css
+        public String getType() { return type; }
+        public void setType(String type) { this.type = type; }
+
+        public long getTotalBytes() { return totalBytes; }
+        public void setTotalBytes(long totalBytes) { this.totalBytes = totalBytes; }
+
+        public long getUnusedBytes() { return unusedBytes; }
+        public void setUnusedBytes(long unusedBytes) { this.unusedBytes = unusedBytes; }
+
+        // 0 for inline resources and when no network report was given
+        public long getTransferBytes() { return transferBytes; }
+        public void setTransferBytes(long transferBytes) { this.transferBytes = transferBytes; }
+
+        public long getWastedTransferBytes() { return wastedTransferBytes; }
+        public void setWastedTransferBytes(long wastedTransferBytes) { this.wastedTransferBytes = wastedTransferBytes; }
+    }
+
+    public static class StepCoverage {
+        private String name;
+        private long newlyUsedJsBytes;
+        private long newlyUsedCssBytes;
+
+        // Getters and setters
+        public String getName() { return name; }
+        public void setName(String name) { this.name = name; }
+
+        // Code first executed during the step
+        public long getNewlyUsedJsBytes() { return newlyUsedJsBytes; }
+        public void setNewlyUsedJsBytes(long newlyUsedJsBytes) { this.newlyUsedJsBytes = newlyUsedJsBytes; }
+
+        public long getNewlyUsedCssBytes() { return newlyUsedCssBytes; }
+        public void setNewlyUsedCssBytes(long newlyUsedCssBytes) { this.newlyUsedCssBytes = newlyUsedCssBytes; }
+    }
+
+    public static class CoverageReport {
+        private String testName;
+        private String recordedAt;
+        private String throttlingProfile;
+        private long totalJsBytes;
+        private long unusedJsBytes;
+        private long totalCssBytes;
+        private long unusedCssBytes;
+        private long wastedTransferBytes;
+        private List<ResourceCoverage> resources = new ArrayList<>();
+        private List<StepCoverage> steps = new ArrayList<>();
+        private double baselineUnusedBytes;
+        private boolean regression;
+        private List<String> regressionDetails = new ArrayList<>();
+
+        // Getters and setters
+        public String getTestName() { return testName; }
+        public void setTestName(String testName) { this.testName = testName; }
+
+        public String getRecordedAt() { return recordedAt; }
+        public void setRecordedAt(String recordedAt) { this.recordedAt = recordedAt; }
+
+        public String getThrottlingProfile() { return throttlingProfile; }
+        public void setThrottlingProfile(String throttlingProfile) { this.throttlingProfile = throttlingProfile; }
+
+        public long getTotalJsBytes() { return totalJsBytes; }
+        public void setTotalJsBytes(long totalJsBytes) { this.totalJsBytes = totalJsBytes; }
+
+        public long getUnusedJsBytes() { return unusedJsBytes; }
+        public void setUnusedJsBytes(long unusedJsBytes) { this.unusedJsBytes = unusedJsBytes; }
+
+        public long getTotalCssBytes() { return totalCssBytes; }
+        public void setTotalCssBytes(long totalCssBytes) { this.totalCssBytes = totalCssBytes; }
+
+        public long getUnusedCssBytes() { return unusedCssBytes; }
+        public void setUnusedCssBytes(long unusedCssBytes) { this.unusedCssBytes = unusedCssBytes; }
+
+        public long getWastedTransferBytes() { return wastedTransferBytes; }
+        public void setWastedTransferBytes(long wastedTransferBytes) { this.wastedTransferBytes = wastedTransferBytes; }
+
+        // Most unused first
+        public List<ResourceCoverage> getResources() { return resources; }
+        public void setResources(List<ResourceCoverage> resources) { this.resources = resources; }
+
+        public List<StepCoverage> getSteps() { return steps; }
+        public void setSteps(List<StepCoverage> steps) { this.steps = steps; }
+
+        // Median unused bytes of the recent runs under the same throttling profile, 0 without history
+        public double getBaselineUnusedBytes() { return baselineUnusedBytes; }
+        public void setBaselineUnusedBytes(double baselineUnusedBytes) { this.baselineUnusedBytes = baselineUnusedBytes; }
+
+        public boolean isRegression() { return regression; }
+        public void setRegression(boolean regression) { this.regression = regression; }
+
+        public List<String> getRegressionDetails() { return regressionDetails; }
+        public void setRegressionDetails(List<String> regressionDetails) { this.regressionDetails = regressionDetails; }
+
+        public long getUnusedBytes() { return unusedJsBytes + unusedCssBytes; }
+    }
+
+    public static boolean isEnabled() {
+        return Boolean.parseBoolean(System.getProperty("coverage.enabled",
+            ConfigManager.getProperty("coverage.enabled", "false")));
+    }
+
+    /**
+     * Start collecting coverage on the current thread's session. Returns null when CDP is not available.
+     */
+    public static CoverageCollector startForCurrentSession() {
+        stopCurrent();
+
+        ChromeDevToolsService session = DevToolsSessionManager.getSession();
+        if (session == null) {
+            return null;
+        }
+
+        CoverageCollector collector = new CoverageCollector(session);
+        try {
+            collector.attach();
+        } catch (Exception e) {
+            logger.warn("Could not start CDP coverage: {}", e.getMessage());
+            collector.detach();
+            return null;
+        }
+        currentCollector.set(collector);
+        return collector;
+    }
+
+    /**
+     * Take the coverage so far and attribute newly used code to a new step (no-op when not collecting)
+     */
+    public static void markStep(String stepName) {
+        CoverageCollector collector = currentCollector.get();
+        if (collector != null) {
+            collector.collect();
+            collector.currentStep = stepName;
+        }
+    }
+
+    /**
+     * Unused JS/CSS so far on the current thread, keyed for LighthouseMetrics extra metrics
+     */
+    public static Map<String, Double> currentExtraMetrics() {
+        Map<String, Double> metrics = new LinkedHashMap<>();
+        CoverageCollector collector = currentCollector.get();
+        if (collector == null) {
+            return metrics;
+        }
+        collector.collect();
+        CoverageReport report = collector.buildReport(null, null);
+        metrics.put("Unused JS (KB)", report.getUnusedJsBytes() / 1024.0);
+        metrics.put("Unused CSS (KB)", report.getUnusedCssBytes() / 1024.0);
+        return metrics;
+    }
+
+    /**
+     * Stop collecting, attach the per-resource report to Allure and check total unused bytes
+     * against the recent runs of the test
+     *
+     * @param networkReport the test's network recording for transfer sizes, may be null
+     */
+    public static CoverageReport stopAndAttachToAllure(String testName, NetworkRecorder.NetworkReport networkReport) {
+        CoverageCollector collector = currentCollector.get();
+        if (collector == null) {
+            return null;
+        }
+        currentCollector.remove();
+        collector.collect();
+        collector.detach();
+
+        CoverageReport report = collector.buildReport(testName, networkReport);
+        if (report.getResources().isEmpty()) {
+            return report;
+        }
+
+        Path historyFile = Paths.get(PERFORMANCE_DATA_DIR, testName.replaceAll("[^a-zA-Z0-9]", "_") + "_coverage.json");
+        List<CoverageReport> history = loadHistory(historyFile);
+        detectRegression(report, history);
+        attachReportToAllure(report);
+
+        try {
+            history.add(report);
+            if (history.size() > 100) {
+                history = history.subList(history.size() - 100, history.size());
+            }
+            Files.createDirectories(historyFile.getParent());
+            Files.writeString(historyFile, objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(history));
+        } catch (Exception e) {
+            logger.warn("Failed to store coverage for {}", testName, e);
+        }
+        return report;
+    }
+
+    public static void stopCurrent() {
+        CoverageCollector collector = currentCollector.get();
+        currentCollector.remove();
+        if (collector != null) {
+            collector.detach();
+        }
+    }
+
+    private void attach() {
+        listeners.add(session.getCSS().onStyleSheetAdded(event -> styleSheets.put(event.getHeader().getStyleSheetId(), event.getHeader())));
+        session.getProfiler().enable();
+        session.getProfiler().startPreciseCoverage(false, true, false);
+        session.getDOM().enable();
+        session.getCSS().enable();
+        session.getCSS().startRuleUsageTracking();
+    }
+
+    private void detach() {
+        for (EventListener listener : listeners) {
+            listener.unsubscribe();
+        }
+        listeners.clear();
+        try {
+            session.getCSS().stopRuleUsageTracking();
+            session.getProfiler().stopPreciseCoverage();
+        } catch (Exception e) {
+            logger.debug("Stopping coverage failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Merge everything covered since the last take into the resources and close the current step
+     */
+    private void collect() {
+        long jsBefore = usedBytes("js");
+        long cssBefore = usedBytes("css");
+        try {
+            for (ScriptCoverage script : session.getProfiler().takePreciseCoverage().getResult()) {
+                mergeScript(script);
+            }
+            Map<String, List<RuleUsage>> rulesBySheet = new HashMap<>();
+            for (RuleUsage rule : session.getCSS().takeCoverageDelta().getCoverage()) {
+                rulesBySheet.computeIfAbsent(rule.getStyleSheetId(), key -> new ArrayList<>()).add(rule);
+            }
+            for (Map.Entry<String, List<RuleUsage>> sheet : rulesBySheet.entrySet()) {
+                mergeStyleSheet(styleSheets.get(sheet.getKey()), sheet.getValue());
+            }
+        } catch (Exception e) {
+            logger.warn("Could not take coverage for step '{}': {}", currentStep, e.getMessage());
+        }
+
+        StepCoverage step = new StepCoverage();
+        step.setName(currentStep);
+        step.setNewlyUsedJsBytes(usedBytes("js") - jsBefore);
+        step.setNewlyUsedCssBytes(usedBytes("css") - cssBefore);
+        steps.add(step);
+    }
+
+    private void mergeScript(ScriptCoverage script) {
+        if (script.getUrl() == null || script.getUrl().isEmpty() || script.getFunctions() == null) {
+            return;
+        }
+        List<CoverageRange> ranges = new ArrayList<>();
+        for (FunctionCoverage function : script.getFunctions()) {
+            ranges.addAll(function.getRanges());
+        }
+        if (ranges.isEmpty()) {
+            return;
+        }
+        // The script's top-level function spans the whole source
+        long length = 0;
+        for (CoverageRange range : ranges) {
+            length = Math.max(length, range.getEndOffset());
+        }
+        Resource resource = resource(script.getUrl(), "js", length);
+        resource.used = union(resource.used, usedRanges(ranges));
+    }
+
+    private void mergeStyleSheet(CSSStyleSheetHeader header, List<RuleUsage> rules) {
+        if (header == null || header.getLength() == null) {
+            return;
+        }
+        long[] intervals = new long[rules.size() * 2];
+        int count = 0;
+        for (RuleUsage rule : rules) {
+            if (Boolean.TRUE.equals(rule.getUsed())) {
+                intervals[count++] = rule.getStartOffset().longValue();
+                intervals[count++] = rule.getEndOffset().longValue();
+            }
+        }
+        String url = header.getSourceURL() == null || header.getSourceURL().isEmpty() ? "(constructed)" : header.getSourceURL();
+        Resource resource = resource(Boolean.TRUE.equals(header.getIsInline()) ? url + " (inline)" : url, "css",
+            header.getLength().longValue());
+        resource.used = union(resource.used, normalize(Arrays.copyOf(intervals, count)));
+    }
+
+    /**
+     * Same URL with a different length is a different resource, e.g. two inline scripts of one page
+     */
+    private Resource resource(String url, String type, long length) {
+        return resources.computeIfAbsent(type + "|" + length + "|" + url, key -> new Resource(url, type, length));
+    }
+
+    private long usedBytes(String type) {
+        long used = 0;
+        for (Resource resource : resources.values()) {
+            if (resource.type.equals(type)) {
+                used += covered(resource.used);
+            }
+        }
+        return used;
+    }
+
+    /**
+     * Flatten V8 block coverage, where a range with count 0 nested in an executed function
+     * marks a block that never ran, into disjoint executed intervals. One sweep over the
+     * range boundaries; the innermost open range decides whether a segment ran.
+     */
+    static long[] usedRanges(List<CoverageRange> ranges) {
+        int n = ranges.size();
+        // Boundary points: offset, end (0) before start (1) at the same offset, then nesting order
+        long[][] points = new long[n * 2][];
+        for (int i = 0; i < n; i++) {
+            CoverageRange range = ranges.get(i);
+            long length = range.getEndOffset() - range.getStartOffset();
+            points[2 * i] = new long[]{range.getStartOffset(), 1, -length, range.getCount()};
+            points[2 * i + 1] = new long[]{range.getEndOffset(), 0, length, 0};
+        }
+        Arrays.sort(points, (a, b) -> a[0] != b[0] ? Long.compare(a[0], b[0])
+            : a[1] != b[1] ? Long.compare(a[1], b[1]) : Long.compare(a[2], b[2]));
+
+        long[] counts = new long[n];
+        int depth = 0;
+        long[] used = new long[n * 2];
+        int size = 0;
+        long lastOffset = 0;
+        for (long[] point : points) {
+            if (depth > 0 && lastOffset < point[0] && counts[depth - 1] > 0) {
+                if (size > 0 && used[size - 1] == lastOffset) {
+                    used[size - 1] = point[0];
+                } else {
+                    if (size == used.length) {
+                        used = Arrays.copyOf(used, size * 2);
+                    }
+                    used[size++] = lastOffset;
+                    used[size++] = point[0];
+                }
+            }
+            lastOffset = point[0];
+            if (point[1] == 1) {
+                counts[depth++] = point[3];
+            } else {
+                depth--;
+            }
+        }
+        return Arrays.copyOf(used, size);
+    }
+
+    /**
+     * Sort unordered, possibly overlapping intervals and merge them into disjoint ones
+     */
+    static long[] normalize(long[] intervals) {
+        int n = intervals.length / 2;
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingLong(i -> intervals[2 * i]));
+        long[] sorted = new long[intervals.length];
+        for (int i = 0; i < n; i++) {
+            sorted[2 * i] = intervals[2 * order[i]];
+            sorted[2 * i + 1] = intervals[2 * order[i] + 1];
+        }
+        return union(sorted, NONE);
+    }
+
+    /**
+     * Union of two sorted interval arrays in one linear merge; adjacent intervals are joined
+     */
+    static long[] union(long[] a, long[] b) {
+        long[] merged = new long[a.length + b.length];
+        int size = 0;
+        int i = 0;
+        int j = 0;
+        while (i < a.length || j < b.length) {
+            long[] source;
+            int index;
+            if (j >= b.length || (i < a.length && a[i] <= b[j])) {
+                source = a;
+                index = i;
+                i += 2;
+            } else {
+                source = b;
+                index = j;
+                j += 2;
+            }
+            long start = source[index];
+            long end = source[index + 1];
+            if (start >= end) {
+                continue;
+            }
+            if (size > 0 && start <= merged[size - 1]) {
+                merged[size - 1] = Math.max(merged[size - 1], end);
+            } else {
+                merged[size++] = start;
+                merged[size++] = end;
+            }
+        }
+        return size == merged.length ? merged : Arrays.copyOf(merged, size);
+    }
+
+    static long covered(long[] intervals) {
+        long covered = 0;
+        for (int i = 0; i < intervals.length; i += 2) {
+            covered += intervals[i + 1] - intervals[i];
+        }
+        return covered;
+    }
+
+    private CoverageReport buildReport(String testName, NetworkRecorder.NetworkReport networkReport) {
+        Map<String, Long> transferByUrl = new HashMap<>();
+        if (networkReport != null) {
+            for (NetworkRecorder.RequestRecord record : networkReport.requests()) {
+                if ("script".equals(record.getResourceType()) || "stylesheet".equals(record.getResourceType())) {
+                    transferByUrl.putIfAbsent(record.getUrl(), record.getTransferBytes());
+                }
+            }
+        }
+
+        CoverageReport report = new CoverageReport();
+        report.setTestName(testName);
+        report.setRecordedAt(LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+        report.setThrottlingProfile(ThrottlingManager.testProfile().getName());
+        for (Resource resource : resources.values()) {
+            ResourceCoverage coverage = new ResourceCoverage();
+            coverage.setUrl(resource.url);
+            coverage.setType(resource.type);
+            coverage.setTotalBytes(resource.length);
+            coverage.setUnusedBytes(Math.max(0, resource.length - covered(resource.used)));
+            coverage.setTransferBytes(transferByUrl.getOrDefault(resource.url, 0L));
+            if (resource.length > 0) {
+                coverage.setWastedTransferBytes(coverage.getTransferBytes() * coverage.getUnusedBytes() / resource.length);
+            }
+            report.getResources().add(coverage);
+
+            if ("js".equals(resource.type)) {
+                report.setTotalJsBytes(report.getTotalJsBytes() + coverage.getTotalBytes());
+                report.setUnusedJsBytes(report.getUnusedJsBytes() + coverage.getUnusedBytes());
+            } else {
+                report.setTotalCssBytes(report.getTotalCssBytes() + coverage.getTotalBytes());
+                report.setUnusedCssBytes(report.getUnusedCssBytes() + coverage.getUnusedBytes());
+            }
+            report.setWastedTransferBytes(report.getWastedTransferBytes() + coverage.getWastedTransferBytes());
+        }
+        report.getResources().sort(Comparator.comparingLong(ResourceCoverage::getUnusedBytes).reversed());
+        report.setSteps(new ArrayList<>(steps));
+        return report;
+    }
+
+    /**
+     * Flag the run when total unused bytes exceed the median of the last coverage.regression.window
+     * runs by both coverage.regression.kb and coverage.regression.ratio, and name the resources that grew
+     */
+    static void detectRegression(CoverageReport report, List<CoverageReport> history) {
+        int window = ConfigManager.getIntProperty("coverage.regression.window", 10);
+        double minDelta = Double.parseDouble(ConfigManager.getProperty("coverage.regression.kb", "20")) * 1024;
+        double minRatio = Double.parseDouble(ConfigManager.getProperty("coverage.regression.ratio", "0.1"));
+
+        List<CoverageReport> recent = new ArrayList<>();
+        for (int i = history.size() - 1; i >= 0 && recent.size() < window; i--) {
+            if (String.valueOf(history.get(i).getThrottlingProfile()).equals(String.valueOf(report.getThrottlingProfile()))) {
+                recent.add(history.get(i));
+            }
+        }
+        if (recent.isEmpty()) {
+            return;
+        }
+
+        double[] unused = recent.stream().mapToDouble(CoverageReport::getUnusedBytes).sorted().toArray();
+        double median = unused.length % 2 == 1 ? unused[unused.length / 2]
+            : (unused[unused.length / 2 - 1] + unused[unused.length / 2]) / 2;
+        report.setBaselineUnusedBytes(median);
+        double delta = report.getUnusedBytes() - median;
+        if (delta < minDelta || delta < median * minRatio) {
+            return;
+        }
+        report.setRegression(true);
+        report.getRegressionDetails().add(String.format("Unused JS+CSS %.1f KB vs median %.1f KB of the last %d runs (+%.1f KB)",
+            report.getUnusedBytes() / 1024.0, median / 1024.0, recent.size(), delta / 1024.0));
+
+        Map<String, Long> previous = new HashMap<>();
+        for (ResourceCoverage resource : recent.get(0).getResources()) {
+            previous.merge(resource.getUrl(), resource.getUnusedBytes(), Long::sum);
+        }
+        Map<String, Long> current = new LinkedHashMap<>();
+        for (ResourceCoverage resource : report.getResources()) {
+            current.merge(resource.getUrl(), resource.getUnusedBytes(), Long::sum);
+        }
+        for (Map.Entry<String, Long> resource : current.entrySet()) {
+            long grown = resource.getValue() - previous.getOrDefault(resource.getKey(), 0L);
+            if (grown >= minDelta) {
+                report.getRegressionDetails().add(String.format("%s: +%.1f KB unused%s", resource.getKey(), grown / 1024.0,
+                    previous.containsKey(resource.getKey()) ? "" : " (new)"));
+            }
+        }
+    }
+
+    private static List<CoverageReport> loadHistory(Path historyFile) {
+        if (Files.exists(historyFile)) {
+            try {
+                return objectMapper.readValue(Files.readString(historyFile), new TypeReference<List<CoverageReport>>(){});
+            } catch (Exception e) {
+                logger.warn("Failed to load existing coverage history, starting fresh", e);
+            }
+        }
+        return new ArrayList<>();
+    }
+
+    public static void attachReportToAllure(CoverageReport report) {
+        StringBuilder summary = new StringBuilder();
+        summary.append("# JS/CSS Coverage\n\n");
+        summary.append("## Test: ").append(report.getTestName()).append("\n\n");
+        summary.append("| Type | Total | Unused | Unused % |\n");
+        summary.append("|------|-------|--------|----------|\n");
+        summary.append(String.format("| JS | %.1f KB | %.1f KB | %.0f%% |%n", report.getTotalJsBytes() / 1024.0,
+            report.getUnusedJsBytes() / 1024.0, percent(report.getUnusedJsBytes(), report.getTotalJsBytes())));
+        summary.append(String.format("| CSS | %.1f KB | %.1f KB | %.0f%% |%n", report.getTotalCssBytes() / 1024.0,
+            report.getUnusedCssBytes() / 1024.0, percent(report.getUnusedCssBytes(), report.getTotalCssBytes())));
+        summary.append(String.format("%nEstimated wasted transfer: **%.1f KB**%n%n", report.getWastedTransferBytes() / 1024.0));
+
+        if (report.getBaselineUnusedBytes() > 0) {
+            summary.append(report.isRegression() ? "## ⚠️ Unused Bytes Regression\n\n" : "## ✅ Unused Bytes Within Recent Range\n\n");
+            summary.append(String.format("Median of recent runs: %.1f KB%n%n", report.getBaselineUnusedBytes() / 1024.0));
+            for (String detail : report.getRegressionDetails()) {
+                summary.append("- ").append(detail).append("\n");
+            }
+            summary.append("\n");
+        }
+
+        summary.append("## Steps\n\n");
+        summary.append("| Step | Newly Used JS | Newly Used CSS |\n");
+        summary.append("|------|---------------|----------------|\n");
+        for (StepCoverage step : report.getSteps()) {
+            summary.append(String.format("| %s | %.1f KB | %.1f KB |%n", step.getName(),
+                step.getNewlyUsedJsBytes() / 1024.0, step.getNewlyUsedCssBytes() / 1024.0));
+        }
+
+        StringBuilder csv = new StringBuilder("type,url,total_bytes,unused_bytes,unused_percent,transfer_bytes,wasted_transfer_bytes\n");
+        for (ResourceCoverage resource : report.getResources()) {
+            csv.append(String.format("%s,%s,%d,%d,%.1f,%d,%d%n", resource.getType(), resource.getUrl(), resource.getTotalBytes(),
+                resource.getUnusedBytes(), percent(resource.getUnusedBytes(), resource.getTotalBytes()),
+                resource.getTransferBytes(), resource.getWastedTransferBytes()));
+        }
+
+        Allure.addAttachment("JS/CSS Coverage", "text/markdown",
+            new ByteArrayInputStream(summary.toString().getBytes(StandardCharsets.UTF_8)), ".md");
+        Allure.addAttachment("Coverage per Resource (CSV)", "text/csv",
+            new ByteArrayInputStream(csv.toString().getBytes(StandardCharsets.UTF_8)), ".csv");
+        Allure.parameter("Unused JS+CSS", String.format("%.0f KB", report.getUnusedBytes() / 1024.0));
+        Allure.parameter("Wasted Transfer", String.format("%.0f KB", report.getWastedTransferBytes() / 1024.0));
+    }
+
+    private static double percent(long part, long total) {
+        return total > 0 ? 100.0 * part / total : 0;
+    }
+}
@@ -0,0 +1,588 @@
+package com.choice.testing.utils;
+
+import com.choice.testing.config.ConfigManager;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.kklisura.cdt.protocol.commands.Profiler;
+import com.github.kklisura.cdt.protocol.types.profiler.Profile;
+import com.github.kklisura.cdt.protocol.types.profiler.ProfileNode;
+import com.github.kklisura.cdt.protocol.types.runtime.CallFrame;
+import com.github.kklisura.cdt.services.ChromeDevToolsService;
+import io.qameta.allure.Allure;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Sampled JavaScript CPU profile of each test step through the CDP Profiler domain.
+ *
+ * The profiler is restarted at every step mark, so each step gets its own profile. Profiles
+ * are folded into a compact call tree (parallel parent/self-time/function arrays) and reduced
+ * to self and total time per function and per script; the raw node list is not kept. Total
+ * time counts a recursive function once per stack.
+ *
+ * Every run is compared with the previous one of the same test: scripts whose self time grew
+ * by cpu.profiler.regression.ms and cpu.profiler.regression.ratio are flagged, which is where
+ * a TBT regression usually comes from. Script URLs are compared with query strings and
+ * content hashes removed, so a new bundle build still matches its predecessor.
+ */
+public class CpuProfiler {
+
+    private static final Logger logger = LoggerFactory.getLogger(CpuProfiler.class);
+    private static final ObjectMapper objectMapper = new ObjectMapper()
+        .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    private static final String PERFORMANCE_DATA_DIR = "performance-history";
+    private static final String DEFAULT_STEP = "Setup";
+    private static final String IDLE = "(idle)";
+    private static final String ROOT = "(root)";
+    private static final Pattern CONTENT_HASH = Pattern.compile("([.\\-_])[0-9a-f]{8,}(?=[.\\-_])");
+
+    private static final ThreadLocal<CpuProfiler> currentProfiler = new ThreadLocal<>();
+
+    private final ChromeDevToolsService session;
+    private final int samplingIntervalUs;
+    private final List<StepProfile> steps = new ArrayList<>();
+    private String currentStep = DEFAULT_STEP;
+
+    private CpuProfiler(ChromeDevToolsService session, int samplingIntervalUs) {
+        this.session = session;
+        this.samplingIntervalUs = samplingIntervalUs;
+    }
+
+    public static class FunctionTime {
+        private String function;
+        private String url;
+        private int line;
+        private double selfMs;
+        private double totalMs;
+
+        // Getters and setters
+        public String getFunction() { return function; }
+        public void setFunction(String function) { this.function = function; }
+
+        public String getUrl() { return url; }
+        public void setUrl(String url) { this.url = url; }
+
+        // 1-based, as shown in DevTools
+        public int getLine() { return line; }
+        public void setLine(int line) { this.line = line; }
+
+        public double getSelfMs() { return selfMs; }
+        public void setSelfMs(double selfMs) { this.selfMs = selfMs; }
+
+        public double getTotalMs() { return totalMs; }
+        public void setTotalMs(double totalMs) { this.totalMs = totalMs; }
+    }
+
+    public static class ScriptTime {
+        private String script;
+        private double selfMs;
+        private double totalMs;
+
+        // Getters and setters
+        // Normalized URL; V8 pseudo-frames such as (program) and (garbage collector) keep their name
+        public String getScript() { return script; }
+        public void setScript(String script) { this.script = script; }
+
+        public double getSelfMs() { return selfMs; }
+        public void setSelfMs(double selfMs) { this.selfMs = selfMs; }
+
+        public double getTotalMs() { return totalMs; }
+        public void setTotalMs(double totalMs) { this.totalMs = totalMs; }
+    }
+
+    public static class StepProfile {
+        private String name;
+        private double durationMs;
+        private double busyMs;
+        private int samples;
+        private List<FunctionTime> topFunctions = new ArrayList<>();
+        private List<ScriptTime> scripts = new ArrayList<>();
+
+        // Getters and setters
+        public String getName() { return name; }
+        public void setName(String name) { this.name = name; }
+
+        public double getDurationMs() { return durationMs; }
+        public void setDurationMs(double durationMs) { this.durationMs = durationMs; }
+
+        // Sampled time not spent idle
+        public double getBusyMs() { return busyMs; }
+        public void setBusyMs(double busyMs) { this.busyMs = busyMs; }
+
+        public int getSamples() { return samples; }
+        public void setSamples(int samples) { this.samples = samples; }
+
+        // Highest self time first, cut to cpu.profiler.top.functions
+        public List<FunctionTime> getTopFunctions() { return topFunctions; }
+        public void setTopFunctions(List<FunctionTime> topFunctions) { this.topFunctions = topFunctions; }
+
+        public List<ScriptTime> getScripts() { return scripts; }
+        public void setScripts(List<ScriptTime> scripts) { this.scripts = scripts; }
+    }
+
+    public static class ScriptRegression {
+        private String script;
+        private double previousSelfMs;
+        private double currentSelfMs;
+
+        // Getters and setters
+        public String getScript() { return script; }
+        public void setScript(String script) { this.script = script; }
+
+        public double getPreviousSelfMs() { return previousSelfMs; }
+        public void setPreviousSelfMs(double previousSelfMs) { this.previousSelfMs = previousSelfMs; }
+
+        public double getCurrentSelfMs() { return currentSelfMs; }
+        public void setCurrentSelfMs(double currentSelfMs) { this.currentSelfMs = currentSelfMs; }
+
+        public double getDeltaMs() { return currentSelfMs - previousSelfMs; }
+    }
+
+    public static class CpuProfileReport {
+        private String testName;
+        private String recordedAt;
+        private String throttlingProfile;
+        private int samplingIntervalUs;
+        private double busyMs;
+        private List<StepProfile> steps = new ArrayList<>();
+        private List<ScriptTime> scripts = new ArrayList<>();
+        private String comparedWith;
+        private List<ScriptRegression> regressions = new ArrayList<>();
+
+        // Getters and setters
+        public String getTestName() { return testName; }
+        public void setTestName(String testName) { this.testName = testName; }
+
+        public String getRecordedAt() { return recordedAt; }
+        public void setRecordedAt(String recordedAt) { this.recordedAt = recordedAt; }
+
+        public String getThrottlingProfile() { return throttlingProfile; }
+        public void setThrottlingProfile(String throttlingProfile) { this.throttlingProfile = throttlingProfile; }
+
+        public int getSamplingIntervalUs() { return samplingIntervalUs; }
+        public void setSamplingIntervalUs(int samplingIntervalUs) { this.samplingIntervalUs = samplingIntervalUs; }
+
+        public double getBusyMs() { return busyMs; }
+        public void setBusyMs(double busyMs) { this.busyMs = busyMs; }
+
+        public List<StepProfile> getSteps() { return steps; }
+        public void setSteps(List<StepProfile> steps) { this.steps = steps; }
+
+        // All steps merged, highest self time first
+        public List<ScriptTime> getScripts() { return scripts; }
+        public void setScripts(List<ScriptTime> scripts) { this.scripts = scripts; }
+
+        // recordedAt of the run this one was diffed against, null for the first run
+        public String getComparedWith() { return comparedWith; }
+        public void setComparedWith(String comparedWith) { this.comparedWith = comparedWith; }
+
+        public List<ScriptRegression> getRegressions() { return regressions; }
+        public void setRegressions(List<ScriptRegression> regressions) { this.regressions = regressions; }
+    }
+
+    public static boolean isEnabled() {
+        return Boolean.parseBoolean(System.getProperty("cpu.profiler.enabled",
+            ConfigManager.getProperty("cpu.profiler.enabled", "false")));
+    }
+
+    /**
+     * Start profiling the current thread's session. Returns null when CDP is not available.
+     */
+    public static CpuProfiler startForCurrentSession() {
+        stopCurrent();
+
+        ChromeDevToolsService session = DevToolsSessionManager.getSession();
+        if (session == null) {
+            return null;
+        }
+
+        CpuProfiler profiler = new CpuProfiler(session, ConfigManager.getIntProperty("cpu.profiler.sampling.interval.us", 1000));
+        try {
+            Profiler cdp = session.getProfiler();
+            cdp.enable();
+            cdp.setSamplingInterval(profiler.samplingIntervalUs);
+            cdp.start();
+        } catch (Exception e) {
+            logger.warn("Could not start CDP CPU profiling: {}", e.getMessage());
+            return null;
+        }
+        currentProfiler.set(profiler);
+        return profiler;
+    }
+
+    /**
+     * Close the current step's profile and profile a new step (no-op when not profiling)
+     */
+    public static void markStep(String stepName) {
+        CpuProfiler profiler = currentProfiler.get();
+        if (profiler != null) {
+            profiler.collect(true);
+            profiler.currentStep = stepName;
+        }
+    }
+
+    /**
+     * Stop profiling, attach the step profiles and the diff against the previous run to Allure
+     * and append the report to the history store
+     */
+    public static CpuProfileReport stopAndAttachToAllure(String testName) {
+        CpuProfiler profiler = currentProfiler.get();
+        if (profiler == null) {
+            return null;
+        }
+        currentProfiler.remove();
+        profiler.collect(false);
+        profiler.disable();
+
+        CpuProfileReport report = profiler.buildReport(testName);
+        if (report.getSteps().isEmpty()) {
+            return report;
+        }
+
+        Path historyFile = Paths.get(PERFORMANCE_DATA_DIR, testName.replaceAll("[^a-zA-Z0-9]", "_") + "_cpu.json");
+        List<CpuProfileReport> history = loadHistory(historyFile);
+        if (!history.isEmpty()) {
+            CpuProfileReport previous = history.get(history.size() - 1);
+            report.setComparedWith(previous.getRecordedAt());
+            report.setRegressions(diff(previous.getScripts(), report.getScripts(),
+                Double.parseDouble(ConfigManager.getProperty("cpu.profiler.regression.ms", "50")),
+                Double.parseDouble(ConfigManager.getProperty("cpu.profiler.regression.ratio", "0.2"))));
+        }
+        attachReportToAllure(report);
+
+        try {
+            history.add(report);
+            if (history.size() > 100) {
+                history = history.subList(history.size() - 100, history.size());
+            }
+            Files.createDirectories(historyFile.getParent());
+            Files.writeString(historyFile, objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(history));
+        } catch (Exception e) {
+            logger.warn("Failed to store CPU profile for {}", testName, e);
+        }
+        return report;
+    }
+
+    public static void stopCurrent() {
+        CpuProfiler profiler = currentProfiler.get();
+        currentProfiler.remove();
+        if (profiler != null) {
+            profiler.disable();
+        }
+    }
+
+    private void collect(boolean restart) {
+        try {
+            Profiler cdp = session.getProfiler();
+            Profile profile = cdp.stop();
+            if (restart) {
+                cdp.start();
+            }
+            if (profile != null && profile.getSamples() != null && !profile.getSamples().isEmpty()) {
+                steps.add(summarize(currentStep, profile, ConfigManager.getIntProperty("cpu.profiler.top.functions", 20)));
+            }
+        } catch (Exception e) {
+            logger.warn("Could not collect CPU profile for step '{}': {}", currentStep, e.getMessage());
+        }
+    }
+
+    private void disable() {
+        try {
+            session.getProfiler().disable();
+        } catch (Exception e) {
+            logger.debug("Profiler.disable failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Fold a CDP profile into a call tree of parallel arrays and reduce it to per-function and
+     * per-script self and total times
+     */
+    static StepProfile summarize(String stepName, Profile profile, int topFunctions) {
+        List<ProfileNode> nodes = profile.getNodes();
+        int count = nodes.size();
+        Map<Integer, Integer> indexById = new HashMap<>(count * 2);
+        for (int i = 0; i < count; i++) {
+            indexById.put(nodes.get(i).getId(), i);
+        }
+
+        // Compact call tree: parent index, sampled self time and interned function per node
+        int[] parent = new int[count];
+        long[] selfUs = new long[count];
+        int[] function = new int[count];
+        Arrays.fill(parent, -1);
+        List<CallFrame> functions = new ArrayList<>();
+        Map<String, Integer> functionIndex = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            ProfileNode node = nodes.get(i);
+            CallFrame frame = node.getCallFrame();
+            function[i] = functionIndex.computeIfAbsent(functionKey(frame), key -> {
+                functions.add(frame);
+                return functions.size() - 1;
+            });
+            if (node.getChildren() != null) {
+                for (Integer child : node.getChildren()) {
+                    Integer childIndex = indexById.get(child);
+                    if (childIndex != null) {
+                        parent[childIndex] = i;
+                    }
+                }
+            }
+        }
+
+        // A sample lasts until the next one; the last lasts until the profile ends
+        List<Integer> samples = profile.getSamples();
+        List<Integer> deltas = profile.getTimeDeltas();
+        long timestamp = profile.getStartTime().longValue();
+        long[] sampleTimes = new long[samples.size()];
+        for (int i = 0; i < samples.size(); i++) {
+            timestamp += deltas.get(i);
+            sampleTimes[i] = timestamp;
+        }
+        for (int i = 0; i < samples.size(); i++) {
+            long next = i + 1 < samples.size() ? sampleTimes[i + 1] : profile.getEndTime().longValue();
+            Integer node = indexById.get(samples.get(i));
+            if (node != null) {
+                selfUs[node] += Math.max(0, next - sampleTimes[i]);
+            }
+        }
+
+        // Self time goes to the node's function and script; total time to every distinct
+        // function and script on its stack
+        long[] functionSelf = new long[functions.size()];
+        long[] functionTotal = new long[functions.size()];
+        Map<String, long[]> scriptTimes = new LinkedHashMap<>();
+        int[] seenFunction = new int[functions.size()];
+        Arrays.fill(seenFunction, -1);
+        Map<String, Integer> seenScript = new HashMap<>();
+        long idleUs = 0;
+        for (int i = 0; i < count; i++) {
+            if (selfUs[i] == 0) {
+                continue;
+            }
+            CallFrame frame = functions.get(function[i]);
+            if (IDLE.equals(frame.getFunctionName())) {
+                idleUs += selfUs[i];
+                continue;
+            }
+            functionSelf[function[i]] += selfUs[i];
+            scriptTimes.computeIfAbsent(scriptOf(frame), key -> new long[2])[0] += selfUs[i];
+            for (int node = i; node >= 0; node = parent[node]) {
+                CallFrame onStack = functions.get(function[node]);
+                if (ROOT.equals(onStack.getFunctionName())) {
+                    continue;
+                }
+                if (seenFunction[function[node]] != i) {
+                    seenFunction[function[node]] = i;
+                    functionTotal[function[node]] += selfUs[i];
+                }
+                String script = scriptOf(onStack);
+                if (!Integer.valueOf(i).equals(seenScript.put(script, i))) {
+                    scriptTimes.computeIfAbsent(script, key -> new long[2])[1] += selfUs[i];
+                }
+            }
+        }
+
+        StepProfile step = new StepProfile();
+        step.setName(stepName);
+        step.setSamples(samples.size());
+        step.setDurationMs((profile.getEndTime() - profile.getStartTime()) / 1000.0);
+        long sampledUs = 0;
+        for (long self : selfUs) {
+            sampledUs += self;
+        }
+        step.setBusyMs((sampledUs - idleUs) / 1000.0);
+
+        for (int f = 0; f < functions.size(); f++) {
+            if (functionSelf[f] == 0) {
+                continue;
+            }
+            CallFrame frame = functions.get(f);
+            FunctionTime time = new FunctionTime();
+            time.setFunction(frame.getFunctionName() == null || frame.getFunctionName().isEmpty()
+                ? "(anonymous)" : frame.getFunctionName());
+            time.setUrl(frame.getUrl());
+            time.setLine(frame.getLineNumber() != null && !scriptOf(frame).startsWith("(") ? frame.getLineNumber() + 1 : 0);
+            time.setSelfMs(functionSelf[f] / 1000.0);
+            time.setTotalMs(functionTotal[f] / 1000.0);
+            step.getTopFunctions().add(time);
+        }
+        step.getTopFunctions().sort(Comparator.comparingDouble(FunctionTime::getSelfMs).reversed());
+        if (step.getTopFunctions().size() > topFunctions) {
+            step.setTopFunctions(new ArrayList<>(step.getTopFunctions().subList(0, topFunctions)));
+        }
+
+        for (Map.Entry<String, long[]> entry : scriptTimes.entrySet()) {
+            ScriptTime time = new ScriptTime();
+            time.setScript(entry.getKey());
+            time.setSelfMs(entry.getValue()[0] / 1000.0);
+            time.setTotalMs(entry.getValue()[1] / 1000.0);
+            step.getScripts().add(time);
+        }
+        step.getScripts().sort(Comparator.comparingDouble(ScriptTime::getSelfMs).reversed());
+        return step;
+    }
+
+    private static String functionKey(CallFrame frame) {
+        return frame.getFunctionName() + "|" + frame.getUrl() + "|" + frame.getLineNumber() + "|" + frame.getColumnNumber();
+    }
+
+    private static String scriptOf(CallFrame frame) {
+        if (frame.getUrl() == null || frame.getUrl().isEmpty()) {
+            String name = frame.getFunctionName();
+            return name != null && name.startsWith("(") ? name : "(native)";
+        }
+        return normalizeScript(frame.getUrl());
+    }
+
+    /**
+     * Script URL without query string, fragment and content hashes, so builds of the same bundle compare
+     */
+    static String normalizeScript(String url) {
+        String script = url;
+        int cut = script.indexOf('?');
+        if (cut < 0) {
+            cut = script.indexOf('#');
+        }
+        if (cut >= 0) {
+            script = script.substring(0, cut);
+        }
+        return CONTENT_HASH.matcher(script).replaceAll("$1*");
+    }
+
+    /**
+     * Scripts whose self time grew by at least minDeltaMs and minRatio of their previous self time
+     */
+    static List<ScriptRegression> diff(List<ScriptTime> previous, List<ScriptTime> current, double minDeltaMs, double minRatio) {
+        Map<String, Double> before = new HashMap<>();
+        for (ScriptTime script : previous) {
+            before.put(script.getScript(), script.getSelfMs());
+        }
+        List<ScriptRegression> regressions = new ArrayList<>();
+        for (ScriptTime script : current) {
+            double previousMs = before.getOrDefault(script.getScript(), 0.0);
+            double delta = script.getSelfMs() - previousMs;
+            if (delta >= minDeltaMs && delta >= previousMs * minRatio) {
+                ScriptRegression regression = new ScriptRegression();
+                regression.setScript(script.getScript());
+                regression.setPreviousSelfMs(previousMs);
+                regression.setCurrentSelfMs(script.getSelfMs());
+                regressions.add(regression);
+            }
+        }
+        regressions.sort(Comparator.comparingDouble(ScriptRegression::getDeltaMs).reversed());
+        return regressions;
+    }
+
+    private CpuProfileReport buildReport(String testName) {
+        CpuProfileReport report = new CpuProfileReport();
+        report.setTestName(testName);
+        report.setRecordedAt(LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+        report.setThrottlingProfile(ThrottlingManager.testProfile().getName());
+        report.setSamplingIntervalUs(samplingIntervalUs);
+        report.setSteps(steps);
+
+        Map<String, ScriptTime> merged = new LinkedHashMap<>();
+        for (StepProfile step : steps) {
+            report.setBusyMs(report.getBusyMs() + step.getBusyMs());
+            for (ScriptTime script : step.getScripts()) {
+                ScriptTime total = merged.computeIfAbsent(script.getScript(), key -> {
+                    ScriptTime time = new ScriptTime();
+                    time.setScript(key);
+                    return time;
+                });
+                total.setSelfMs(total.getSelfMs() + script.getSelfMs());
+                total.setTotalMs(total.getTotalMs() + script.getTotalMs());
+            }
+        }
+        report.getScripts().addAll(merged.values());
+        report.getScripts().sort(Comparator.comparingDouble(ScriptTime::getSelfMs).reversed());
+        return report;
+    }
+
+    private static List<CpuProfileReport> loadHistory(Path historyFile) {
+        if (Files.exists(historyFile)) {
+            try {
+                return objectMapper.readValue(Files.readString(historyFile), new TypeReference<List<CpuProfileReport>>(){});
+            } catch (Exception e) {
+                logger.warn("Failed to load existing CPU profile history, starting fresh", e);
+            }
+        }
+        return new ArrayList<>();
+    }
+
+    public static void attachReportToAllure(CpuProfileReport report) {
+        StringBuilder summary = new StringBuilder();
+        summary.append("# JavaScript CPU Profile\n\n");
+        summary.append("## Test: ").append(report.getTestName()).append("\n\n");
+        summary.append(String.format("Busy %.0f ms, sampled every %d µs%n%n", report.getBusyMs(), report.getSamplingIntervalUs()));
+
+        if (report.getComparedWith() != null) {
+            summary.append("## Script Regressions vs ").append(report.getComparedWith()).append("\n\n");
+            if (report.getRegressions().isEmpty()) {
+                summary.append("✅ No script's self time grew beyond the threshold\n\n");
+            } else {
+                summary.append("| Script | Previous | Current | Δ |\n");
+                summary.append("|--------|----------|---------|---|\n");
+                for (ScriptRegression regression : report.getRegressions()) {
+                    summary.append(String.format("| ⚠️ %s | %.0f ms | %.0f ms | +%.0f ms |%n", regression.getScript(),
+                        regression.getPreviousSelfMs(), regression.getCurrentSelfMs(), regression.getDeltaMs()));
+                }
+                summary.append("\n");
+            }
+        }
+
+        summary.append("## Scripts\n\n");
+        summary.append("| Script | Self | Total |\n");
+        summary.append("|--------|------|-------|\n");
+        for (ScriptTime script : report.getScripts()) {
+            summary.append(String.format("| %s | %.1f ms | %.1f ms |%n", script.getScript(), script.getSelfMs(), script.getTotalMs()));
+        }
+
+        for (StepProfile step : report.getSteps()) {
+            summary.append(String.format("%n## Step: %s (busy %.0f of %.0f ms)%n%n", step.getName(), step.getBusyMs(), step.getDurationMs()));
+            summary.append("| Function | Location | Self | Total |\n");
+            summary.append("|----------|----------|------|-------|\n");
+            for (FunctionTime function : step.getTopFunctions()) {
+                String location = function.getUrl() == null || function.getUrl().isEmpty()
+                    ? "" : normalizeScript(function.getUrl()) + ":" + function.getLine();
+                summary.append(String.format("| %s | %s | %.1f ms | %.1f ms |%n", function.getFunction(), location,
+                    function.getSelfMs(), function.getTotalMs()));
+            }
+        }
+
+        StringBuilder csv = new StringBuilder("step,function,url,line,self_ms,total_ms\n");
+        for (StepProfile step : report.getSteps()) {
+            for (FunctionTime function : step.getTopFunctions()) {
+                csv.append(String.format("%s,%s,%s,%d,%.2f,%.2f%n", step.getName(), function.getFunction(),
+                    function.getUrl() != null ? function.getUrl() : "", function.getLine(), function.getSelfMs(), function.getTotalMs()));
+            }
+        }
+
+        Allure.addAttachment("CPU Profile", "text/markdown",
+            new ByteArrayInputStream(summary.toString().getBytes(StandardCharsets.UTF_8)), ".md");
+        Allure.addAttachment("CPU Profile Functions (CSV)", "text/csv",
+            new ByteArrayInputStream(csv.toString().getBytes(StandardCharsets.UTF_8)), ".csv");
+        Allure.parameter("JS Busy Time", String.format("%.0f ms", report.getBusyMs()));
+        if (!report.getRegressions().isEmpty()) {
+            Allure.parameter("CPU Regression", report.getRegressions().get(0).getScript());
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.choice.testing.utils;
+
+import com.choice.testing.drivers.DriverManager;
+import com.github.kklisura.cdt.services.ChromeDevToolsService;
+import com.github.kklisura.cdt.services.ChromeService;
+import com.github.kklisura.cdt.services.impl.ChromeServiceImpl;
+import com.github.kklisura.cdt.services.types.ChromeTab;
+import org.openqa.selenium.HasCapabilities;
+import org.openqa.selenium.WebDriver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+
+/**
+ * Per-thread Chrome DevTools Protocol session attached to the page the current
+ * WebDriver session is driving. Connects through the remote debugging port that
+ * DriverManager opens for Lighthouse, so it runs alongside ChromeDriver's own connection.
+ */
+public class DevToolsSessionManager {
+
+    private static final Logger logger = LoggerFactory.getLogger(DevToolsSessionManager.class);
+    private static final ThreadLocal<ChromeDevToolsService> currentSession = new ThreadLocal<>();
+
+    /**
+     * CDP is only reachable for a local Chrome session. The driver may be wrapped in a
+     * decorator, so this checks the session's capabilities rather than the driver class.
+     */
+    public static boolean isAvailable() {
+        WebDriver driver = DriverManager.getWebDriver();
+        return driver instanceof HasCapabilities
+            && "chrome".equalsIgnoreCase(((HasCapabilities) driver).getCapabilities().getBrowserName());
+    }
+
+    /**
+     * Return the current thread's session, connecting on first use.
+     * Returns null when CDP is not available or the connection fails.
+     */
+    public static ChromeDevToolsService getSession() {
+        ChromeDevToolsService session = currentSession.get();
+        if (session != null && !session.isClosed()) {
+            return session;
+        }
+        currentSession.remove();
+
+        if (!isAvailable()) {
+            return null;
+        }
+
+        try {
+            ChromeService chromeService = new ChromeServiceImpl(DriverManager.getDebuggingPort());
+            ChromeTab tab = findDriverTab(chromeService.getTabs(), DriverManager.getWebDriver().getCurrentUrl());
+            if (tab == null) {
+                logger.warn("No page target found on debugging port {}", DriverManager.getDebuggingPort());
+                return null;
+            }
+
+            session = chromeService.createDevToolsService(tab);
+            currentSession.set(session);
+            logger.debug("Attached DevTools session to tab {} ({})", tab.getId(), tab.getUrl());
+            return session;
+        } catch (Exception e) {
+            logger.warn("Could not open DevTools session on port {}: {}", DriverManager.getDebuggingPort(), e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Close the current thread's session. Safe to call when none is open.
+     */
+    public static void closeSession() {
+        ChromeDevToolsService session = currentSession.get();
+        currentSession.remove();
+        if (session != null && !session.isClosed()) {
+            try {
+                session.close();
+            } catch (Exception e) {
+                logger.debug("Error closing DevTools session: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Prefer the page whose URL matches the driver; fall back to the first page target
+     */
+    private static ChromeTab findDriverTab(List<ChromeTab> tabs, String driverUrl) {
+        ChromeTab firstPage = null;
+        for (ChromeTab tab : tabs) {
+            if (!tab.isPageType()) {
+                continue;
+            }
+            if (driverUrl != null && driverUrl.equals(tab.getUrl())) {
+                return tab;
+            }
+            if (firstPage == null) {
+                firstPage = tab;
+            }
+        }
+        return firstPage;
+    }
+}
@@ -0,0 +1,116 @@
+package com.choice.testing.utils;
+
+import com.choice.testing.config.ConfigManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * CPU microbenchmark for the machine running the suite, plus the scaling used to
+ * normalize timing metrics to a reference machine.
+ *
+ * Lighthouse reports its own environment.benchmarkIndex per audit; that is preferred
+ * when present. Our own score is measured once per JVM and covers reports without it.
+ */
+public class HostBenchmark {
+
+    private static final Logger logger = LoggerFactory.getLogger(HostBenchmark.class);
+    private static final long WARMUP_MS = 200;
+    private static final long MEASURE_MS = 500;
+    private static volatile double score = -1;
+    private static volatile long sink;
+
+    /**
+     * Run the microbenchmark (once per JVM) and return the score.
+     * Higher is faster; the unit is thousands of benchmark iterations per second.
+     */
+    public static double getScore() {
+        if (score < 0) {
+            synchronized (HostBenchmark.class) {
+                if (score < 0) {
+                    score = measure();
+                    logger.info("Host CPU benchmark score: {}", String.format("%.1f", score));
+                }
+            }
+        }
+        return score;
+    }
+
+    private static double measure() {
+        runFor(WARMUP_MS);
+        long start = System.nanoTime();
+        long iterations = runFor(MEASURE_MS);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        return iterations / seconds / 1000.0;
+    }
+
+    /**
+     * Mix of string building, array writes and hashing - the same kind of single-threaded
+     * work that dominates main-thread time in the browser.
+     */
+    private static long runFor(long durationMs) {
+        long deadline = System.nanoTime() + durationMs * 1_000_000L;
+        long iterations = 0;
+        int[] array = new int[4096];
+        long accumulator = 0;
+
+        while (System.nanoTime() < deadline) {
+            for (int batch = 0; batch < 100; batch++) {
+                StringBuilder builder = new StringBuilder();
+                for (int i = 0; i < 20; i++) {
+                    builder.append(i).append(',');
+                }
+                int index = (int) (iterations & (array.length - 1));
+                array[index] = builder.toString().hashCode() ^ array[(index * 31) & (array.length - 1)];
+                accumulator += array[index];
+                iterations++;
+            }
+        }
+
+        sink = accumulator;
+        return iterations;
+    }
+
+    public static boolean isNormalizationEnabled() {
+        return Boolean.parseBoolean(System.getProperty("performance.normalization.enabled",
+            ConfigManager.getProperty("performance.normalization.enabled", "false")));
+    }
+
+    /**
+     * Which index a pair of samples can be normalized by. Lighthouse's benchmarkIndex and
+     * our host score are different units, so both samples must carry the same one.
+     */
+    public enum IndexKind {
+        LIGHTHOUSE_BENCHMARK_INDEX,
+        HOST_BENCHMARK
+    }
+
+    /**
+     * The index kind both samples carry, preferring Lighthouse's; null when they share none
+     * (e.g. a legacy baseline recorded without any index)
+     */
+    public static IndexKind sharedIndexKind(double benchmarkIndexA, double hostBenchmarkScoreA,
+                                            double benchmarkIndexB, double hostBenchmarkScoreB) {
+        if (benchmarkIndexA > 0 && benchmarkIndexB > 0) {
+            return IndexKind.LIGHTHOUSE_BENCHMARK_INDEX;
+        }
+        if (hostBenchmarkScoreA > 0 && hostBenchmarkScoreB > 0) {
+            return IndexKind.HOST_BENCHMARK;
+        }
+        return null;
+    }
+
+    /**
+     * Factor that converts timings measured on a machine to the reference machine.
+     * A faster machine (higher index) measures smaller timings, so its values are scaled up.
+     */
+    public static double scaleFactor(IndexKind kind, double benchmarkIndex, double hostBenchmarkScore) {
+        if (kind == IndexKind.LIGHTHOUSE_BENCHMARK_INDEX) {
+            double referenceIndex = Double.parseDouble(
+                ConfigManager.getProperty("performance.reference.benchmark.index", "1500"));
+            return benchmarkIndex / referenceIndex;
+        }
+        double referenceScore = Double.parseDouble(
+            ConfigManager.getProperty("performance.reference.host.benchmark", "2000"));
+        return hostBenchmarkScore / referenceScore;
+    }
+}
@@ -0,0 +1,313 @@
+package com.choice.testing.utils;
+
+import com.choice.testing.config.ConfigManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * Pre-audit guard that checks whether the build agent is busy before running Lighthouse.
+ * Audits use --throttling-method=provided, so they measure real timings and are sensitive
+ * to other jobs on the same host. The guard reads load average, CPU steal and available
+ * memory from /proc and backs off until the host is quiet or a deadline passes.
+ * Load average is host-wide, so it is compared against the host's CPUs; inside a CPU-limited
+ * container the cgroup quota and its throttling are read as well.
+ */
+public class HostContentionGuard {
+
+    private static final Logger logger = LoggerFactory.getLogger(HostContentionGuard.class);
+    private static final Path LOADAVG = Paths.get("/proc/loadavg");
+    private static final Path STAT = Paths.get("/proc/stat");
+    private static final Path MEMINFO = Paths.get("/proc/meminfo");
+    // cgroup v2 first, then the v1 cpu controller
+    private static final Path CGROUP_V2_CPU_MAX = Paths.get("/sys/fs/cgroup/cpu.max");
+    private static final Path CGROUP_V2_CPU_STAT = Paths.get("/sys/fs/cgroup/cpu.stat");
+    private static final Path CGROUP_V1_QUOTA = Paths.get("/sys/fs/cgroup/cpu/cpu.cfs_quota_us");
+    private static final Path CGROUP_V1_PERIOD = Paths.get("/sys/fs/cgroup/cpu/cpu.cfs_period_us");
+    private static final Path CGROUP_V1_CPU_STAT = Paths.get("/sys/fs/cgroup/cpu/cpu.stat");
+
+    public static class HostConditions {
+        private String checkedAt;
+        private boolean available;
+        private double loadAverage1m;
+        private int cpuCount;
+        private double loadPerCore;
+        private double cpuStealPercent;
+        private double cpuQuotaCores;
+        private double cpuThrottledPercent;
+        private double memAvailableMb;
+        private boolean contended;
+        private String contentionReason;
+        private long waitedMs;
+
+        // Getters and setters
+        public String getCheckedAt() { return checkedAt; }
+        public void setCheckedAt(String checkedAt) { this.checkedAt = checkedAt; }
+
+        public boolean isAvailable() { return available; }
+        public void setAvailable(boolean available) { this.available = available; }
+
+        public double getLoadAverage1m() { return loadAverage1m; }
+        public void setLoadAverage1m(double loadAverage1m) { this.loadAverage1m = loadAverage1m; }
+
+        public int getCpuCount() { return cpuCount; }
+        public void setCpuCount(int cpuCount) { this.cpuCount = cpuCount; }
+
+        public double getLoadPerCore() { return loadPerCore; }
+        public void setLoadPerCore(double loadPerCore) { this.loadPerCore = loadPerCore; }
+
+        public double getCpuStealPercent() { return cpuStealPercent; }
+        public void setCpuStealPercent(double cpuStealPercent) { this.cpuStealPercent = cpuStealPercent; }
+
+        // 0 when the process is not under a cgroup CPU quota
+        public double getCpuQuotaCores() { return cpuQuotaCores; }
+        public void setCpuQuotaCores(double cpuQuotaCores) { this.cpuQuotaCores = cpuQuotaCores; }
+
+        // Share of the cgroup's scheduler periods in which it was throttled during the sampling window
+        public double getCpuThrottledPercent() { return cpuThrottledPercent; }
+        public void setCpuThrottledPercent(double cpuThrottledPercent) { this.cpuThrottledPercent = cpuThrottledPercent; }
+
+        public double getMemAvailableMb() { return memAvailableMb; }
+        public void setMemAvailableMb(double memAvailableMb) { this.memAvailableMb = memAvailableMb; }
+
+        public boolean isContended() { return contended; }
+        public void setContended(boolean contended) { this.contended = contended; }
+
+        public String getContentionReason() { return contentionReason; }
+        public void setContentionReason(String contentionReason) { this.contentionReason = contentionReason; }
+
+        public long getWaitedMs() { return waitedMs; }
+        public void setWaitedMs(long waitedMs) { this.waitedMs = waitedMs; }
+
+        @Override
+        public String toString() {
+            if (!available) {
+                return "HostConditions{unavailable}";
+            }
+            return String.format("HostConditions{load=%.2f/%d cores, steal=%.1f%%, quota=%.2f cores, throttled=%.1f%%, memAvailable=%.0fMB, contended=%s, waited=%dms}",
+                loadAverage1m, cpuCount, cpuStealPercent, cpuQuotaCores, cpuThrottledPercent, memAvailableMb, contended, waitedMs);
+        }
+    }
+
+    public static boolean isEnabled() {
+        return Boolean.parseBoolean(System.getProperty("contention.guard.enabled",
+            ConfigManager.getProperty("contention.guard.enabled", "false")));
+    }
+
+    /**
+     * Wait with exponential backoff until the host is quiet or the deadline passes.
+     * Always returns the last observed conditions so they can be stored with the audit.
+     */
+    public static HostConditions awaitQuietHost() {
+        if (!isEnabled()) {
+            HostConditions conditions = new HostConditions();
+            conditions.setCheckedAt(LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+            return conditions;
+        }
+
+        long deadlineMs = ConfigManager.getIntProperty("contention.deadline.ms", 60000);
+        long backoffMs = ConfigManager.getIntProperty("contention.backoff.initial.ms", 2000);
+        long maxBackoffMs = ConfigManager.getIntProperty("contention.backoff.max.ms", 15000);
+
+        long start = System.currentTimeMillis();
+        HostConditions conditions = checkHost();
+
+        while (conditions.isContended()) {
+            long elapsed = System.currentTimeMillis() - start;
+            if (elapsed + backoffMs > deadlineMs) {
+                logger.warn("Host still contended after {}ms, running audit anyway: {}", elapsed, conditions);
+                break;
+            }
+
+            logger.info("Host contended ({}), deferring audit for {}ms", conditions.getContentionReason(), backoffMs);
+            try {
+                Thread.sleep(backoffMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+
+            backoffMs = Math.min(backoffMs * 2, maxBackoffMs);
+            conditions = checkHost();
+        }
+
+        conditions.setWaitedMs(System.currentTimeMillis() - start);
+        return conditions;
+    }
+
+    /**
+     * Take a single reading of host load, steal and free memory
+     */
+    public static HostConditions checkHost() {
+        HostConditions conditions = new HostConditions();
+        conditions.setCheckedAt(LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+        conditions.setCpuCount(Runtime.getRuntime().availableProcessors());
+
+        if (!Files.exists(LOADAVG) || !Files.exists(STAT) || !Files.exists(MEMINFO)) {
+            return conditions;
+        }
+
+        try {
+            // availableProcessors() honours the container's CPU limit, but loadavg counts the whole host
+            conditions.setCpuCount(readHostCpuCount());
+            String loadavg = new String(Files.readAllBytes(LOADAVG)).trim();
+            conditions.setLoadAverage1m(Double.parseDouble(loadavg.split("\\s+")[0]));
+            conditions.setLoadPerCore(conditions.getLoadAverage1m() / conditions.getCpuCount());
+            conditions.setCpuQuotaCores(readCgroupQuotaCores());
+
+            measureCpuWindow(conditions, ConfigManager.getIntProperty("contention.steal.window.ms", 500));
+            conditions.setMemAvailableMb(readMemAvailableKb() / 1024.0);
+            conditions.setAvailable(true);
+        } catch (Exception e) {
+            logger.warn("Failed to read host conditions from /proc", e);
+            return conditions;
+        }
+
+        double maxLoadPerCore = Double.parseDouble(ConfigManager.getProperty("contention.max.load.per.core", "0.75"));
+        double maxStealPercent = Double.parseDouble(ConfigManager.getProperty("contention.max.steal.percent", "5"));
+        double minFreeMemoryMb = Double.parseDouble(ConfigManager.getProperty("contention.min.free.memory.mb", "1024"));
+        double maxThrottledPercent = Double.parseDouble(ConfigManager.getProperty("contention.max.throttled.percent", "10"));
+
+        StringBuilder reason = new StringBuilder();
+        if (conditions.getLoadPerCore() > maxLoadPerCore) {
+            reason.append(String.format("load %.2f/core > %.2f; ", conditions.getLoadPerCore(), maxLoadPerCore));
+        }
+        if (conditions.getCpuStealPercent() > maxStealPercent) {
+            reason.append(String.format("steal %.1f%% > %.1f%%; ", conditions.getCpuStealPercent(), maxStealPercent));
+        }
+        if (conditions.getCpuThrottledPercent() > maxThrottledPercent) {
+            reason.append(String.format("cgroup throttled %.1f%% > %.1f%%; ", conditions.getCpuThrottledPercent(), maxThrottledPercent));
+        }
+        if (conditions.getMemAvailableMb() < minFreeMemoryMb) {
+            reason.append(String.format("free memory %.0fMB < %.0fMB; ", conditions.getMemAvailableMb(), minFreeMemoryMb));
+        }
+
+        conditions.setContended(reason.length() > 0);
+        conditions.setContentionReason(reason.length() > 0 ? reason.toString().trim() : null);
+        return conditions;
+    }
+
+    /**
+     * Steal time and cgroup throttling are cumulative counters, so both are measured as deltas
+     * over the same short window
+     */
+    private static void measureCpuWindow(HostConditions conditions, long windowMs) throws IOException, InterruptedException {
+        long[] before = readAggregateCpuTicks();
+        long[] throttlingBefore = readCgroupThrottling();
+        Thread.sleep(windowMs);
+        long[] after = readAggregateCpuTicks();
+        long[] throttlingAfter = readCgroupThrottling();
+
+        long total = 0;
+        for (int i = 0; i < after.length; i++) {
+            total += after[i] - before[i];
+        }
+        // Column order: user nice system idle iowait irq softirq steal ...
+        long steal = after.length > 7 ? after[7] - before[7] : 0;
+        conditions.setCpuStealPercent(total > 0 ? (steal * 100.0) / total : 0);
+
+        if (throttlingBefore != null && throttlingAfter != null) {
+            long periods = throttlingAfter[0] - throttlingBefore[0];
+            long throttled = throttlingAfter[1] - throttlingBefore[1];
+            conditions.setCpuThrottledPercent(periods > 0 ? (throttled * 100.0) / periods : 0);
+        }
+    }
+
+    /**
+     * Number of CPUs on the host, counted from the per-CPU lines of /proc/stat
+     */
+    private static int readHostCpuCount() throws IOException {
+        int count = 0;
+        for (String line : Files.readAllLines(STAT)) {
+            if (line.startsWith("cpu") && line.length() > 3 && Character.isDigit(line.charAt(3))) {
+                count++;
+            }
+        }
+        return count > 0 ? count : Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * CPU quota of the current cgroup in cores, 0 when unlimited or unreadable
+     */
+    static double readCgroupQuotaCores() {
+        try {
+            if (Files.exists(CGROUP_V2_CPU_MAX)) {
+                // "<quota> <period>" or "max <period>"
+                String[] parts = new String(Files.readAllBytes(CGROUP_V2_CPU_MAX)).trim().split("\\s+");
+                if (parts.length == 2 && !"max".equals(parts[0])) {
+                    return Double.parseDouble(parts[0]) / Double.parseDouble(parts[1]);
+                }
+            } else if (Files.exists(CGROUP_V1_QUOTA) && Files.exists(CGROUP_V1_PERIOD)) {
+                long quota = Long.parseLong(new String(Files.readAllBytes(CGROUP_V1_QUOTA)).trim());
+                long period = Long.parseLong(new String(Files.readAllBytes(CGROUP_V1_PERIOD)).trim());
+                if (quota > 0 && period > 0) {
+                    return (double) quota / period;
+                }
+            }
+        } catch (Exception e) {
+            logger.debug("Failed to read cgroup CPU quota", e);
+        }
+        return 0;
+    }
+
+    /**
+     * nr_periods and nr_throttled from the cgroup's cpu.stat, null outside a CPU-limited cgroup
+     */
+    private static long[] readCgroupThrottling() {
+        Path cpuStat = Files.exists(CGROUP_V2_CPU_STAT) ? CGROUP_V2_CPU_STAT : CGROUP_V1_CPU_STAT;
+        if (!Files.exists(cpuStat)) {
+            return null;
+        }
+        try {
+            long[] counters = new long[2];
+            boolean found = false;
+            for (String line : Files.readAllLines(cpuStat)) {
+                String[] parts = line.trim().split("\\s+");
+                if (parts.length != 2) {
+                    continue;
+                }
+                if ("nr_periods".equals(parts[0])) {
+                    counters[0] = Long.parseLong(parts[1]);
+                    found = true;
+                } else if ("nr_throttled".equals(parts[0])) {
+                    counters[1] = Long.parseLong(parts[1]);
+                }
+            }
+            return found ? counters : null;
+        } catch (Exception e) {
+            logger.debug("Failed to read cgroup CPU throttling", e);
+            return null;
+        }
+    }
+
+    /**
+     * Cumulative host CPU ticks from /proc/stat: user nice system idle iowait irq softirq steal
+     */
+    public static long[] readAggregateCpuTicks() throws IOException {
+        List<String> lines = Files.readAllLines(STAT);
+        String[] parts = lines.get(0).trim().split("\\s+");
+        // Skip the "cpu" label; guest columns are already included in user/nice
+        int columns = Math.min(parts.length - 1, 8);
+        long[] ticks = new long[columns];
+        for (int i = 0; i < columns; i++) {
+            ticks[i] = Long.parseLong(parts[i + 1]);
+        }
+        return ticks;
+    }
+
+    public static long readMemAvailableKb() throws IOException {
+        for (String line : Files.readAllLines(MEMINFO)) {
+            if (line.startsWith("MemAvailable:")) {
+                return Long.parseLong(line.replaceAll("[^0-9]", ""));
+            }
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,318 @@
+package com.choice.testing.utils;
+
+import com.choice.testing.config.ConfigManager;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.qameta.allure.Allure;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Interaction latency for scripted user actions, from the browser's Event Timing API.
+ *
+ * Lighthouse navigation audits never click anything, so they cannot see how long the
+ * date picker or rooms dropdown takes to respond. BasePage labels each click and keypress;
+ * an injected PerformanceObserver records the matching event entries, which are split into
+ * input delay, processing time and presentation delay. Entries not yet collected when the
+ * page unloads are stashed in sessionStorage and picked up on the next page of the journey.
+ * INP is computed per journey (one test method) the same way web-vitals does.
+ */
+public class InteractionLatencyRecorder {
+
+    private static final Logger logger = LoggerFactory.getLogger(InteractionLatencyRecorder.class);
+    private static final ObjectMapper objectMapper = new ObjectMapper()
+        .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private static final String INSTALL_SCRIPT =
+        "var w = window;" +
+        "if (!w.__inpInstalled) {" +
+        "  w.__inpInstalled = true;" +
+        "  w.__inpDocument = Math.random().toString(36).slice(2);" +
+        "  w.__inpEntries = [];" +
+        "  try {" +
+        "    var stash = sessionStorage.getItem('__inpStash');" +
+        "    if (stash) { w.__inpEntries = JSON.parse(stash); sessionStorage.removeItem('__inpStash'); }" +
+        "  } catch (e) {}" +
+        "  if (w.PerformanceObserver && PerformanceObserver.supportedEntryTypes" +
+        "      && PerformanceObserver.supportedEntryTypes.indexOf('event') >= 0) {" +
+        "    new PerformanceObserver(function(list) {" +
+        "      list.getEntries().forEach(function(e) {" +
+        "        if (!e.interactionId) return;" +
+        "        var t = e.target;" +
+        "        w.__inpEntries.push({document: w.__inpDocument, interactionId: e.interactionId, name: e.name," +
+        "          action: w.__inpAction || null, startTime: e.startTime, processingStart: e.processingStart," +
+        "          processingEnd: e.processingEnd, duration: e.duration," +
+        "          target: t && t.tagName ? t.tagName.toLowerCase() + (t.id ? '#' + t.id : '') : null});" +
+        "      });" +
+        "    }).observe({type: 'event', durationThreshold: 16, buffered: true});" +
+        "  }" +
+        "  w.addEventListener('pagehide', function() {" +
+        "    try { sessionStorage.setItem('__inpStash', JSON.stringify(w.__inpEntries)); } catch (e) {}" +
+        "  });" +
+        "}" +
+        "w.__inpAction = arguments[0];";
+
+    // Event entries are dispatched after the next paint, so give the page two frames before reading
+    private static final String DRAIN_SCRIPT =
+        "var done = arguments[arguments.length - 1];" +
+        "if (!window.__inpInstalled) { done('[]'); return; }" +
+        "requestAnimationFrame(function() { requestAnimationFrame(function() { setTimeout(function() {" +
+        "  var entries = window.__inpEntries; window.__inpEntries = []; done(JSON.stringify(entries));" +
+        "}, 50); }); });";
+
+    private static final ThreadLocal<List<EventEntry>> currentEntries = ThreadLocal.withInitial(ArrayList::new);
+
+    /**
+     * One Event Timing entry as reported by the injected observer
+     */
+    public static class EventEntry {
+        private String document;
+        private long interactionId;
+        private String name;
+        private String action;
+        private double startTime;
+        private double processingStart;
+        private double processingEnd;
+        private double duration;
+        private String target;
+
+        // Getters and setters
+        public String getDocument() { return document; }
+        public void setDocument(String document) { this.document = document; }
+
+        public long getInteractionId() { return interactionId; }
+        public void setInteractionId(long interactionId) { this.interactionId = interactionId; }
+
+        public String getName() { return name; }
+        public void setName(String name) { this.name = name; }
+
+        public String getAction() { return action; }
+        public void setAction(String action) { this.action = action; }
+
+        public double getStartTime() { return startTime; }
+        public void setStartTime(double startTime) { this.startTime = startTime; }
+
+        public double getProcessingStart() { return processingStart; }
+        public void setProcessingStart(double processingStart) { this.processingStart = processingStart; }
+
+        public double getProcessingEnd() { return processingEnd; }
+        public void setProcessingEnd(double processingEnd) { this.processingEnd = processingEnd; }
+
+        public double getDuration() { return duration; }
+        public void setDuration(double duration) { this.duration = duration; }
+
+        public String getTarget() { return target; }
+        public void setTarget(String target) { this.target = target; }
+    }
+
+    /**
+     * One user interaction: all event entries sharing an interactionId, described by the longest
+     */
+    public static class Interaction {
+        private String action;
+        private String eventType;
+        private String target;
+        private double durationMs;
+        private double inputDelayMs;
+        private double processingMs;
+        private double presentationDelayMs;
+
+        public String getAction() { return action; }
+        public String getEventType() { return eventType; }
+        public String getTarget() { return target; }
+        public double getDurationMs() { return durationMs; }
+        public double getInputDelayMs() { return inputDelayMs; }
+        public double getProcessingMs() { return processingMs; }
+        public double getPresentationDelayMs() { return presentationDelayMs; }
+    }
+
+    public static class InteractionReport {
+        private final List<Interaction> interactions;
+        private final double inpMs;
+
+        InteractionReport(List<Interaction> interactions, double inpMs) {
+            this.interactions = interactions;
+            this.inpMs = inpMs;
+        }
+
+        public List<Interaction> getInteractions() { return interactions; }
+        public double getInpMs() { return inpMs; }
+
+        public boolean hasInteractions() {
+            return !interactions.isEmpty();
+        }
+
+        /**
+         * Worst interaction per labelled action
+         */
+        public Map<String, Interaction> getWorstByAction() {
+            Map<String, Interaction> worst = new LinkedHashMap<>();
+            for (Interaction interaction : interactions) {
+                Interaction current = worst.get(interaction.getAction());
+                if (current == null || interaction.getDurationMs() > current.getDurationMs()) {
+                    worst.put(interaction.getAction(), interaction);
+                }
+            }
+            return worst;
+        }
+
+        /**
+         * INP and the worst interaction per action, keyed for LighthouseMetrics extra metrics
+         */
+        public Map<String, Double> toExtraMetrics() {
+            Map<String, Double> metrics = new LinkedHashMap<>();
+            if (!hasInteractions()) {
+                return metrics;
+            }
+            metrics.put("INP (ms)", inpMs);
+            for (Map.Entry<String, Interaction> entry : getWorstByAction().entrySet()) {
+                metrics.put("Interaction Latency (ms) - " + entry.getKey(), entry.getValue().getDurationMs());
+            }
+            return metrics;
+        }
+    }
+
+    public static boolean isEnabled() {
+        return Boolean.parseBoolean(System.getProperty("interaction.latency.enabled",
+            ConfigManager.getProperty("interaction.latency.enabled", "false")));
+    }
+
+    /**
+     * Install the observer if needed and label the interactions that follow
+     */
+    public static void beforeInteraction(WebDriver driver, String action) {
+        if (!isEnabled()) {
+            return;
+        }
+        try {
+            ((JavascriptExecutor) driver).executeScript(INSTALL_SCRIPT, action);
+        } catch (Exception e) {
+            logger.debug("Could not install interaction observer: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Collect the entries produced by the interaction. If the action navigated away they were
+     * stashed and are collected after the next page's first interaction or at journey end.
+     */
+    public static void afterInteraction(WebDriver driver) {
+        if (!isEnabled()) {
+            return;
+        }
+        try {
+            String json = (String) ((JavascriptExecutor) driver).executeAsyncScript(DRAIN_SCRIPT);
+            List<EventEntry> entries = objectMapper.readValue(json, new TypeReference<List<EventEntry>>(){});
+            currentEntries.get().addAll(entries);
+        } catch (Exception e) {
+            logger.debug("Could not collect interaction entries: {}", e.getMessage());
+        }
+    }
+
+    public static InteractionReport currentReport() {
+        return buildReport(currentEntries.get());
+    }
+
+    public static Map<String, Double> currentExtraMetrics() {
+        return currentReport().toExtraMetrics();
+    }
+
+    /**
+     * Collect anything still pending in the page and clear the current thread's state
+     */
+    public static InteractionReport takeReport(WebDriver driver) {
+        if (driver != null && isEnabled()) {
+            beforeInteraction(driver, null);
+            afterInteraction(driver);
+        }
+        InteractionReport report = currentReport();
+        currentEntries.remove();
+        return report;
+    }
+
+    /**
+     * Collect anything still pending in the page, attach the journey's interactions to Allure
+     * and clear the current thread's state
+     */
+    public static InteractionReport finishAndAttach(WebDriver driver, String testName) {
+        InteractionReport report = takeReport(driver);
+
+        if (report.hasInteractions()) {
+            attachReportToAllure(report, testName);
+        }
+        return report;
+    }
+
+    private static InteractionReport buildReport(List<EventEntry> entries) {
+        Map<String, EventEntry> longestPerInteraction = new LinkedHashMap<>();
+        for (EventEntry entry : entries) {
+            String key = entry.getDocument() + ":" + entry.getInteractionId();
+            EventEntry longest = longestPerInteraction.get(key);
+            if (longest == null || entry.getDuration() > longest.getDuration()) {
+                longestPerInteraction.put(key, entry);
+            }
+        }
+
+        List<Interaction> interactions = new ArrayList<>();
+        for (EventEntry entry : longestPerInteraction.values()) {
+            Interaction interaction = new Interaction();
+            interaction.action = entry.getAction() != null ? entry.getAction() : "Unlabelled";
+            interaction.eventType = entry.getName();
+            interaction.target = entry.getTarget();
+            interaction.durationMs = entry.getDuration();
+            interaction.inputDelayMs = Math.max(0, entry.getProcessingStart() - entry.getStartTime());
+            interaction.processingMs = Math.max(0, entry.getProcessingEnd() - entry.getProcessingStart());
+            interaction.presentationDelayMs = Math.max(0,
+                entry.getStartTime() + entry.getDuration() - entry.getProcessingEnd());
+            interactions.add(interaction);
+        }
+
+        return new InteractionReport(interactions, computeInp(interactions));
+    }
+
+    /**
+     * INP as defined by web-vitals: the worst interaction, ignoring one outlier per 50 interactions
+     */
+    static double computeInp(List<Interaction> interactions) {
+        if (interactions.isEmpty()) {
+            return 0;
+        }
+        List<Interaction> sorted = new ArrayList<>(interactions);
+        sorted.sort(Comparator.comparingDouble(Interaction::getDurationMs).reversed());
+        int index = Math.min(sorted.size() / 50, sorted.size() - 1);
+        return sorted.get(index).getDurationMs();
+    }
+
+    public static void attachReportToAllure(InteractionReport report, String testName) {
+        StringBuilder summary = new StringBuilder();
+        summary.append("# Interaction Latency\n\n");
+        summary.append("## Test: ").append(testName).append("\n\n");
+        summary.append("**INP:** ").append(String.format("%.0f ms", report.getInpMs()))
+               .append(" over ").append(report.getInteractions().size()).append(" interactions\n\n");
+        summary.append("| Action | Event | Target | Duration | Input Delay | Processing | Presentation |\n");
+        summary.append("|--------|-------|--------|----------|-------------|------------|--------------|\n");
+        for (Interaction interaction : report.getInteractions()) {
+            summary.append("| ").append(interaction.getAction()).append(" | ")
+                   .append(interaction.getEventType()).append(" | ")
+                   .append(interaction.getTarget() != null ? interaction.getTarget() : "").append(" | ")
+                   .append(String.format("%.0f ms", interaction.getDurationMs())).append(" | ")
+                   .append(String.format("%.0f ms", interaction.getInputDelayMs())).append(" | ")
+                   .append(String.format("%.0f ms", interaction.getProcessingMs())).append(" | ")
+                   .append(String.format("%.0f ms", interaction.getPresentationDelayMs())).append(" |\n");
+        }
+
+        Allure.addAttachment("Interaction Latency", "text/markdown",
+            new ByteArrayInputStream(summary.toString().getBytes(StandardCharsets.UTF_8)), ".md");
+        Allure.parameter("INP", String.format("%.0f ms", report.getInpMs()));
+    }
+}
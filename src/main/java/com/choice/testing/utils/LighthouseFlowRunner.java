@@ -0,0 +1,395 @@
+package com.choice.testing.utils;
+
+import com.choice.testing.config.ConfigManager;
+import com.choice.testing.drivers.DriverManager;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.qameta.allure.Allure;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lighthouse user flow over the Selenium session: one Lighthouse process per journey.
+ *
+ * Each separate CLI audit starts Lighthouse again and only sees the page as it is at that
+ * moment. This runner starts the flow worker (resources/lighthouse/flow-worker.mjs) once,
+ * attached to the Chrome instance Selenium drives, and records navigation, timespan and
+ * snapshot steps around the test's own actions. finish() writes one flow report and maps
+ * every step onto LighthouseMetrics.
+ *
+ * Lighthouse failures never fail the journey: the step's action still runs, the error is
+ * logged and the flow is marked failed, so finish() returns null.
+ */
+public class LighthouseFlowRunner implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(LighthouseFlowRunner.class);
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final String WORKER_RESOURCE = "lighthouse/flow-worker.mjs";
+    private static final String REPLY_PREFIX = "@@flow ";
+
+    private final String flowName;
+    private final Process process;
+    private final Writer commands;
+    private final BlockingQueue<JsonNode> replies = new LinkedBlockingQueue<>();
+    private final HostContentionGuard.HostConditions hostConditions;
+    private final int stepTimeoutSeconds;
+    private final Map<String, String> stepThrottlingProfiles = new HashMap<>();
+    private int nextId = 1;
+    private String failure;
+
+    public enum GatherMode { NAVIGATION, TIMESPAN, SNAPSHOT }
+
+    /**
+     * One recorded step of the flow with its metrics. Navigation steps have the full set;
+     * timespans report TBT and CLS; snapshots report accessibility, best practices and SEO.
+     */
+    public static class FlowStep {
+        private String name;
+        private GatherMode gatherMode;
+        private String url;
+        private LighthouseRunner.LighthouseMetrics metrics;
+
+        // Getters and setters
+        public String getName() { return name; }
+        public void setName(String name) { this.name = name; }
+
+        public GatherMode getGatherMode() { return gatherMode; }
+        public void setGatherMode(GatherMode gatherMode) { this.gatherMode = gatherMode; }
+
+        public String getUrl() { return url; }
+        public void setUrl(String url) { this.url = url; }
+
+        public LighthouseRunner.LighthouseMetrics getMetrics() { return metrics; }
+        public void setMetrics(LighthouseRunner.LighthouseMetrics metrics) { this.metrics = metrics; }
+    }
+
+    public static class FlowResult {
+        private String flowName;
+        private String reportPath;
+        private String jsonReportPath;
+        private List<FlowStep> steps = new ArrayList<>();
+
+        // Getters and setters
+        public String getFlowName() { return flowName; }
+        public void setFlowName(String flowName) { this.flowName = flowName; }
+
+        public String getReportPath() { return reportPath; }
+        public void setReportPath(String reportPath) { this.reportPath = reportPath; }
+
+        public String getJsonReportPath() { return jsonReportPath; }
+        public void setJsonReportPath(String jsonReportPath) { this.jsonReportPath = jsonReportPath; }
+
+        public List<FlowStep> getSteps() { return steps; }
+        public void setSteps(List<FlowStep> steps) { this.steps = steps; }
+
+        public FlowStep getStep(String name) {
+            for (FlowStep step : steps) {
+                if (step.getName().equals(name)) {
+                    return step;
+                }
+            }
+            return null;
+        }
+    }
+
+    private LighthouseFlowRunner(String flowName, Process process, HostContentionGuard.HostConditions hostConditions) {
+        this.flowName = flowName;
+        this.process = process;
+        this.commands = new OutputStreamWriter(process.getOutputStream(), StandardCharsets.UTF_8);
+        this.hostConditions = hostConditions;
+        this.stepTimeoutSeconds = ConfigManager.getIntProperty("lighthouse.flow.step.timeout.seconds", 120);
+
+        Thread reader = new Thread(this::readReplies, "lighthouse-flow-" + flowName);
+        reader.setDaemon(true);
+        reader.start();
+    }
+
+    public static boolean isEnabled() {
+        return Boolean.parseBoolean(System.getProperty("lighthouse.flow.enabled",
+            ConfigManager.getProperty("lighthouse.flow.enabled", "true")));
+    }
+
+    /**
+     * Start a flow on the page the current Selenium session is showing.
+     * Waits for a quiet host first, once for the whole journey.
+     */
+    public static LighthouseFlowRunner start(String flowName) throws Exception {
+        HostContentionGuard.HostConditions hostConditions = HostContentionGuard.awaitQuietHost();
+
+        ProcessBuilder processBuilder = new ProcessBuilder(
+            LighthouseRunner.resolveNodeBinary("node"), extractWorker().toString());
+        processBuilder.redirectErrorStream(true);
+        LighthouseRunner.configureNodeEnvironment(processBuilder.environment());
+
+        LighthouseFlowRunner runner = new LighthouseFlowRunner(flowName, processBuilder.start(), hostConditions);
+        ObjectNode request = objectMapper.createObjectNode();
+        request.put("port", DriverManager.getDebuggingPort());
+        request.put("url", DriverManager.getWebDriver().getCurrentUrl());
+        request.put("name", flowName);
+        try {
+            runner.send("start", request);
+        } catch (Exception e) {
+            runner.close();
+            throw e;
+        }
+
+        System.out.println("🔦 Lighthouse user flow started: " + flowName);
+        return runner;
+    }
+
+    /**
+     * Record a navigation step around an action that loads a page, e.g. driver.get or a search click
+     */
+    public void navigation(String stepName, Runnable action) {
+        runStep("startNavigation", "endNavigation", stepName, action);
+    }
+
+    /**
+     * Record a timespan step around in-page interactions
+     */
+    public void timespan(String stepName, Runnable action) {
+        runStep("startTimespan", "endTimespan", stepName, action);
+    }
+
+    /**
+     * Audit the page in its current state
+     */
+    public void snapshot(String stepName) {
+        if (failure != null) {
+            return;
+        }
+        stepThrottlingProfiles.put(stepName, ThrottlingManager.currentProfile().getName());
+        try {
+            send("snapshot", stepRequest(stepName));
+        } catch (Exception e) {
+            fail(stepName, e);
+        }
+    }
+
+    private void runStep(String startCommand, String endCommand, String stepName, Runnable action) {
+        boolean started = false;
+        // The flow measures with the session's own throttling, so the step keeps the profile active when it started
+        stepThrottlingProfiles.put(stepName, ThrottlingManager.currentProfile().getName());
+        if (failure == null) {
+            try {
+                send(startCommand, stepRequest(stepName));
+                started = true;
+            } catch (Exception e) {
+                fail(stepName, e);
+            }
+        }
+
+        try {
+            action.run();
+        } finally {
+            if (started) {
+                try {
+                    send(endCommand, objectMapper.createObjectNode());
+                } catch (Exception e) {
+                    fail(stepName, e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Generate the flow report and per-step metrics. Returns null if any step failed.
+     */
+    public FlowResult finish() throws Exception {
+        if (failure != null) {
+            System.out.println("⚠️ Lighthouse user flow " + flowName + " incomplete: " + failure);
+            return null;
+        }
+        Files.createDirectories(Paths.get(LighthouseRunner.REPORTS_DIR));
+        String outputBasePath = LighthouseRunner.REPORTS_DIR + "/lighthouse_flow_"
+            + flowName.replaceAll("[^a-zA-Z0-9]", "_") + "_" + System.currentTimeMillis();
+
+        ObjectNode request = objectMapper.createObjectNode();
+        request.put("outputBasePath", new File(outputBasePath).getAbsolutePath());
+        JsonNode reply = send("finish", request);
+
+        FlowResult result = parseFlowResult(objectMapper.readTree(new File(reply.path("jsonPath").asText())));
+        result.setFlowName(flowName);
+        result.setReportPath(reply.path("htmlPath").asText());
+        result.setJsonReportPath(reply.path("jsonPath").asText());
+        for (FlowStep step : result.getSteps()) {
+            step.getMetrics().setHostConditions(hostConditions);
+            step.getMetrics().setReportPath(result.getReportPath());
+            step.getMetrics().setThrottlingProfile(
+                stepThrottlingProfiles.getOrDefault(step.getName(), ThrottlingProfile.NONE.getName()));
+        }
+
+        System.out.println("Lighthouse user flow completed: " + flowName + " (" + result.getSteps().size() + " steps)");
+        return result;
+    }
+
+    @Override
+    public void close() {
+        try {
+            commands.close();
+        } catch (IOException e) {
+            logger.debug("Error closing flow worker input: {}", e.getMessage());
+        }
+        try {
+            if (!process.waitFor(10, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            process.destroyForcibly();
+        }
+    }
+
+    public boolean hasFailed() {
+        return failure != null;
+    }
+
+    private ObjectNode stepRequest(String stepName) {
+        ObjectNode request = objectMapper.createObjectNode();
+        request.put("name", stepName);
+        return request;
+    }
+
+    private void fail(String stepName, Exception e) {
+        failure = stepName + ": " + e.getMessage();
+        logger.warn("Lighthouse user flow {} failed at step {}", flowName, stepName, e);
+    }
+
+    /**
+     * Send one command and wait for its reply
+     */
+    private synchronized JsonNode send(String command, ObjectNode request) throws Exception {
+        int id = nextId++;
+        request.put("id", id);
+        request.put("command", command);
+        commands.write(objectMapper.writeValueAsString(request) + "\n");
+        commands.flush();
+
+        while (true) {
+            JsonNode reply = replies.poll(stepTimeoutSeconds, TimeUnit.SECONDS);
+            if (reply == null) {
+                throw new RuntimeException("Lighthouse flow worker did not answer '" + command + "' within "
+                    + stepTimeoutSeconds + " seconds");
+            }
+            if (reply.path("id").asInt() != id && !reply.path("exited").asBoolean()) {
+                continue; // late reply to a command that already timed out
+            }
+            if (!reply.path("ok").asBoolean()) {
+                throw new RuntimeException("Lighthouse flow '" + command + "' failed: " + reply.path("error").asText());
+            }
+            return reply;
+        }
+    }
+
+    private void readReplies() {
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith(REPLY_PREFIX)) {
+                    replies.add(objectMapper.readTree(line.substring(REPLY_PREFIX.length())));
+                } else {
+                    logger.debug("[lighthouse-flow] {}", line);
+                }
+            }
+        } catch (IOException e) {
+            logger.debug("Flow worker output closed: {}", e.getMessage());
+        }
+        // Unblock a pending send() if the worker died
+        ObjectNode exited = objectMapper.createObjectNode();
+        exited.put("exited", true);
+        exited.put("ok", false);
+        exited.put("error", "worker process exited");
+        replies.add(exited);
+    }
+
+    static FlowResult parseFlowResult(JsonNode flowResult) {
+        FlowResult result = new FlowResult();
+        for (JsonNode step : flowResult.path("steps")) {
+            JsonNode lhr = step.path("lhr");
+            FlowStep flowStep = new FlowStep();
+            flowStep.setName(step.path("name").asText());
+            flowStep.setGatherMode(GatherMode.valueOf(lhr.path("gatherMode").asText("navigation").toUpperCase()));
+            flowStep.setUrl(lhr.path("finalDisplayedUrl").asText(lhr.path("finalUrl").asText()));
+            flowStep.setMetrics(LighthouseRunner.parseMetrics(lhr));
+            result.getSteps().add(flowStep);
+        }
+        return result;
+    }
+
+    /**
+     * Copy the worker script out of the classpath; node needs a real .mjs file
+     */
+    private static Path extractWorker() throws IOException {
+        Path worker = Files.createTempFile("lighthouse-flow-worker", ".mjs");
+        worker.toFile().deleteOnExit();
+        try (InputStream script = LighthouseFlowRunner.class.getClassLoader().getResourceAsStream(WORKER_RESOURCE)) {
+            if (script == null) {
+                throw new IOException("Missing classpath resource " + WORKER_RESOURCE);
+            }
+            Files.copy(script, worker, StandardCopyOption.REPLACE_EXISTING);
+        }
+        return worker;
+    }
+
+    /**
+     * Attach the flow report and a per-step summary to Allure
+     */
+    public static void attachFlowToAllure(FlowResult result, String testName) throws IOException {
+        StringBuilder summary = new StringBuilder();
+        summary.append("# Lighthouse User Flow\n\n");
+        summary.append("## Flow: ").append(result.getFlowName()).append("\n\n");
+        summary.append("| Step | Mode | Performance | FCP | LCP | TBT | CLS |\n");
+        summary.append("|------|------|-------------|-----|-----|-----|-----|\n");
+        for (FlowStep step : result.getSteps()) {
+            LighthouseRunner.LighthouseMetrics metrics = step.getMetrics();
+            boolean navigation = step.getGatherMode() == GatherMode.NAVIGATION;
+            boolean snapshot = step.getGatherMode() == GatherMode.SNAPSHOT;
+            summary.append("| ").append(step.getName())
+                   .append(" | ").append(step.getGatherMode().name().toLowerCase())
+                   .append(" | ").append(snapshot ? "-" : String.format("%.1f%%", metrics.getPerformanceScore() * 100))
+                   .append(" | ").append(navigation ? String.format("%.0f ms", metrics.getFirstContentfulPaint()) : "-")
+                   .append(" | ").append(navigation ? String.format("%.0f ms", metrics.getLargestContentfulPaint()) : "-")
+                   .append(" | ").append(snapshot ? "-" : String.format("%.0f ms", metrics.getTotalBlockingTime()))
+                   .append(" | ").append(snapshot ? "-" : String.format("%.3f", metrics.getCumulativeLayoutShift()))
+                   .append(" |\n");
+        }
+
+        Allure.addAttachment(testName + " - User Flow Summary", "text/markdown",
+            new ByteArrayInputStream(summary.toString().getBytes(StandardCharsets.UTF_8)), ".md");
+
+        File htmlReport = new File(result.getReportPath());
+        if (htmlReport.exists()) {
+            Allure.addAttachment(testName + " - Lighthouse Flow Report", "text/html",
+                new ByteArrayInputStream(Files.readAllBytes(htmlReport.toPath())), ".html");
+        }
+        File jsonReport = new File(result.getJsonReportPath());
+        if (jsonReport.exists()) {
+            Allure.addAttachment(testName + " - Lighthouse Flow JSON", "application/json",
+                new ByteArrayInputStream(Files.readAllBytes(jsonReport.toPath())), ".json");
+        }
+        Allure.parameter("Flow Steps", result.getSteps().size());
+    }
+}
@@ -180,6 +180,37 @@ public class LighthouseHelper {
         System.out.println("✅ All Core Web Vitals meet Google's recommended thresholds");
     }
 
+    /**
+     * Validate interaction responsiveness of the journey so far against Google's INP thresholds
+     * @param report Interaction latency recorded for the current test
+     */
+    public static void validateInteractionLatency(InteractionLatencyRecorder.InteractionReport report) {
+        if (!report.hasInteractions()) {
+            System.out.println("ℹ️ No interactions recorded - interaction latency not validated");
+            return;
+        }
+        
+        StringBuilder errors = new StringBuilder();
+        
+        if (report.getInpMs() > 200) { // Good: ≤200ms
+            errors.append(String.format("INP: %.0fms > 200ms; ", report.getInpMs()));
+        }
+        
+        for (InteractionLatencyRecorder.Interaction interaction : report.getWorstByAction().values()) {
+            if (interaction.getInputDelayMs() > 100) { // Main thread busy when the input arrived
+                errors.append(String.format("%s input delay: %.0fms > 100ms; ",
+                    interaction.getAction(), interaction.getInputDelayMs()));
+            }
+        }
+        
+        if (errors.length() > 0) {
+            throw new AssertionError("Interaction latency outside recommended thresholds: " + errors.toString());
+        }
+        
+        System.out.println("✅ Interaction latency meets Google's recommended thresholds (INP "
+            + String.format("%.0fms", report.getInpMs()) + ")");
+    }
+
     /**
      * Simple method to audit current page and validate basic performance
      * Useful for adding to existing tests with minimal code changes
@@ -223,8 +254,16 @@ public class LighthouseHelper {
         // Run the audit
         LighthouseRunner.LighthouseMetrics metrics = auditCurrentPage();
         
+        // Include browser resource usage (if sampling) and step timings so they are tracked with the audit
+        metrics.putExtraMetrics(ChromeResourceSampler.currentExtraMetrics());
+        metrics.putExtraMetrics(ActionTimingRecorder.currentExtraMetrics());
+        metrics.putExtraMetrics(InteractionLatencyRecorder.currentExtraMetrics());
+        metrics.putExtraMetrics(NetworkRecorder.currentExtraMetrics());
+        metrics.putExtraMetrics(CoverageCollector.currentExtraMetrics());
+        
         // Create comprehensive performance dashboard
         AllurePerformanceReporter.createPerformanceDashboard(metrics, testName, currentUrl);
+        WebVitalsAttribution.attachToAllure(metrics.getAttribution(), testName);
         
         // Analyze for regressions
         PerformanceRegressionTracker.RegressionAnalysis regressionAnalysis = 
@@ -240,6 +279,12 @@ public class LighthouseHelper {
             for (String detail : regressionAnalysis.getRegressionDetails()) {
                 System.out.println("   - " + detail);
             }
+            for (String detail : regressionAnalysis.getExtraMetricRegressions()) {
+                System.out.println("   - " + detail);
+            }
+            for (String change : regressionAnalysis.getAttributionChanges()) {
+                System.out.println("   🔎 " + change);
+            }
         } else {
             System.out.println("✅ No performance regression detected for: " + testName);
         }
@@ -247,6 +292,43 @@ public class LighthouseHelper {
         return metrics;
     }
     
+    /**
+     * Attach a finished user flow to Allure and track each navigation step for regressions.
+     * Steps are tracked as "testName - stepName", so every page in the journey has its own
+     * history and baseline. Timespan and snapshot steps lack load metrics and are reported only.
+     * @param result Result of LighthouseFlowRunner.finish()
+     * @param testName Name for the test report
+     */
+    @Step("User flow regression tracking: {testName}")
+    public static void trackUserFlowRegressions(LighthouseFlowRunner.FlowResult result, String testName) throws Exception {
+        LighthouseFlowRunner.attachFlowToAllure(result, testName);
+        
+        for (LighthouseFlowRunner.FlowStep step : result.getSteps()) {
+            if (step.getGatherMode() != LighthouseFlowRunner.GatherMode.NAVIGATION) {
+                continue;
+            }
+            String stepTestName = testName + " - " + step.getName();
+            PerformanceRegressionTracker.RegressionAnalysis regressionAnalysis = 
+                PerformanceRegressionTracker.analyzeRegression(step.getMetrics(), stepTestName, step.getUrl());
+            
+            if (regressionAnalysis.hasRegression()) {
+                System.out.println("⚠️ Performance regression detected in " + stepTestName + 
+                    " (Severity: " + regressionAnalysis.getSeverity() + ")");
+                for (String detail : regressionAnalysis.getRegressionDetails()) {
+                    System.out.println("   - " + detail);
+                }
+                for (String detail : regressionAnalysis.getExtraMetricRegressions()) {
+                    System.out.println("   - " + detail);
+                }
+                for (String change : regressionAnalysis.getAttributionChanges()) {
+                    System.out.println("   🔎 " + change);
+                }
+            } else {
+                System.out.println("✅ No performance regression detected for: " + stepTestName);
+            }
+        }
+    }
+    
     /**
      * Set performance baseline for future regression comparisons
      * @param testName Name of the test
@@ -29,8 +29,9 @@ import java.util.concurrent.TimeUnit;
 
 public class LighthouseRunner {
     
-    private static final String REPORTS_DIR = "reports/lighthouse";
+    static final String REPORTS_DIR = "reports/lighthouse";
     private static final int TIMEOUT_SECONDS = 120;
+    private static final String NVM_NODE_VERSION = "v22.15.1";
     
     public static class LighthouseMetrics {
         private double performanceScore;
@@ -43,6 +44,12 @@ public class LighthouseRunner {
         private double totalBlockingTime;
         private double cumulativeLayoutShift;
         private String reportPath;
+        private Map<String, Double> extraMetrics = new HashMap<>();
+        private HostContentionGuard.HostConditions hostConditions;
+        private double benchmarkIndex;
+        private double hostBenchmarkScore;
+        private String throttlingProfile = ThrottlingProfile.NONE.getName();
+        private WebVitalsAttribution attribution;
         
         // Getters and setters
         public double getPerformanceScore() { return performanceScore; }
@@ -75,6 +82,30 @@ public class LighthouseRunner {
         public String getReportPath() { return reportPath; }
         public void setReportPath(String reportPath) { this.reportPath = reportPath; }
         
+        // Additional non-Lighthouse metrics (resource usage, timings) tracked alongside the audit
+        public Map<String, Double> getExtraMetrics() { return extraMetrics; }
+        public void setExtraMetrics(Map<String, Double> extraMetrics) { this.extraMetrics = extraMetrics; }
+        public void putExtraMetrics(Map<String, Double> metrics) { this.extraMetrics.putAll(metrics); }
+        
+        // Host load observed right before the audit ran
+        public HostContentionGuard.HostConditions getHostConditions() { return hostConditions; }
+        public void setHostConditions(HostContentionGuard.HostConditions hostConditions) { this.hostConditions = hostConditions; }
+        
+        // Lighthouse environment.benchmarkIndex and our own host CPU score, used for normalization
+        public double getBenchmarkIndex() { return benchmarkIndex; }
+        public void setBenchmarkIndex(double benchmarkIndex) { this.benchmarkIndex = benchmarkIndex; }
+        
+        public double getHostBenchmarkScore() { return hostBenchmarkScore; }
+        public void setHostBenchmarkScore(double hostBenchmarkScore) { this.hostBenchmarkScore = hostBenchmarkScore; }
+        
+        // ThrottlingProfile the page was measured under; stored history is compared per profile
+        public String getThrottlingProfile() { return throttlingProfile; }
+        public void setThrottlingProfile(String throttlingProfile) { this.throttlingProfile = throttlingProfile; }
+        
+        // LCP element and phases, layout shift sources; null when the report has none
+        public WebVitalsAttribution getAttribution() { return attribution; }
+        public void setAttribution(WebVitalsAttribution attribution) { this.attribution = attribution; }
+        
         @Override
         public String toString() {
             return String.format(
@@ -180,6 +211,9 @@ public class LighthouseRunner {
         String jsonReportPath = outputBasePath + ".report.json";
         String htmlReportPath = outputBasePath + ".report.html";
         
+        // Defer the audit while other jobs are loading the host
+        HostContentionGuard.HostConditions hostConditions = HostContentionGuard.awaitQuietHost();
+        
         // Build Lighthouse command to connect to existing Chrome instance
         List<String> command = buildLighthouseCommandForSelenium(url, outputBasePath, debuggingPort, options);
         
@@ -202,6 +236,8 @@ public class LighthouseRunner {
         // Parse metrics from JSON report
         LighthouseMetrics metrics = parseMetricsFromReport(jsonReportPath);
         metrics.setReportPath(htmlReportPath);
+        metrics.setHostConditions(hostConditions);
+        metrics.setThrottlingProfile(ThrottlingManager.currentProfile().getName());
         
         System.out.println("Lighthouse audit on Selenium session completed: " + metrics);
         return metrics;
@@ -211,16 +247,7 @@ public class LighthouseRunner {
         List<String> command = new ArrayList<>();
         
         // Use nvm node path to ensure we use the correct Node.js version
-        String homeDir = System.getProperty("user.home");
-        String nvmNodePath = homeDir + "/.nvm/versions/node/v22.15.1/bin/lighthouse";
-        
-        // Check if nvm lighthouse exists, otherwise fall back to system lighthouse
-        File nvmLighthouse = new File(nvmNodePath);
-        if (nvmLighthouse.exists()) {
-            command.add(nvmNodePath);
-        } else {
-            command.add("lighthouse");
-        }
+        command.add(resolveNodeBinary("lighthouse"));
         
         command.add(url);
         command.add("--output=json,html");
@@ -241,7 +268,16 @@ public class LighthouseRunner {
         command.add("--quiet");
         command.add("--no-enable-error-reporting");
         command.add("--max-wait-for-load=30000");
-        command.add("--throttling-method=provided"); // Use existing browser state
+        
+        // Lighthouse audits in its own tab, so a throttled session's profile is reproduced there
+        ThrottlingProfile profile = ThrottlingManager.currentProfile();
+        if (profile.isNone()) {
+            command.add("--throttling-method=provided"); // Use existing browser state
+        } else if (options == null || !options.containsKey("throttling-method")) {
+            for (Map.Entry<String, String> entry : profile.toLighthouseOptions().entrySet()) {
+                command.add("--" + entry.getKey() + "=" + entry.getValue());
+            }
+        }
         
         // Add custom options if provided
         if (options != null) {
@@ -273,6 +309,9 @@ public class LighthouseRunner {
         String jsonReportPath = outputBasePath + ".report.json";  // Lighthouse adds .report
         String htmlReportPath = outputBasePath + ".report.html";  // Lighthouse adds .report
         
+        // Defer the audit while other jobs are loading the host
+        HostContentionGuard.HostConditions hostConditions = HostContentionGuard.awaitQuietHost();
+        
         // Build Lighthouse command
         List<String> command = buildLighthouseCommand(url, outputBasePath, htmlReportPath, options);
         
@@ -296,6 +335,7 @@ public class LighthouseRunner {
         // Parse metrics from JSON report
         LighthouseMetrics metrics = parseMetricsFromReport(jsonReportPath);
         metrics.setReportPath(htmlReportPath);
+        metrics.setHostConditions(hostConditions);
         
         System.out.println("Lighthouse audit completed: " + metrics);
         return metrics;
@@ -312,16 +352,7 @@ public class LighthouseRunner {
         List<String> command = new ArrayList<>();
         
         // Use nvm node path to ensure we use the correct Node.js version
-        String homeDir = System.getProperty("user.home");
-        String nvmNodePath = homeDir + "/.nvm/versions/node/v22.15.1/bin/lighthouse";
-        
-        // Check if nvm lighthouse exists, otherwise fall back to system lighthouse
-        File nvmLighthouse = new File(nvmNodePath);
-        if (nvmLighthouse.exists()) {
-            command.add(nvmNodePath);
-        } else {
-            command.add("lighthouse");
-        }
+        command.add(resolveNodeBinary("lighthouse"));
         command.add(url);
         command.add("--output=json,html");
         command.add("--output-path=" + outputBasePath);  // Without extension, Lighthouse adds it
@@ -369,21 +400,7 @@ public class LighthouseRunner {
         processBuilder.redirectErrorStream(true);
         
         // Set up environment for nvm Node.js version
-        Map<String, String> env = processBuilder.environment();
-        String homeDir = System.getProperty("user.home");
-        
-        // Add nvm node path to PATH
-        String nvmBinPath = homeDir + "/.nvm/versions/node/v22.15.1/bin";
-        String currentPath = env.get("PATH");
-        if (currentPath != null) {
-            env.put("PATH", nvmBinPath + ":" + currentPath);
-        } else {
-            env.put("PATH", nvmBinPath);
-        }
-        
-        // Set NVM environment variables
-        env.put("NVM_DIR", homeDir + "/.nvm");
-        env.put("NODE_VERSION", "v22.15.1");
+        configureNodeEnvironment(processBuilder.environment());
         
         Process process = processBuilder.start();
         
@@ -412,10 +429,43 @@ public class LighthouseRunner {
         return process;
     }
     
+    /**
+     * Path of a Node.js binary (lighthouse, node) from the nvm install if present, otherwise from PATH
+     */
+    static String resolveNodeBinary(String binary) {
+        String nvmBinaryPath = System.getProperty("user.home") + "/.nvm/versions/node/" + NVM_NODE_VERSION + "/bin/" + binary;
+        return new File(nvmBinaryPath).exists() ? nvmBinaryPath : binary;
+    }
+    
+    /**
+     * Put the nvm Node.js version first on PATH for a child process
+     */
+    static void configureNodeEnvironment(Map<String, String> env) {
+        String homeDir = System.getProperty("user.home");
+        
+        // Add nvm node path to PATH
+        String nvmBinPath = homeDir + "/.nvm/versions/node/" + NVM_NODE_VERSION + "/bin";
+        String currentPath = env.get("PATH");
+        if (currentPath != null) {
+            env.put("PATH", nvmBinPath + ":" + currentPath);
+        } else {
+            env.put("PATH", nvmBinPath);
+        }
+        
+        // Set NVM environment variables
+        env.put("NVM_DIR", homeDir + "/.nvm");
+        env.put("NODE_VERSION", NVM_NODE_VERSION);
+    }
+    
     private static LighthouseMetrics parseMetricsFromReport(String jsonReportPath) throws Exception {
         ObjectMapper mapper = new ObjectMapper();
-        JsonNode rootNode = mapper.readTree(new File(jsonReportPath));
-        
+        return parseMetrics(mapper.readTree(new File(jsonReportPath)));
+    }
+    
+    /**
+     * Map a Lighthouse result (a CLI report, or one step of a user flow) onto LighthouseMetrics
+     */
+    static LighthouseMetrics parseMetrics(JsonNode rootNode) {
         LighthouseMetrics metrics = new LighthouseMetrics();
         
         // Extract category scores
@@ -432,6 +482,11 @@ public class LighthouseRunner {
         metrics.setSpeedIndex(audits.path("speed-index").path("numericValue").asDouble(0));
         metrics.setTotalBlockingTime(audits.path("total-blocking-time").path("numericValue").asDouble(0));
         metrics.setCumulativeLayoutShift(audits.path("cumulative-layout-shift").path("numericValue").asDouble(0));
+        metrics.setAttribution(WebVitalsAttribution.fromLighthouseResult(rootNode));
+        
+        // Machine speed as measured by Lighthouse, plus our own score for reports that lack it
+        metrics.setBenchmarkIndex(rootNode.path("environment").path("benchmarkIndex").asDouble(0));
+        metrics.setHostBenchmarkScore(HostBenchmark.getScore());
         
         return metrics;
     }
@@ -527,6 +582,26 @@ public class LighthouseRunner {
         summary.append("- Total Blocking Time (TBT): ").append(String.format("%.0f ms", metrics.getTotalBlockingTime())).append("\n");
         summary.append("- Cumulative Layout Shift (CLS): ").append(String.format("%.3f", metrics.getCumulativeLayoutShift())).append("\n");
         
+        HostContentionGuard.HostConditions host = metrics.getHostConditions();
+        if (host != null && host.isAvailable()) {
+            summary.append("\nHost Conditions:\n");
+            summary.append("- Load Average (1m): ").append(String.format("%.2f on %d cores", host.getLoadAverage1m(), host.getCpuCount())).append("\n");
+            summary.append("- CPU Steal: ").append(String.format("%.1f%%", host.getCpuStealPercent())).append("\n");
+            if (host.getCpuQuotaCores() > 0) {
+                summary.append("- cgroup CPU Quota: ").append(String.format("%.2f cores, %.1f%% throttled", 
+                    host.getCpuQuotaCores(), host.getCpuThrottledPercent())).append("\n");
+            }
+            summary.append("- Available Memory: ").append(String.format("%.0f MB", host.getMemAvailableMb())).append("\n");
+            summary.append("- Contended: ").append(host.isContended() ? "YES (" + host.getContentionReason() + ")" : "NO").append("\n");
+            summary.append("- Deferred: ").append(host.getWaitedMs()).append(" ms\n");
+        }
+        
+        if (metrics.getBenchmarkIndex() > 0 || metrics.getHostBenchmarkScore() > 0) {
+            summary.append("\nMachine Speed:\n");
+            summary.append("- Lighthouse Benchmark Index: ").append(String.format("%.0f", metrics.getBenchmarkIndex())).append("\n");
+            summary.append("- Host CPU Benchmark: ").append(String.format("%.1f", metrics.getHostBenchmarkScore())).append("\n");
+        }
+        
         return summary.toString();
     }
 
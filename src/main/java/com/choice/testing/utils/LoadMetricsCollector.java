@@ -0,0 +1,76 @@
+package com.choice.testing.utils;
+
+import com.github.kklisura.cdt.services.ChromeDevToolsService;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+
+import java.util.List;
+
+/**
+ * In-page LCP, FCP and TBT for repeated page loads that are too many to audit with Lighthouse.
+ * The collector is registered through CDP so it runs before any page script in every new
+ * document, and read back with one executeScript after the load has settled.
+ */
+class LoadMetricsCollector {
+
+    private static final String COLLECTOR_SCRIPT =
+        "(function() {" +
+        "  if (window.__loadMetrics) { return; }" +
+        "  var p = window.__loadMetrics = {lcp: 0, fcp: 0, longTasks: []};" +
+        "  function observe(type, handler) {" +
+        "    try { new PerformanceObserver(function(list) { list.getEntries().forEach(handler); })" +
+        "      .observe({type: type, buffered: true}); } catch (e) {}" +
+        "  }" +
+        "  observe('largest-contentful-paint', function(e) { p.lcp = e.startTime; });" +
+        "  observe('paint', function(e) { if (e.name === 'first-contentful-paint') { p.fcp = e.startTime; } });" +
+        "  observe('longtask', function(e) { p.longTasks.push([e.startTime, e.duration]); });" +
+        "})();";
+
+    // Total Blocking Time as Lighthouse defines it, but up to now rather than up to TTI
+    private static final String READ_SCRIPT =
+        "var p = window.__loadMetrics;" +
+        "if (!p) { return null; }" +
+        "var tbt = 0;" +
+        "for (var i = 0; i < p.longTasks.length; i++) {" +
+        "  if (p.longTasks[i][0] >= p.fcp) { tbt += Math.max(0, p.longTasks[i][1] - 50); }" +
+        "}" +
+        "return [p.lcp, p.fcp, tbt];";
+
+    static final int LCP = 0;
+    static final int FCP = 1;
+    static final int TBT = 2;
+
+    private LoadMetricsCollector() {
+    }
+
+    /**
+     * Register the collector for every document the session loads from now on.
+     * Returns the identifier to pass to uninstall.
+     */
+    static String install(ChromeDevToolsService session) {
+        session.getPage().enable();
+        return session.getPage().addScriptToEvaluateOnNewDocument(COLLECTOR_SCRIPT);
+    }
+
+    static void uninstall(ChromeDevToolsService session, String identifier) {
+        if (identifier != null && !session.isClosed()) {
+            session.getPage().removeScriptToEvaluateOnNewDocument(identifier);
+        }
+    }
+
+    /**
+     * {LCP, FCP, TBT} in ms for the current document, or null when the collector is not on the page
+     */
+    static double[] read(WebDriver driver) {
+        Object raw = ((JavascriptExecutor) driver).executeScript(READ_SCRIPT);
+        if (!(raw instanceof List) || ((List<?>) raw).size() < 3) {
+            return null;
+        }
+        List<?> values = (List<?>) raw;
+        return new double[] {
+            ((Number) values.get(LCP)).doubleValue(),
+            ((Number) values.get(FCP)).doubleValue(),
+            ((Number) values.get(TBT)).doubleValue()
+        };
+    }
+}
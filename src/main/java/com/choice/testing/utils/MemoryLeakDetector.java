@@ -0,0 +1,588 @@
+package com.choice.testing.utils;
+
+import com.choice.testing.config.ConfigManager;
+import com.choice.testing.drivers.DriverManager;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.kklisura.cdt.protocol.commands.HeapProfiler;
+import com.github.kklisura.cdt.protocol.support.types.EventListener;
+import com.github.kklisura.cdt.protocol.types.performance.Metric;
+import com.github.kklisura.cdt.services.ChromeDevToolsService;
+import io.qameta.allure.Allure;
+import org.openqa.selenium.WebDriver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Soak mode for leaks that single-navigation audits never see: repeats a journey in one
+ * session and watches what the page keeps.
+ *
+ * After each iteration the page is garbage collected and Performance.getMetrics is sampled
+ * for JS heap, DOM nodes, event listeners and documents. After the warm-up iterations each
+ * metric gets a least-squares growth per iteration; growth above its threshold with a
+ * correlation of at least leak.min.correlation (steady growth, not noise) is suspicious.
+ *
+ * On suspicion two heap snapshots are taken leak.snapshot.iterations apart, streamed from the
+ * HeapProfiler domain to disk and parsed without loading them whole. Objects are grouped by
+ * constructor as in DevTools' summary view; since snapshots only hold reachable objects, the
+ * constructors whose live count grows with every iteration are what the page retains.
+ */
+public class MemoryLeakDetector {
+
+    private static final Logger logger = LoggerFactory.getLogger(MemoryLeakDetector.class);
+    private static final ObjectMapper objectMapper = new ObjectMapper()
+        .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    private static final String PERFORMANCE_DATA_DIR = "performance-history";
+    private static final long SNAPSHOT_QUIET_MS = 500;
+    private static final long SNAPSHOT_TIMEOUT_MS = 120_000;
+
+    static final String HEAP = "JSHeapUsedSize";
+    static final String NODES = "Nodes";
+    static final String LISTENERS = "JSEventListeners";
+    static final String DOCUMENTS = "Documents";
+    private static final String[] METRICS = {HEAP, NODES, LISTENERS, DOCUMENTS};
+
+    public enum Verdict { NO_LEAK, SUSPECTED, LEAK }
+
+    public static class IterationSample {
+        private int iteration;
+        private double journeyMs;
+        private boolean warmUp;
+        private Map<String, Double> metrics = new LinkedHashMap<>();
+
+        // Getters and setters
+        public int getIteration() { return iteration; }
+        public void setIteration(int iteration) { this.iteration = iteration; }
+
+        public double getJourneyMs() { return journeyMs; }
+        public void setJourneyMs(double journeyMs) { this.journeyMs = journeyMs; }
+
+        public boolean isWarmUp() { return warmUp; }
+        public void setWarmUp(boolean warmUp) { this.warmUp = warmUp; }
+
+        // Performance.getMetrics values after GC; JSHeapUsedSize in bytes
+        public Map<String, Double> getMetrics() { return metrics; }
+        public void setMetrics(Map<String, Double> metrics) { this.metrics = metrics; }
+    }
+
+    public static class MetricTrend {
+        private String metric;
+        private double growthPerIteration;
+        private double correlation;
+        private double threshold;
+        private boolean suspicious;
+
+        // Getters and setters
+        public String getMetric() { return metric; }
+        public void setMetric(String metric) { this.metric = metric; }
+
+        // Least-squares slope over the measured iterations, in the metric's unit
+        public double getGrowthPerIteration() { return growthPerIteration; }
+        public void setGrowthPerIteration(double growthPerIteration) { this.growthPerIteration = growthPerIteration; }
+
+        public double getCorrelation() { return correlation; }
+        public void setCorrelation(double correlation) { this.correlation = correlation; }
+
+        public double getThreshold() { return threshold; }
+        public void setThreshold(double threshold) { this.threshold = threshold; }
+
+        public boolean isSuspicious() { return suspicious; }
+        public void setSuspicious(boolean suspicious) { this.suspicious = suspicious; }
+    }
+
+    public static class ConstructorGrowth {
+        private String constructor;
+        private long countBefore;
+        private long countAfter;
+        private long sizeBefore;
+        private long sizeAfter;
+
+        // Getters and setters
+        public String getConstructor() { return constructor; }
+        public void setConstructor(String constructor) { this.constructor = constructor; }
+
+        public long getCountBefore() { return countBefore; }
+        public void setCountBefore(long countBefore) { this.countBefore = countBefore; }
+
+        public long getCountAfter() { return countAfter; }
+        public void setCountAfter(long countAfter) { this.countAfter = countAfter; }
+
+        // Shallow sizes in bytes
+        public long getSizeBefore() { return sizeBefore; }
+        public void setSizeBefore(long sizeBefore) { this.sizeBefore = sizeBefore; }
+
+        public long getSizeAfter() { return sizeAfter; }
+        public void setSizeAfter(long sizeAfter) { this.sizeAfter = sizeAfter; }
+
+        public long getCountDelta() { return countAfter - countBefore; }
+        public long getSizeDelta() { return sizeAfter - sizeBefore; }
+    }
+
+    public static class LeakReport {
+        private String name;
+        private String timestamp;
+        private int iterations;
+        private int warmUpIterations;
+        private int failedIterations;
+        private Verdict verdict;
+        private List<IterationSample> samples = new ArrayList<>();
+        private List<MetricTrend> trends = new ArrayList<>();
+        private int snapshotIterations;
+        private List<ConstructorGrowth> growingConstructors = new ArrayList<>();
+        private List<String> snapshotFiles = new ArrayList<>();
+
+        // Getters and setters
+        public String getName() { return name; }
+        public void setName(String name) { this.name = name; }
+
+        public String getTimestamp() { return timestamp; }
+        public void setTimestamp(String timestamp) { this.timestamp = timestamp; }
+
+        public int getIterations() { return iterations; }
+        public void setIterations(int iterations) { this.iterations = iterations; }
+
+        public int getWarmUpIterations() { return warmUpIterations; }
+        public void setWarmUpIterations(int warmUpIterations) { this.warmUpIterations = warmUpIterations; }
+
+        public int getFailedIterations() { return failedIterations; }
+        public void setFailedIterations(int failedIterations) { this.failedIterations = failedIterations; }
+
+        // LEAK when the trend is suspicious and a constructor grew on every snapshot iteration
+        public Verdict getVerdict() { return verdict; }
+        public void setVerdict(Verdict verdict) { this.verdict = verdict; }
+
+        public List<IterationSample> getSamples() { return samples; }
+        public void setSamples(List<IterationSample> samples) { this.samples = samples; }
+
+        public List<MetricTrend> getTrends() { return trends; }
+        public void setTrends(List<MetricTrend> trends) { this.trends = trends; }
+
+        // Journey iterations between the two heap snapshots
+        public int getSnapshotIterations() { return snapshotIterations; }
+        public void setSnapshotIterations(int snapshotIterations) { this.snapshotIterations = snapshotIterations; }
+
+        public List<ConstructorGrowth> getGrowingConstructors() { return growingConstructors; }
+        public void setGrowingConstructors(List<ConstructorGrowth> growingConstructors) { this.growingConstructors = growingConstructors; }
+
+        // Kept only with leak.snapshot.keep=true
+        public List<String> getSnapshotFiles() { return snapshotFiles; }
+        public void setSnapshotFiles(List<String> snapshotFiles) { this.snapshotFiles = snapshotFiles; }
+    }
+
+    public static boolean isEnabled() {
+        return Boolean.parseBoolean(System.getProperty("leak.soak.enabled",
+            ConfigManager.getProperty("leak.soak.enabled", "false")));
+    }
+
+    /**
+     * Repeat the journey leak.soak.iterations times in the current session
+     */
+    public static LeakReport soak(String name, Consumer<WebDriver> journey) {
+        return soak(name, ConfigManager.getIntProperty("leak.soak.iterations", 10), journey);
+    }
+
+    /**
+     * @param journey one iteration; should end where the next one can start, e.g. by navigating back
+     */
+    public static LeakReport soak(String name, int iterations, Consumer<WebDriver> journey) {
+        int warmUp = ConfigManager.getIntProperty("leak.soak.warmup.iterations", 2);
+        LeakReport report = new LeakReport();
+        report.setName(name);
+        report.setTimestamp(LocalDateTime.now().toString());
+        report.setIterations(iterations);
+        report.setWarmUpIterations(warmUp);
+        report.setVerdict(Verdict.NO_LEAK);
+
+        ChromeDevToolsService session = DevToolsSessionManager.getSession();
+        if (session == null) {
+            logger.warn("Memory leak soak needs a DevTools session, skipping {}", name);
+            return report;
+        }
+        WebDriver driver = DriverManager.getWebDriver();
+        session.getPerformance().enable();
+        session.getHeapProfiler().enable();
+
+        System.out.println(String.format("🧪 Leak soak %s: %d iterations (%d warm-up)", name, iterations, warmUp));
+        for (int i = 1; i <= iterations; i++) {
+            IterationSample sample = runIteration(session, driver, journey, i, report);
+            if (sample != null) {
+                sample.setWarmUp(i <= warmUp);
+                report.getSamples().add(sample);
+            }
+        }
+
+        report.setTrends(fitTrends(report.getSamples()));
+        boolean suspicious = report.getTrends().stream().anyMatch(MetricTrend::isSuspicious);
+        if (suspicious) {
+            report.setVerdict(Verdict.SUSPECTED);
+            if (Boolean.parseBoolean(ConfigManager.getProperty("leak.snapshot.enabled", "true"))) {
+                diffSnapshots(session, driver, journey, report);
+            }
+        }
+
+        session.getHeapProfiler().disable();
+        session.getPerformance().disable();
+        System.out.println(String.format("🧪 Leak soak %s: %s", name, report.getVerdict()));
+        return report;
+    }
+
+    private static IterationSample runIteration(ChromeDevToolsService session, WebDriver driver, Consumer<WebDriver> journey,
+                                                int iteration, LeakReport report) {
+        long start = System.nanoTime();
+        try {
+            journey.accept(driver);
+        } catch (Exception e) {
+            report.setFailedIterations(report.getFailedIterations() + 1);
+            logger.warn("Leak soak iteration {} failed: {}", iteration, e.getMessage());
+            return null;
+        }
+        IterationSample sample = new IterationSample();
+        sample.setIteration(iteration);
+        sample.setJourneyMs((System.nanoTime() - start) / 1e6);
+        sample.setMetrics(sampleMetrics(session));
+        return sample;
+    }
+
+    /**
+     * Metrics after a full GC, so only what the page still references is counted
+     */
+    private static Map<String, Double> sampleMetrics(ChromeDevToolsService session) {
+        session.getHeapProfiler().collectGarbage();
+        Map<String, Double> values = new LinkedHashMap<>();
+        for (Metric metric : session.getPerformance().getMetrics()) {
+            for (String name : METRICS) {
+                if (name.equals(metric.getName()) && metric.getValue() != null) {
+                    values.put(name, metric.getValue());
+                }
+            }
+        }
+        return values;
+    }
+
+    static List<MetricTrend> fitTrends(List<IterationSample> samples) {
+        Map<String, Double> thresholds = new LinkedHashMap<>();
+        thresholds.put(HEAP, Double.parseDouble(ConfigManager.getProperty("leak.heap.growth.kb", "100")) * 1024);
+        thresholds.put(NODES, Double.parseDouble(ConfigManager.getProperty("leak.nodes.growth", "50")));
+        thresholds.put(LISTENERS, Double.parseDouble(ConfigManager.getProperty("leak.listeners.growth", "10")));
+        thresholds.put(DOCUMENTS, Double.parseDouble(ConfigManager.getProperty("leak.documents.growth", "0.5")));
+        double minCorrelation = Double.parseDouble(ConfigManager.getProperty("leak.min.correlation", "0.8"));
+
+        List<MetricTrend> trends = new ArrayList<>();
+        for (Map.Entry<String, Double> threshold : thresholds.entrySet()) {
+            List<double[]> points = new ArrayList<>();
+            for (IterationSample sample : samples) {
+                Double value = sample.getMetrics().get(threshold.getKey());
+                if (!sample.isWarmUp() && value != null) {
+                    points.add(new double[]{sample.getIteration(), value});
+                }
+            }
+            if (points.size() < 3) {
+                continue;
+            }
+            double[] fit = fit(points);
+            MetricTrend trend = new MetricTrend();
+            trend.setMetric(threshold.getKey());
+            trend.setGrowthPerIteration(fit[0]);
+            trend.setCorrelation(fit[1]);
+            trend.setThreshold(threshold.getValue());
+            trend.setSuspicious(fit[0] >= threshold.getValue() && fit[1] >= minCorrelation);
+            trends.add(trend);
+        }
+        return trends;
+    }
+
+    /**
+     * Least-squares slope and Pearson correlation of value against iteration
+     */
+    private static double[] fit(List<double[]> points) {
+        double meanX = points.stream().mapToDouble(p -> p[0]).average().orElse(0);
+        double meanY = points.stream().mapToDouble(p -> p[1]).average().orElse(0);
+        double sxy = 0;
+        double sxx = 0;
+        double syy = 0;
+        for (double[] point : points) {
+            sxy += (point[0] - meanX) * (point[1] - meanY);
+            sxx += (point[0] - meanX) * (point[0] - meanX);
+            syy += (point[1] - meanY) * (point[1] - meanY);
+        }
+        double slope = sxx > 0 ? sxy / sxx : 0;
+        double correlation = sxx > 0 && syy > 0 ? sxy / Math.sqrt(sxx * syy) : 0;
+        return new double[]{slope, correlation};
+    }
+
+    /**
+     * Snapshot, run leak.snapshot.iterations more journeys, snapshot again and diff constructors
+     */
+    private static void diffSnapshots(ChromeDevToolsService session, WebDriver driver, Consumer<WebDriver> journey,
+                                      LeakReport report) {
+        int snapshotIterations = ConfigManager.getIntProperty("leak.snapshot.iterations", 3);
+        boolean keep = Boolean.parseBoolean(ConfigManager.getProperty("leak.snapshot.keep", "false"));
+        Path dir = Paths.get(ConfigManager.getProperty("leak.snapshot.dir", "target/heap-snapshots"));
+        String prefix = report.getName().replaceAll("[^a-zA-Z0-9]", "_") + "_" + System.currentTimeMillis();
+        Path before = dir.resolve(prefix + "_before.heapsnapshot");
+        Path after = dir.resolve(prefix + "_after.heapsnapshot");
+
+        try {
+            Files.createDirectories(dir);
+            takeSnapshot(session, before);
+            int completed = 0;
+            for (int i = 1; i <= snapshotIterations; i++) {
+                if (runIteration(session, driver, journey, report.getIterations() + i, report) != null) {
+                    completed++;
+                }
+            }
+            takeSnapshot(session, after);
+            report.setSnapshotIterations(completed);
+
+            List<ConstructorGrowth> growth = diff(summarizeSnapshot(before), summarizeSnapshot(after));
+            int top = ConfigManager.getIntProperty("leak.top.constructors", 15);
+            report.setGrowingConstructors(growth.subList(0, Math.min(top, growth.size())));
+            if (completed > 0 && !growth.isEmpty() && growth.get(0).getCountDelta() >= completed) {
+                report.setVerdict(Verdict.LEAK);
+            }
+            if (keep) {
+                report.getSnapshotFiles().add(before.toString());
+                report.getSnapshotFiles().add(after.toString());
+            }
+        } catch (Exception e) {
+            logger.warn("Heap snapshot diff failed for {}: {}", report.getName(), e.getMessage());
+        } finally {
+            if (!keep) {
+                deleteQuietly(before);
+                deleteQuietly(after);
+            }
+        }
+    }
+
+    /**
+     * Stream a heap snapshot to a file chunk by chunk. Chunks arrive as events that may still be
+     * delivered after the command returns, so the file is closed once they stop coming.
+     */
+    static void takeSnapshot(ChromeDevToolsService session, Path file) throws IOException {
+        HeapProfiler heapProfiler = session.getHeapProfiler();
+        AtomicLong lastChunkNanos = new AtomicLong(System.nanoTime());
+        IOException[] writeFailure = new IOException[1];
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            EventListener listener = heapProfiler.onAddHeapSnapshotChunk(event -> {
+                synchronized (writer) {
+                    try {
+                        writer.write(event.getChunk());
+                    } catch (IOException e) {
+                        writeFailure[0] = e;
+                    }
+                    lastChunkNanos.set(System.nanoTime());
+                }
+            });
+            try {
+                heapProfiler.collectGarbage();
+                heapProfiler.takeHeapSnapshot(false, false);
+                long deadline = System.nanoTime() + SNAPSHOT_TIMEOUT_MS * 1_000_000;
+                while (System.nanoTime() - lastChunkNanos.get() < SNAPSHOT_QUIET_MS * 1_000_000 && System.nanoTime() < deadline) {
+                    Thread.sleep(50);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                listener.unsubscribe();
+            }
+            synchronized (writer) {
+                if (writeFailure[0] != null) {
+                    throw writeFailure[0];
+                }
+            }
+        }
+        logger.info("Heap snapshot written to {} ({} KB)", file, Files.size(file) / 1024);
+    }
+
+    /**
+     * Object count and shallow size per constructor, read from a .heapsnapshot without keeping
+     * its nodes or edges. "object" and "native" nodes are grouped by name (detached DOM shows up
+     * as e.g. "Detached HTMLDivElement"), everything else by "(type)".
+     */
+    static Map<String, long[]> summarizeSnapshot(Path file) throws IOException {
+        try (JsonParser parser = objectMapper.getFactory().createParser(file.toFile())) {
+            JsonNode meta = null;
+            Map<Long, long[]> byName = new HashMap<>();
+            Map<String, long[]> byType = new HashMap<>();
+            List<String> strings = null;
+
+            parser.nextToken();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                parser.nextToken();
+                if ("snapshot".equals(field)) {
+                    meta = objectMapper.readValue(parser, JsonNode.class).path("meta");
+                } else if ("nodes".equals(field) && meta != null) {
+                    readNodes(parser, meta, byName, byType);
+                } else if ("strings".equals(field)) {
+                    strings = objectMapper.readValue(parser, new TypeReference<List<String>>(){});
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            if (meta == null || strings == null) {
+                throw new IOException("Incomplete heap snapshot " + file);
+            }
+
+            Map<String, long[]> summary = new HashMap<>(byType);
+            for (Map.Entry<Long, long[]> entry : byName.entrySet()) {
+                summary.merge(strings.get(entry.getKey().intValue()), entry.getValue(),
+                    (a, b) -> new long[]{a[0] + b[0], a[1] + b[1]});
+            }
+            return summary;
+        }
+    }
+
+    private static void readNodes(JsonParser parser, JsonNode meta, Map<Long, long[]> byName, Map<String, long[]> byType)
+            throws IOException {
+        List<String> fields = new ArrayList<>();
+        meta.path("node_fields").forEach(field -> fields.add(field.asText()));
+        List<String> types = new ArrayList<>();
+        meta.path("node_types").path(0).forEach(type -> types.add(type.asText()));
+        int fieldCount = fields.size();
+        int typeField = fields.indexOf("type");
+        int nameField = fields.indexOf("name");
+        int sizeField = fields.indexOf("self_size");
+
+        long[] node = new long[fieldCount];
+        int position = 0;
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            node[position++] = parser.getLongValue();
+            if (position < fieldCount) {
+                continue;
+            }
+            position = 0;
+            String type = (int) node[typeField] < types.size() ? types.get((int) node[typeField]) : "unknown";
+            long[] totals = "object".equals(type) || "native".equals(type)
+                ? byName.computeIfAbsent(node[nameField], key -> new long[2])
+                : byType.computeIfAbsent("(" + type + ")", key -> new long[2]);
+            totals[0]++;
+            totals[1] += node[sizeField];
+        }
+    }
+
+    /**
+     * Constructors that gained objects, largest count growth first
+     */
+    static List<ConstructorGrowth> diff(Map<String, long[]> before, Map<String, long[]> after) {
+        List<ConstructorGrowth> growth = new ArrayList<>();
+        for (Map.Entry<String, long[]> entry : after.entrySet()) {
+            long[] previous = before.getOrDefault(entry.getKey(), new long[2]);
+            if (entry.getValue()[0] > previous[0]) {
+                ConstructorGrowth constructor = new ConstructorGrowth();
+                constructor.setConstructor(entry.getKey());
+                constructor.setCountBefore(previous[0]);
+                constructor.setCountAfter(entry.getValue()[0]);
+                constructor.setSizeBefore(previous[1]);
+                constructor.setSizeAfter(entry.getValue()[1]);
+                growth.add(constructor);
+            }
+        }
+        growth.sort((a, b) -> Long.compare(b.getCountDelta(), a.getCountDelta()));
+        return growth;
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.debug("Could not delete {}: {}", file, e.getMessage());
+        }
+    }
+
+    public static void attachToAllure(LeakReport report) {
+        StringBuilder summary = new StringBuilder();
+        summary.append("# Memory Leak Soak: ").append(report.getName()).append("\n\n");
+        String icon = report.getVerdict() == Verdict.LEAK ? "❌" : report.getVerdict() == Verdict.SUSPECTED ? "⚠️" : "✅";
+        summary.append(String.format("%s **%s** after %d iterations (%d warm-up, %d failed)%n%n", icon, report.getVerdict(),
+            report.getIterations(), report.getWarmUpIterations(), report.getFailedIterations()));
+
+        summary.append("## Growth per Iteration\n\n");
+        summary.append("| Metric | Growth | Correlation | Threshold | Suspicious |\n");
+        summary.append("|--------|--------|-------------|-----------|------------|\n");
+        for (MetricTrend trend : report.getTrends()) {
+            boolean heap = HEAP.equals(trend.getMetric());
+            summary.append(String.format("| %s | %s | %.2f | %s | %s |%n", trend.getMetric(),
+                heap ? String.format("%.1f KB", trend.getGrowthPerIteration() / 1024) : String.format("%.1f", trend.getGrowthPerIteration()),
+                trend.getCorrelation(),
+                heap ? String.format("%.0f KB", trend.getThreshold() / 1024) : String.format("%.1f", trend.getThreshold()),
+                trend.isSuspicious() ? "⚠️" : "✅"));
+        }
+
+        if (!report.getGrowingConstructors().isEmpty()) {
+            summary.append(String.format("%n## Top Growing Constructors (%d iterations between snapshots)%n%n", report.getSnapshotIterations()));
+            summary.append("| Constructor | Before | After | Δ Count | Δ Size |\n");
+            summary.append("|-------------|--------|-------|---------|--------|\n");
+            for (ConstructorGrowth constructor : report.getGrowingConstructors()) {
+                summary.append(String.format("| %s | %d | %d | +%d | %+.1f KB |%n", constructor.getConstructor(),
+                    constructor.getCountBefore(), constructor.getCountAfter(), constructor.getCountDelta(),
+                    constructor.getSizeDelta() / 1024.0));
+            }
+        }
+
+        Allure.addAttachment("Memory Leak Soak - " + report.getName(), "text/markdown",
+            new ByteArrayInputStream(summary.toString().getBytes(StandardCharsets.UTF_8)), ".md");
+        Allure.addAttachment("Memory Leak Samples (CSV)", "text/csv",
+            new ByteArrayInputStream(toCsv(report).getBytes(StandardCharsets.UTF_8)), ".csv");
+        Allure.parameter("Leak Verdict", report.getVerdict().name());
+
+        try {
+            storeHistory(report);
+        } catch (IOException e) {
+            logger.warn("Failed to store leak soak history", e);
+        }
+    }
+
+    private static String toCsv(LeakReport report) {
+        StringBuilder csv = new StringBuilder("iteration,warm_up,journey_ms,js_heap_used_bytes,nodes,js_event_listeners,documents\n");
+        for (IterationSample sample : report.getSamples()) {
+            csv.append(String.format("%d,%s,%.0f,%.0f,%.0f,%.0f,%.0f%n", sample.getIteration(), sample.isWarmUp(),
+                sample.getJourneyMs(), sample.getMetrics().getOrDefault(HEAP, 0.0), sample.getMetrics().getOrDefault(NODES, 0.0),
+                sample.getMetrics().getOrDefault(LISTENERS, 0.0), sample.getMetrics().getOrDefault(DOCUMENTS, 0.0)));
+        }
+        return csv.toString();
+    }
+
+    /**
+     * Append to performance-history/<name>_leak.json, keeping the last 100 soaks
+     */
+    private static void storeHistory(LeakReport report) throws IOException {
+        Files.createDirectories(Paths.get(PERFORMANCE_DATA_DIR));
+        String fileName = report.getName().replaceAll("[^a-zA-Z0-9]", "_") + "_leak.json";
+        Path filePath = Paths.get(PERFORMANCE_DATA_DIR, fileName);
+
+        List<LeakReport> history = new ArrayList<>();
+        if (Files.exists(filePath)) {
+            try {
+                history = objectMapper.readValue(Files.readString(filePath), new TypeReference<List<LeakReport>>(){});
+            } catch (Exception e) {
+                logger.warn("Failed to load existing leak soak history, starting fresh", e);
+            }
+        }
+        history.add(report);
+        if (history.size() > 100) {
+            history = history.subList(history.size() - 100, history.size());
+        }
+        Files.writeString(filePath, objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(history));
+    }
+}
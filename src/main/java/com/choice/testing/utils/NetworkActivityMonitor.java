@@ -0,0 +1,124 @@
+package com.choice.testing.utils;
+
+import com.github.kklisura.cdt.protocol.commands.Network;
+import com.github.kklisura.cdt.protocol.support.types.EventListener;
+import com.github.kklisura.cdt.protocol.types.network.ResourceType;
+import com.github.kklisura.cdt.services.ChromeDevToolsService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tracks in-flight requests of the current page through CDP Network events, so waits
+ * can end as soon as the network goes quiet instead of sleeping a fixed time.
+ * Requests that started before the monitor attached are not seen, which is why
+ * BaseTest starts it right after the driver is created.
+ */
+public class NetworkActivityMonitor {
+
+    private static final Logger logger = LoggerFactory.getLogger(NetworkActivityMonitor.class);
+    private static final ThreadLocal<NetworkActivityMonitor> currentMonitor = new ThreadLocal<>();
+
+    private final ChromeDevToolsService session;
+    private final List<EventListener> listeners = new ArrayList<>();
+    private final Set<String> inflight = ConcurrentHashMap.newKeySet();
+    private volatile long lastActivityNanos = System.nanoTime();
+
+    private NetworkActivityMonitor(ChromeDevToolsService session) {
+        this.session = session;
+    }
+
+    /**
+     * The current thread's monitor, attaching one to the DevTools session if needed.
+     * Returns null when CDP is not available (Firefox, mobile).
+     */
+    public static NetworkActivityMonitor startForCurrentSession() {
+        NetworkActivityMonitor existing = currentMonitor.get();
+        if (existing != null && !existing.session.isClosed()) {
+            return existing;
+        }
+        currentMonitor.remove();
+
+        ChromeDevToolsService session = DevToolsSessionManager.getSession();
+        if (session == null) {
+            return null;
+        }
+
+        NetworkActivityMonitor monitor = new NetworkActivityMonitor(session);
+        try {
+            monitor.attach();
+        } catch (Exception e) {
+            logger.warn("Could not enable CDP network tracking: {}", e.getMessage());
+            return null;
+        }
+        currentMonitor.set(monitor);
+        return monitor;
+    }
+
+    public static void stopCurrent() {
+        NetworkActivityMonitor monitor = currentMonitor.get();
+        currentMonitor.remove();
+        if (monitor != null) {
+            monitor.detach();
+        }
+    }
+
+    private void attach() {
+        Network network = session.getNetwork();
+
+        listeners.add(network.onRequestWillBeSent(event -> {
+            // Long-lived streams never finish and would keep the page "busy" forever
+            if (event.getType() == ResourceType.EVENT_SOURCE || event.getType() == ResourceType.WEB_SOCKET) {
+                return;
+            }
+            String url = event.getRequest() != null ? event.getRequest().getUrl() : null;
+            if (url != null && url.startsWith("data:")) {
+                return;
+            }
+            inflight.add(event.getRequestId());
+            lastActivityNanos = System.nanoTime();
+        }));
+        listeners.add(network.onLoadingFinished(event -> {
+            inflight.remove(event.getRequestId());
+            lastActivityNanos = System.nanoTime();
+        }));
+        listeners.add(network.onLoadingFailed(event -> {
+            inflight.remove(event.getRequestId());
+            lastActivityNanos = System.nanoTime();
+        }));
+
+        network.enable();
+    }
+
+    private void detach() {
+        for (EventListener listener : listeners) {
+            try {
+                listener.unsubscribe();
+            } catch (Exception e) {
+                // Session already closed
+            }
+        }
+        listeners.clear();
+        inflight.clear();
+    }
+
+    public int getInflightCount() {
+        return inflight.size();
+    }
+
+    public long getQuietMillis() {
+        return (System.nanoTime() - lastActivityNanos) / 1_000_000L;
+    }
+
+    /**
+     * Idle means at most maxInflight requests open and no request started or
+     * finished for quietMs
+     */
+    public boolean isIdle(long quietMs, int maxInflight) {
+        return inflight.size() <= maxInflight && getQuietMillis() >= quietMs;
+    }
+}
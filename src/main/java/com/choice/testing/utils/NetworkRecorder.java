@@ -0,0 +1,980 @@
+package com.choice.testing.utils;
+
+import com.choice.testing.config.ConfigManager;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.github.kklisura.cdt.protocol.commands.Network;
+import com.github.kklisura.cdt.protocol.events.network.LoadingFailed;
+import com.github.kklisura.cdt.protocol.events.network.LoadingFinished;
+import com.github.kklisura.cdt.protocol.events.network.RequestWillBeSent;
+import com.github.kklisura.cdt.protocol.events.network.ResponseReceived;
+import com.github.kklisura.cdt.protocol.support.types.EventListener;
+import com.github.kklisura.cdt.protocol.types.network.Response;
+import com.github.kklisura.cdt.protocol.types.network.ResourceTiming;
+import com.github.kklisura.cdt.services.ChromeDevToolsService;
+import io.qameta.allure.Allure;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Network waterfall of the current session from CDP Network events, split by test step.
+ *
+ * Every request gets one row in preallocated column arrays: timing phases (queueing, DNS,
+ * connect, TLS, send, TTFB, download), transfer size, priority, initiator and cache status.
+ * Recording an event only writes into those arrays, so it costs the page and the JVM next
+ * to nothing; rows are turned into objects when the report is built. Redirects get a row
+ * per hop. Rows beyond network.recorder.capacity are dropped and counted.
+ */
+public class NetworkRecorder {
+
+    private static final Logger logger = LoggerFactory.getLogger(NetworkRecorder.class);
+    private static final ObjectMapper objectMapper = new ObjectMapper()
+        .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    private static final ThreadLocal<NetworkRecorder> currentRecorder = new ThreadLocal<>();
+    private static final String PERFORMANCE_DATA_DIR = "performance-history";
+    private static final String DEFAULT_STEP = "Setup";
+
+    public static final byte CACHE_NONE = 0;
+    public static final byte CACHE_MEMORY = 1;
+    public static final byte CACHE_DISK = 2;
+    public static final byte CACHE_SERVICE_WORKER = 3;
+    public static final byte CACHE_PREFETCH = 4;
+    private static final String[] CACHE_NAMES = {"network", "memory", "disk", "service-worker", "prefetch"};
+
+    private final ChromeDevToolsService session;
+    private final List<EventListener> listeners = new ArrayList<>();
+    private final int capacity;
+
+    // One row per request (per redirect hop), preallocated
+    private final String[] url;
+    private final String[] method;
+    private final String[] resourceType;
+    private final String[] priority;
+    private final String[] initiator;
+    private final String[] mimeType;
+    private final String[] protocol;
+    private final String[] remoteAddress;
+    private final String[] postData;
+    private final String[] requestContentType;
+    private final short[] step;
+    private final byte[] cacheStatus;
+    private final int[] status;
+    private final boolean[] failed;
+    private final boolean[] finished;
+    private final double[] wallTime;
+    private final double[] startTime;
+    private final double[] endTime;
+    private final double[] blockedMs;
+    private final double[] dnsMs;
+    private final double[] connectMs;
+    private final double[] tlsMs;
+    private final double[] sendMs;
+    private final double[] ttfbMs;
+    private final double[] downloadMs;
+    private final long[] transferBytes;
+    private int rowCount;
+    private int droppedRows;
+
+    // Row of the latest hop per CDP requestId; headers-received time is kept to split off the download
+    private final Map<String, Integer> rowByRequestId = new HashMap<>();
+    private final double[] headersEndTime;
+
+    private final List<String> stepNames = new ArrayList<>();
+    private final List<String> firstPartyDomains = new ArrayList<>();
+
+    /**
+     * One request as shown in the waterfall. Phases that did not happen (reused
+     * connection, cache hit) are -1, as in HAR.
+     */
+    public static class RequestRecord {
+        private String step;
+        private String url;
+        private String method;
+        private String resourceType;
+        private String priority;
+        private String initiator;
+        private String mimeType;
+        private String protocol;
+        private String remoteAddress;
+        private String postData;
+        private String requestContentType;
+        private String cacheStatus;
+        private int status;
+        private boolean failed;
+        private boolean thirdParty;
+        private double wallTime;
+        private double startOffsetMs;
+        private double totalMs;
+        private double blockedMs;
+        private double dnsMs;
+        private double connectMs;
+        private double tlsMs;
+        private double sendMs;
+        private double ttfbMs;
+        private double downloadMs;
+        private long transferBytes;
+
+        // Getters and setters
+        public String getStep() { return step; }
+        public void setStep(String step) { this.step = step; }
+
+        public String getUrl() { return url; }
+        public void setUrl(String url) { this.url = url; }
+
+        public String getMethod() { return method; }
+        public void setMethod(String method) { this.method = method; }
+
+        public String getResourceType() { return resourceType; }
+        public void setResourceType(String resourceType) { this.resourceType = resourceType; }
+
+        public String getPriority() { return priority; }
+        public void setPriority(String priority) { this.priority = priority; }
+
+        public String getInitiator() { return initiator; }
+        public void setInitiator(String initiator) { this.initiator = initiator; }
+
+        public String getMimeType() { return mimeType; }
+        public void setMimeType(String mimeType) { this.mimeType = mimeType; }
+
+        public String getProtocol() { return protocol; }
+        public void setProtocol(String protocol) { this.protocol = protocol; }
+
+        public String getRemoteAddress() { return remoteAddress; }
+        public void setRemoteAddress(String remoteAddress) { this.remoteAddress = remoteAddress; }
+
+        // Request body as sent, when Chrome included it in the event (small bodies only)
+        public String getPostData() { return postData; }
+        public void setPostData(String postData) { this.postData = postData; }
+
+        public String getRequestContentType() { return requestContentType; }
+        public void setRequestContentType(String requestContentType) { this.requestContentType = requestContentType; }
+
+        public String getCacheStatus() { return cacheStatus; }
+        public void setCacheStatus(String cacheStatus) { this.cacheStatus = cacheStatus; }
+
+        public int getStatus() { return status; }
+        public void setStatus(int status) { this.status = status; }
+
+        public boolean isFailed() { return failed; }
+        public void setFailed(boolean failed) { this.failed = failed; }
+
+        public boolean isThirdParty() { return thirdParty; }
+        public void setThirdParty(boolean thirdParty) { this.thirdParty = thirdParty; }
+
+        public double getWallTime() { return wallTime; }
+        public void setWallTime(double wallTime) { this.wallTime = wallTime; }
+
+        public double getStartOffsetMs() { return startOffsetMs; }
+        public void setStartOffsetMs(double startOffsetMs) { this.startOffsetMs = startOffsetMs; }
+
+        public double getTotalMs() { return totalMs; }
+        public void setTotalMs(double totalMs) { this.totalMs = totalMs; }
+
+        public double getBlockedMs() { return blockedMs; }
+        public void setBlockedMs(double blockedMs) { this.blockedMs = blockedMs; }
+
+        public double getDnsMs() { return dnsMs; }
+        public void setDnsMs(double dnsMs) { this.dnsMs = dnsMs; }
+
+        public double getConnectMs() { return connectMs; }
+        public void setConnectMs(double connectMs) { this.connectMs = connectMs; }
+
+        public double getTlsMs() { return tlsMs; }
+        public void setTlsMs(double tlsMs) { this.tlsMs = tlsMs; }
+
+        public double getSendMs() { return sendMs; }
+        public void setSendMs(double sendMs) { this.sendMs = sendMs; }
+
+        public double getTtfbMs() { return ttfbMs; }
+        public void setTtfbMs(double ttfbMs) { this.ttfbMs = ttfbMs; }
+
+        public double getDownloadMs() { return downloadMs; }
+        public void setDownloadMs(double downloadMs) { this.downloadMs = downloadMs; }
+
+        public long getTransferBytes() { return transferBytes; }
+        public void setTransferBytes(long transferBytes) { this.transferBytes = transferBytes; }
+    }
+
+    public static class StepSummary {
+        private String name;
+        private int requestCount;
+        private int failedCount;
+        private int cachedCount;
+        private long transferBytes;
+        private long thirdPartyBytes;
+        private int thirdPartyCount;
+        private double medianTtfbMs;
+        private Map<String, Long> bytesByType = new LinkedHashMap<>();
+        private List<RequestRecord> slowestRequests = new ArrayList<>();
+
+        // Getters and setters
+        public String getName() { return name; }
+        public void setName(String name) { this.name = name; }
+
+        public int getRequestCount() { return requestCount; }
+        public void setRequestCount(int requestCount) { this.requestCount = requestCount; }
+
+        public int getFailedCount() { return failedCount; }
+        public void setFailedCount(int failedCount) { this.failedCount = failedCount; }
+
+        public int getCachedCount() { return cachedCount; }
+        public void setCachedCount(int cachedCount) { this.cachedCount = cachedCount; }
+
+        public long getTransferBytes() { return transferBytes; }
+        public void setTransferBytes(long transferBytes) { this.transferBytes = transferBytes; }
+
+        public long getThirdPartyBytes() { return thirdPartyBytes; }
+        public void setThirdPartyBytes(long thirdPartyBytes) { this.thirdPartyBytes = thirdPartyBytes; }
+
+        public int getThirdPartyCount() { return thirdPartyCount; }
+        public void setThirdPartyCount(int thirdPartyCount) { this.thirdPartyCount = thirdPartyCount; }
+
+        public double getMedianTtfbMs() { return medianTtfbMs; }
+        public void setMedianTtfbMs(double medianTtfbMs) { this.medianTtfbMs = medianTtfbMs; }
+
+        public Map<String, Long> getBytesByType() { return bytesByType; }
+        public void setBytesByType(Map<String, Long> bytesByType) { this.bytesByType = bytesByType; }
+
+        public List<RequestRecord> getSlowestRequests() { return slowestRequests; }
+        public void setSlowestRequests(List<RequestRecord> slowestRequests) { this.slowestRequests = slowestRequests; }
+
+        public double getThirdPartyShare() {
+            return transferBytes > 0 ? (double) thirdPartyBytes / transferBytes : 0;
+        }
+    }
+
+    public static class NetworkReport {
+        private String testName;
+        private String recordedAt;
+        private String throttlingProfile;
+        private int droppedRequests;
+        private List<StepSummary> steps = new ArrayList<>();
+        private StepSummary total;
+        private final List<RequestRecord> requests = new ArrayList<>();
+
+        // Getters and setters
+        public String getTestName() { return testName; }
+        public void setTestName(String testName) { this.testName = testName; }
+
+        public String getRecordedAt() { return recordedAt; }
+        public void setRecordedAt(String recordedAt) { this.recordedAt = recordedAt; }
+
+        // Test-level ThrottlingProfile, so runs under different profiles can be told apart
+        public String getThrottlingProfile() { return throttlingProfile; }
+        public void setThrottlingProfile(String throttlingProfile) { this.throttlingProfile = throttlingProfile; }
+
+        public int getDroppedRequests() { return droppedRequests; }
+        public void setDroppedRequests(int droppedRequests) { this.droppedRequests = droppedRequests; }
+
+        public List<StepSummary> getSteps() { return steps; }
+        public void setSteps(List<StepSummary> steps) { this.steps = steps; }
+
+        public StepSummary getTotal() { return total; }
+        public void setTotal(StepSummary total) { this.total = total; }
+
+        // Full request list - attached to Allure and exported as HAR, not stored in history
+        public List<RequestRecord> requests() { return requests; }
+
+        /**
+         * Metrics in the shape expected by PerformanceRegressionTracker (lower is better)
+         */
+        public Map<String, Double> toExtraMetrics() {
+            Map<String, Double> metrics = new LinkedHashMap<>();
+            if (total == null || total.getRequestCount() == 0) {
+                return metrics;
+            }
+            metrics.put("Network Requests", (double) total.getRequestCount());
+            metrics.put("Network Transfer (KB)", total.getTransferBytes() / 1024.0);
+            metrics.put("Third-Party Transfer (KB)", total.getThirdPartyBytes() / 1024.0);
+            for (StepSummary step : steps) {
+                metrics.put("Network Transfer (KB) - " + step.getName(), step.getTransferBytes() / 1024.0);
+            }
+            return metrics;
+        }
+    }
+
+    private NetworkRecorder(ChromeDevToolsService session, int capacity) {
+        this.session = session;
+        this.capacity = capacity;
+        this.url = new String[capacity];
+        this.method = new String[capacity];
+        this.resourceType = new String[capacity];
+        this.priority = new String[capacity];
+        this.initiator = new String[capacity];
+        this.mimeType = new String[capacity];
+        this.protocol = new String[capacity];
+        this.remoteAddress = new String[capacity];
+        this.postData = new String[capacity];
+        this.requestContentType = new String[capacity];
+        this.step = new short[capacity];
+        this.cacheStatus = new byte[capacity];
+        this.status = new int[capacity];
+        this.failed = new boolean[capacity];
+        this.finished = new boolean[capacity];
+        this.wallTime = new double[capacity];
+        this.startTime = new double[capacity];
+        this.endTime = new double[capacity];
+        this.headersEndTime = new double[capacity];
+        this.blockedMs = new double[capacity];
+        this.dnsMs = new double[capacity];
+        this.connectMs = new double[capacity];
+        this.tlsMs = new double[capacity];
+        this.sendMs = new double[capacity];
+        this.ttfbMs = new double[capacity];
+        this.downloadMs = new double[capacity];
+        this.transferBytes = new long[capacity];
+        this.stepNames.add(DEFAULT_STEP);
+
+        for (String domain : ConfigManager.getProperty("network.first.party.domains", "").split(",")) {
+            if (!domain.trim().isEmpty()) {
+                firstPartyDomains.add(domain.trim().toLowerCase());
+            }
+        }
+    }
+
+    public static boolean isEnabled() {
+        return Boolean.parseBoolean(System.getProperty("network.recorder.enabled",
+            ConfigManager.getProperty("network.recorder.enabled", "true")));
+    }
+
+    /**
+     * Start recording the current thread's session. Returns null when CDP is not available.
+     */
+    public static NetworkRecorder startForCurrentSession() {
+        stopCurrent();
+
+        ChromeDevToolsService session = DevToolsSessionManager.getSession();
+        if (session == null) {
+            return null;
+        }
+
+        NetworkRecorder recorder = new NetworkRecorder(session, ConfigManager.getIntProperty("network.recorder.capacity", 4096));
+        try {
+            recorder.attach();
+        } catch (Exception e) {
+            logger.warn("Could not enable CDP network recording: {}", e.getMessage());
+            return null;
+        }
+        currentRecorder.set(recorder);
+        return recorder;
+    }
+
+    /**
+     * Attribute requests starting from now to a new step (no-op when not recording)
+     */
+    public static void markStep(String stepName) {
+        NetworkRecorder recorder = currentRecorder.get();
+        if (recorder != null) {
+            recorder.mark(stepName);
+        }
+    }
+
+    /**
+     * Network metrics recorded so far on the current thread, empty when not recording
+     */
+    public static Map<String, Double> currentExtraMetrics() {
+        NetworkRecorder recorder = currentRecorder.get();
+        return recorder != null ? recorder.buildReport(null).toExtraMetrics() : new HashMap<>();
+    }
+
+    /**
+     * Hosts of the third-party requests recorded so far on the current thread, heaviest transfer first
+     */
+    public static List<String> currentThirdPartyHosts() {
+        NetworkRecorder recorder = currentRecorder.get();
+        if (recorder == null) {
+            return new ArrayList<>();
+        }
+        Map<String, Long> bytesByHost = new HashMap<>();
+        for (RequestRecord record : recorder.buildReport(null).requests()) {
+            String host = record.isThirdParty() ? host(record.getUrl()) : null;
+            if (host != null) {
+                bytesByHost.merge(host, record.getTransferBytes(), Long::sum);
+            }
+        }
+        List<String> hosts = new ArrayList<>(bytesByHost.keySet());
+        hosts.sort(Comparator.comparing((String host) -> bytesByHost.get(host)).reversed());
+        return hosts;
+    }
+
+    /**
+     * Stop recording, attach the waterfall and HAR to Allure and, if network.recorder.export.history
+     * is set, append the step summaries to the history store
+     */
+    public static NetworkReport stopAndAttachToAllure(String testName) {
+        NetworkRecorder recorder = currentRecorder.get();
+        if (recorder == null) {
+            return null;
+        }
+        currentRecorder.remove();
+        recorder.detach();
+
+        NetworkReport report = recorder.buildReport(testName);
+        if (report.requests().isEmpty()) {
+            return report;
+        }
+        attachReportToAllure(report);
+
+        if (Boolean.parseBoolean(ConfigManager.getProperty("network.recorder.export.history", "false"))) {
+            try {
+                storeReport(report);
+            } catch (Exception e) {
+                logger.warn("Failed to store network summary for {}", testName, e);
+            }
+        }
+
+        // Kept on disk so HarReplay can replay the journey as protocol load
+        String harDir = ConfigManager.getProperty("network.recorder.har.dir", "");
+        if (!harDir.trim().isEmpty()) {
+            try {
+                Files.createDirectories(Paths.get(harDir.trim()));
+                Files.writeString(Paths.get(harDir.trim(), testName.replaceAll("[^a-zA-Z0-9]", "_") + ".har"), toHar(report));
+            } catch (Exception e) {
+                logger.warn("Failed to write HAR for {}", testName, e);
+            }
+        }
+        return report;
+    }
+
+    public static void stopCurrent() {
+        NetworkRecorder recorder = currentRecorder.get();
+        currentRecorder.remove();
+        if (recorder != null) {
+            recorder.detach();
+        }
+    }
+
+    private void attach() {
+        Network network = session.getNetwork();
+        listeners.add(network.onRequestWillBeSent(this::onRequest));
+        listeners.add(network.onResponseReceived(this::onResponse));
+        listeners.add(network.onRequestServedFromCache(event -> onServedFromCache(event.getRequestId())));
+        listeners.add(network.onLoadingFinished(this::onFinished));
+        listeners.add(network.onLoadingFailed(this::onFailed));
+        network.enable();
+    }
+
+    private void detach() {
+        for (EventListener listener : listeners) {
+            try {
+                listener.unsubscribe();
+            } catch (Exception e) {
+                // Session already closed
+            }
+        }
+        listeners.clear();
+    }
+
+    private synchronized void mark(String stepName) {
+        if (stepNames.size() == Short.MAX_VALUE) {
+            return;
+        }
+        stepNames.add(stepName);
+    }
+
+    // CDP event handlers - run on the DevTools client thread
+
+    private synchronized void onRequest(RequestWillBeSent event) {
+        String requestUrl = event.getRequest() != null ? event.getRequest().getUrl() : null;
+        if (requestUrl == null || requestUrl.startsWith("data:")) {
+            return;
+        }
+
+        // A redirect reuses the requestId: close the previous hop with the redirect response
+        Integer previous = rowByRequestId.get(event.getRequestId());
+        if (previous != null && event.getRedirectResponse() != null) {
+            applyResponse(previous, event.getRedirectResponse());
+            completeRow(previous, event.getTimestamp(), event.getRedirectResponse().getEncodedDataLength());
+        }
+
+        if (rowCount == capacity) {
+            droppedRows++;
+            rowByRequestId.remove(event.getRequestId());
+            return;
+        }
+        int row = rowCount++;
+        rowByRequestId.put(event.getRequestId(), row);
+
+        url[row] = requestUrl;
+        method[row] = event.getRequest().getMethod();
+        postData[row] = event.getRequest().getPostData();
+        requestContentType[row] = headerValue(event.getRequest().getHeaders(), "Content-Type");
+        resourceType[row] = event.getType() != null ? event.getType().name().toLowerCase() : "other";
+        priority[row] = event.getRequest().getInitialPriority() != null
+            ? event.getRequest().getInitialPriority().name().toLowerCase() : null;
+        initiator[row] = event.getInitiator() != null && event.getInitiator().getType() != null
+            ? event.getInitiator().getType().name().toLowerCase() : null;
+        step[row] = (short) (stepNames.size() - 1);
+        wallTime[row] = event.getWallTime() != null ? event.getWallTime() : 0;
+        startTime[row] = event.getTimestamp() != null ? event.getTimestamp() : 0;
+        blockedMs[row] = -1;
+        dnsMs[row] = -1;
+        connectMs[row] = -1;
+        tlsMs[row] = -1;
+        sendMs[row] = -1;
+        ttfbMs[row] = -1;
+        downloadMs[row] = -1;
+    }
+
+    private synchronized void onResponse(ResponseReceived event) {
+        Integer row = rowByRequestId.get(event.getRequestId());
+        if (row != null && event.getResponse() != null) {
+            applyResponse(row, event.getResponse());
+        }
+    }
+
+    private synchronized void onServedFromCache(String requestId) {
+        Integer row = rowByRequestId.get(requestId);
+        if (row != null) {
+            cacheStatus[row] = CACHE_MEMORY;
+        }
+    }
+
+    private synchronized void onFinished(LoadingFinished event) {
+        Integer row = rowByRequestId.remove(event.getRequestId());
+        if (row != null) {
+            completeRow(row, event.getTimestamp(), event.getEncodedDataLength());
+        }
+    }
+
+    private synchronized void onFailed(LoadingFailed event) {
+        Integer row = rowByRequestId.remove(event.getRequestId());
+        if (row != null) {
+            failed[row] = true;
+            completeRow(row, event.getTimestamp(), null);
+        }
+    }
+
+    private void applyResponse(int row, Response response) {
+        status[row] = response.getStatus() != null ? response.getStatus() : 0;
+        mimeType[row] = response.getMimeType();
+        protocol[row] = response.getProtocol();
+        remoteAddress[row] = response.getRemoteIPAddress();
+        if (Boolean.TRUE.equals(response.getFromServiceWorker())) {
+            cacheStatus[row] = CACHE_SERVICE_WORKER;
+        } else if (Boolean.TRUE.equals(response.getFromPrefetchCache())) {
+            cacheStatus[row] = CACHE_PREFETCH;
+        } else if (Boolean.TRUE.equals(response.getFromDiskCache())) {
+            cacheStatus[row] = CACHE_DISK;
+        }
+
+        ResourceTiming timing = response.getTiming();
+        if (timing == null || timing.getRequestTime() == null) {
+            return;
+        }
+        // Phase offsets are milliseconds relative to requestTime (seconds); -1 means the phase did not happen
+        double requestTimeMs = timing.getRequestTime() * 1000;
+        dnsMs[row] = phase(timing.getDnsStart(), timing.getDnsEnd());
+        connectMs[row] = phase(timing.getConnectStart(), timing.getConnectEnd());
+        tlsMs[row] = phase(timing.getSslStart(), timing.getSslEnd());
+        sendMs[row] = phase(timing.getSendStart(), timing.getSendEnd());
+        ttfbMs[row] = phase(timing.getSendEnd(), timing.getReceiveHeadersEnd());
+
+        double firstPhase = firstNonNegative(timing.getDnsStart(), timing.getConnectStart(), timing.getSendStart());
+        if (firstPhase >= 0 && startTime[row] > 0) {
+            blockedMs[row] = Math.max(0, requestTimeMs + firstPhase - startTime[row] * 1000);
+        }
+        if (timing.getReceiveHeadersEnd() != null && timing.getReceiveHeadersEnd() >= 0) {
+            headersEndTime[row] = requestTimeMs + timing.getReceiveHeadersEnd();
+        }
+    }
+
+    private void completeRow(int row, Double timestamp, Double encodedDataLength) {
+        finished[row] = true;
+        endTime[row] = timestamp != null ? timestamp : startTime[row];
+        if (encodedDataLength != null) {
+            transferBytes[row] = encodedDataLength.longValue();
+        }
+        if (headersEndTime[row] > 0) {
+            downloadMs[row] = Math.max(0, endTime[row] * 1000 - headersEndTime[row]);
+        }
+    }
+
+    private static String headerValue(Map<String, Object> headers, String name) {
+        if (headers == null) {
+            return null;
+        }
+        for (Map.Entry<String, Object> header : headers.entrySet()) {
+            if (header.getKey().equalsIgnoreCase(name) && header.getValue() != null) {
+                return header.getValue().toString();
+            }
+        }
+        return null;
+    }
+
+    private static double phase(Double start, Double end) {
+        if (start == null || end == null || start < 0 || end < 0) {
+            return -1;
+        }
+        return end - start;
+    }
+
+    private static double firstNonNegative(Double... values) {
+        for (Double value : values) {
+            if (value != null && value >= 0) {
+                return value;
+            }
+        }
+        return -1;
+    }
+
+    // Report building - turns the columns into objects
+
+    private synchronized NetworkReport buildReport(String testName) {
+        NetworkReport report = new NetworkReport();
+        report.setTestName(testName);
+        report.setRecordedAt(LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+        report.setThrottlingProfile(ThrottlingManager.testProfile().getName());
+        report.setDroppedRequests(droppedRows);
+
+        List<String> firstParty = new ArrayList<>(firstPartyDomains);
+        if (firstParty.isEmpty()) {
+            String documentDomain = firstDocumentDomain();
+            if (documentDomain != null) {
+                firstParty.add(documentDomain);
+            }
+        }
+
+        double origin = rowCount > 0 ? startTime[0] : 0;
+        for (int row = 0; row < rowCount; row++) {
+            RequestRecord record = new RequestRecord();
+            record.setStep(stepNames.get(step[row]));
+            record.setUrl(url[row]);
+            record.setMethod(method[row]);
+            record.setResourceType(resourceType[row]);
+            record.setPriority(priority[row]);
+            record.setInitiator(initiator[row]);
+            record.setMimeType(mimeType[row]);
+            record.setProtocol(protocol[row]);
+            record.setRemoteAddress(remoteAddress[row]);
+            record.setPostData(postData[row]);
+            record.setRequestContentType(requestContentType[row]);
+            record.setCacheStatus(CACHE_NAMES[cacheStatus[row]]);
+            record.setStatus(status[row]);
+            record.setFailed(failed[row]);
+            record.setThirdParty(!isFirstParty(url[row], firstParty));
+            record.setWallTime(wallTime[row]);
+            record.setStartOffsetMs((startTime[row] - origin) * 1000);
+            record.setTotalMs(finished[row] ? (endTime[row] - startTime[row]) * 1000 : -1);
+            record.setBlockedMs(blockedMs[row]);
+            record.setDnsMs(dnsMs[row]);
+            record.setConnectMs(connectMs[row]);
+            record.setTlsMs(tlsMs[row]);
+            record.setSendMs(sendMs[row]);
+            record.setTtfbMs(ttfbMs[row]);
+            record.setDownloadMs(downloadMs[row]);
+            record.setTransferBytes(transferBytes[row]);
+            report.requests().add(record);
+        }
+
+        int slowestCount = ConfigManager.getIntProperty("network.recorder.slowest.count", 5);
+        for (String stepName : new LinkedHashSet<>(stepNames)) {
+            List<RequestRecord> stepRequests = new ArrayList<>();
+            for (RequestRecord record : report.requests()) {
+                if (record.getStep().equals(stepName)) {
+                    stepRequests.add(record);
+                }
+            }
+            if (!stepRequests.isEmpty()) {
+                report.getSteps().add(summarize(stepName, stepRequests, slowestCount));
+            }
+        }
+        report.setTotal(summarize("Total", report.requests(), slowestCount));
+        return report;
+    }
+
+    private static StepSummary summarize(String name, List<RequestRecord> requests, int slowestCount) {
+        StepSummary summary = new StepSummary();
+        summary.setName(name);
+        summary.setRequestCount(requests.size());
+
+        List<Double> ttfbs = new ArrayList<>();
+        for (RequestRecord record : requests) {
+            if (record.isFailed()) {
+                summary.setFailedCount(summary.getFailedCount() + 1);
+            }
+            if (!"network".equals(record.getCacheStatus())) {
+                summary.setCachedCount(summary.getCachedCount() + 1);
+            }
+            summary.setTransferBytes(summary.getTransferBytes() + record.getTransferBytes());
+            summary.getBytesByType().merge(record.getResourceType(), record.getTransferBytes(), Long::sum);
+            if (record.isThirdParty()) {
+                summary.setThirdPartyCount(summary.getThirdPartyCount() + 1);
+                summary.setThirdPartyBytes(summary.getThirdPartyBytes() + record.getTransferBytes());
+            }
+            if (record.getTtfbMs() >= 0) {
+                ttfbs.add(record.getTtfbMs());
+            }
+        }
+        if (!ttfbs.isEmpty()) {
+            ttfbs.sort(Double::compare);
+            summary.setMedianTtfbMs(ttfbs.get(ttfbs.size() / 2));
+        }
+
+        List<RequestRecord> slowest = new ArrayList<>(requests);
+        slowest.sort(Comparator.comparingDouble(RequestRecord::getTotalMs).reversed());
+        summary.setSlowestRequests(new ArrayList<>(slowest.subList(0, Math.min(slowestCount, slowest.size()))));
+        return summary;
+    }
+
+    private String firstDocumentDomain() {
+        for (int row = 0; row < rowCount; row++) {
+            if ("document".equals(resourceType[row])) {
+                return registrableDomain(url[row]);
+            }
+        }
+        return null;
+    }
+
+    private static boolean isFirstParty(String requestUrl, List<String> firstParty) {
+        if (firstParty.isEmpty()) {
+            return true;
+        }
+        String host = host(requestUrl);
+        if (host == null) {
+            return true;
+        }
+        for (String domain : firstParty) {
+            if (host.equals(domain) || host.endsWith("." + domain)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Last two labels of the host - good enough for .com sites; list exceptions in network.first.party.domains
+     */
+    static String registrableDomain(String requestUrl) {
+        String host = host(requestUrl);
+        if (host == null) {
+            return null;
+        }
+        String[] labels = host.split("\\.");
+        return labels.length <= 2 ? host : labels[labels.length - 2] + "." + labels[labels.length - 1];
+    }
+
+    private static String host(String requestUrl) {
+        try {
+            String host = URI.create(requestUrl).getHost();
+            return host != null ? host.toLowerCase() : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    // Allure, HAR and history
+
+    public static void attachReportToAllure(NetworkReport report) {
+        StringBuilder summary = new StringBuilder();
+        summary.append("# Network Waterfall\n\n");
+        summary.append("## Test: ").append(report.getTestName()).append("\n\n");
+        summary.append("| Step | Requests | Transfer | Third-Party | Cached | Failed | Median TTFB |\n");
+        summary.append("|------|----------|----------|-------------|--------|--------|-------------|\n");
+        List<StepSummary> rows = new ArrayList<>(report.getSteps());
+        rows.add(report.getTotal());
+        for (StepSummary step : rows) {
+            summary.append("| ").append(step == report.getTotal() ? "**Total**" : step.getName()).append(" | ")
+                   .append(step.getRequestCount()).append(" | ")
+                   .append(String.format("%.1f KB", step.getTransferBytes() / 1024.0)).append(" | ")
+                   .append(String.format("%.0f%% (%d)", step.getThirdPartyShare() * 100, step.getThirdPartyCount())).append(" | ")
+                   .append(step.getCachedCount()).append(" | ")
+                   .append(step.getFailedCount()).append(" | ")
+                   .append(String.format("%.0f ms", step.getMedianTtfbMs())).append(" |\n");
+        }
+
+        summary.append("\n## Transfer by Type\n\n");
+        summary.append("| Type | Transfer |\n");
+        summary.append("|------|----------|\n");
+        report.getTotal().getBytesByType().entrySet().stream()
+            .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+            .forEach(entry -> summary.append("| ").append(entry.getKey()).append(" | ")
+                .append(String.format("%.1f KB", entry.getValue() / 1024.0)).append(" |\n"));
+
+        summary.append("\n## Slowest Requests\n\n");
+        summary.append("| Step | Request | Total | Queue | DNS | Connect | TLS | TTFB | Download | Size |\n");
+        summary.append("|------|---------|-------|-------|-----|---------|-----|------|----------|------|\n");
+        for (RequestRecord record : report.getTotal().getSlowestRequests()) {
+            summary.append("| ").append(record.getStep()).append(" | ")
+                   .append(shorten(record.getUrl())).append(" | ")
+                   .append(formatMs(record.getTotalMs())).append(" | ")
+                   .append(formatMs(record.getBlockedMs())).append(" | ")
+                   .append(formatMs(record.getDnsMs())).append(" | ")
+                   .append(formatMs(record.getConnectMs())).append(" | ")
+                   .append(formatMs(record.getTlsMs())).append(" | ")
+                   .append(formatMs(record.getTtfbMs())).append(" | ")
+                   .append(formatMs(record.getDownloadMs())).append(" | ")
+                   .append(String.format("%.1f KB", record.getTransferBytes() / 1024.0)).append(" |\n");
+        }
+        if (report.getDroppedRequests() > 0) {
+            summary.append("\n⚠️ ").append(report.getDroppedRequests())
+                   .append(" requests not recorded (buffer full)\n");
+        }
+
+        Allure.addAttachment("Network Waterfall", "text/markdown",
+            new ByteArrayInputStream(summary.toString().getBytes(StandardCharsets.UTF_8)), ".md");
+        Allure.addAttachment("Network Requests", "text/csv",
+            new ByteArrayInputStream(requestsCsv(report).getBytes(StandardCharsets.UTF_8)), ".csv");
+        try {
+            Allure.addAttachment("Network HAR", "application/json",
+                new ByteArrayInputStream(toHar(report).getBytes(StandardCharsets.UTF_8)), ".har");
+        } catch (Exception e) {
+            logger.warn("Failed to build HAR for {}", report.getTestName(), e);
+        }
+
+        Allure.parameter("Network Requests", report.getTotal().getRequestCount());
+        Allure.parameter("Network Transfer", String.format("%.1f KB", report.getTotal().getTransferBytes() / 1024.0));
+        Allure.parameter("Third-Party Share", String.format("%.0f%%", report.getTotal().getThirdPartyShare() * 100));
+    }
+
+    private static String requestsCsv(NetworkReport report) {
+        StringBuilder csv = new StringBuilder("step,start_ms,total_ms,blocked_ms,dns_ms,connect_ms,tls_ms,send_ms,ttfb_ms,"
+            + "download_ms,bytes,status,type,priority,initiator,cache,third_party,protocol,method,url\n");
+        for (RequestRecord record : report.requests()) {
+            csv.append(String.format("%s,%.1f,%.1f,%.1f,%.1f,%.1f,%.1f,%.1f,%.1f,%.1f,%d,%d,%s,%s,%s,%s,%s,%s,%s,\"%s\"%n",
+                record.getStep(), record.getStartOffsetMs(), record.getTotalMs(), record.getBlockedMs(),
+                record.getDnsMs(), record.getConnectMs(), record.getTlsMs(), record.getSendMs(), record.getTtfbMs(),
+                record.getDownloadMs(), record.getTransferBytes(), record.getStatus(), record.getResourceType(),
+                record.getPriority(), record.getInitiator(), record.getCacheStatus(), record.isThirdParty(),
+                record.getProtocol(), record.getMethod(), record.getUrl().replace("\"", "\"\"")));
+        }
+        return csv.toString();
+    }
+
+    /**
+     * HAR 1.2 with one page per test step. Headers and response bodies are not captured, so
+     * those fields are empty; connect includes TLS time as the spec requires.
+     */
+    public static String toHar(NetworkReport report) throws Exception {
+        ObjectNode har = objectMapper.createObjectNode();
+        ObjectNode log = har.putObject("log");
+        log.put("version", "1.2");
+        log.putObject("creator").put("name", "EDC-Performance-Testing-Framework").put("version", "1.0");
+
+        ArrayNode pages = log.putArray("pages");
+        Map<String, String> pageIds = new LinkedHashMap<>();
+        for (RequestRecord record : report.requests()) {
+            if (!pageIds.containsKey(record.getStep())) {
+                String pageId = "page_" + (pageIds.size() + 1);
+                pageIds.put(record.getStep(), pageId);
+                ObjectNode page = pages.addObject();
+                page.put("startedDateTime", isoTime(record.getWallTime()));
+                page.put("id", pageId);
+                page.put("title", record.getStep());
+                page.putObject("pageTimings");
+            }
+        }
+
+        ArrayNode entries = log.putArray("entries");
+        for (RequestRecord record : report.requests()) {
+            ObjectNode entry = entries.addObject();
+            entry.put("pageref", pageIds.get(record.getStep()));
+            entry.put("startedDateTime", isoTime(record.getWallTime()));
+            entry.put("time", Math.max(0, record.getTotalMs()));
+
+            ObjectNode request = entry.putObject("request");
+            request.put("method", record.getMethod() != null ? record.getMethod() : "GET");
+            request.put("url", record.getUrl());
+            request.put("httpVersion", record.getProtocol() != null ? record.getProtocol() : "");
+            request.putArray("cookies");
+            request.putArray("headers");
+            request.putArray("queryString");
+            request.put("headersSize", -1);
+            request.put("bodySize", -1);
+            if (record.getPostData() != null) {
+                request.putObject("postData")
+                    .put("mimeType", record.getRequestContentType() != null ? record.getRequestContentType() : "")
+                    .put("text", record.getPostData());
+            }
+
+            ObjectNode response = entry.putObject("response");
+            response.put("status", record.getStatus());
+            response.put("statusText", "");
+            response.put("httpVersion", record.getProtocol() != null ? record.getProtocol() : "");
+            response.putArray("cookies");
+            response.putArray("headers");
+            response.putObject("content")
+                .put("size", record.getTransferBytes())
+                .put("mimeType", record.getMimeType() != null ? record.getMimeType() : "");
+            response.put("redirectURL", "");
+            response.put("headersSize", -1);
+            response.put("bodySize", record.getTransferBytes());
+            response.put("_transferSize", record.getTransferBytes());
+
+            entry.putObject("cache");
+            ObjectNode timings = entry.putObject("timings");
+            timings.put("blocked", record.getBlockedMs());
+            timings.put("dns", record.getDnsMs());
+            timings.put("connect", record.getConnectMs());
+            timings.put("ssl", record.getTlsMs());
+            timings.put("send", Math.max(0, record.getSendMs()));
+            timings.put("wait", Math.max(0, record.getTtfbMs()));
+            timings.put("receive", Math.max(0, record.getDownloadMs()));
+
+            if (record.getRemoteAddress() != null) {
+                entry.put("serverIPAddress", record.getRemoteAddress());
+            }
+            entry.put("_resourceType", record.getResourceType());
+            entry.put("_priority", record.getPriority());
+            entry.put("_initiator", record.getInitiator());
+            entry.put("_cacheStatus", record.getCacheStatus());
+        }
+        return objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(har);
+    }
+
+    /**
+     * Append to performance-history/<test>_network.json, keeping the last 100 runs
+     */
+    private static void storeReport(NetworkReport report) throws Exception {
+        String fileName = report.getTestName().replaceAll("[^a-zA-Z0-9]", "_") + "_network.json";
+        Path filePath = Paths.get(PERFORMANCE_DATA_DIR, fileName);
+        Files.createDirectories(filePath.getParent());
+
+        List<NetworkReport> history = new ArrayList<>();
+        if (Files.exists(filePath)) {
+            try {
+                history = objectMapper.readValue(Files.readString(filePath), new TypeReference<List<NetworkReport>>(){});
+            } catch (Exception e) {
+                logger.warn("Failed to load existing network history, starting fresh", e);
+            }
+        }
+
+        history.add(report);
+        if (history.size() > 100) {
+            history = history.subList(history.size() - 100, history.size());
+        }
+        Files.writeString(filePath, objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(history));
+    }
+
+    private static String isoTime(double wallTimeSeconds) {
+        return Instant.ofEpochMilli((long) (wallTimeSeconds * 1000)).toString();
+    }
+
+    private static String formatMs(double ms) {
+        return ms >= 0 ? String.format("%.0f ms", ms) : "-";
+    }
+
+    private static String shorten(String requestUrl) {
+        return requestUrl.length() > 80 ? requestUrl.substring(0, 77) + "..." : requestUrl;
+    }
+}
@@ -26,6 +26,31 @@ public class PerformanceRegressionTracker {
     private static final ObjectMapper objectMapper = new ObjectMapper();
     private static final String PERFORMANCE_DATA_DIR = "performance-history";
     private static final String BASELINE_FILE = "baseline-metrics.json";
+    private static final double SCORE_REGRESSION_THRESHOLD = 10.0; // 10% decrease in scores
+    private static final double TIMING_REGRESSION_THRESHOLD = 20.0; // 20% increase in timing metrics
+    private static final double CLS_REGRESSION_THRESHOLD = 50.0; // 50% increase in CLS is significant
+    
+    // Extra metrics by name (per-step variants share the rule of their "<name> - <step>" prefix).
+    // All of them are costs, so lower is better. A rise regresses only when it exceeds both the
+    // percentage AND the absolute delta, so small counts such as renderers or requests don't
+    // flip the verdict by moving by one.
+    private static final Map<String, ExtraMetricRule> EXTRA_METRIC_RULES = new HashMap<>();
+    private static final ExtraMetricRule DEFAULT_EXTRA_METRIC_RULE = new ExtraMetricRule(20.0, 0.0);
+    
+    static {
+        EXTRA_METRIC_RULES.put("Chrome Peak RSS (MB)", new ExtraMetricRule(20.0, 50.0));
+        EXTRA_METRIC_RULES.put("Chrome CPU Seconds", new ExtraMetricRule(20.0, 1.0));
+        EXTRA_METRIC_RULES.put("Chrome Peak Renderers", new ExtraMetricRule(50.0, 2.0));
+        EXTRA_METRIC_RULES.put("WebDriver Time (ms)", new ExtraMetricRule(20.0, 500.0));
+        EXTRA_METRIC_RULES.put("Wait Time (ms)", new ExtraMetricRule(20.0, 500.0));
+        EXTRA_METRIC_RULES.put("INP (ms)", new ExtraMetricRule(20.0, 50.0));
+        EXTRA_METRIC_RULES.put("Interaction Latency (ms)", new ExtraMetricRule(20.0, 50.0));
+        EXTRA_METRIC_RULES.put("Network Requests", new ExtraMetricRule(20.0, 10.0));
+        EXTRA_METRIC_RULES.put("Network Transfer (KB)", new ExtraMetricRule(20.0, 100.0));
+        EXTRA_METRIC_RULES.put("Third-Party Transfer (KB)", new ExtraMetricRule(20.0, 50.0));
+        EXTRA_METRIC_RULES.put("Unused JS (KB)", new ExtraMetricRule(20.0, 20.0));
+        EXTRA_METRIC_RULES.put("Unused CSS (KB)", new ExtraMetricRule(20.0, 20.0));
+    }
     
     public static class PerformanceDataPoint {
         private String testName;
@@ -43,6 +68,12 @@ public class PerformanceRegressionTracker {
         private double speedIndex;
         private double totalBlockingTime;
         private double cumulativeLayoutShift;
+        private Map<String, Double> extraMetrics = new HashMap<>();
+        private HostContentionGuard.HostConditions hostConditions;
+        private double benchmarkIndex;
+        private double hostBenchmarkScore;
+        private String throttlingProfile = ThrottlingProfile.NONE.getName();
+        private WebVitalsAttribution attribution;
         
         // Default constructor for Jackson
         public PerformanceDataPoint() {}
@@ -64,6 +95,12 @@ public class PerformanceRegressionTracker {
             this.speedIndex = metrics.getSpeedIndex();
             this.totalBlockingTime = metrics.getTotalBlockingTime();
             this.cumulativeLayoutShift = metrics.getCumulativeLayoutShift();
+            this.extraMetrics = new HashMap<>(metrics.getExtraMetrics());
+            this.hostConditions = metrics.getHostConditions();
+            this.benchmarkIndex = metrics.getBenchmarkIndex();
+            this.hostBenchmarkScore = metrics.getHostBenchmarkScore();
+            this.throttlingProfile = metrics.getThrottlingProfile();
+            this.attribution = metrics.getAttribution();
         }
         
         // Getters and setters
@@ -111,17 +148,48 @@ public class PerformanceRegressionTracker {
         
         public double getCumulativeLayoutShift() { return cumulativeLayoutShift; }
         public void setCumulativeLayoutShift(double cumulativeLayoutShift) { this.cumulativeLayoutShift = cumulativeLayoutShift; }
+        
+        public Map<String, Double> getExtraMetrics() { return extraMetrics; }
+        public void setExtraMetrics(Map<String, Double> extraMetrics) { this.extraMetrics = extraMetrics; }
+        
+        public HostContentionGuard.HostConditions getHostConditions() { return hostConditions; }
+        public void setHostConditions(HostContentionGuard.HostConditions hostConditions) { this.hostConditions = hostConditions; }
+        
+        public double getBenchmarkIndex() { return benchmarkIndex; }
+        public void setBenchmarkIndex(double benchmarkIndex) { this.benchmarkIndex = benchmarkIndex; }
+        
+        public double getHostBenchmarkScore() { return hostBenchmarkScore; }
+        public void setHostBenchmarkScore(double hostBenchmarkScore) { this.hostBenchmarkScore = hostBenchmarkScore; }
+        
+        // Points taken under different throttling profiles are never compared with each other
+        public String getThrottlingProfile() { return throttlingProfile; }
+        public void setThrottlingProfile(String throttlingProfile) { this.throttlingProfile = throttlingProfile; }
+        
+        // LCP element/phases and layout shift sources, diffed against the baseline's on regression
+        public WebVitalsAttribution getAttribution() { return attribution; }
+        public void setAttribution(WebVitalsAttribution attribution) { this.attribution = attribution; }
+        
+        public boolean wasTakenUnderContention() {
+            return hostConditions != null && hostConditions.isContended();
+        }
     }
     
     public static class RegressionAnalysis {
         private boolean hasRegression;
         private List<String> regressionDetails;
         private Map<String, Double> performanceChanges;
+        private Map<String, Double> extraMetricChanges;
+        private List<String> extraMetricRegressions;
+        private List<String> attributionChanges;
         private String severity;
+        private boolean discounted;
         
         public RegressionAnalysis() {
             this.regressionDetails = new ArrayList<>();
             this.performanceChanges = new HashMap<>();
+            this.extraMetricChanges = new HashMap<>();
+            this.extraMetricRegressions = new ArrayList<>();
+            this.attributionChanges = new ArrayList<>();
         }
         
         public boolean hasRegression() { return hasRegression; }
@@ -133,8 +201,23 @@ public class PerformanceRegressionTracker {
         public Map<String, Double> getPerformanceChanges() { return performanceChanges; }
         public void setPerformanceChanges(Map<String, Double> performanceChanges) { this.performanceChanges = performanceChanges; }
         
+        // Kept apart from the core metrics so they don't count towards severity
+        public Map<String, Double> getExtraMetricChanges() { return extraMetricChanges; }
+        public void setExtraMetricChanges(Map<String, Double> extraMetricChanges) { this.extraMetricChanges = extraMetricChanges; }
+        
+        public List<String> getExtraMetricRegressions() { return extraMetricRegressions; }
+        public void setExtraMetricRegressions(List<String> extraMetricRegressions) { this.extraMetricRegressions = extraMetricRegressions; }
+        
+        // What moved behind an LCP or CLS regression; explanations, so not counted towards severity
+        public List<String> getAttributionChanges() { return attributionChanges; }
+        public void setAttributionChanges(List<String> attributionChanges) { this.attributionChanges = attributionChanges; }
+        
         public String getSeverity() { return severity; }
         public void setSeverity(String severity) { this.severity = severity; }
+        
+        // True when the sample was taken under host contention and its findings were not trusted
+        public boolean isDiscounted() { return discounted; }
+        public void setDiscounted(boolean discounted) { this.discounted = discounted; }
     }
     
     /**
@@ -168,19 +251,35 @@ public class PerformanceRegressionTracker {
         RegressionAnalysis analysis = new RegressionAnalysis();
         
         try {
-            // Get baseline metrics
-            PerformanceDataPoint baseline = getBaselineMetrics(testName);
+            // Get baseline metrics for the profile the page was measured under
+            String baselineKey = baselineKey(testName, currentMetrics.getThrottlingProfile());
+            PerformanceDataPoint baseline = getBaselineMetrics(baselineKey);
             if (baseline == null) {
-                logger.info("No baseline found for {}, establishing current run as baseline", testName);
+                logger.info("No baseline found for {}, establishing current run as baseline", baselineKey);
                 recordPerformanceMetrics(currentMetrics, testName, url);
                 return analysis;
             }
             
             // Get recent historical data for trend analysis
-            List<PerformanceDataPoint> recentHistory = getRecentHistory(testName, 10);
+            List<PerformanceDataPoint> recentHistory = getRecentHistory(testName, currentMetrics.getThrottlingProfile(), 10);
             
-            // Analyze against baseline
-            analyzeAgainstBaseline(analysis, currentMetrics, baseline);
+            // Analyze against baseline, optionally scaled to a reference machine first.
+            // Both sides must carry the same kind of index, otherwise the raw values are compared.
+            HostBenchmark.IndexKind indexKind = HostBenchmark.sharedIndexKind(
+                currentMetrics.getBenchmarkIndex(), currentMetrics.getHostBenchmarkScore(),
+                baseline.getBenchmarkIndex(), baseline.getHostBenchmarkScore());
+            if (HostBenchmark.isNormalizationEnabled() && indexKind != null) {
+                Allure.parameter("Normalized To Reference Machine", String.format("%s: current x%.2f, baseline x%.2f", indexKind,
+                    HostBenchmark.scaleFactor(indexKind, currentMetrics.getBenchmarkIndex(), currentMetrics.getHostBenchmarkScore()),
+                    HostBenchmark.scaleFactor(indexKind, baseline.getBenchmarkIndex(), baseline.getHostBenchmarkScore())));
+                analyzeAgainstBaseline(analysis, normalize(currentMetrics, indexKind), normalize(baseline, indexKind));
+            } else {
+                if (HostBenchmark.isNormalizationEnabled()) {
+                    logger.warn("Normalization skipped for {}: current and baseline carry no common benchmark index", baselineKey);
+                    Allure.parameter("Normalized To Reference Machine", "SKIPPED (no common benchmark index)");
+                }
+                analyzeAgainstBaseline(analysis, currentMetrics, baseline);
+            }
             
             // Analyze trends
             analyzeTrends(analysis, currentMetrics, recentHistory);
@@ -188,6 +287,9 @@ public class PerformanceRegressionTracker {
             // Determine severity
             determineSeverity(analysis);
             
+            // Samples taken on a noisy host are reported but don't count as regressions
+            discountIfContended(analysis, currentMetrics);
+            
             // Record current metrics
             recordPerformanceMetrics(currentMetrics, testName, url);
             
@@ -241,7 +343,7 @@ public class PerformanceRegressionTracker {
             baseline.setTimestamp(LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
             
             Map<String, PerformanceDataPoint> baselines = loadBaselines();
-            baselines.put(testName, baseline);
+            baselines.put(baselineKey(testName, metrics.getThrottlingProfile()), baseline);
             saveBaselines(baselines);
             
             logger.info("New baseline set for: {}", testName);
@@ -287,8 +389,10 @@ public class PerformanceRegressionTracker {
         Map<String, PerformanceDataPoint> baselines = loadBaselines();
         
         // Update baseline if this is the first run or if performance is significantly better
-        if (!baselines.containsKey(dataPoint.getTestName())) {
-            baselines.put(dataPoint.getTestName(), dataPoint);
+        // A sample from a contended host is never promoted to baseline
+        String key = baselineKey(dataPoint.getTestName(), dataPoint.getThrottlingProfile());
+        if (!baselines.containsKey(key) && !dataPoint.wasTakenUnderContention()) {
+            baselines.put(key, dataPoint);
             saveBaselines(baselines);
         }
     }
@@ -315,9 +419,19 @@ public class PerformanceRegressionTracker {
         Files.writeString(baselineFile, jsonContent);
     }
     
-    private static PerformanceDataPoint getBaselineMetrics(String testName) throws IOException {
+    private static PerformanceDataPoint getBaselineMetrics(String baselineKey) throws IOException {
         Map<String, PerformanceDataPoint> baselines = loadBaselines();
-        return baselines.get(testName);
+        return baselines.get(baselineKey);
+    }
+    
+    /**
+     * Unthrottled baselines keep the plain test name so existing baseline files stay valid
+     */
+    static String baselineKey(String testName, String throttlingProfile) {
+        if (throttlingProfile == null || ThrottlingProfile.NONE.getName().equals(throttlingProfile)) {
+            return testName;
+        }
+        return testName + " [" + throttlingProfile + "]";
     }
     
     private static List<PerformanceDataPoint> getHistoricalData(String testName) throws IOException {
@@ -337,8 +451,14 @@ public class PerformanceRegressionTracker {
         }
     }
     
-    private static List<PerformanceDataPoint> getRecentHistory(String testName, int count) throws IOException {
-        List<PerformanceDataPoint> history = getHistoricalData(testName);
+    private static List<PerformanceDataPoint> getRecentHistory(String testName, String throttlingProfile, int count) throws IOException {
+        List<PerformanceDataPoint> history = new ArrayList<>();
+        String key = baselineKey(testName, throttlingProfile);
+        for (PerformanceDataPoint point : getHistoricalData(testName)) {
+            if (key.equals(baselineKey(testName, point.getThrottlingProfile()))) {
+                history.add(point);
+            }
+        }
         if (history.size() <= count) {
             return history;
         }
@@ -349,15 +469,11 @@ public class PerformanceRegressionTracker {
                                              LighthouseRunner.LighthouseMetrics current,
                                              PerformanceDataPoint baseline) {
         
-        // Define regression thresholds (percentage decrease)
-        double scoreRegressionThreshold = 10.0; // 10% decrease in scores
-        double timingRegressionThreshold = 20.0; // 20% increase in timing metrics
-        
         // Check performance score
         double perfChange = ((current.getPerformanceScore() - baseline.getPerformanceScore()) / baseline.getPerformanceScore()) * 100;
         analysis.getPerformanceChanges().put("Performance Score", perfChange);
         
-        if (perfChange < -scoreRegressionThreshold) {
+        if (perfChange < -SCORE_REGRESSION_THRESHOLD) {
             analysis.setHasRegression(true);
             analysis.getRegressionDetails().add(String.format("Performance score regressed by %.1f%% (from %.1f%% to %.1f%%)", 
                 Math.abs(perfChange), baseline.getPerformanceScore() * 100, current.getPerformanceScore() * 100));
@@ -367,7 +483,7 @@ public class PerformanceRegressionTracker {
         double lcpChange = ((current.getLargestContentfulPaint() - baseline.getLargestContentfulPaint()) / baseline.getLargestContentfulPaint()) * 100;
         analysis.getPerformanceChanges().put("Largest Contentful Paint", lcpChange);
         
-        if (lcpChange > timingRegressionThreshold) {
+        if (lcpChange > TIMING_REGRESSION_THRESHOLD) {
             analysis.setHasRegression(true);
             analysis.getRegressionDetails().add(String.format("LCP regressed by %.1f%% (from %.0fms to %.0fms)", 
                 lcpChange, baseline.getLargestContentfulPaint(), current.getLargestContentfulPaint()));
@@ -377,23 +493,98 @@ public class PerformanceRegressionTracker {
         double fcpChange = ((current.getFirstContentfulPaint() - baseline.getFirstContentfulPaint()) / baseline.getFirstContentfulPaint()) * 100;
         analysis.getPerformanceChanges().put("First Contentful Paint", fcpChange);
         
-        if (fcpChange > timingRegressionThreshold) {
+        if (fcpChange > TIMING_REGRESSION_THRESHOLD) {
             analysis.setHasRegression(true);
             analysis.getRegressionDetails().add(String.format("FCP regressed by %.1f%% (from %.0fms to %.0fms)", 
                 fcpChange, baseline.getFirstContentfulPaint(), current.getFirstContentfulPaint()));
         }
         
         // Check CLS
+        boolean clsRegressed = false;
         if (baseline.getCumulativeLayoutShift() > 0) {
             double clsChange = ((current.getCumulativeLayoutShift() - baseline.getCumulativeLayoutShift()) / baseline.getCumulativeLayoutShift()) * 100;
             analysis.getPerformanceChanges().put("Cumulative Layout Shift", clsChange);
             
-            if (clsChange > 50.0) { // 50% increase in CLS is significant
+            if (clsChange > CLS_REGRESSION_THRESHOLD) {
+                clsRegressed = true;
                 analysis.setHasRegression(true);
                 analysis.getRegressionDetails().add(String.format("CLS regressed by %.1f%% (from %.3f to %.3f)", 
                     clsChange, baseline.getCumulativeLayoutShift(), current.getCumulativeLayoutShift()));
             }
         }
+        
+        // Say what moved behind an LCP or CLS regression
+        if (lcpChange > TIMING_REGRESSION_THRESHOLD || clsRegressed) {
+            analysis.getAttributionChanges().addAll(WebVitalsAttribution.diff(baseline.getAttribution(), current.getAttribution()));
+        }
+        
+        analyzeExtraMetrics(analysis, current, baseline);
+    }
+    
+    /**
+     * Compare extra metrics (resource usage, step timings, ...) against the baseline,
+     * each by its own percentage threshold and minimum absolute delta. Regressions are
+     * reported apart from the core metrics' and don't count towards severity.
+     */
+    private static void analyzeExtraMetrics(RegressionAnalysis analysis,
+                                            LighthouseRunner.LighthouseMetrics current,
+                                            PerformanceDataPoint baseline) {
+        if (baseline.getExtraMetrics() == null) {
+            return;
+        }
+        
+        for (Map.Entry<String, Double> entry : current.getExtraMetrics().entrySet()) {
+            Double baselineValue = baseline.getExtraMetrics().get(entry.getKey());
+            if (baselineValue == null || baselineValue <= 0 || entry.getValue() == null) {
+                continue;
+            }
+            
+            double change = ((entry.getValue() - baselineValue) / baselineValue) * 100;
+            analysis.getExtraMetricChanges().put(entry.getKey(), change);
+            
+            ExtraMetricRule rule = extraMetricRule(entry.getKey());
+            if (rule.isRegression(baselineValue, entry.getValue())) {
+                analysis.setHasRegression(true);
+                analysis.getExtraMetricRegressions().add(String.format("%s regressed by %.1f%% (from %.2f to %.2f)", 
+                    entry.getKey(), Math.abs(change), baselineValue, entry.getValue()));
+            }
+        }
+    }
+    
+    private static ExtraMetricRule extraMetricRule(String metricName) {
+        int stepSeparator = metricName.indexOf(" - ");
+        String baseName = stepSeparator > 0 ? metricName.substring(0, stepSeparator) : metricName;
+        return EXTRA_METRIC_RULES.getOrDefault(baseName, DEFAULT_EXTRA_METRIC_RULE);
+    }
+    
+    private static class ExtraMetricRule {
+        private final double thresholdPercent;
+        private final double minDelta;
+        
+        ExtraMetricRule(double thresholdPercent, double minDelta) {
+            this.thresholdPercent = thresholdPercent;
+            this.minDelta = minDelta;
+        }
+        
+        boolean isRegression(double baselineValue, double currentValue) {
+            double delta = currentValue - baselineValue;
+            return delta > minDelta && delta / baselineValue * 100 > thresholdPercent;
+        }
+    }
+    
+    private static void discountIfContended(RegressionAnalysis analysis, LighthouseRunner.LighthouseMetrics current) {
+        HostContentionGuard.HostConditions host = current.getHostConditions();
+        if (host == null || !host.isContended()) {
+            return;
+        }
+        
+        analysis.setDiscounted(true);
+        analysis.getRegressionDetails().add("Sample taken under host contention (" + host.getContentionReason() + 
+            ") - findings discounted");
+        if (analysis.hasRegression()) {
+            analysis.setHasRegression(false);
+            analysis.setSeverity("DISCOUNTED");
+        }
     }
     
     private static void analyzeTrends(RegressionAnalysis analysis, 
@@ -404,9 +595,16 @@ public class PerformanceRegressionTracker {
             return; // Need at least 3 data points for trend analysis
         }
         
-        // Analyze performance score trend over last few runs
+        // Analyze performance score trend over last few runs, ignoring samples from a contended host
+        List<PerformanceDataPoint> quietHistory = new ArrayList<>();
+        for (PerformanceDataPoint point : recentHistory) {
+            if (!point.wasTakenUnderContention()) {
+                quietHistory.add(point);
+            }
+        }
+        
         List<Double> perfScores = new ArrayList<>();
-        for (PerformanceDataPoint point : recentHistory.subList(Math.max(0, recentHistory.size() - 5), recentHistory.size())) {
+        for (PerformanceDataPoint point : quietHistory.subList(Math.max(0, quietHistory.size() - 5), quietHistory.size())) {
             perfScores.add(point.getPerformanceScore());
         }
         
@@ -454,6 +652,44 @@ public class PerformanceRegressionTracker {
         }
     }
     
+    /**
+     * Scale FCP, LCP, Speed Index and TBT to the reference machine so history
+     * from agents with different CPUs can be compared
+     */
+    private static LighthouseRunner.LighthouseMetrics normalize(LighthouseRunner.LighthouseMetrics metrics,
+                                                                HostBenchmark.IndexKind indexKind) {
+        double factor = HostBenchmark.scaleFactor(indexKind, metrics.getBenchmarkIndex(), metrics.getHostBenchmarkScore());
+        
+        LighthouseRunner.LighthouseMetrics normalized = new LighthouseRunner.LighthouseMetrics();
+        normalized.setPerformanceScore(metrics.getPerformanceScore());
+        normalized.setAccessibilityScore(metrics.getAccessibilityScore());
+        normalized.setBestPracticesScore(metrics.getBestPracticesScore());
+        normalized.setSeoScore(metrics.getSeoScore());
+        normalized.setFirstContentfulPaint(metrics.getFirstContentfulPaint() * factor);
+        normalized.setLargestContentfulPaint(metrics.getLargestContentfulPaint() * factor);
+        normalized.setSpeedIndex(metrics.getSpeedIndex() * factor);
+        normalized.setTotalBlockingTime(metrics.getTotalBlockingTime() * factor);
+        normalized.setCumulativeLayoutShift(metrics.getCumulativeLayoutShift());
+        normalized.putExtraMetrics(metrics.getExtraMetrics());
+        normalized.setHostConditions(metrics.getHostConditions());
+        normalized.setBenchmarkIndex(metrics.getBenchmarkIndex());
+        normalized.setHostBenchmarkScore(metrics.getHostBenchmarkScore());
+        normalized.setReportPath(metrics.getReportPath());
+        normalized.setThrottlingProfile(metrics.getThrottlingProfile());
+        normalized.setAttribution(metrics.getAttribution());
+        return normalized;
+    }
+    
+    private static PerformanceDataPoint normalize(PerformanceDataPoint point, HostBenchmark.IndexKind indexKind) {
+        PerformanceDataPoint normalized = new PerformanceDataPoint(normalize(convertToLighthouseMetrics(point), indexKind),
+            point.getTestName(), point.getUrl());
+        normalized.setTimestamp(point.getTimestamp());
+        normalized.setGitCommit(point.getGitCommit());
+        normalized.setBuildNumber(point.getBuildNumber());
+        normalized.setEnvironment(point.getEnvironment());
+        return normalized;
+    }
+    
     private static LighthouseRunner.LighthouseMetrics convertToLighthouseMetrics(PerformanceDataPoint point) {
         // Create a LighthouseMetrics object from PerformanceDataPoint
         LighthouseRunner.LighthouseMetrics metrics = new LighthouseRunner.LighthouseMetrics();
@@ -467,6 +703,14 @@ public class PerformanceRegressionTracker {
         metrics.setSpeedIndex(point.getSpeedIndex());
         metrics.setTotalBlockingTime(point.getTotalBlockingTime());
         metrics.setCumulativeLayoutShift(point.getCumulativeLayoutShift());
+        if (point.getExtraMetrics() != null) {
+            metrics.putExtraMetrics(point.getExtraMetrics());
+        }
+        metrics.setHostConditions(point.getHostConditions());
+        metrics.setBenchmarkIndex(point.getBenchmarkIndex());
+        metrics.setHostBenchmarkScore(point.getHostBenchmarkScore());
+        metrics.setThrottlingProfile(point.getThrottlingProfile());
+        metrics.setAttribution(point.getAttribution());
         
         return metrics;
     }
@@ -483,12 +727,34 @@ public class PerformanceRegressionTracker {
                 report.append("- ").append(detail).append("\n");
             }
             
+            if (!analysis.getExtraMetricRegressions().isEmpty()) {
+                report.append("\n## Extra Metric Regressions (not counted in severity):\n");
+                for (String detail : analysis.getExtraMetricRegressions()) {
+                    report.append("- ").append(detail).append("\n");
+                }
+            }
+            
+            if (!analysis.getAttributionChanges().isEmpty()) {
+                report.append("\n## Attribution (vs baseline):\n");
+                for (String change : analysis.getAttributionChanges()) {
+                    report.append("- ").append(change).append("\n");
+                }
+            }
+            
             report.append("\n## Performance Changes:\n");
             for (Map.Entry<String, Double> entry : analysis.getPerformanceChanges().entrySet()) {
                 report.append("- ").append(entry.getKey()).append(": ")
                       .append(String.format("%+.1f%%", entry.getValue())).append("\n");
             }
             
+            if (!analysis.getExtraMetricChanges().isEmpty()) {
+                report.append("\n## Extra Metric Changes:\n");
+                for (Map.Entry<String, Double> entry : new TreeMap<>(analysis.getExtraMetricChanges()).entrySet()) {
+                    report.append("- ").append(entry.getKey()).append(": ")
+                          .append(String.format("%+.1f%%", entry.getValue())).append("\n");
+                }
+            }
+            
             Allure.addAttachment("Regression Analysis", "text/markdown", 
                 new ByteArrayInputStream(report.toString().getBytes()), ".md");
                 
@@ -496,7 +762,7 @@ public class PerformanceRegressionTracker {
             Allure.parameter("Regression Detected", "YES");
             Allure.parameter("Regression Severity", analysis.getSeverity());
         } else {
-            Allure.parameter("Regression Detected", "NO");
+            Allure.parameter("Regression Detected", analysis.isDiscounted() ? "DISCOUNTED (host contention)" : "NO");
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,383 @@
+package com.choice.testing.utils;
+
+import com.choice.testing.config.ConfigManager;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.kklisura.cdt.protocol.types.input.GestureSourceType;
+import com.github.kklisura.cdt.services.ChromeDevToolsService;
+import io.qameta.allure.Allure;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Frame smoothness of a scroll or animation, from an injected requestAnimationFrame sampler.
+ *
+ * Every rAF callback timestamp is recorded, together with whether anything moved in that
+ * frame (scroll position, a running animation or a DOM mutation). After the action the sampler
+ * keeps going until smoothness.settle.idle.frames frames in a row were idle, so trailing fling
+ * or transition frames are included, and only the frames from the first to the last active
+ * one are analyzed - idle frames before or after the action would dilute the statistics.
+ * The refresh interval is estimated from the
+ * shortest frame intervals unless smoothness.frame.budget.ms is set; an interval spanning n
+ * refresh intervals counts as n - 1 dropped frames. Long animation frames come from the
+ * long-animation-frame observer, with the script that ran longest in each, or from longtask
+ * entries on browsers without it.
+ *
+ * Scrolls are driven with CDP Input.synthesizeScrollGesture, which goes through the
+ * compositor like a real wheel scroll; without a DevTools session a smooth window.scrollBy is
+ * used instead.
+ */
+public class ScrollSmoothnessBenchmark {
+
+    private static final Logger logger = LoggerFactory.getLogger(ScrollSmoothnessBenchmark.class);
+    private static final ObjectMapper objectMapper = new ObjectMapper()
+        .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    private static final String PERFORMANCE_DATA_DIR = "performance-history";
+
+    private static final String START_SCRIPT =
+        "var w = window;" +
+        "if (w.__smooth && w.__smooth.observer) w.__smooth.observer.disconnect();" +
+        "if (w.__smooth && w.__smooth.mutations) w.__smooth.mutations.disconnect();" +
+        "var s = w.__smooth = {frames: [], active: [], longFrames: [], running: true, dirty: false, lastY: w.scrollY," +
+        "  source: null, observer: null};" +
+        "s.mutations = new MutationObserver(function() { s.dirty = true; });" +
+        "s.mutations.observe(document, {subtree: true, childList: true, attributes: true, characterData: true});" +
+        "function busy() {" +
+        "  var moved = w.scrollY !== s.lastY; s.lastY = w.scrollY;" +
+        "  var animating = document.getAnimations ? document.getAnimations().some(function(a) { return a.playState === 'running'; }) : false;" +
+        "  var mutated = s.dirty; s.dirty = false;" +
+        "  return moved || animating || mutated;" +
+        "}" +
+        "function tick(t) { if (!s.running) return; s.frames.push(t); s.active.push(busy()); requestAnimationFrame(tick); }" +
+        "requestAnimationFrame(tick);" +
+        "var types = w.PerformanceObserver && PerformanceObserver.supportedEntryTypes || [];" +
+        "s.source = types.indexOf('long-animation-frame') >= 0 ? 'long-animation-frame'" +
+        "  : types.indexOf('longtask') >= 0 ? 'longtask' : null;" +
+        "s.record = function(list) {" +
+        "  list.getEntries().forEach(function(e) {" +
+        "    var top = null;" +
+        "    (e.scripts || []).forEach(function(x) { if (!top || x.duration > top.duration) top = x; });" +
+        "    s.longFrames.push({startTime: e.startTime, durationMs: e.duration," +
+        "      blockingMs: e.blockingDuration !== undefined ? e.blockingDuration : Math.max(0, e.duration - 50)," +
+        "      script: top ? (top.sourceURL || top.invoker || null) : null});" +
+        "  });" +
+        "};" +
+        "if (s.source) { s.observer = new PerformanceObserver(s.record); s.observer.observe({type: s.source}); }";
+
+    // Waits until something moved and then arguments[0] frames in a row were idle (or arguments[1] ms),
+    // then returns the frames from the one before the first active frame to the last active one
+    private static final String STOP_SCRIPT =
+        "var done = arguments[arguments.length - 1], s = window.__smooth;" +
+        "var idleFrames = arguments[0], deadline = performance.now() + arguments[1];" +
+        "if (!s) { done(null); return; }" +
+        "function check() {" +
+        "  var n = s.active.length, still = 0, first = s.active.indexOf(true);" +
+        "  while (still < n && !s.active[n - 1 - still]) still++;" +
+        "  var settled = first >= 0 && still >= idleFrames;" +
+        "  if (!settled && performance.now() < deadline) { requestAnimationFrame(check); return; }" +
+        "  s.running = false; s.mutations.disconnect();" +
+        "  if (s.observer) { s.record({getEntries: function() { return s.observer.takeRecords(); }}); s.observer.disconnect(); }" +
+        "  var last = s.active.lastIndexOf(true);" +
+        "  var frames = first < 0 ? [] : s.frames.slice(Math.max(0, first - 1), last + 1);" +
+        "  done(JSON.stringify({frames: frames, longFrames: s.longFrames, source: s.source, settled: settled}));" +
+        "}" +
+        "requestAnimationFrame(check);";
+
+    // Resolves once scrollY has not changed for ten frames
+    private static final String SMOOTH_SCROLL_SCRIPT =
+        "var done = arguments[arguments.length - 1], last = -1, still = 0;" +
+        "window.scrollBy({top: arguments[0], behavior: 'smooth'});" +
+        "function poll() {" +
+        "  if (window.scrollY === last) { if (++still >= 10) { done(window.scrollY); return; } } else { still = 0; last = window.scrollY; }" +
+        "  requestAnimationFrame(poll);" +
+        "}" +
+        "requestAnimationFrame(poll);";
+
+    public static class LongFrame {
+        private double startTime;
+        private double durationMs;
+        private double blockingMs;
+        private String script;
+
+        // Getters and setters
+        public double getStartTime() { return startTime; }
+        public void setStartTime(double startTime) { this.startTime = startTime; }
+
+        public double getDurationMs() { return durationMs; }
+        public void setDurationMs(double durationMs) { this.durationMs = durationMs; }
+
+        public double getBlockingMs() { return blockingMs; }
+        public void setBlockingMs(double blockingMs) { this.blockingMs = blockingMs; }
+
+        // Script that ran longest in the frame; null for longtask entries
+        public String getScript() { return script; }
+        public void setScript(String script) { this.script = script; }
+    }
+
+    public static class SmoothnessResult {
+        private String name;
+        private String recordedAt;
+        private String throttlingProfile;
+        private double durationMs;
+        private int frames;
+        private double frameBudgetMs;
+        private int expectedFrames;
+        private int droppedFrames;
+        private double droppedFramePercent;
+        private double p50FrameMs;
+        private double p95FrameMs;
+        private double maxFrameMs;
+        private String longFrameSource;
+        private List<LongFrame> longFrames = new ArrayList<>();
+        private boolean smooth;
+
+        // Getters and setters
+        public String getName() { return name; }
+        public void setName(String name) { this.name = name; }
+
+        public String getRecordedAt() { return recordedAt; }
+        public void setRecordedAt(String recordedAt) { this.recordedAt = recordedAt; }
+
+        public String getThrottlingProfile() { return throttlingProfile; }
+        public void setThrottlingProfile(String throttlingProfile) { this.throttlingProfile = throttlingProfile; }
+
+        // First to last sampled frame
+        public double getDurationMs() { return durationMs; }
+        public void setDurationMs(double durationMs) { this.durationMs = durationMs; }
+
+        public int getFrames() { return frames; }
+        public void setFrames(int frames) { this.frames = frames; }
+
+        // Estimated refresh interval, or smoothness.frame.budget.ms
+        public double getFrameBudgetMs() { return frameBudgetMs; }
+        public void setFrameBudgetMs(double frameBudgetMs) { this.frameBudgetMs = frameBudgetMs; }
+
+        public int getExpectedFrames() { return expectedFrames; }
+        public void setExpectedFrames(int expectedFrames) { this.expectedFrames = expectedFrames; }
+
+        public int getDroppedFrames() { return droppedFrames; }
+        public void setDroppedFrames(int droppedFrames) { this.droppedFrames = droppedFrames; }
+
+        public double getDroppedFramePercent() { return droppedFramePercent; }
+        public void setDroppedFramePercent(double droppedFramePercent) { this.droppedFramePercent = droppedFramePercent; }
+
+        public double getP50FrameMs() { return p50FrameMs; }
+        public void setP50FrameMs(double p50FrameMs) { this.p50FrameMs = p50FrameMs; }
+
+        public double getP95FrameMs() { return p95FrameMs; }
+        public void setP95FrameMs(double p95FrameMs) { this.p95FrameMs = p95FrameMs; }
+
+        public double getMaxFrameMs() { return maxFrameMs; }
+        public void setMaxFrameMs(double maxFrameMs) { this.maxFrameMs = maxFrameMs; }
+
+        // long-animation-frame, longtask, or null when the browser has neither
+        public String getLongFrameSource() { return longFrameSource; }
+        public void setLongFrameSource(String longFrameSource) { this.longFrameSource = longFrameSource; }
+
+        public List<LongFrame> getLongFrames() { return longFrames; }
+        public void setLongFrames(List<LongFrame> longFrames) { this.longFrames = longFrames; }
+
+        // Within smoothness.max.dropped.percent and smoothness.max.p95.frame.ms
+        public boolean isSmooth() { return smooth; }
+        public void setSmooth(boolean smooth) { this.smooth = smooth; }
+    }
+
+    public static boolean isEnabled() {
+        return Boolean.parseBoolean(System.getProperty("smoothness.enabled",
+            ConfigManager.getProperty("smoothness.enabled", "false")));
+    }
+
+    /**
+     * Sample frames while the action runs and until the page is idle again
+     */
+    public static SmoothnessResult measure(WebDriver driver, String name, Runnable action) {
+        JavascriptExecutor js = (JavascriptExecutor) driver;
+        js.executeScript(START_SCRIPT);
+        action.run();
+
+        String json = (String) js.executeAsyncScript(STOP_SCRIPT,
+            ConfigManager.getIntProperty("smoothness.settle.idle.frames", 3),
+            ConfigManager.getIntProperty("smoothness.settle.timeout.ms", 3000));
+        List<Double> frames = new ArrayList<>();
+        List<LongFrame> longFrames = new ArrayList<>();
+        String source = null;
+        if (json != null) {
+            try {
+                JsonNode sample = objectMapper.readTree(json);
+                sample.path("frames").forEach(frame -> frames.add(frame.asDouble()));
+                longFrames = objectMapper.convertValue(sample.path("longFrames"), new TypeReference<List<LongFrame>>(){});
+                source = sample.path("source").isNull() ? null : sample.path("source").asText(null);
+                if (!sample.path("settled").asBoolean()) {
+                    logger.warn("{} did not start or go idle within smoothness.settle.timeout.ms, sampled up to the timeout", name);
+                }
+            } catch (IOException e) {
+                logger.warn("Could not read frame samples for {}: {}", name, e.getMessage());
+            }
+        }
+
+        SmoothnessResult result = analyze(name, frames.stream().mapToDouble(Double::doubleValue).toArray(),
+            Double.parseDouble(ConfigManager.getProperty("smoothness.frame.budget.ms", "0")));
+        result.setLongFrameSource(source);
+        result.setLongFrames(longFrames);
+        System.out.println(String.format("🎞️ %s: %d frames, %.1f%% dropped, p95 %.1f ms, %d long animation frames",
+            name, result.getFrames(), result.getDroppedFramePercent(), result.getP95FrameMs(), longFrames.size()));
+        return result;
+    }
+
+    /**
+     * Scroll down by smoothness.scroll.distance.px at smoothness.scroll.speed.px (per second)
+     */
+    public static void scroll(WebDriver driver) {
+        scroll(driver, ConfigManager.getIntProperty("smoothness.scroll.distance.px", 5000),
+            ConfigManager.getIntProperty("smoothness.scroll.speed.px", 1200));
+    }
+
+    /**
+     * Scroll from the middle of the viewport; returns when the gesture has finished
+     */
+    public static void scroll(WebDriver driver, int distancePx, int speedPxPerSecond) {
+        ChromeDevToolsService session = DevToolsSessionManager.getSession();
+        JavascriptExecutor js = (JavascriptExecutor) driver;
+        if (session != null) {
+            try {
+                @SuppressWarnings("unchecked")
+                List<Number> viewport = (List<Number>) js.executeScript("return [window.innerWidth, window.innerHeight];");
+                // Negative distance scrolls the content up, i.e. the page down
+                session.getInput().synthesizeScrollGesture(viewport.get(0).doubleValue() / 2, viewport.get(1).doubleValue() / 2,
+                    0.0, (double) -distancePx, null, null, true, speedPxPerSecond, GestureSourceType.DEFAULT, null, null, null);
+                return;
+            } catch (Exception e) {
+                logger.warn("synthesizeScrollGesture failed, falling back to smooth scrollBy: {}", e.getMessage());
+            }
+        }
+        js.executeAsyncScript(SMOOTH_SCROLL_SCRIPT, distancePx);
+    }
+
+    /**
+     * Frame statistics from rAF timestamps
+     *
+     * @param frameBudgetMs refresh interval, or 0 to estimate it from the 10th percentile interval
+     */
+    static SmoothnessResult analyze(String name, double[] timestamps, double frameBudgetMs) {
+        SmoothnessResult result = new SmoothnessResult();
+        result.setName(name);
+        result.setRecordedAt(LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+        result.setThrottlingProfile(ThrottlingManager.testProfile().getName());
+        result.setFrames(timestamps.length);
+        if (timestamps.length < 2) {
+            result.setSmooth(true);
+            return result;
+        }
+
+        double[] intervals = new double[timestamps.length - 1];
+        for (int i = 1; i < timestamps.length; i++) {
+            intervals[i - 1] = timestamps[i] - timestamps[i - 1];
+        }
+        double[] sorted = intervals.clone();
+        Arrays.sort(sorted);
+        // rAF timestamps are vsync-aligned, so the short intervals are the refresh interval
+        double budget = frameBudgetMs > 0 ? frameBudgetMs : Math.max(4.0, percentile(sorted, 10));
+
+        int expected = 0;
+        int dropped = 0;
+        for (double interval : intervals) {
+            int spanned = Math.max(1, (int) Math.round(interval / budget));
+            expected += spanned;
+            dropped += spanned - 1;
+        }
+        result.setDurationMs(timestamps[timestamps.length - 1] - timestamps[0]);
+        result.setFrameBudgetMs(budget);
+        result.setExpectedFrames(expected);
+        result.setDroppedFrames(dropped);
+        result.setDroppedFramePercent(100.0 * dropped / expected);
+        result.setP50FrameMs(percentile(sorted, 50));
+        result.setP95FrameMs(percentile(sorted, 95));
+        result.setMaxFrameMs(sorted[sorted.length - 1]);
+
+        double maxDropped = Double.parseDouble(ConfigManager.getProperty("smoothness.max.dropped.percent", "10"));
+        double maxP95 = Double.parseDouble(ConfigManager.getProperty("smoothness.max.p95.frame.ms", "50"));
+        result.setSmooth(result.getDroppedFramePercent() <= maxDropped && result.getP95FrameMs() <= maxP95);
+        return result;
+    }
+
+    private static double percentile(double[] sorted, double percentile) {
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+
+    public static void attachToAllure(SmoothnessResult result) {
+        StringBuilder summary = new StringBuilder();
+        summary.append("# Smoothness: ").append(result.getName()).append("\n\n");
+        summary.append(result.isSmooth() ? "✅ Smooth\n\n" : "⚠️ Janky\n\n");
+        summary.append("| Metric | Value |\n");
+        summary.append("|--------|-------|\n");
+        summary.append(String.format("| Duration | %.0f ms |%n", result.getDurationMs()));
+        summary.append(String.format("| Frames | %d of %d expected |%n", result.getFrames(), result.getExpectedFrames()));
+        summary.append(String.format("| Frame budget | %.1f ms |%n", result.getFrameBudgetMs()));
+        summary.append(String.format("| Dropped frames | %d (%.1f%%) |%n", result.getDroppedFrames(), result.getDroppedFramePercent()));
+        summary.append(String.format("| p50 frame time | %.1f ms |%n", result.getP50FrameMs()));
+        summary.append(String.format("| p95 frame time | %.1f ms |%n", result.getP95FrameMs()));
+        summary.append(String.format("| Max frame time | %.1f ms |%n", result.getMaxFrameMs()));
+        summary.append(String.format("| Throttling | %s |%n", result.getThrottlingProfile()));
+
+        if (result.getLongFrameSource() == null) {
+            summary.append("\nLong animation frames not supported by this browser\n");
+        } else if (!result.getLongFrames().isEmpty()) {
+            summary.append(String.format("%n## Long Animation Frames (%s)%n%n", result.getLongFrameSource()));
+            summary.append("| Start | Duration | Blocking | Script |\n");
+            summary.append("|-------|----------|----------|--------|\n");
+            for (LongFrame frame : result.getLongFrames()) {
+                summary.append(String.format("| %.0f ms | %.0f ms | %.0f ms | %s |%n", frame.getStartTime(), frame.getDurationMs(),
+                    frame.getBlockingMs(), frame.getScript() != null ? frame.getScript() : "-"));
+            }
+        }
+
+        Allure.addAttachment("Smoothness - " + result.getName(), "text/markdown",
+            new ByteArrayInputStream(summary.toString().getBytes(StandardCharsets.UTF_8)), ".md");
+        Allure.parameter("Dropped Frames - " + result.getName(), String.format("%.1f%%", result.getDroppedFramePercent()));
+
+        try {
+            storeHistory(result);
+        } catch (IOException e) {
+            logger.warn("Failed to store smoothness history", e);
+        }
+    }
+
+    /**
+     * Append to performance-history/<name>_smoothness.json, keeping the last 100 runs
+     */
+    private static void storeHistory(SmoothnessResult result) throws IOException {
+        Files.createDirectories(Paths.get(PERFORMANCE_DATA_DIR));
+        Path filePath = Paths.get(PERFORMANCE_DATA_DIR, result.getName().replaceAll("[^a-zA-Z0-9]", "_") + "_smoothness.json");
+
+        List<SmoothnessResult> history = new ArrayList<>();
+        if (Files.exists(filePath)) {
+            try {
+                history = objectMapper.readValue(Files.readString(filePath), new TypeReference<List<SmoothnessResult>>(){});
+            } catch (Exception e) {
+                logger.warn("Failed to load existing smoothness history, starting fresh", e);
+            }
+        }
+        history.add(result);
+        if (history.size() > 100) {
+            history = history.subList(history.size() - 100, history.size());
+        }
+        Files.writeString(filePath, objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(history));
+    }
+}
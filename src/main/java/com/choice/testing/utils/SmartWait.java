@@ -0,0 +1,215 @@
+package com.choice.testing.utils;
+
+import com.choice.testing.config.ConfigManager;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.support.ui.FluentWait;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Condition-based waits that replace fixed sleeps: network idle (CDP Network events),
+ * DOM quiescence (injected MutationObserver), element stable (bounding box stops moving)
+ * and page settled (all of the above). A wait never throws on timeout - it returns a
+ * WaitResult saying how long it waited and whether the condition was met, and the time
+ * is recorded as wait time for the current step in ActionTimingRecorder.
+ */
+public class SmartWait {
+
+    private static final Logger logger = LoggerFactory.getLogger(SmartWait.class);
+
+    private static final String DOM_QUIET_SCRIPT =
+        "if (!window.__smartWaitObserver) {" +
+        "  window.__smartWaitLastMutation = performance.now();" +
+        "  window.__smartWaitObserver = new MutationObserver(function(records) {" +
+        "    for (var i = 0; i < records.length; i++) {" +
+        // Inline style churn from spinners and carousels never settles; layout is covered by elementStable
+        "      if (records[i].attributeName !== 'style') { window.__smartWaitLastMutation = performance.now(); return; }" +
+        "    }" +
+        "  });" +
+        "  window.__smartWaitObserver.observe(document, {childList: true, subtree: true, attributes: true, characterData: true});" +
+        "}" +
+        "return performance.now() - window.__smartWaitLastMutation;";
+
+    private static final String BOUNDING_BOX_SCRIPT =
+        "var r = arguments[0].getBoundingClientRect();" +
+        "return [r.x, r.y, r.width, r.height];";
+
+    private static final String RESOURCE_COUNT_SCRIPT =
+        "return performance.getEntriesByType('resource').length;";
+
+    public static class WaitResult {
+        private final String condition;
+        private final long timeoutMs;
+        private final long waitedMs;
+        private final boolean satisfied;
+
+        public WaitResult(String condition, long timeoutMs, long waitedMs, boolean satisfied) {
+            this.condition = condition;
+            this.timeoutMs = timeoutMs;
+            this.waitedMs = waitedMs;
+            this.satisfied = satisfied;
+        }
+
+        public String getCondition() { return condition; }
+        public long getTimeoutMs() { return timeoutMs; }
+        public long getWaitedMs() { return waitedMs; }
+        public boolean isSatisfied() { return satisfied; }
+
+        @Override
+        public String toString() {
+            return String.format("WaitResult{%s %s after %dms (timeout %dms)}",
+                condition, satisfied ? "met" : "timed out", waitedMs, timeoutMs);
+        }
+    }
+
+    public static Duration getDefaultTimeout() {
+        return Duration.ofMillis(ConfigManager.getIntProperty("wait.timeout.ms", 10000));
+    }
+
+    /**
+     * Wait until no more than wait.network.max.inflight requests are open and nothing
+     * started or finished for wait.network.quiet.ms
+     */
+    public static WaitResult waitForNetworkIdle(WebDriver driver, Duration timeout) {
+        long waitStart = ActionTimingRecorder.beginWait();
+        try {
+            return networkIdle(driver, timeout.toMillis());
+        } finally {
+            ActionTimingRecorder.endWait("waitForNetworkIdle", waitStart);
+        }
+    }
+
+    /**
+     * Wait until the DOM has not changed for wait.dom.quiet.ms
+     */
+    public static WaitResult waitForDomQuiescence(WebDriver driver, Duration timeout) {
+        long waitStart = ActionTimingRecorder.beginWait();
+        try {
+            return domQuiescence(driver, timeout.toMillis());
+        } finally {
+            ActionTimingRecorder.endWait("waitForDomQuiescence", waitStart);
+        }
+    }
+
+    /**
+     * Wait until the element's bounding box is identical for wait.element.stable.samples polls
+     */
+    public static WaitResult waitForElementStable(WebDriver driver, WebElement element, Duration timeout) {
+        long waitStart = ActionTimingRecorder.beginWait();
+        try {
+            return elementStable(driver, element, timeout.toMillis());
+        } finally {
+            ActionTimingRecorder.endWait("waitForElementStable", waitStart);
+        }
+    }
+
+    /**
+     * Document complete, then network idle, then DOM quiet - all within one timeout budget
+     */
+    public static WaitResult waitForPageSettled(WebDriver driver, Duration timeout) {
+        long timeoutMs = timeout.toMillis();
+        long start = System.nanoTime();
+        long waitStart = ActionTimingRecorder.beginWait();
+        try {
+            boolean satisfied = documentComplete(driver, timeoutMs).isSatisfied();
+            if (satisfied) {
+                satisfied = networkIdle(driver, remaining(start, timeoutMs)).isSatisfied();
+            }
+            if (satisfied) {
+                satisfied = domQuiescence(driver, remaining(start, timeoutMs)).isSatisfied();
+            }
+            return new WaitResult("page settled", timeoutMs, elapsedMs(start), satisfied);
+        } finally {
+            ActionTimingRecorder.endWait("waitForPageSettled", waitStart);
+        }
+    }
+
+    private static WaitResult documentComplete(WebDriver driver, long timeoutMs) {
+        return poll(driver, "document complete", timeoutMs,
+            d -> "complete".equals(((JavascriptExecutor) d).executeScript("return document.readyState")));
+    }
+
+    private static WaitResult networkIdle(WebDriver driver, long timeoutMs) {
+        long quietMs = ConfigManager.getIntProperty("wait.network.quiet.ms", 500);
+        int maxInflight = ConfigManager.getIntProperty("wait.network.max.inflight", 0);
+
+        NetworkActivityMonitor monitor = NetworkActivityMonitor.startForCurrentSession();
+        if (monitor != null) {
+            return poll(driver, "network idle", timeoutMs, d -> monitor.isIdle(quietMs, maxInflight));
+        }
+
+        // No CDP: completed resource entries stop growing. Cannot see requests still in flight.
+        long[] lastChange = {System.nanoTime()};
+        long[] lastCount = {-1};
+        return poll(driver, "network idle (resource timing)", timeoutMs, d -> {
+            long count = ((Number) ((JavascriptExecutor) d).executeScript(RESOURCE_COUNT_SCRIPT)).longValue();
+            if (count != lastCount[0]) {
+                lastCount[0] = count;
+                lastChange[0] = System.nanoTime();
+                return false;
+            }
+            return elapsedMs(lastChange[0]) >= quietMs;
+        });
+    }
+
+    private static WaitResult domQuiescence(WebDriver driver, long timeoutMs) {
+        long quietMs = ConfigManager.getIntProperty("wait.dom.quiet.ms", 300);
+        return poll(driver, "DOM quiescence", timeoutMs,
+            d -> ((Number) ((JavascriptExecutor) d).executeScript(DOM_QUIET_SCRIPT)).doubleValue() >= quietMs);
+    }
+
+    private static WaitResult elementStable(WebDriver driver, WebElement element, long timeoutMs) {
+        int requiredSamples = ConfigManager.getIntProperty("wait.element.stable.samples", 3);
+        Object[] lastBox = {null};
+        int[] stableSamples = {0};
+
+        return poll(driver, "element stable", timeoutMs, d -> {
+            List<?> box = (List<?>) ((JavascriptExecutor) d).executeScript(BOUNDING_BOX_SCRIPT, element);
+            if (box.equals(lastBox[0])) {
+                stableSamples[0]++;
+            } else {
+                lastBox[0] = box;
+                stableSamples[0] = 1;
+            }
+            return stableSamples[0] >= requiredSamples;
+        });
+    }
+
+    private static WaitResult poll(WebDriver driver, String condition, long timeoutMs, Function<WebDriver, Boolean> check) {
+        long start = System.nanoTime();
+        boolean satisfied;
+        try {
+            new FluentWait<>(driver)
+                .withTimeout(Duration.ofMillis(Math.max(timeoutMs, 0)))
+                .pollingEvery(Duration.ofMillis(ConfigManager.getIntProperty("wait.poll.interval.ms", 50)))
+                .ignoring(WebDriverException.class)
+                .ignoring(ClassCastException.class, NullPointerException.class)
+                .until(check);
+            satisfied = true;
+        } catch (TimeoutException e) {
+            satisfied = false;
+        }
+
+        WaitResult result = new WaitResult(condition, timeoutMs, elapsedMs(start), satisfied);
+        if (!satisfied) {
+            logger.debug("{}", result);
+        }
+        return result;
+    }
+
+    private static long remaining(long startNanos, long timeoutMs) {
+        return Math.max(0, timeoutMs - elapsedMs(startNanos));
+    }
+
+    private static long elapsedMs(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000L;
+    }
+}
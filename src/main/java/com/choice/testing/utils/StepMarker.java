@@ -0,0 +1,47 @@
+package com.choice.testing.utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Single step boundary for a test journey. Tests call mark(name) once per step and every
+ * registered per-step recorder starts attributing to that step. A new recorder registers
+ * here instead of adding a line to each step of each test.
+ */
+public class StepMarker {
+
+    private static final Logger logger = LoggerFactory.getLogger(StepMarker.class);
+    private static final List<Consumer<String>> recorders = new CopyOnWriteArrayList<>();
+
+    static {
+        // Throttling first, so the step's profile is in place before the others start measuring it
+        register(ThrottlingManager::markStep);
+        register(ChromeResourceSampler::markStep);
+        register(ActionTimingRecorder::markStep);
+        register(NetworkRecorder::markStep);
+        register(CpuProfiler::markStep);
+        register(CoverageCollector::markStep);
+    }
+
+    public static void register(Consumer<String> recorder) {
+        recorders.add(recorder);
+    }
+
+    /**
+     * Start a new step on the current thread in every registered recorder.
+     * A failing recorder is logged and does not stop the others.
+     */
+    public static void mark(String stepName) {
+        for (Consumer<String> recorder : recorders) {
+            try {
+                recorder.accept(stepName);
+            } catch (Exception e) {
+                logger.warn("Step marker failed for '{}'", stepName, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,281 @@
+package com.choice.testing.utils;
+
+import com.choice.testing.config.ConfigManager;
+import com.choice.testing.drivers.DriverManager;
+import com.github.kklisura.cdt.protocol.support.types.EventListener;
+import com.github.kklisura.cdt.services.ChromeDevToolsService;
+import io.qameta.allure.Allure;
+import org.openqa.selenium.WebDriver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.DoubleAdder;
+
+/**
+ * Measures what each third-party host costs a page by loading it with and without that host,
+ * blocked through CDP Network.setBlockedURLs on the current session.
+ *
+ * Hosts come from the NetworkRecorder (load the page once with the recorder running first).
+ * Each host gets thirdparty.experiment.pairs control/blocked pairs in ABBA order (control first
+ * on even pairs, blocked first on odd ones) so drift during the experiment cancels out. Costs are the mean paired differences, control minus blocked, with a
+ * 95% Student-t confidence interval; a host is significant when the interval excludes zero.
+ */
+public class ThirdPartyImpactExperiment {
+
+    private static final Logger logger = LoggerFactory.getLogger(ThirdPartyImpactExperiment.class);
+    private static final String EXPERIMENT_STEP = "Third-Party Experiment";
+
+    // Two-sided 95% Student-t quantiles for 1..30 degrees of freedom
+    private static final double[] T_975 = {
+        12.706, 4.303, 3.182, 2.776, 2.571, 2.447, 2.365, 2.306, 2.262, 2.228,
+        2.201, 2.179, 2.160, 2.145, 2.131, 2.120, 2.110, 2.101, 2.093, 2.086,
+        2.080, 2.074, 2.069, 2.064, 2.060, 2.056, 2.052, 2.048, 2.045, 2.042
+    };
+
+    public static class OriginImpact {
+        private String host;
+        private int pairs;
+        private double lcpCostMs;
+        private double lcpCiMs;
+        private double tbtCostMs;
+        private double tbtCiMs;
+        private double transferCostKb;
+        private double transferCiKb;
+
+        // Getters and setters
+        public String getHost() { return host; }
+        public void setHost(String host) { this.host = host; }
+
+        public int getPairs() { return pairs; }
+        public void setPairs(int pairs) { this.pairs = pairs; }
+
+        // Mean of control minus blocked; positive means the host makes the page slower/heavier
+        public double getLcpCostMs() { return lcpCostMs; }
+        public void setLcpCostMs(double lcpCostMs) { this.lcpCostMs = lcpCostMs; }
+
+        // Half-width of the 95% confidence interval
+        public double getLcpCiMs() { return lcpCiMs; }
+        public void setLcpCiMs(double lcpCiMs) { this.lcpCiMs = lcpCiMs; }
+
+        public double getTbtCostMs() { return tbtCostMs; }
+        public void setTbtCostMs(double tbtCostMs) { this.tbtCostMs = tbtCostMs; }
+
+        public double getTbtCiMs() { return tbtCiMs; }
+        public void setTbtCiMs(double tbtCiMs) { this.tbtCiMs = tbtCiMs; }
+
+        public double getTransferCostKb() { return transferCostKb; }
+        public void setTransferCostKb(double transferCostKb) { this.transferCostKb = transferCostKb; }
+
+        public double getTransferCiKb() { return transferCiKb; }
+        public void setTransferCiKb(double transferCiKb) { this.transferCiKb = transferCiKb; }
+
+        public boolean isLcpSignificant() { return lcpCostMs - lcpCiMs > 0; }
+
+        public boolean isTbtSignificant() { return tbtCostMs - tbtCiMs > 0; }
+    }
+
+    public static class ExperimentResult {
+        private String name;
+        private String url;
+        private List<OriginImpact> impacts = new ArrayList<>();
+
+        // Getters and setters
+        public String getName() { return name; }
+        public void setName(String name) { this.name = name; }
+
+        public String getUrl() { return url; }
+        public void setUrl(String url) { this.url = url; }
+
+        // Ranked by LCP cost, then TBT cost
+        public List<OriginImpact> getImpacts() { return impacts; }
+        public void setImpacts(List<OriginImpact> impacts) { this.impacts = impacts; }
+    }
+
+    public static boolean isEnabled() {
+        return Boolean.parseBoolean(ConfigManager.getProperty("thirdparty.experiment.enabled", "false"));
+    }
+
+    /**
+     * Run the experiment for the heaviest third-party hosts the NetworkRecorder has seen so far
+     */
+    public static ExperimentResult run(String name, String url) {
+        List<String> hosts = NetworkRecorder.currentThirdPartyHosts();
+        int maxHosts = ConfigManager.getIntProperty("thirdparty.experiment.max.origins", 8);
+        if (hosts.size() > maxHosts) {
+            hosts = hosts.subList(0, maxHosts);
+        }
+        return run(name, url, hosts);
+    }
+
+    /**
+     * Run the experiment for the given hosts on the current thread's Chrome session
+     */
+    public static ExperimentResult run(String name, String url, List<String> hosts) {
+        ExperimentResult result = new ExperimentResult();
+        result.setName(name);
+        result.setUrl(url);
+
+        ChromeDevToolsService session = DevToolsSessionManager.getSession();
+        if (session == null) {
+            logger.warn("Third-party experiment {} skipped - no DevTools session", name);
+            return result;
+        }
+        if (hosts.isEmpty()) {
+            logger.info("Third-party experiment {} found no third-party hosts", name);
+            return result;
+        }
+
+        int pairs = Math.max(2, ConfigManager.getIntProperty("thirdparty.experiment.pairs", 5));
+        boolean coldCache = Boolean.parseBoolean(ConfigManager.getProperty("thirdparty.experiment.cold.cache", "true"));
+        WebDriver driver = DriverManager.getWebDriver();
+
+        // Keep the experiment's page loads out of the journey's own network step
+        NetworkRecorder.markStep(EXPERIMENT_STEP);
+        DoubleAdder transferBytes = new DoubleAdder();
+        session.getNetwork().enable();
+        EventListener transferListener = session.getNetwork().onLoadingFinished(event -> {
+            if (event.getEncodedDataLength() != null) {
+                transferBytes.add(event.getEncodedDataLength());
+            }
+        });
+        String collector = LoadMetricsCollector.install(session);
+
+        System.out.println("🧪 Third-party experiment " + name + ": " + hosts.size() + " hosts x " + pairs + " pairs");
+        try {
+            for (String host : hosts) {
+                double[][] deltas = new double[3][pairs];
+                int completed = 0;
+                for (int pair = 0; pair < pairs; pair++) {
+                    boolean controlFirst = pair % 2 == 0;
+                    double[] first = load(driver, session, url, controlFirst ? null : host, coldCache, transferBytes);
+                    double[] second = load(driver, session, url, controlFirst ? host : null, coldCache, transferBytes);
+                    if (first == null || second == null) {
+                        continue;
+                    }
+                    double[] control = controlFirst ? first : second;
+                    double[] blocked = controlFirst ? second : first;
+                    for (int metric = 0; metric < 3; metric++) {
+                        deltas[metric][completed] = control[metric] - blocked[metric];
+                    }
+                    completed++;
+                }
+                if (completed < 2) {
+                    logger.warn("Too few successful pairs for {}, leaving it out", host);
+                    continue;
+                }
+                result.getImpacts().add(summarize(host, deltas, completed));
+                logger.info("Third-party host {} measured over {} pairs", host, completed);
+            }
+        } finally {
+            session.getNetwork().setBlockedURLs(Collections.emptyList());
+            transferListener.unsubscribe();
+            LoadMetricsCollector.uninstall(session, collector);
+        }
+
+        result.getImpacts().sort(Comparator.comparingDouble(OriginImpact::getLcpCostMs)
+            .thenComparingDouble(OriginImpact::getTbtCostMs).reversed());
+        return result;
+    }
+
+    /**
+     * One load with the host blocked (or nothing blocked when host is null): {LCP, TBT, transfer KB}
+     */
+    private static double[] load(WebDriver driver, ChromeDevToolsService session, String url, String blockedHost,
+                                 boolean coldCache, DoubleAdder transferBytes) {
+        try {
+            driver.get("about:blank");
+            if (coldCache) {
+                session.getNetwork().clearBrowserCache();
+            }
+            session.getNetwork().setBlockedURLs(blockedHost != null
+                ? Arrays.asList("*://" + blockedHost + "/*", "*://" + blockedHost + ":*")
+                : Collections.emptyList());
+
+            transferBytes.reset();
+            driver.get(url);
+            SmartWait.waitForPageSettled(driver, SmartWait.getDefaultTimeout());
+
+            double[] metrics = LoadMetricsCollector.read(driver);
+            if (metrics == null) {
+                return null;
+            }
+            return new double[] {metrics[LoadMetricsCollector.LCP], metrics[LoadMetricsCollector.TBT],
+                transferBytes.sum() / 1024.0};
+        } catch (Exception e) {
+            logger.warn("Experiment load with {} blocked failed: {}", blockedHost != null ? blockedHost : "nothing", e.getMessage());
+            return null;
+        }
+    }
+
+    private static OriginImpact summarize(String host, double[][] deltas, int n) {
+        OriginImpact impact = new OriginImpact();
+        impact.setHost(host);
+        impact.setPairs(n);
+        impact.setLcpCostMs(mean(deltas[0], n));
+        impact.setLcpCiMs(confidenceHalfWidth(deltas[0], n));
+        impact.setTbtCostMs(mean(deltas[1], n));
+        impact.setTbtCiMs(confidenceHalfWidth(deltas[1], n));
+        impact.setTransferCostKb(mean(deltas[2], n));
+        impact.setTransferCiKb(confidenceHalfWidth(deltas[2], n));
+        return impact;
+    }
+
+    private static double mean(double[] values, int n) {
+        double sum = 0;
+        for (int i = 0; i < n; i++) {
+            sum += values[i];
+        }
+        return sum / n;
+    }
+
+    static double confidenceHalfWidth(double[] values, int n) {
+        double mean = mean(values, n);
+        double squares = 0;
+        for (int i = 0; i < n; i++) {
+            squares += (values[i] - mean) * (values[i] - mean);
+        }
+        double standardError = Math.sqrt(squares / (n - 1)) / Math.sqrt(n);
+        double t = n - 1 <= T_975.length ? T_975[n - 2] : 1.96;
+        return t * standardError;
+    }
+
+    /**
+     * Attach the ranked cost table to Allure
+     */
+    public static void attachToAllure(ExperimentResult result) {
+        StringBuilder report = new StringBuilder();
+        report.append("# Third-Party Cost: ").append(result.getName()).append("\n\n");
+        report.append("URL: ").append(result.getUrl()).append("\n\n");
+        report.append("Cost = page with the host minus page with it blocked, mean of paired ABBA loads ± 95% CI. ");
+        report.append("⚠️ marks costs whose interval excludes zero.\n\n");
+        report.append("| Rank | Host | Pairs | LCP Cost (ms) | TBT Cost (ms) | Transfer Cost (KB) |\n");
+        report.append("|------|------|-------|---------------|---------------|--------------------|\n");
+
+        StringBuilder csv = new StringBuilder("rank,host,pairs,lcp_cost_ms,lcp_ci_ms,tbt_cost_ms,tbt_ci_ms,transfer_cost_kb,transfer_ci_kb\n");
+        int rank = 1;
+        for (OriginImpact impact : result.getImpacts()) {
+            report.append(String.format("| %d | %s | %d | %.0f ± %.0f%s | %.0f ± %.0f%s | %.1f ± %.1f |%n",
+                rank, impact.getHost(), impact.getPairs(),
+                impact.getLcpCostMs(), impact.getLcpCiMs(), impact.isLcpSignificant() ? " ⚠️" : "",
+                impact.getTbtCostMs(), impact.getTbtCiMs(), impact.isTbtSignificant() ? " ⚠️" : "",
+                impact.getTransferCostKb(), impact.getTransferCiKb()));
+            csv.append(String.format("%d,%s,%d,%.1f,%.1f,%.1f,%.1f,%.1f,%.1f%n", rank, impact.getHost(), impact.getPairs(),
+                impact.getLcpCostMs(), impact.getLcpCiMs(), impact.getTbtCostMs(), impact.getTbtCiMs(),
+                impact.getTransferCostKb(), impact.getTransferCiKb()));
+            rank++;
+        }
+
+        Allure.addAttachment("Third-Party Cost - " + result.getName(), "text/markdown",
+            new ByteArrayInputStream(report.toString().getBytes(StandardCharsets.UTF_8)), ".md");
+        Allure.addAttachment("Third-Party Cost (CSV)", "text/csv",
+            new ByteArrayInputStream(csv.toString().getBytes(StandardCharsets.UTF_8)), ".csv");
+        Allure.parameter("Third-Party Hosts Tested", result.getImpacts().size());
+    }
+}
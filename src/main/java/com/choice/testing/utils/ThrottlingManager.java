@@ -0,0 +1,130 @@
+package com.choice.testing.utils;
+
+import com.choice.testing.config.ConfigManager;
+import com.github.kklisura.cdt.services.ChromeDevToolsService;
+import io.qameta.allure.Allure;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Locale;
+
+/**
+ * Applies ThrottlingProfiles to the current thread's Chrome session through CDP
+ * (Network.emulateNetworkConditions and Emulation.setCPUThrottlingRate).
+ *
+ * Profiles are chosen from config, most specific first:
+ * - throttling.profile.step.&lt;step&gt; while that step runs (step name lowercased, spaces as '-')
+ * - throttling.profile.&lt;testMethod&gt; for the whole test
+ * - throttling.profile as the default
+ * The -Dthrottling.profile system property overrides the test-level choice for a whole run.
+ */
+public class ThrottlingManager {
+
+    private static final Logger logger = LoggerFactory.getLogger(ThrottlingManager.class);
+    private static final ThreadLocal<ThrottlingProfile> testProfile = new ThreadLocal<>();
+    private static final ThreadLocal<ThrottlingProfile> activeProfile = new ThreadLocal<>();
+
+    /**
+     * Resolve and apply the profile configured for a test. Does nothing when it resolves to "none".
+     */
+    public static ThrottlingProfile applyForTest(String testName) {
+        String spec = System.getProperty("throttling.profile");
+        if (spec == null) {
+            spec = ConfigManager.getProperty("throttling.profile." + testName,
+                ConfigManager.getProperty("throttling.profile", "none"));
+        }
+
+        ThrottlingProfile profile = parseOrNone(spec);
+        testProfile.set(profile);
+        if (!profile.isNone()) {
+            apply(profile);
+            Allure.parameter("Throttling Profile", profile.getName());
+        }
+        return profile;
+    }
+
+    /**
+     * Switch to the step's configured profile, or back to the test's profile when the step has none
+     */
+    public static void markStep(String stepName) {
+        String stepSpec = ConfigManager.getProperty("throttling.profile.step." + stepKey(stepName));
+        ThrottlingProfile target = stepSpec != null ? parseOrNone(stepSpec) : testProfile();
+
+        if (!target.getName().equals(currentProfile().getName())) {
+            logger.info("Step '{}' runs with throttling profile {}", stepName, target.getName());
+            apply(target);
+        }
+    }
+
+    /**
+     * Apply a profile to the current session. Returns false when CDP is unavailable or rejects it,
+     * in which case the session keeps its previous conditions.
+     */
+    public static boolean apply(ThrottlingProfile profile) {
+        ChromeDevToolsService session = DevToolsSessionManager.getSession();
+        if (session == null) {
+            if (!profile.isNone()) {
+                logger.warn("Throttling profile {} not applied - no DevTools session", profile.getName());
+            }
+            return false;
+        }
+
+        try {
+            session.getNetwork().enable();
+            session.getNetwork().emulateNetworkConditions(false, profile.getLatencyMs(),
+                profile.downloadBytesPerSecond(), profile.uploadBytesPerSecond());
+            session.getEmulation().setCPUThrottlingRate(Math.max(1.0, profile.getCpuSlowdown()));
+        } catch (Exception e) {
+            logger.warn("Could not apply throttling profile {}: {}", profile.getName(), e.getMessage());
+            return false;
+        }
+
+        if (profile.isNone()) {
+            activeProfile.remove();
+        } else {
+            activeProfile.set(profile);
+        }
+        logger.info("Applied throttling profile {}", profile);
+        return true;
+    }
+
+    /**
+     * Profile in effect on the current thread's session; NONE when unthrottled
+     */
+    public static ThrottlingProfile currentProfile() {
+        ThrottlingProfile profile = activeProfile.get();
+        return profile != null ? profile : ThrottlingProfile.NONE;
+    }
+
+    /**
+     * Profile resolved for the current test by applyForTest; NONE outside a test
+     */
+    public static ThrottlingProfile testProfile() {
+        ThrottlingProfile profile = testProfile.get();
+        return profile != null ? profile : ThrottlingProfile.NONE;
+    }
+
+    /**
+     * Remove throttling from the session (if it is still open) and forget the test's profile
+     */
+    public static void reset() {
+        if (activeProfile.get() != null) {
+            apply(ThrottlingProfile.NONE);
+        }
+        activeProfile.remove();
+        testProfile.remove();
+    }
+
+    static String stepKey(String stepName) {
+        return stepName.trim().toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9]+", "-");
+    }
+
+    private static ThrottlingProfile parseOrNone(String spec) {
+        try {
+            return ThrottlingProfile.parse(spec);
+        } catch (IllegalArgumentException e) {
+            logger.warn("{} - running unthrottled", e.getMessage());
+            return ThrottlingProfile.NONE;
+        }
+    }
+}
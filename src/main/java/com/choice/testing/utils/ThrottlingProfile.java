@@ -0,0 +1,171 @@
+package com.choice.testing.utils;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Named network and CPU throttling settings applied to a live Chrome session through CDP.
+ *
+ * Network values are request-level (what Network.emulateNetworkConditions applies), using the
+ * same presets Lighthouse uses for devtools throttling. Presets can be combined with '+',
+ * e.g. "slow-4g+cpu-4x"; the network part and the CPU part each come from the preset that sets them.
+ */
+public final class ThrottlingProfile {
+
+    public static final ThrottlingProfile NONE = new ThrottlingProfile("none", 0, 0, 0, 1);
+    public static final ThrottlingProfile FAST_4G = new ThrottlingProfile("fast-4g", 165, 8100, 1350, 1);
+    public static final ThrottlingProfile SLOW_4G = new ThrottlingProfile("slow-4g", 562.5, 1474.56, 675, 1);
+    public static final ThrottlingProfile REGULAR_3G = new ThrottlingProfile("3g", 1125, 630, 630, 1);
+    public static final ThrottlingProfile CPU_4X = new ThrottlingProfile("cpu-4x", 0, 0, 0, 4);
+    public static final ThrottlingProfile CPU_6X = new ThrottlingProfile("cpu-6x", 0, 0, 0, 6);
+
+    private static final Map<String, ThrottlingProfile> PRESETS = new LinkedHashMap<>();
+
+    static {
+        for (ThrottlingProfile preset : new ThrottlingProfile[] {NONE, FAST_4G, SLOW_4G, REGULAR_3G, CPU_4X, CPU_6X}) {
+            PRESETS.put(preset.getName(), preset);
+        }
+    }
+
+    private final String name;
+    private final double latencyMs;
+    private final double downloadKbps;
+    private final double uploadKbps;
+    private final double cpuSlowdown;
+
+    private ThrottlingProfile(String name, double latencyMs, double downloadKbps, double uploadKbps, double cpuSlowdown) {
+        this.name = name;
+        this.latencyMs = latencyMs;
+        this.downloadKbps = downloadKbps;
+        this.uploadKbps = uploadKbps;
+        this.cpuSlowdown = cpuSlowdown;
+    }
+
+    /**
+     * Parse a preset name or a '+'-separated combination. Blank means NONE.
+     * @throws IllegalArgumentException for unknown preset names
+     */
+    public static ThrottlingProfile parse(String spec) {
+        if (spec == null || spec.trim().isEmpty()) {
+            return NONE;
+        }
+
+        ThrottlingProfile network = NONE;
+        ThrottlingProfile cpu = NONE;
+        List<String> names = new ArrayList<>();
+        for (String part : spec.toLowerCase().split("\\+")) {
+            String key = part.trim();
+            ThrottlingProfile preset = PRESETS.get(key);
+            if (preset == null) {
+                throw new IllegalArgumentException("Unknown throttling profile '" + key + "', expected one of " + PRESETS.keySet());
+            }
+            if (preset == NONE) {
+                continue;
+            }
+            if (preset.throttlesNetwork()) {
+                network = preset;
+            }
+            if (preset.throttlesCpu()) {
+                cpu = preset;
+            }
+            names.add(key);
+        }
+
+        if (names.isEmpty()) {
+            return NONE;
+        }
+        if (names.size() == 1) {
+            return PRESETS.get(names.get(0));
+        }
+        return new ThrottlingProfile(String.join("+", names), network.latencyMs, network.downloadKbps,
+            network.uploadKbps, cpu.cpuSlowdown);
+    }
+
+    public static List<String> presetNames() {
+        return new ArrayList<>(PRESETS.keySet());
+    }
+
+    /**
+     * This profile's network conditions with another CPU slowdown, e.g. for sweeping a grid.
+     * The result is named like a combined preset ("slow-4g+cpu-3x") even for non-preset multipliers.
+     */
+    public ThrottlingProfile withCpuSlowdown(double slowdown) {
+        List<String> names = new ArrayList<>();
+        for (String part : name.split("\\+")) {
+            if (!part.startsWith("cpu-") && !part.equals(NONE.name)) {
+                names.add(part);
+            }
+        }
+        if (slowdown > 1) {
+            names.add("cpu-" + format(slowdown) + "x");
+        }
+        String combined = names.isEmpty() ? NONE.name : String.join("+", names);
+        return new ThrottlingProfile(combined, latencyMs, downloadKbps, uploadKbps, Math.max(1, slowdown));
+    }
+
+    public boolean throttlesNetwork() {
+        return latencyMs > 0 || downloadKbps > 0 || uploadKbps > 0;
+    }
+
+    public boolean throttlesCpu() {
+        return cpuSlowdown > 1;
+    }
+
+    public boolean isNone() {
+        return !throttlesNetwork() && !throttlesCpu();
+    }
+
+    /**
+     * Throughput in bytes per second as CDP expects it; -1 disables the limit
+     */
+    public double downloadBytesPerSecond() {
+        return downloadKbps > 0 ? downloadKbps * 1024 / 8 : -1;
+    }
+
+    public double uploadBytesPerSecond() {
+        return uploadKbps > 0 ? uploadKbps * 1024 / 8 : -1;
+    }
+
+    /**
+     * Lighthouse CLI options reproducing this profile with devtools throttling, so an audit of
+     * the throttled session measures under the same conditions as the Selenium steps around it
+     */
+    public Map<String, String> toLighthouseOptions() {
+        Map<String, String> options = new LinkedHashMap<>();
+        if (isNone()) {
+            return options;
+        }
+        options.put("throttling-method", "devtools");
+        options.put("throttling.requestLatencyMs", format(latencyMs));
+        options.put("throttling.downloadThroughputKbps", format(downloadKbps));
+        options.put("throttling.uploadThroughputKbps", format(uploadKbps));
+        options.put("throttling.cpuSlowdownMultiplier", format(cpuSlowdown));
+        return options;
+    }
+
+    private static String format(double value) {
+        return value == Math.rint(value) ? String.valueOf((long) value) : String.valueOf(value);
+    }
+
+    // Getters
+    public String getName() { return name; }
+
+    public double getLatencyMs() { return latencyMs; }
+
+    public double getDownloadKbps() { return downloadKbps; }
+
+    public double getUploadKbps() { return uploadKbps; }
+
+    public double getCpuSlowdown() { return cpuSlowdown; }
+
+    @Override
+    public String toString() {
+        if (isNone()) {
+            return name;
+        }
+        return String.format("%s (latency %.0fms, down %.0f kbps, up %.0f kbps, CPU %.0fx)",
+            name, latencyMs, downloadKbps, uploadKbps, cpuSlowdown);
+    }
+}
@@ -0,0 +1,677 @@
+package com.choice.testing.utils;
+
+import com.choice.testing.config.ConfigManager;
+import com.choice.testing.drivers.DriverManager;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.kklisura.cdt.services.ChromeDevToolsService;
+import io.qameta.allure.Allure;
+import org.openqa.selenium.WebDriver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * Runs a page or journey across a grid of CPU slowdowns and network profiles and fits
+ * LCP/TBT sensitivity curves, so pages that degrade disproportionately on low-end devices
+ * stand out.
+ *
+ * Grid cells are spread over throttling.sweep.parallel worker threads. Each worker keeps its
+ * own warm Chrome for the whole sweep (DriverManager gives parallel sessions their own debugging
+ * port) and takes cells from a shared queue, run by run, so slow drift affects every cell alike.
+ * LCP and TBT come from an in-page collector installed before each document loads; for a journey
+ * they describe the last document the journey ends on.
+ *
+ * For each network profile, metric vs CPU slowdown is fitted with a two-segment hinge; the knee is
+ * the breakpoint of the best fit and is flagged when the slope after it is throttling.sweep.knee.ratio
+ * times the slope before it or more.
+ */
+public class ThrottlingSweep {
+
+    private static final Logger logger = LoggerFactory.getLogger(ThrottlingSweep.class);
+    private static final ObjectMapper objectMapper = new ObjectMapper()
+        .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    private static final String PERFORMANCE_DATA_DIR = "performance-history";
+    private static final String LCP = "LCP";
+    private static final String TBT = "TBT";
+    // Slope floor (ms per 1x of slowdown) so a flat-then-rising curve has a finite ratio
+    private static final double MIN_SLOPE = 1.0;
+
+    public static class SweepCell {
+        private String network;
+        private double cpuSlowdown;
+        private String profile;
+        private int samples;
+        private int failures;
+        private double lcpMs;
+        private double tbtMs;
+        private double journeyMs;
+        private final List<double[]> rawSamples = new ArrayList<>();
+
+        // Getters and setters
+        public String getNetwork() { return network; }
+        public void setNetwork(String network) { this.network = network; }
+
+        public double getCpuSlowdown() { return cpuSlowdown; }
+        public void setCpuSlowdown(double cpuSlowdown) { this.cpuSlowdown = cpuSlowdown; }
+
+        public String getProfile() { return profile; }
+        public void setProfile(String profile) { this.profile = profile; }
+
+        public int getSamples() { return samples; }
+        public void setSamples(int samples) { this.samples = samples; }
+
+        public int getFailures() { return failures; }
+        public void setFailures(int failures) { this.failures = failures; }
+
+        // Medians over the successful runs
+        public double getLcpMs() { return lcpMs; }
+        public void setLcpMs(double lcpMs) { this.lcpMs = lcpMs; }
+
+        public double getTbtMs() { return tbtMs; }
+        public void setTbtMs(double tbtMs) { this.tbtMs = tbtMs; }
+
+        public double getJourneyMs() { return journeyMs; }
+        public void setJourneyMs(double journeyMs) { this.journeyMs = journeyMs; }
+    }
+
+    public static class SensitivityCurve {
+        private String network;
+        private String metric;
+        private double[] cpuSlowdowns;
+        private double[] values;
+        private double slopeMsPerX;
+        private Double exponent;
+        private double degradationFactor;
+        private Double kneeSlowdown;
+        private double slopeBeforeKnee;
+        private double slopeAfterKnee;
+        private double kneeRatio;
+        private boolean disproportionate;
+
+        // Getters and setters
+        public String getNetwork() { return network; }
+        public void setNetwork(String network) { this.network = network; }
+
+        public String getMetric() { return metric; }
+        public void setMetric(String metric) { this.metric = metric; }
+
+        public double[] getCpuSlowdowns() { return cpuSlowdowns; }
+        public void setCpuSlowdowns(double[] cpuSlowdowns) { this.cpuSlowdowns = cpuSlowdowns; }
+
+        public double[] getValues() { return values; }
+        public void setValues(double[] values) { this.values = values; }
+
+        // Least-squares slope over the whole curve
+        public double getSlopeMsPerX() { return slopeMsPerX; }
+        public void setSlopeMsPerX(double slopeMsPerX) { this.slopeMsPerX = slopeMsPerX; }
+
+        // p in value ~ slowdown^p; above 1 the page degrades faster than the CPU slows down
+        public Double getExponent() { return exponent; }
+        public void setExponent(Double exponent) { this.exponent = exponent; }
+
+        // Value at the highest slowdown over the value at the lowest
+        public double getDegradationFactor() { return degradationFactor; }
+        public void setDegradationFactor(double degradationFactor) { this.degradationFactor = degradationFactor; }
+
+        public Double getKneeSlowdown() { return kneeSlowdown; }
+        public void setKneeSlowdown(Double kneeSlowdown) { this.kneeSlowdown = kneeSlowdown; }
+
+        public double getSlopeBeforeKnee() { return slopeBeforeKnee; }
+        public void setSlopeBeforeKnee(double slopeBeforeKnee) { this.slopeBeforeKnee = slopeBeforeKnee; }
+
+        public double getSlopeAfterKnee() { return slopeAfterKnee; }
+        public void setSlopeAfterKnee(double slopeAfterKnee) { this.slopeAfterKnee = slopeAfterKnee; }
+
+        public double getKneeRatio() { return kneeRatio; }
+        public void setKneeRatio(double kneeRatio) { this.kneeRatio = kneeRatio; }
+
+        public boolean isDisproportionate() { return disproportionate; }
+        public void setDisproportionate(boolean disproportionate) { this.disproportionate = disproportionate; }
+    }
+
+    public static class SweepResult {
+        private String name;
+        private String recordedAt;
+        private int runsPerCell;
+        private int workers;
+        private double wallClockSeconds;
+        private List<SweepCell> cells = new ArrayList<>();
+        private List<SensitivityCurve> curves = new ArrayList<>();
+
+        // Getters and setters
+        public String getName() { return name; }
+        public void setName(String name) { this.name = name; }
+
+        public String getRecordedAt() { return recordedAt; }
+        public void setRecordedAt(String recordedAt) { this.recordedAt = recordedAt; }
+
+        public int getRunsPerCell() { return runsPerCell; }
+        public void setRunsPerCell(int runsPerCell) { this.runsPerCell = runsPerCell; }
+
+        public int getWorkers() { return workers; }
+        public void setWorkers(int workers) { this.workers = workers; }
+
+        public double getWallClockSeconds() { return wallClockSeconds; }
+        public void setWallClockSeconds(double wallClockSeconds) { this.wallClockSeconds = wallClockSeconds; }
+
+        public List<SweepCell> getCells() { return cells; }
+        public void setCells(List<SweepCell> cells) { this.cells = cells; }
+
+        public List<SensitivityCurve> getCurves() { return curves; }
+        public void setCurves(List<SensitivityCurve> curves) { this.curves = curves; }
+
+        public List<SensitivityCurve> disproportionateCurves() {
+            List<SensitivityCurve> flagged = new ArrayList<>();
+            for (SensitivityCurve curve : curves) {
+                if (curve.isDisproportionate()) {
+                    flagged.add(curve);
+                }
+            }
+            return flagged;
+        }
+    }
+
+    public static boolean isEnabled() {
+        return Boolean.parseBoolean(ConfigManager.getProperty("throttling.sweep.enabled", "false"));
+    }
+
+    /**
+     * Sweep a single page load over the configured grid
+     */
+    public static SweepResult sweepPage(String name, String url) {
+        return sweep(name, driver -> driver.get(url));
+    }
+
+    /**
+     * Sweep a journey over the grid from throttling.sweep.network x throttling.sweep.cpu
+     */
+    public static SweepResult sweep(String name, Consumer<WebDriver> journey) {
+        List<ThrottlingProfile> networks = new ArrayList<>();
+        for (String spec : ConfigManager.getProperty("throttling.sweep.network", "none,slow-4g").split(",")) {
+            networks.add(ThrottlingProfile.parse(spec.trim()));
+        }
+        List<Double> cpuSlowdowns = new ArrayList<>();
+        for (String value : ConfigManager.getProperty("throttling.sweep.cpu", "1,2,4,6").split(",")) {
+            cpuSlowdowns.add(Double.parseDouble(value.trim()));
+        }
+        return sweep(name, journey, networks, cpuSlowdowns);
+    }
+
+    /**
+     * Sweep a journey over every network profile x CPU slowdown combination
+     */
+    public static SweepResult sweep(String name, Consumer<WebDriver> journey,
+                                    List<ThrottlingProfile> networks, List<Double> cpuSlowdowns) {
+        int runs = Math.max(1, ConfigManager.getIntProperty("throttling.sweep.runs", 3));
+        int workers = Math.max(1, ConfigManager.getIntProperty("throttling.sweep.parallel", 3));
+        boolean coldCache = Boolean.parseBoolean(ConfigManager.getProperty("throttling.sweep.cold.cache", "true"));
+
+        List<SweepCell> cells = new ArrayList<>();
+        List<ThrottlingProfile> profiles = new ArrayList<>();
+        for (ThrottlingProfile network : networks) {
+            for (double slowdown : cpuSlowdowns) {
+                ThrottlingProfile profile = network.withCpuSlowdown(slowdown);
+                SweepCell cell = new SweepCell();
+                cell.setNetwork(network.withCpuSlowdown(1).getName());
+                cell.setCpuSlowdown(slowdown);
+                cell.setProfile(profile.getName());
+                cells.add(cell);
+                profiles.add(profile);
+            }
+        }
+
+        // Run-major order: every cell gets its first run before any cell gets its second
+        Queue<Integer> tasks = new ConcurrentLinkedQueue<>();
+        for (int run = 0; run < runs; run++) {
+            for (int i = 0; i < cells.size(); i++) {
+                tasks.add(i);
+            }
+        }
+
+        workers = Math.min(workers, tasks.size());
+        System.out.println("📈 Throttling sweep " + name + ": " + cells.size() + " cells x " + runs
+            + " runs on " + workers + " browsers");
+        long start = System.nanoTime();
+
+        ExecutorService pool = Executors.newFixedThreadPool(workers);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int w = 0; w < workers; w++) {
+                futures.add(pool.submit(() -> runWorker(tasks, cells, profiles, journey, coldCache)));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (Exception e) {
+            logger.warn("Throttling sweep {} interrupted: {}", name, e.getMessage());
+        } finally {
+            pool.shutdownNow();
+        }
+
+        SweepResult result = new SweepResult();
+        result.setName(name);
+        result.setRecordedAt(LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+        result.setRunsPerCell(runs);
+        result.setWorkers(workers);
+        result.setWallClockSeconds((System.nanoTime() - start) / 1e9);
+        for (SweepCell cell : cells) {
+            summarize(cell);
+        }
+        result.setCells(cells);
+        result.setCurves(fitCurves(cells, ConfigManager.getProperty("throttling.sweep.knee.ratio", "2.0")));
+
+        System.out.println(String.format("📈 Throttling sweep %s finished in %.0fs, %d disproportionate curve(s)",
+            name, result.getWallClockSeconds(), result.disproportionateCurves().size()));
+        return result;
+    }
+
+    /**
+     * One warm browser taking cells from the queue until it is empty. A worker whose browser
+     * fails to start simply leaves the work to the others.
+     */
+    private static void runWorker(Queue<Integer> tasks, List<SweepCell> cells, List<ThrottlingProfile> profiles,
+                                  Consumer<WebDriver> journey, boolean coldCache) {
+        try {
+            DriverManager.initializeWebDriver("chrome");
+            WebDriver driver = DriverManager.getWebDriver();
+            ChromeDevToolsService session = DevToolsSessionManager.getSession();
+            if (session == null) {
+                logger.warn("Sweep worker has no DevTools session, leaving cells to other workers");
+                return;
+            }
+            LoadMetricsCollector.install(session);
+
+            // Unthrottled warm-up so DNS, connections and the browser itself are warm for the first cell
+            measure(driver, session, ThrottlingProfile.NONE, journey, coldCache);
+
+            Integer task;
+            while ((task = tasks.poll()) != null) {
+                double[] sample = measure(driver, session, profiles.get(task), journey, coldCache);
+                SweepCell cell = cells.get(task);
+                synchronized (cell) {
+                    if (sample != null) {
+                        cell.rawSamples.add(sample);
+                    } else {
+                        cell.failures++;
+                    }
+                }
+            }
+        } catch (Exception e) {
+            logger.warn("Sweep worker stopped: {}", e.getMessage());
+        } finally {
+            ThrottlingManager.reset();
+            NetworkActivityMonitor.stopCurrent();
+            DevToolsSessionManager.closeSession();
+            DriverManager.quitWebDriver();
+        }
+    }
+
+    /**
+     * One run of the journey under a profile: {LCP, TBT, journey time} in ms, or null if it failed
+     */
+    private static double[] measure(WebDriver driver, ChromeDevToolsService session, ThrottlingProfile profile,
+                                    Consumer<WebDriver> journey, boolean coldCache) {
+        try {
+            driver.get("about:blank");
+            if (coldCache) {
+                session.getNetwork().clearBrowserCache();
+            }
+            if (!ThrottlingManager.apply(profile)) {
+                return null;
+            }
+
+            long start = System.nanoTime();
+            journey.accept(driver);
+            double journeyMs = (System.nanoTime() - start) / 1e6;
+            SmartWait.waitForPageSettled(driver, SmartWait.getDefaultTimeout());
+
+            double[] metrics = LoadMetricsCollector.read(driver);
+            if (metrics == null) {
+                logger.warn("No sweep metrics collected under {}", profile.getName());
+                return null;
+            }
+            return new double[] {metrics[LoadMetricsCollector.LCP], metrics[LoadMetricsCollector.TBT], journeyMs};
+        } catch (Exception e) {
+            logger.warn("Sweep run under {} failed: {}", profile.getName(), e.getMessage());
+            return null;
+        } finally {
+            ThrottlingManager.apply(ThrottlingProfile.NONE);
+        }
+    }
+
+    private static void summarize(SweepCell cell) {
+        int n = cell.rawSamples.size();
+        cell.setSamples(n);
+        if (n == 0) {
+            return;
+        }
+        double[] lcp = new double[n];
+        double[] tbt = new double[n];
+        double[] journey = new double[n];
+        for (int i = 0; i < n; i++) {
+            lcp[i] = cell.rawSamples.get(i)[0];
+            tbt[i] = cell.rawSamples.get(i)[1];
+            journey[i] = cell.rawSamples.get(i)[2];
+        }
+        cell.setLcpMs(median(lcp));
+        cell.setTbtMs(median(tbt));
+        cell.setJourneyMs(median(journey));
+    }
+
+    private static List<SensitivityCurve> fitCurves(List<SweepCell> cells, String kneeRatioProperty) {
+        double kneeRatio = Double.parseDouble(kneeRatioProperty);
+        List<String> networks = new ArrayList<>();
+        for (SweepCell cell : cells) {
+            if (!networks.contains(cell.getNetwork())) {
+                networks.add(cell.getNetwork());
+            }
+        }
+
+        List<SensitivityCurve> curves = new ArrayList<>();
+        for (String network : networks) {
+            List<SweepCell> series = new ArrayList<>();
+            for (SweepCell cell : cells) {
+                if (cell.getNetwork().equals(network) && cell.getSamples() > 0) {
+                    series.add(cell);
+                }
+            }
+            series.sort((a, b) -> Double.compare(a.getCpuSlowdown(), b.getCpuSlowdown()));
+            if (series.size() < 2) {
+                continue;
+            }
+
+            double[] x = new double[series.size()];
+            double[] lcp = new double[series.size()];
+            double[] tbt = new double[series.size()];
+            for (int i = 0; i < series.size(); i++) {
+                x[i] = series.get(i).getCpuSlowdown();
+                lcp[i] = series.get(i).getLcpMs();
+                tbt[i] = series.get(i).getTbtMs();
+            }
+            curves.add(fitCurve(network, LCP, x, lcp, kneeRatio));
+            curves.add(fitCurve(network, TBT, x, tbt, kneeRatio));
+        }
+        return curves;
+    }
+
+    /**
+     * Linear slope, power-law exponent and the best two-segment hinge fit of values against slowdown.
+     * x must be sorted ascending.
+     */
+    static SensitivityCurve fitCurve(String network, String metric, double[] x, double[] y, double kneeRatio) {
+        SensitivityCurve curve = new SensitivityCurve();
+        curve.setNetwork(network);
+        curve.setMetric(metric);
+        curve.setCpuSlowdowns(x);
+        curve.setValues(y);
+        double slope = slope(x, y);
+        curve.setSlopeMsPerX(Double.isNaN(slope) ? 0 : slope);
+        curve.setDegradationFactor(y[0] > 0 ? y[y.length - 1] / y[0] : 0);
+
+        // Power law through the points with a positive value
+        List<double[]> logPoints = new ArrayList<>();
+        for (int i = 0; i < x.length; i++) {
+            if (x[i] > 0 && y[i] > 0) {
+                logPoints.add(new double[] {Math.log(x[i]), Math.log(y[i])});
+            }
+        }
+        if (logPoints.size() >= 2) {
+            double[] logX = new double[logPoints.size()];
+            double[] logY = new double[logPoints.size()];
+            for (int i = 0; i < logPoints.size(); i++) {
+                logX[i] = logPoints.get(i)[0];
+                logY[i] = logPoints.get(i)[1];
+            }
+            double exponent = slope(logX, logY);
+            curve.setExponent(Double.isNaN(exponent) ? null : exponent);
+        }
+
+        // Hinge y = a + b*x + c*max(0, x - k) at each interior grid point, keeping the best fit
+        double bestSse = Double.MAX_VALUE;
+        for (int k = 1; k < x.length - 1; k++) {
+            double[] coefficients = fitHinge(x, y, x[k]);
+            if (coefficients == null) {
+                continue;
+            }
+            double sse = 0;
+            for (int i = 0; i < x.length; i++) {
+                double predicted = coefficients[0] + coefficients[1] * x[i] + coefficients[2] * Math.max(0, x[i] - x[k]);
+                sse += (y[i] - predicted) * (y[i] - predicted);
+            }
+            if (sse < bestSse) {
+                bestSse = sse;
+                curve.setKneeSlowdown(x[k]);
+                curve.setSlopeBeforeKnee(coefficients[1]);
+                curve.setSlopeAfterKnee(coefficients[1] + coefficients[2]);
+            }
+        }
+
+        if (curve.getKneeSlowdown() != null) {
+            double ratio = curve.getSlopeAfterKnee() / Math.max(curve.getSlopeBeforeKnee(), MIN_SLOPE);
+            curve.setKneeRatio(ratio);
+            curve.setDisproportionate(ratio >= kneeRatio && curve.getSlopeAfterKnee() > MIN_SLOPE);
+        }
+        return curve;
+    }
+
+    private static double[] fitHinge(double[] x, double[] y, double knee) {
+        // Normal equations for the basis [1, x, max(0, x - knee)]
+        double[][] a = new double[3][4];
+        for (int i = 0; i < x.length; i++) {
+            double[] row = {1, x[i], Math.max(0, x[i] - knee)};
+            for (int r = 0; r < 3; r++) {
+                for (int c = 0; c < 3; c++) {
+                    a[r][c] += row[r] * row[c];
+                }
+                a[r][3] += row[r] * y[i];
+            }
+        }
+        return solve(a);
+    }
+
+    /**
+     * Gauss-Jordan elimination with partial pivoting on an augmented n x (n+1) matrix
+     */
+    private static double[] solve(double[][] a) {
+        int n = a.length;
+        for (int col = 0; col < n; col++) {
+            int pivot = col;
+            for (int row = col + 1; row < n; row++) {
+                if (Math.abs(a[row][col]) > Math.abs(a[pivot][col])) {
+                    pivot = row;
+                }
+            }
+            if (Math.abs(a[pivot][col]) < 1e-9) {
+                return null;
+            }
+            double[] swap = a[col];
+            a[col] = a[pivot];
+            a[pivot] = swap;
+            for (int row = 0; row < n; row++) {
+                if (row != col) {
+                    double factor = a[row][col] / a[col][col];
+                    for (int c = col; c <= n; c++) {
+                        a[row][c] -= factor * a[col][c];
+                    }
+                }
+            }
+        }
+        double[] solution = new double[n];
+        for (int i = 0; i < n; i++) {
+            solution[i] = a[i][n] / a[i][i];
+        }
+        return solution;
+    }
+
+    private static double slope(double[] x, double[] y) {
+        double meanX = Arrays.stream(x).average().orElse(0);
+        double meanY = Arrays.stream(y).average().orElse(0);
+        double covariance = 0;
+        double variance = 0;
+        for (int i = 0; i < x.length; i++) {
+            covariance += (x[i] - meanX) * (y[i] - meanY);
+            variance += (x[i] - meanX) * (x[i] - meanX);
+        }
+        return variance > 0 ? covariance / variance : Double.NaN;
+    }
+
+    private static double median(double[] values) {
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        int middle = sorted.length / 2;
+        return sorted.length % 2 == 1 ? sorted[middle] : (sorted[middle - 1] + sorted[middle]) / 2;
+    }
+
+    /**
+     * Attach the grid, curves and knee points to Allure and, if throttling.sweep.export.history
+     * is set, append the result to the history store
+     */
+    public static void attachToAllure(SweepResult result) {
+        StringBuilder report = new StringBuilder();
+        report.append("# Throttling Sensitivity: ").append(result.getName()).append("\n\n");
+        report.append(String.format("%d cells x %d runs on %d browsers in %.0fs. Values are medians.%n%n",
+            result.getCells().size(), result.getRunsPerCell(), result.getWorkers(), result.getWallClockSeconds()));
+
+        appendGrid(report, result, LCP);
+        appendGrid(report, result, TBT);
+
+        report.append("## Sensitivity Curves\n\n");
+        report.append("| Network | Metric | Slope (ms/x) | Exponent | Degradation | Knee | Slope Before | Slope After | Ratio |\n");
+        report.append("|---------|--------|--------------|----------|-------------|------|--------------|-------------|-------|\n");
+        for (SensitivityCurve curve : result.getCurves()) {
+            report.append(String.format("| %s | %s | %.0f | %s | %.2fx | %s | %.0f | %.0f | %s |%n",
+                curve.getNetwork(), curve.getMetric(), curve.getSlopeMsPerX(),
+                curve.getExponent() != null ? String.format("%.2f", curve.getExponent()) : "-",
+                curve.getDegradationFactor(),
+                curve.getKneeSlowdown() != null ? formatSlowdown(curve.getKneeSlowdown()) : "-",
+                curve.getSlopeBeforeKnee(), curve.getSlopeAfterKnee(),
+                curve.getKneeSlowdown() != null
+                    ? String.format("%.1f%s", curve.getKneeRatio(), curve.isDisproportionate() ? " ⚠️" : "") : "-"));
+        }
+
+        List<SensitivityCurve> flagged = result.disproportionateCurves();
+        if (!flagged.isEmpty()) {
+            report.append("\n## Disproportionate Degradation\n\n");
+            for (SensitivityCurve curve : flagged) {
+                report.append(String.format("- %s on %s: beyond %s CPU slowdown each extra 1x costs %.0fms (%.1fx the rate below it)%n",
+                    curve.getMetric(), curve.getNetwork(), formatSlowdown(curve.getKneeSlowdown()),
+                    curve.getSlopeAfterKnee(), curve.getKneeRatio()));
+            }
+        }
+
+        Allure.addAttachment("Throttling Sweep - " + result.getName(), "text/markdown",
+            new ByteArrayInputStream(report.toString().getBytes(StandardCharsets.UTF_8)), ".md");
+        Allure.addAttachment("Throttling Sweep Cells (CSV)", "text/csv",
+            new ByteArrayInputStream(toCsv(result).getBytes(StandardCharsets.UTF_8)), ".csv");
+        Allure.parameter("Sweep Knee Points", flagged.size());
+
+        if (Boolean.parseBoolean(ConfigManager.getProperty("throttling.sweep.export.history", "false"))) {
+            try {
+                storeHistory(result);
+            } catch (IOException e) {
+                logger.warn("Failed to store throttling sweep history", e);
+            }
+        }
+    }
+
+    private static void appendGrid(StringBuilder report, SweepResult result, String metric) {
+        List<String> networks = new ArrayList<>();
+        List<Double> slowdowns = new ArrayList<>();
+        for (SweepCell cell : result.getCells()) {
+            if (!networks.contains(cell.getNetwork())) {
+                networks.add(cell.getNetwork());
+            }
+            if (!slowdowns.contains(cell.getCpuSlowdown())) {
+                slowdowns.add(cell.getCpuSlowdown());
+            }
+        }
+
+        report.append("## ").append(metric).append(" (ms)\n\n| Network |");
+        for (double slowdown : slowdowns) {
+            report.append(" CPU ").append(formatSlowdown(slowdown)).append(" |");
+        }
+        report.append("\n|---------|");
+        for (int i = 0; i < slowdowns.size(); i++) {
+            report.append("------|");
+        }
+        report.append("\n");
+        for (String network : networks) {
+            report.append("| ").append(network).append(" |");
+            for (double slowdown : slowdowns) {
+                SweepCell cell = findCell(result, network, slowdown);
+                if (cell == null || cell.getSamples() == 0) {
+                    report.append(" - |");
+                } else {
+                    report.append(String.format(" %.0f |", LCP.equals(metric) ? cell.getLcpMs() : cell.getTbtMs()));
+                }
+            }
+            report.append("\n");
+        }
+        report.append("\n");
+    }
+
+    private static SweepCell findCell(SweepResult result, String network, double slowdown) {
+        for (SweepCell cell : result.getCells()) {
+            if (cell.getNetwork().equals(network) && cell.getCpuSlowdown() == slowdown) {
+                return cell;
+            }
+        }
+        return null;
+    }
+
+    private static String toCsv(SweepResult result) {
+        StringBuilder csv = new StringBuilder("network,cpu_slowdown,profile,samples,failures,lcp_ms,tbt_ms,journey_ms\n");
+        for (SweepCell cell : result.getCells()) {
+            csv.append(String.format("%s,%s,%s,%d,%d,%.1f,%.1f,%.1f%n", cell.getNetwork(),
+                formatSlowdown(cell.getCpuSlowdown()), cell.getProfile(), cell.getSamples(), cell.getFailures(),
+                cell.getLcpMs(), cell.getTbtMs(), cell.getJourneyMs()));
+        }
+        return csv.toString();
+    }
+
+    private static String formatSlowdown(double slowdown) {
+        return (slowdown == Math.rint(slowdown) ? String.valueOf((long) slowdown) : String.valueOf(slowdown)) + "x";
+    }
+
+    /**
+     * Append to performance-history/<name>_sweep.json, keeping the last 100 sweeps
+     */
+    private static void storeHistory(SweepResult result) throws IOException {
+        Files.createDirectories(Paths.get(PERFORMANCE_DATA_DIR));
+        String fileName = result.getName().replaceAll("[^a-zA-Z0-9]", "_") + "_sweep.json";
+        Path filePath = Paths.get(PERFORMANCE_DATA_DIR, fileName);
+
+        List<SweepResult> history = new ArrayList<>();
+        if (Files.exists(filePath)) {
+            try {
+                history = objectMapper.readValue(Files.readString(filePath), new TypeReference<List<SweepResult>>(){});
+            } catch (Exception e) {
+                logger.warn("Failed to load existing sweep history, starting fresh", e);
+            }
+        }
+        history.add(result);
+        if (history.size() > 100) {
+            history = history.subList(history.size() - 100, history.size());
+        }
+        Files.writeString(filePath, objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(history));
+    }
+}
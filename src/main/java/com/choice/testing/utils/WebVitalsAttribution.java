@@ -0,0 +1,348 @@
+package com.choice.testing.utils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.qameta.allure.Allure;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * What the LCP and CLS numbers of a Lighthouse result are made of: the LCP element, its
+ * resource and the four LCP phases (TTFB, resource load delay, resource load time, render
+ * delay), and the elements that shifted with their shift score and causes.
+ *
+ * Read from the largest-contentful-paint-element and layout-shifts audits, falling back to
+ * the lcp-breakdown/lcp-phases insights and layout-shift-elements of other Lighthouse
+ * versions. Stored with each PerformanceDataPoint, so a regression against the baseline can
+ * say which phase grew, whether the LCP element changed and which elements started shifting.
+ */
+public class WebVitalsAttribution {
+
+    // Phase changes below this are noise between runs
+    private static final double MIN_PHASE_DELTA_MS = 50;
+    private static final double MIN_SHIFT_DELTA = 0.01;
+    private static final Pattern SNIPPET_URL = Pattern.compile("(?:src|poster)=\"([^\"]+)\"|url\\(['\"]?([^'\")]+)");
+
+    private LcpAttribution lcp;
+    private List<LayoutShiftSource> layoutShifts = new ArrayList<>();
+
+    public static class LcpAttribution {
+        private String selector;
+        private String nodeLabel;
+        private String snippet;
+        private String resourceUrl;
+        private double ttfbMs;
+        private double resourceLoadDelayMs;
+        private double resourceLoadTimeMs;
+        private double renderDelayMs;
+
+        // Getters and setters
+        public String getSelector() { return selector; }
+        public void setSelector(String selector) { this.selector = selector; }
+
+        public String getNodeLabel() { return nodeLabel; }
+        public void setNodeLabel(String nodeLabel) { this.nodeLabel = nodeLabel; }
+
+        public String getSnippet() { return snippet; }
+        public void setSnippet(String snippet) { this.snippet = snippet; }
+
+        // Image or background the element waited for; null for text
+        public String getResourceUrl() { return resourceUrl; }
+        public void setResourceUrl(String resourceUrl) { this.resourceUrl = resourceUrl; }
+
+        public double getTtfbMs() { return ttfbMs; }
+        public void setTtfbMs(double ttfbMs) { this.ttfbMs = ttfbMs; }
+
+        public double getResourceLoadDelayMs() { return resourceLoadDelayMs; }
+        public void setResourceLoadDelayMs(double resourceLoadDelayMs) { this.resourceLoadDelayMs = resourceLoadDelayMs; }
+
+        public double getResourceLoadTimeMs() { return resourceLoadTimeMs; }
+        public void setResourceLoadTimeMs(double resourceLoadTimeMs) { this.resourceLoadTimeMs = resourceLoadTimeMs; }
+
+        public double getRenderDelayMs() { return renderDelayMs; }
+        public void setRenderDelayMs(double renderDelayMs) { this.renderDelayMs = renderDelayMs; }
+
+        Map<String, Double> phases() {
+            Map<String, Double> phases = new LinkedHashMap<>();
+            phases.put("TTFB", ttfbMs);
+            phases.put("Resource load delay", resourceLoadDelayMs);
+            phases.put("Resource load time", resourceLoadTimeMs);
+            phases.put("Render delay", renderDelayMs);
+            return phases;
+        }
+    }
+
+    public static class LayoutShiftSource {
+        private String selector;
+        private String nodeLabel;
+        private String snippet;
+        private double score;
+        private List<String> causes = new ArrayList<>();
+
+        // Getters and setters
+        public String getSelector() { return selector; }
+        public void setSelector(String selector) { this.selector = selector; }
+
+        public String getNodeLabel() { return nodeLabel; }
+        public void setNodeLabel(String nodeLabel) { this.nodeLabel = nodeLabel; }
+
+        public String getSnippet() { return snippet; }
+        public void setSnippet(String snippet) { this.snippet = snippet; }
+
+        public double getScore() { return score; }
+        public void setScore(double score) { this.score = score; }
+
+        // Root causes Lighthouse found, e.g. an unsized image or a web font
+        public List<String> getCauses() { return causes; }
+        public void setCauses(List<String> causes) { this.causes = causes; }
+    }
+
+    // Getters and setters
+    public LcpAttribution getLcp() { return lcp; }
+    public void setLcp(LcpAttribution lcp) { this.lcp = lcp; }
+
+    // Highest score first
+    public List<LayoutShiftSource> getLayoutShifts() { return layoutShifts; }
+    public void setLayoutShifts(List<LayoutShiftSource> layoutShifts) { this.layoutShifts = layoutShifts; }
+
+    /**
+     * Attribution from a Lighthouse result (a CLI report or one user-flow step); null when the
+     * report has neither an LCP element nor layout shifts
+     */
+    static WebVitalsAttribution fromLighthouseResult(JsonNode rootNode) {
+        JsonNode audits = rootNode.path("audits");
+        WebVitalsAttribution attribution = new WebVitalsAttribution();
+        attribution.setLcp(parseLcp(audits));
+        attribution.setLayoutShifts(parseLayoutShifts(audits));
+        return attribution.getLcp() == null && attribution.getLayoutShifts().isEmpty() ? null : attribution;
+    }
+
+    private static LcpAttribution parseLcp(JsonNode audits) {
+        JsonNode node = null;
+        Map<String, Double> phases = new HashMap<>();
+        for (String audit : new String[]{"largest-contentful-paint-element", "lcp-breakdown-insight", "lcp-phases-insight"}) {
+            JsonNode details = audits.path(audit).path("details");
+            if (node == null) {
+                node = findNode(details);
+            }
+            if (phases.isEmpty()) {
+                collectPhases(details, phases);
+            }
+        }
+        if (node == null && phases.isEmpty()) {
+            return null;
+        }
+
+        LcpAttribution lcp = new LcpAttribution();
+        if (node != null) {
+            lcp.setSelector(node.path("selector").asText(null));
+            lcp.setNodeLabel(node.path("nodeLabel").asText(null));
+            lcp.setSnippet(node.path("snippet").asText(null));
+        }
+        lcp.setTtfbMs(phases.getOrDefault("ttfb", 0.0));
+        lcp.setResourceLoadDelayMs(phases.getOrDefault("loadDelay", 0.0));
+        lcp.setResourceLoadTimeMs(phases.getOrDefault("loadTime", 0.0));
+        lcp.setRenderDelayMs(phases.getOrDefault("renderDelay", 0.0));
+
+        // prioritize-lcp-image names the image when it could have been preloaded; otherwise
+        // take it from the element's markup
+        for (JsonNode item : audits.path("prioritize-lcp-image").path("details").path("items")) {
+            if (item.hasNonNull("url")) {
+                lcp.setResourceUrl(item.path("url").asText());
+                break;
+            }
+        }
+        if (lcp.getResourceUrl() == null && lcp.getSnippet() != null) {
+            Matcher matcher = SNIPPET_URL.matcher(lcp.getSnippet());
+            if (matcher.find()) {
+                lcp.setResourceUrl(matcher.group(1) != null ? matcher.group(1) : matcher.group(2));
+            }
+        }
+        return lcp;
+    }
+
+    private static List<LayoutShiftSource> parseLayoutShifts(JsonNode audits) {
+        JsonNode items = audits.path("layout-shifts").path("details").path("items");
+        if (items.size() == 0) {
+            items = audits.path("layout-shift-elements").path("details").path("items");
+        }
+
+        Map<String, LayoutShiftSource> bySelector = new LinkedHashMap<>();
+        for (JsonNode item : items) {
+            JsonNode node = item.path("node");
+            String selector = node.path("selector").asText(node.path("nodeLabel").asText("(unknown)"));
+            LayoutShiftSource source = bySelector.computeIfAbsent(selector, key -> {
+                LayoutShiftSource shift = new LayoutShiftSource();
+                shift.setSelector(key);
+                shift.setNodeLabel(node.path("nodeLabel").asText(null));
+                shift.setSnippet(node.path("snippet").asText(null));
+                return shift;
+            });
+            source.setScore(source.getScore() + item.path("score").asDouble(0));
+            for (JsonNode cause : item.path("subItems").path("items")) {
+                String text = cause.path("cause").asText(null);
+                if (text != null && !source.getCauses().contains(text)) {
+                    source.getCauses().add(text);
+                }
+            }
+        }
+        List<LayoutShiftSource> shifts = new ArrayList<>(bySelector.values());
+        shifts.sort((a, b) -> Double.compare(b.getScore(), a.getScore()));
+        return shifts;
+    }
+
+    private static JsonNode findNode(JsonNode details) {
+        if ("node".equals(details.path("type").asText()) && details.has("selector")) {
+            return details;
+        }
+        for (JsonNode child : details) {
+            if (child.isContainerNode()) {
+                JsonNode node = findNode(child);
+                if (node != null) {
+                    return node;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Rows naming a phase (phase, subpart or label) with a time (timing or duration)
+     */
+    private static void collectPhases(JsonNode details, Map<String, Double> phases) {
+        if (details.isObject()) {
+            String name = details.path("phase").asText(details.path("subpart").asText(details.path("label").asText("")));
+            JsonNode time = details.has("timing") ? details.get("timing") : details.get("duration");
+            String key = phaseKey(name);
+            if (key != null && time != null && time.isNumber()) {
+                phases.putIfAbsent(key, time.asDouble());
+                return;
+            }
+        }
+        for (JsonNode child : details) {
+            if (child.isContainerNode()) {
+                collectPhases(child, phases);
+            }
+        }
+    }
+
+    static String phaseKey(String name) {
+        String key = name.toLowerCase(Locale.ROOT).replaceAll("[^a-z]", "");
+        if (key.equals("ttfb") || key.equals("timetofirstbyte")) {
+            return "ttfb";
+        }
+        if (key.endsWith("loaddelay")) {
+            return "loadDelay";
+        }
+        if (key.endsWith("loadtime") || key.endsWith("loadduration")) {
+            return "loadTime";
+        }
+        if (key.endsWith("renderdelay")) {
+            return "renderDelay";
+        }
+        return null;
+    }
+
+    /**
+     * What moved between the baseline and the current run, one line per change
+     */
+    public static List<String> diff(WebVitalsAttribution baseline, WebVitalsAttribution current) {
+        List<String> changes = new ArrayList<>();
+        if (baseline == null || current == null) {
+            return changes;
+        }
+
+        LcpAttribution before = baseline.getLcp();
+        LcpAttribution after = current.getLcp();
+        if (before != null && after != null) {
+            if (after.getSelector() != null && !after.getSelector().equals(before.getSelector())) {
+                changes.add(String.format("LCP element changed from %s to %s", describe(before.getNodeLabel(), before.getSelector()),
+                    describe(after.getNodeLabel(), after.getSelector())));
+            }
+            if (after.getResourceUrl() != null && !after.getResourceUrl().equals(before.getResourceUrl())) {
+                changes.add(String.format("LCP resource changed from %s to %s",
+                    before.getResourceUrl() != null ? before.getResourceUrl() : "none (text)", after.getResourceUrl()));
+            }
+            Map<String, Double> phasesBefore = before.phases();
+            for (Map.Entry<String, Double> phase : after.phases().entrySet()) {
+                double delta = phase.getValue() - phasesBefore.get(phase.getKey());
+                if (Math.abs(delta) >= MIN_PHASE_DELTA_MS) {
+                    changes.add(String.format("LCP %s %+.0fms (%.0fms to %.0fms)", phase.getKey(), delta,
+                        phasesBefore.get(phase.getKey()), phase.getValue()));
+                }
+            }
+        }
+
+        Map<String, Double> shiftsBefore = new HashMap<>();
+        for (LayoutShiftSource shift : baseline.getLayoutShifts()) {
+            shiftsBefore.put(shift.getSelector(), shift.getScore());
+        }
+        for (LayoutShiftSource shift : current.getLayoutShifts()) {
+            Double previous = shiftsBefore.get(shift.getSelector());
+            if (previous == null && shift.getScore() >= MIN_SHIFT_DELTA) {
+                changes.add(String.format("New layout shift source %s (%.3f)%s", describe(shift.getNodeLabel(), shift.getSelector()),
+                    shift.getScore(), shift.getCauses().isEmpty() ? "" : ": " + String.join(", ", shift.getCauses())));
+            } else if (previous != null && shift.getScore() - previous >= MIN_SHIFT_DELTA) {
+                changes.add(String.format("Layout shift from %s grew from %.3f to %.3f", describe(shift.getNodeLabel(), shift.getSelector()),
+                    previous, shift.getScore()));
+            }
+        }
+        return changes;
+    }
+
+    public static void attachToAllure(WebVitalsAttribution attribution, String testName) {
+        if (attribution == null) {
+            return;
+        }
+        StringBuilder summary = new StringBuilder();
+        summary.append("# LCP / CLS Attribution\n\n");
+        summary.append("## Test: ").append(testName).append("\n\n");
+
+        LcpAttribution lcp = attribution.getLcp();
+        if (lcp != null) {
+            summary.append("## Largest Contentful Paint\n\n");
+            summary.append("- Element: `").append(lcp.getSelector()).append("`");
+            if (lcp.getNodeLabel() != null && !lcp.getNodeLabel().isEmpty()) {
+                summary.append(" (").append(lcp.getNodeLabel()).append(")");
+            }
+            summary.append("\n- Resource: ").append(lcp.getResourceUrl() != null ? lcp.getResourceUrl() : "none (text)").append("\n\n");
+            summary.append("| Phase | Time |\n");
+            summary.append("|-------|------|\n");
+            for (Map.Entry<String, Double> phase : lcp.phases().entrySet()) {
+                summary.append(String.format("| %s | %.0f ms |%n", phase.getKey(), phase.getValue()));
+            }
+            summary.append("\n");
+        }
+
+        if (!attribution.getLayoutShifts().isEmpty()) {
+            summary.append("## Layout Shift Sources\n\n");
+            summary.append("| Shifted Element | Score | Causes |\n");
+            summary.append("|-----------------|-------|--------|\n");
+            for (LayoutShiftSource shift : attribution.getLayoutShifts()) {
+                summary.append(String.format("| `%s` | %.3f | %s |%n", shift.getSelector(), shift.getScore(),
+                    shift.getCauses().isEmpty() ? "-" : String.join(", ", shift.getCauses())));
+            }
+        }
+
+        Allure.addAttachment("LCP-CLS Attribution", "text/markdown",
+            new ByteArrayInputStream(summary.toString().getBytes(StandardCharsets.UTF_8)), ".md");
+        if (lcp != null && lcp.getSelector() != null) {
+            Allure.parameter("LCP Element", lcp.getSelector());
+        }
+    }
+
+    private static String describe(String label, String selector) {
+        if (label == null || label.isEmpty() || label.equals(selector)) {
+            return selector;
+        }
+        return "'" + label + "' (" + selector + ")";
+    }
+}
@@ -0,0 +1,161 @@
+// Lighthouse user-flow worker.
+//
+// Started once per journey by LighthouseFlowRunner. Connects to the Chrome instance the
+// Selenium session is driving (through its remote debugging port) and records navigation,
+// timespan and snapshot steps while Selenium drives the page. Commands arrive as one JSON
+// object per line on stdin; each gets exactly one reply line on stdout prefixed with
+// REPLY_PREFIX. Anything else written to stdout/stderr is Lighthouse logging.
+
+import fs from 'node:fs';
+import path from 'node:path';
+import readline from 'node:readline';
+import {createRequire} from 'node:module';
+import {pathToFileURL} from 'node:url';
+
+const REPLY_PREFIX = '@@flow ';
+
+let browser = null;
+let flow = null;
+
+/**
+ * Lighthouse is usually installed globally, which ESM imports do not search.
+ * Look in NODE_PATH and the global node_modules next to this node binary.
+ */
+function moduleDirs() {
+  const dirs = (process.env.NODE_PATH || '').split(path.delimiter).filter(Boolean);
+  dirs.push(path.join(path.dirname(process.execPath), '..', 'lib', 'node_modules'));
+  dirs.push(path.join(path.dirname(process.execPath), 'node_modules'));
+  return dirs;
+}
+
+async function loadModules() {
+  try {
+    const lighthouse = await import('lighthouse');
+    const puppeteer = await import('puppeteer-core');
+    return {startFlow: lighthouse.startFlow, puppeteer: puppeteer.default || puppeteer};
+  } catch (e) {
+    // fall through to the global install
+  }
+
+  for (const dir of moduleDirs()) {
+    const lighthouseDir = path.join(dir, 'lighthouse');
+    if (!fs.existsSync(path.join(lighthouseDir, 'package.json'))) {
+      continue;
+    }
+    const lighthouse = await import(pathToFileURL(path.join(lighthouseDir, 'core', 'index.js')).href);
+    // Lighthouse depends on puppeteer-core, so resolve it from Lighthouse's own location
+    const requireFromLighthouse = createRequire(path.join(lighthouseDir, 'package.json'));
+    const puppeteer = requireFromLighthouse('puppeteer-core');
+    return {startFlow: lighthouse.startFlow, puppeteer: puppeteer.default || puppeteer};
+  }
+  throw new Error('Lighthouse not found in NODE_PATH or global node_modules');
+}
+
+async function findDriverPage(url) {
+  const pages = (await browser.pages()).filter(p => !p.url().startsWith('chrome-extension://'));
+  return pages.find(p => p.url() === url) || pages[0];
+}
+
+function requireFlow() {
+  if (!flow) {
+    throw new Error('Flow not started');
+  }
+  return flow;
+}
+
+const handlers = {
+  async start({port, url, name}) {
+    const {startFlow, puppeteer} = await loadModules();
+    browser = await puppeteer.connect({browserURL: `http://127.0.0.1:${port}`, defaultViewport: null});
+    const page = await findDriverPage(url);
+    if (!page) {
+      throw new Error(`No page target found on port ${port}`);
+    }
+    // Selenium drives navigation and owns the window, cookies and throttling, so Lighthouse
+    // must not load about:blank, clear storage or emulate a screen between steps
+    flow = await startFlow(page, {
+      name,
+      flags: {
+        formFactor: 'desktop',
+        screenEmulation: {disabled: true},
+        throttlingMethod: 'provided',
+        disableStorageReset: true,
+        skipAboutBlank: true,
+      },
+    });
+    return {page: page.url()};
+  },
+
+  async startNavigation({name}) {
+    await requireFlow().startNavigation({name});
+    return {};
+  },
+
+  async endNavigation() {
+    await requireFlow().endNavigation();
+    return {};
+  },
+
+  async startTimespan({name}) {
+    await requireFlow().startTimespan({name});
+    return {};
+  },
+
+  async endTimespan() {
+    await requireFlow().endTimespan();
+    return {};
+  },
+
+  async snapshot({name}) {
+    await requireFlow().snapshot({name});
+    return {};
+  },
+
+  async finish({outputBasePath}) {
+    const html = await requireFlow().generateReport();
+    const result = await requireFlow().createFlowResult();
+    const htmlPath = `${outputBasePath}.report.html`;
+    const jsonPath = `${outputBasePath}.report.json`;
+    fs.writeFileSync(htmlPath, html);
+    fs.writeFileSync(jsonPath, JSON.stringify(result));
+    return {htmlPath, jsonPath, steps: result.steps.length};
+  },
+};
+
+function reply(message) {
+  process.stdout.write(REPLY_PREFIX + JSON.stringify(message) + '\n');
+}
+
+const input = readline.createInterface({input: process.stdin});
+
+// Commands are processed strictly in order; the Java side waits for each reply anyway
+let queue = Promise.resolve();
+input.on('line', line => {
+  if (!line.trim()) {
+    return;
+  }
+  queue = queue.then(async () => {
+    let request;
+    try {
+      request = JSON.parse(line);
+      const handler = handlers[request.command];
+      if (!handler) {
+        throw new Error(`Unknown command: ${request.command}`);
+      }
+      const result = await handler(request);
+      reply({id: request.id, ok: true, ...result});
+    } catch (e) {
+      reply({id: request ? request.id : null, ok: false, error: String(e && e.message || e)});
+    }
+  });
+});
+
+input.on('close', () => {
+  queue.then(async () => {
+    // Leave the browser running - it belongs to the Selenium session
+    if (browser) {
+      await browser.disconnect();
+    }
+    process.exit(0);
+  });
+});
@@ -2,22 +2,119 @@ package com.choice.testing.base;
 
 import com.choice.testing.config.ConfigManager;
 import com.choice.testing.drivers.DriverManager;
+import com.choice.testing.load.ApiScenarioCapture;
+import com.choice.testing.pages.AdaptiveLocator;
+import com.choice.testing.proxy.RecordReplayProxy;
+import com.choice.testing.utils.ActionTimingRecorder;
+import com.choice.testing.utils.BackendLatencyInterceptor;
+import com.choice.testing.utils.ChromeResourceSampler;
+import com.choice.testing.utils.CoverageCollector;
+import com.choice.testing.utils.CpuProfiler;
+import com.choice.testing.utils.DevToolsSessionManager;
+import com.choice.testing.utils.HostBenchmark;
+import com.choice.testing.utils.InteractionLatencyRecorder;
+import com.choice.testing.utils.NetworkActivityMonitor;
+import com.choice.testing.utils.NetworkRecorder;
+import com.choice.testing.utils.ThrottlingManager;
 import org.testng.annotations.AfterMethod;
+import org.testng.annotations.AfterSuite;
 import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.BeforeSuite;
 import org.testng.annotations.Optional;
 import org.testng.annotations.Parameters;
 
+import java.lang.reflect.Method;
+import java.util.function.Supplier;
+
 public class BaseTest {
     
+    @BeforeSuite(alwaysRun = true)
+    public void measureHostSpeed() {
+        // Measured once per run and stored with every data point for cross-agent normalization
+        HostBenchmark.getScore();
+    }
+    
     @BeforeMethod
     @Parameters({"browser"})
-    public void setUp(@Optional String browser) {
+    public void setUp(@Optional String browser, Method method) {
         String browserType = browser != null ? browser : ConfigManager.getProperty("default.browser");
+        ActionTimingRecorder.startForCurrentTest();
         DriverManager.initializeWebDriver(browserType);
+        
+        if (ChromeResourceSampler.isEnabled() && "chrome".equalsIgnoreCase(browserType)) {
+            ChromeResourceSampler.startForCurrentSession();
+        }
+        
+        if ("chrome".equalsIgnoreCase(browserType)) {
+            // Attach before the first navigation so network-idle waits see every request
+            NetworkActivityMonitor.startForCurrentSession();
+            if (NetworkRecorder.isEnabled()) {
+                NetworkRecorder.startForCurrentSession();
+            }
+            if (CpuProfiler.isEnabled()) {
+                CpuProfiler.startForCurrentSession();
+            }
+            if (CoverageCollector.isEnabled()) {
+                CoverageCollector.startForCurrentSession();
+            }
+            BackendLatencyInterceptor.startForCurrentSession();
+            ThrottlingManager.applyForTest(method.getName());
+        }
     }
     
     @AfterMethod
-    public void tearDown() {
-        DriverManager.quitWebDriver();
+    public void tearDown(Method method) {
+        String testName = method.getName();
+        try {
+            // Each hook is isolated, so one failing recorder does not skip the others or leak the browser
+            runTeardownHook("ChromeResourceSampler", () -> ChromeResourceSampler.stopAndAttachToAllure(testName));
+            runTeardownHook("ActionTimingRecorder", () -> ActionTimingRecorder.flushAndAttach(testName));
+            runTeardownHook("InteractionLatencyRecorder",
+                () -> InteractionLatencyRecorder.finishAndAttach(DriverManager.getWebDriver(), testName));
+            NetworkRecorder.NetworkReport networkReport =
+                runTeardownHook("NetworkRecorder", () -> NetworkRecorder.stopAndAttachToAllure(testName));
+            if (ApiScenarioCapture.isEnabled()) {
+                runTeardownHook("ApiScenarioCapture", () -> ApiScenarioCapture.captureAndAttach(networkReport));
+            }
+            runTeardownHook("BackendLatencyInterceptor", () -> BackendLatencyInterceptor.stopAndAttachToAllure(testName));
+            // Before the CPU profiler, whose Profiler.disable would also end precise coverage
+            runTeardownHook("CoverageCollector", () -> CoverageCollector.stopAndAttachToAllure(testName, networkReport));
+            runTeardownHook("CpuProfiler", () -> CpuProfiler.stopAndAttachToAllure(testName));
+            runTeardownHook("NetworkActivityMonitor", NetworkActivityMonitor::stopCurrent);
+            runTeardownHook("ThrottlingManager", ThrottlingManager::reset);
+        } finally {
+            try {
+                DevToolsSessionManager.closeSession();
+            } finally {
+                DriverManager.quitWebDriver();
+            }
+        }
+    }
+    
+    private static <T> T runTeardownHook(String hook, Supplier<T> action) {
+        try {
+            return action.get();
+        } catch (Exception e) {
+            System.out.println("⚠️ Teardown hook " + hook + " failed: " + e.getMessage());
+            return null;
+        }
+    }
+    
+    private static void runTeardownHook(String hook, Runnable action) {
+        runTeardownHook(hook, () -> {
+            action.run();
+            return null;
+        });
+    }
+    
+    @AfterSuite(alwaysRun = true)
+    public void saveLocatorRankings() {
+        AdaptiveLocator.saveRankings();
+    }
+    
+    @AfterSuite(alwaysRun = true)
+    public void stopRecordReplayProxy() {
+        // Saves the archive when recording
+        RecordReplayProxy.stopShared();
     }
 }
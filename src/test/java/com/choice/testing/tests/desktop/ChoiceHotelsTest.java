@@ -5,8 +5,11 @@ import com.choice.testing.config.ConfigManager;
 import com.choice.testing.pages.ChoiceHotelsHomePage;
 import com.choice.testing.pages.HotelSearchResultsPage;
 import com.choice.testing.pages.HotelDetailsPage;
+import com.choice.testing.utils.InteractionLatencyRecorder;
+import com.choice.testing.utils.LighthouseFlowRunner;
 import com.choice.testing.utils.LighthouseHelper;
 import com.choice.testing.utils.LighthouseRunner;
+import com.choice.testing.utils.StepMarker;
 import io.qameta.allure.Description;
 import io.qameta.allure.Epic;
 import io.qameta.allure.Feature;
@@ -28,12 +31,40 @@ public class ChoiceHotelsTest extends BaseTest {
         int rooms = ConfigManager.getIntProperty("test.rooms", 1);
         int adults = ConfigManager.getIntProperty("test.adults", 2);
         
-        navigateToChoiceHotels();
-        auditHomepagePerformance();
+        // One Lighthouse user flow for the whole journey; separate audits if it can't start or doesn't complete
+        LighthouseFlowRunner flow = startUserFlow("Choice Hotels Search Flow");
+        if (flow == null) {
+            navigateToChoiceHotels();
+            auditHomepagePerformance();
+            
+            performCompleteHotelSearch(destination, checkinDays, checkoutDays, rooms, adults);
+            verifySearchResults();
+            auditSearchResultsPerformance();
+            validateJourneyResponsiveness();
+            return;
+        }
         
-        performCompleteHotelSearch(destination, checkinDays, checkoutDays, rooms, adults);
-        verifySearchResults();
-        auditSearchResultsPerformance();
+        boolean homepageAudited = false;
+        try {
+            flow.navigation("Homepage", this::navigateToChoiceHotels);
+            if (flow.hasFailed()) {
+                auditHomepagePerformance();
+                homepageAudited = true;
+            }
+            // The search click loads the results page, so it is a navigation, not a timespan
+            flow.navigation("Search Results", () -> performCompleteHotelSearch(destination, checkinDays, checkoutDays, rooms, adults));
+            verifySearchResults();
+            if (!reportUserFlow(flow, "Choice Hotels Search Flow")) {
+                auditSearchResultsPerformance();
+                if (!homepageAudited) {
+                    navigateToChoiceHotels();
+                    auditHomepagePerformance();
+                }
+            }
+        } finally {
+            flow.close();
+        }
+        validateJourneyResponsiveness();
     }
     
     @Test
@@ -56,6 +87,7 @@ public class ChoiceHotelsTest extends BaseTest {
     
     @Step("Navigate to Choice Hotels website")
     private void navigateToChoiceHotels() {
+        StepMarker.mark("Navigate");
         ChoiceHotelsHomePage homePage = new ChoiceHotelsHomePage();
         homePage.navigateToHomePage();
         
@@ -67,6 +99,7 @@ public class ChoiceHotelsTest extends BaseTest {
     
     @Step("Perform complete hotel search with: {destination}, {checkinDays} days from now, {checkoutDays} days from now, {rooms} rooms, {adults} adults")
     private void performCompleteHotelSearch(String destination, int checkinDays, int checkoutDays, int rooms, int adults) {
+        StepMarker.mark("Hotel Search");
         ChoiceHotelsHomePage homePage = new ChoiceHotelsHomePage();
         
         System.out.println("🔍 Starting hotel search with parameters:");
@@ -81,6 +114,7 @@ public class ChoiceHotelsTest extends BaseTest {
     
     @Step("Verify search results are displayed")
     private void verifySearchResults() {
+        StepMarker.mark("Search Results");
         HotelSearchResultsPage resultsPage = new HotelSearchResultsPage();
         
         // Wait for results to load using explicit wait
@@ -120,10 +154,12 @@ public class ChoiceHotelsTest extends BaseTest {
         // Select and click random hotel
         selectAndViewRandomHotel();
         auditHotelDetailsPerformance();
+        validateJourneyResponsiveness();
     }
     
     @Step("Select and view random hotel from search results")
     private void selectAndViewRandomHotel() {
+        StepMarker.mark("Hotel Selection");
         HotelSearchResultsPage resultsPage = new HotelSearchResultsPage();
         
         // Wait for search results to load using explicit wait
@@ -183,6 +219,50 @@ public class ChoiceHotelsTest extends BaseTest {
     
     // Performance Audit Methods
     
+    @Step("Start Lighthouse user flow: {flowName}")
+    private LighthouseFlowRunner startUserFlow(String flowName) {
+        if (!LighthouseFlowRunner.isEnabled()) {
+            return null;
+        }
+        try {
+            return LighthouseFlowRunner.start(flowName);
+        } catch (Exception e) {
+            System.out.println("⚠️ Lighthouse user flow unavailable, using separate audits: " + e.getMessage());
+            return null;
+        }
+    }
+    
+    @Step("Report Lighthouse user flow: {testName}")
+    private boolean reportUserFlow(LighthouseFlowRunner flow, String testName) {
+        try {
+            LighthouseFlowRunner.FlowResult result = flow.finish();
+            if (result == null) {
+                return false;
+            }
+            LighthouseHelper.trackUserFlowRegressions(result, testName);
+            
+            System.out.println("📊 User Flow Summary:");
+            for (LighthouseFlowRunner.FlowStep step : result.getSteps()) {
+                System.out.println("   " + step.getName() + " (" + step.getGatherMode().name().toLowerCase() + "): "
+                    + String.format("%.1f%%", step.getMetrics().getPerformanceScore() * 100));
+            }
+            return true;
+        } catch (Exception e) {
+            System.out.println("⚠️ User flow report failed: " + e.getMessage());
+            return false;
+        }
+    }
+    
+    @Step("Validate interaction responsiveness of the journey")
+    private void validateJourneyResponsiveness() {
+        try {
+            LighthouseHelper.validateInteractionLatency(InteractionLatencyRecorder.currentReport());
+        } catch (AssertionError e) {
+            System.out.println("⚠️ Interaction latency: " + e.getMessage());
+            // Log but don't fail - responsiveness is informational for now
+        }
+    }
+    
     @Step("Audit homepage performance")
     private void auditHomepagePerformance() {
         try {
@@ -134,12 +134,8 @@ public class HomePageTest extends BaseTest {
         
         resultsPage.clickFirstResult();
         
-        // Wait a bit for navigation
-        try {
-            Thread.sleep(2000);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        }
+        // Wait for navigation to finish
+        resultsPage.waitForPageSettled();
         
         System.out.println("✅ Clicked first result, navigated from: " + originalUrl);
     }
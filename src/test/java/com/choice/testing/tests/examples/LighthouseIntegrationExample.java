@@ -3,6 +3,7 @@ package com.choice.testing.tests.examples;
 import com.choice.testing.drivers.DriverManager;
 import com.choice.testing.utils.LighthouseHelper;
 import com.choice.testing.utils.LighthouseRunner;
+import com.choice.testing.utils.SmartWait;
 import io.qameta.allure.Description;
 import io.qameta.allure.Epic;
 import io.qameta.allure.Feature;
@@ -190,7 +191,7 @@ public class LighthouseIntegrationExample {
             destinationInput.clear();
             destinationInput.sendKeys(destination);
             
-            Thread.sleep(1000); // Allow for autocomplete
+            SmartWait.waitForDomQuiescence(driver, SmartWait.getDefaultTimeout()); // Allow for autocomplete
             
             // Find and click search button
             WebElement searchButton = driver.findElement(
@@ -223,7 +224,7 @@ public class LighthouseIntegrationExample {
             firstResult.click();
             
             // Wait for hotel details page
-            Thread.sleep(3000);
+            SmartWait.waitForPageSettled(driver, SmartWait.getDefaultTimeout());
             
             System.out.println("✅ Clicked first hotel result");
             
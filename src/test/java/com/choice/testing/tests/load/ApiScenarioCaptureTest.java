@@ -0,0 +1,161 @@
+package com.choice.testing.tests.load;
+
+import com.choice.testing.load.ApiScenarioCapture;
+import com.choice.testing.load.HttpLoadGenerator;
+import com.choice.testing.load.LoadProfile;
+import com.choice.testing.load.LoadRequest;
+import com.choice.testing.utils.NetworkRecorder;
+import io.qameta.allure.Description;
+import io.qameta.allure.Epic;
+import io.qameta.allure.Feature;
+import io.qameta.allure.Severity;
+import io.qameta.allure.SeverityLevel;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Captures API specs from a hand-built network report of the search flow, then runs them
+ * against the embedded stub server and checks the drift verdicts.
+ */
+@Epic("Performance Testing")
+@Feature("HTTP Load Generation")
+public class ApiScenarioCaptureTest {
+
+    private LoadStubServer server;
+    private String baseUrl;
+
+    @BeforeClass
+    public void startStubServer() throws IOException {
+        server = new LoadStubServer();
+        baseUrl = server.baseUrl();
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void stopStubServer() {
+        if (server != null) {
+            server.stop();
+        }
+    }
+
+    private NetworkRecorder.NetworkReport searchFlowReport() {
+        NetworkRecorder.NetworkReport report = new NetworkRecorder.NetworkReport();
+        report.setTestName("Search Flow");
+        List<NetworkRecorder.RequestRecord> requests = report.requests();
+        requests.add(record("GET", baseUrl + "/api/search?destination=Orlando&checkin=2026-01-17", "xhr", 25, null));
+        requests.add(record("GET", baseUrl + "/api/search?checkin=2026-01-20&destination=Miami", "xhr", 30, null));
+        requests.add(record("GET", baseUrl + "/api/hotels/FL123/rates", "xhr", 10, null));
+        requests.add(record("GET", baseUrl + "/api/hotels/TX456/rates", "fetch", 12, null));
+        requests.add(record("GET", baseUrl + "/api/hotels/TX456/rates", "fetch", 12, null));
+        requests.add(record("GET", baseUrl + "/api/slow?hotel=FL123", "fetch", 100, null));
+        requests.add(record("POST", baseUrl + "/api/rates", "xhr", 28, "{\"hotelId\":\"FL123\"}"));
+
+        requests.add(record("GET", baseUrl + "/static/app.js", "script", 50, null));
+        NetworkRecorder.RequestRecord thirdParty = record("GET", "https://analytics.example.com/collect?id=1", "xhr", 80, null);
+        thirdParty.setThirdParty(true);
+        requests.add(thirdParty);
+        NetworkRecorder.RequestRecord cached = record("GET", baseUrl + "/api/search?destination=Tampa&checkin=2026-01-17", "xhr", 1, null);
+        cached.setCacheStatus("memory");
+        requests.add(cached);
+        return report;
+    }
+
+    private static NetworkRecorder.RequestRecord record(String method, String url, String type, double totalMs, String postData) {
+        NetworkRecorder.RequestRecord record = new NetworkRecorder.RequestRecord();
+        record.setMethod(method);
+        record.setUrl(url);
+        record.setResourceType(type);
+        record.setStatus(200);
+        record.setCacheStatus("network");
+        record.setTotalMs(totalMs);
+        record.setBlockedMs(-1);
+        record.setPostData(postData);
+        record.setRequestContentType(postData != null ? "application/json" : null);
+        return record;
+    }
+
+    private static Map<String, ApiScenarioCapture.ApiSpec> byName(ApiScenarioCapture.ApiScenario scenario) {
+        return scenario.getSpecs().stream().collect(Collectors.toMap(ApiScenarioCapture.ApiSpec::getName, Function.identity()));
+    }
+
+    @Test
+    @Severity(SeverityLevel.NORMAL)
+    @Description("XHR and fetch calls group by URL template, with observed values as feeder rows")
+    public void testGroupingByTemplate() {
+        ApiScenarioCapture.ApiScenario scenario = ApiScenarioCapture.capture(searchFlowReport(), "Search Flow");
+        Map<String, ApiScenarioCapture.ApiSpec> specs = byName(scenario);
+
+        Assert.assertEquals(specs.keySet().size(), 4, "Scripts, third-party and cached calls are not API specs: " + specs.keySet());
+
+        ApiScenarioCapture.ApiSpec search = specs.get("GET /api/search");
+        Assert.assertEquals(search.getUrlTemplate(), baseUrl + "/api/search?checkin={checkin}&destination={destination}",
+            "Query parameters in any order give one template");
+        Assert.assertEquals(search.getFeeder().size(), 2);
+        Assert.assertEquals(search.getFeeder().get(0).get("destination"), "Orlando");
+
+        ApiScenarioCapture.ApiSpec rates = specs.get("GET /api/hotels/{id1}/rates");
+        Assert.assertNotNull(rates, "Hotel codes in the path become placeholders");
+        Assert.assertEquals(rates.getRecordedLatency().getRequests(), 3, "Every call counts towards the latency");
+        Assert.assertEquals(rates.getFeeder().size(), 2, "Feeder rows are distinct");
+
+        ApiScenarioCapture.ApiSpec post = specs.get("POST /api/rates");
+        Assert.assertEquals(post.getParameters(), List.of("body"));
+        Assert.assertEquals(post.getContentType(), "application/json");
+    }
+
+    @Test
+    @Severity(SeverityLevel.CRITICAL)
+    @Description("Captured specs run as a load scenario and endpoints slower than recorded are flagged")
+    public void testScenarioRunsAndFlagsDrift() {
+        ApiScenarioCapture.ApiScenario scenario = ApiScenarioCapture.capture(searchFlowReport(), "Search Flow");
+        List<LoadRequest> requests = ApiScenarioCapture.toLoadRequests(scenario);
+
+        Assert.assertEquals(requests.size(), 8, "Two feeder rows for each of the four specs");
+        Assert.assertTrue(requests.stream().noneMatch(request -> request.getUrl().contains("{")), "Every placeholder is filled");
+        Assert.assertEquals(requests.get(0).getUrl(), baseUrl + "/api/search?checkin=2026-01-17&destination=Orlando");
+
+        HttpLoadGenerator.LoadResult result = new HttpLoadGenerator(LoadProfile.constantRate(80, 20, 2000), requests,
+            HttpLoadGenerator.Engine.resolve("auto"), 0, 10000, 0).run("Stub Captured Scenario");
+        Assert.assertEquals(result.getOverall().getErrors(), 0);
+
+        List<ApiScenarioCapture.DriftResult> drift = ApiScenarioCapture.detectDrift(scenario, result);
+        ApiScenarioCapture.attachDriftToAllure(drift);
+        Map<String, Boolean> p50Drift = drift.stream().filter(d -> "p50".equals(d.getPercentile()))
+            .collect(Collectors.toMap(ApiScenarioCapture.DriftResult::getName, ApiScenarioCapture.DriftResult::isDrifted));
+
+        Assert.assertTrue(p50Drift.get("GET /api/slow"), "Recorded at 100ms, served in 500ms");
+    }
+
+    @Test
+    @Severity(SeverityLevel.NORMAL)
+    @Description("Small absolute slowdowns on fast endpoints are not drift, however large relatively")
+    public void testDriftNeedsAbsoluteDelta() {
+        ApiScenarioCapture.ApiScenario scenario = ApiScenarioCapture.capture(searchFlowReport(), "Search Flow");
+
+        // A later capture of the same flow; load-run timings include client overhead, so compare captures
+        NetworkRecorder.NetworkReport later = searchFlowReport();
+        for (NetworkRecorder.RequestRecord request : later.requests()) {
+            if (request.getUrl().contains("/rates") && "GET".equals(request.getMethod())) {
+                request.setTotalMs(request.getTotalMs() * 2);
+            } else if (request.getUrl().contains("/api/slow")) {
+                request.setTotalMs(500);
+            }
+        }
+
+        Map<String, Boolean> p50Drift = ApiScenarioCapture.detectDrift(scenario, ApiScenarioCapture.capture(later, "Search Flow"))
+            .stream().filter(d -> "p50".equals(d.getPercentile()))
+            .collect(Collectors.toMap(ApiScenarioCapture.DriftResult::getName, ApiScenarioCapture.DriftResult::isDrifted));
+
+        Assert.assertTrue(p50Drift.get("GET /api/slow"), "Recorded at 100ms, now 500ms");
+        Assert.assertFalse(p50Drift.get("GET /api/hotels/{id1}/rates"),
+            "Twice as slow at about 10ms is relatively slower but within the absolute threshold");
+        Assert.assertFalse(p50Drift.get("GET /api/search"), "Unchanged endpoints do not drift");
+    }
+}
@@ -0,0 +1,142 @@
+package com.choice.testing.tests.load;
+
+import com.choice.testing.load.ArrivalRateScheduler;
+import com.choice.testing.load.LoadRequest;
+import io.qameta.allure.Description;
+import io.qameta.allure.Epic;
+import io.qameta.allure.Feature;
+import io.qameta.allure.Severity;
+import io.qameta.allure.SeverityLevel;
+import org.testng.Assert;
+import org.testng.SkipException;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Open-model scheduling against the embedded stub server: schedule shape, dispatch rate and
+ * the gap between corrected and uncorrected latency when the server stalls.
+ */
+@Epic("Performance Testing")
+@Feature("HTTP Load Generation")
+public class ArrivalRateSchedulerTest {
+
+    private LoadStubServer server;
+    private List<LoadRequest> search;
+
+    @BeforeClass
+    public void startStubServer() throws IOException {
+        server = new LoadStubServer();
+        search = Collections.singletonList(LoadRequest.get("Hotel Search", server.baseUrl() + "/api/search"));
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void stopStubServer() {
+        if (server != null) {
+            server.stop();
+        }
+    }
+
+    @Test
+    @Severity(SeverityLevel.NORMAL)
+    @Description("Precomputed schedules hit the target count, follow the ramp and never go backwards")
+    public void testScheduleShape() {
+        long[] uniform = ArrivalRateScheduler.buildSchedule(1000, 10_000, 0, ArrivalRateScheduler.Distribution.UNIFORM, 1);
+        Assert.assertEquals(uniform.length, 10_000, 1);
+        Assert.assertEquals(uniform[1] - uniform[0], 1_000_000L, "1000 req/s is one arrival per millisecond");
+
+        long[] ramped = ArrivalRateScheduler.buildSchedule(1000, 10_000, 4_000, ArrivalRateScheduler.Distribution.UNIFORM, 1);
+        Assert.assertEquals(ramped.length, 8_000, 1, "A 4s linear ramp delivers half its full-rate arrivals");
+        long firstSecond = countBefore(ramped, TimeUnit.SECONDS.toNanos(1));
+        long fifthSecond = countBefore(ramped, TimeUnit.SECONDS.toNanos(5)) - countBefore(ramped, TimeUnit.SECONDS.toNanos(4));
+        Assert.assertEquals(firstSecond, 125, 2, "Ramp to 1000 req/s over 4s averages 125 req/s in its first second");
+        Assert.assertEquals(fifthSecond, 1000, 2);
+
+        long[] poisson = ArrivalRateScheduler.buildSchedule(1000, 10_000, 0, ArrivalRateScheduler.Distribution.POISSON, 42);
+        Assert.assertEquals(poisson.length, 10_000, 400, "Poisson arrivals average out to the target rate");
+        for (int i = 1; i < poisson.length; i++) {
+            Assert.assertTrue(poisson[i] >= poisson[i - 1], "Schedule must be ordered");
+        }
+    }
+
+    private static long countBefore(long[] schedule, long nanos) {
+        long count = 0;
+        for (long offset : schedule) {
+            if (offset < nanos) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Test
+    @Severity(SeverityLevel.CRITICAL)
+    @Description("10k requests per second from one dispatcher thread without falling behind the schedule")
+    public void testHighArrivalRate() {
+        // The stub server shares the agent's cores with the client, so the target is 10k req/s
+        // from 10 cores up and scaled down below that
+        if (Runtime.getRuntime().availableProcessors() < 2) {
+            // On one core the server threads preempt the dispatcher for whole scheduler slices
+            throw new SkipException("Dispatcher lag needs at least 2 cores, the stub server would share this one");
+        }
+        double rate = Math.min(10_000, 1_000 * Runtime.getRuntime().availableProcessors());
+        List<LoadRequest> ping = Collections.singletonList(LoadRequest.get("Ping", server.baseUrl() + "/api/ping"));
+        ArrivalRateScheduler scheduler = new ArrivalRateScheduler(ping, rate, 3_000, 0,
+            ArrivalRateScheduler.Distribution.UNIFORM, 0, 10_000, 10_000);
+
+        ArrivalRateScheduler.ArrivalRateResult result = scheduler.run("Stub High Rate");
+        ArrivalRateScheduler.attachToAllure(result);
+
+        Assert.assertEquals(result.getSent(), result.getScheduled(), "Every scheduled request should be sent");
+        Assert.assertTrue(result.getAchievedRate() >= rate * 0.95, "Achieved " + result.getAchievedRate() + " of " + rate + " req/s");
+        Assert.assertTrue(result.getSendLagP99Ms() < 50,
+            "Dispatcher should keep up with the schedule, p99 lag was " + result.getSendLagP99Ms() + "ms");
+        Assert.assertEquals(result.getCorrected().getErrors(), 0);
+    }
+
+    @Test
+    @Severity(SeverityLevel.CRITICAL)
+    @Description("A server stall shows up in corrected latency but is hidden from uncorrected latency")
+    public void testCoordinatedOmissionCorrection() {
+        // Few requests may be outstanding, as with a closed loop of four users, so the stall
+        // holds back the sends instead of piling up requests
+        ArrivalRateScheduler scheduler = new ArrivalRateScheduler(search, 200, 3_000, 0,
+            ArrivalRateScheduler.Distribution.UNIFORM, 4, 4, 10_000);
+        ScheduledExecutorService stallTimer = Executors.newSingleThreadScheduledExecutor();
+        stallTimer.schedule(() -> server.stall(1_000), 1_000, TimeUnit.MILLISECONDS);
+
+        ArrivalRateScheduler.ArrivalRateResult result;
+        try {
+            result = scheduler.run("Stub Stall");
+        } finally {
+            stallTimer.shutdownNow();
+        }
+
+        Assert.assertEquals(result.getSent(), result.getScheduled());
+        Assert.assertTrue(result.getCorrected().getP90Ms() > 300,
+            "Requests due during the stall should carry its cost, corrected p90 " + result.getCorrected().getP90Ms() + "ms");
+        Assert.assertTrue(result.getUncorrected().getP90Ms() < 100,
+            "Measured from the actual send the stall almost disappears, uncorrected p90 " + result.getUncorrected().getP90Ms() + "ms");
+    }
+
+    @Test
+    @Severity(SeverityLevel.NORMAL)
+    @Description("Configured arrival rate against the hotel search endpoints")
+    public void testHotelSearchArrivalRate() {
+        if (!ArrivalRateScheduler.isEnabled()) {
+            throw new SkipException("Arrival-rate load disabled (load.arrival.enabled=false)");
+        }
+
+        ArrivalRateScheduler.ArrivalRateResult result = ArrivalRateScheduler.fromConfig().run("Hotel Search");
+        ArrivalRateScheduler.attachToAllure(result);
+
+        Assert.assertTrue(result.getSent() > 0, "Arrival-rate run should send requests");
+    }
+}
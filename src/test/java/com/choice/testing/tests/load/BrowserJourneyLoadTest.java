@@ -0,0 +1,37 @@
+package com.choice.testing.tests.load;
+
+import com.choice.testing.load.BrowserJourneyLoadRunner;
+import io.qameta.allure.Description;
+import io.qameta.allure.Epic;
+import io.qameta.allure.Feature;
+import io.qameta.allure.Severity;
+import io.qameta.allure.SeverityLevel;
+import org.testng.Assert;
+import org.testng.SkipException;
+import org.testng.annotations.Test;
+
+/**
+ * Concurrent headless browsers on the hotel journey. Each user owns its driver, so this test
+ * does not extend BaseTest and manages no driver of its own.
+ */
+@Epic("Performance Testing")
+@Feature("Browser Load")
+public class BrowserJourneyLoadTest {
+
+    @Test
+    @Severity(SeverityLevel.NORMAL)
+    @Description("Ramp headless users through search, results and hotel details to find the agent's capacity")
+    public void testHotelJourneyBrowserLoad() {
+        if (!BrowserJourneyLoadRunner.isEnabled()) {
+            throw new SkipException("Browser load disabled (browser.load.enabled=false)");
+        }
+
+        BrowserJourneyLoadRunner.BrowserLoadResult result = BrowserJourneyLoadRunner.fromConfig().run("Hotel Journey");
+        BrowserJourneyLoadRunner.attachToAllure(result);
+
+        long completed = result.getSteps().get(result.getSteps().size() - 1).getCompleted();
+        Assert.assertTrue(completed > 0, "At least one user should complete the journey");
+        System.out.println(String.format("🌐 %d of %d browser users sustainable on this agent",
+            result.getSustainableUsers(), result.getUsers()));
+    }
+}
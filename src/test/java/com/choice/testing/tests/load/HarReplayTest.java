@@ -0,0 +1,179 @@
+package com.choice.testing.tests.load;
+
+import com.choice.testing.load.HarReplay;
+import com.choice.testing.load.HarScript;
+import com.choice.testing.load.LoadProfile;
+import com.choice.testing.load.LoadRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.qameta.allure.Description;
+import io.qameta.allure.Epic;
+import io.qameta.allure.Feature;
+import io.qameta.allure.Severity;
+import io.qameta.allure.SeverityLevel;
+import org.testng.Assert;
+import org.testng.SkipException;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Set;
+
+/**
+ * Replays a hand-built HAR of a session, search and booking journey against the embedded stub
+ * server, whose booking endpoint only accepts the token and cookie it issued to that user.
+ */
+@Epic("Performance Testing")
+@Feature("HTTP Load Generation")
+public class HarReplayTest {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final Set<String> API_TYPES = Set.of("Document", "XHR", "Fetch");
+    private static final String TOKEN_REGEX = "\"token\":\"([^\"]+)\"";
+
+    private LoadStubServer server;
+    private String har;
+
+    @BeforeClass
+    public void startStubServer() throws IOException {
+        server = new LoadStubServer();
+        har = journeyHar(server.baseUrl());
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void stopStubServer() {
+        if (server != null) {
+            server.stop();
+        }
+    }
+
+    /**
+     * Session at 0ms, search and rates in parallel once it returns, a third-party script and a
+     * cached request that must be dropped, then the booking after both XHRs finished
+     */
+    private static String journeyHar(String baseUrl) throws IOException {
+        Instant start = Instant.parse("2026-01-10T12:00:00.000Z");
+        ObjectNode root = objectMapper.createObjectNode();
+        ArrayNode entries = root.putObject("log").putArray("entries");
+
+        ObjectNode session = entry(entries, start, 0, 10, "Document", "GET", baseUrl + "/api/session", 200);
+        ((ObjectNode) session.get("response")).putArray("headers").addObject().put("name", "Set-Cookie").put("value", "sid=REC-SID; Path=/");
+        ((ObjectNode) session.get("response")).putObject("content").put("mimeType", "application/json").put("text", "{\"token\":\"REC-TOKEN\"}");
+        entry(entries, start, 30, 20, "XHR", "GET", baseUrl + "/api/search?checkin=2026-01-17", 200);
+        entry(entries, start, 32, 20, "XHR", "GET", baseUrl + "/api/rates", 200);
+        entry(entries, start, 35, 15, "Script", "GET", "https://cdn.example.com/lib.js", 200);
+        entry(entries, start, 40, 0, "Fetch", "GET", baseUrl + "/api/ping", 200).put("_cacheStatus", "memory");
+        ObjectNode book = entry(entries, start, 100, 5, "Fetch", "POST", baseUrl + "/api/book?token=REC-TOKEN", 200);
+        ((ObjectNode) book.get("request")).putArray("headers").addObject().put("name", "Cookie").put("value", "sid=REC-SID");
+        ((ObjectNode) book.get("request")).putObject("postData").put("mimeType", "application/json").put("text", "{\"hotelId\":\"FL123\"}");
+        return objectMapper.writeValueAsString(root);
+    }
+
+    private static ObjectNode entry(ArrayNode entries, Instant start, long offsetMs, double timeMs, String type,
+                                    String method, String url, int status) {
+        ObjectNode entry = entries.addObject();
+        entry.put("startedDateTime", start.plusMillis(offsetMs).toString());
+        entry.put("time", timeMs);
+        entry.putObject("request").put("method", method).put("url", url);
+        entry.putObject("response").put("status", status);
+        entry.put("_resourceType", type);
+        return entry;
+    }
+
+    @Test
+    @Severity(SeverityLevel.NORMAL)
+    @Description("Recorded timings become dependencies and gaps; third-party and cached entries are dropped")
+    public void testScriptDependencies() throws IOException {
+        HarScript script = HarScript.parse(har, Collections.emptySet(), Collections.emptySet());
+
+        Assert.assertEquals(script.getEntries().size(), 4);
+        Assert.assertEquals(script.getSkippedEntries(), 2, "Third-party script and memory-cached request are not replayed");
+        Assert.assertEquals(script.getRoots(), Collections.singletonList(0));
+
+        HarScript.Entry search = script.getEntries().get(1);
+        HarScript.Entry rates = script.getEntries().get(2);
+        HarScript.Entry book = script.getEntries().get(3);
+        Assert.assertEquals(search.getDependsOn(), 0, "Search waits for the session response");
+        Assert.assertEquals(rates.getDependsOn(), 0, "Rates runs in parallel with search");
+        Assert.assertEquals(search.getGapMs(), 20.0, 0.01);
+        Assert.assertEquals(book.getDependsOn(), 2, "Booking waits for the last response before it started");
+        Assert.assertEquals(book.getGapMs(), 48.0, 0.01, "Think time from the rates response to the booking");
+        Assert.assertEquals(script.getLongestChain(), 3);
+        Assert.assertEquals(book.getName(), "POST /api/book");
+
+        HarScript apiOnly = HarScript.parse(har, Collections.emptySet(), Set.of("fetch"));
+        Assert.assertEquals(apiOnly.getEntries().size(), 1, "Type filter is case-insensitive");
+    }
+
+    @Test
+    @Severity(SeverityLevel.NORMAL)
+    @Description("Recorded dates move by the days since the recording")
+    public void testDateShift() {
+        HarReplay.Rewriter shift = HarReplay.shiftDates(LocalDate.of(2026, 1, 10), LocalDate.of(2026, 3, 1));
+        LoadRequest recorded = LoadRequest.post("Search", "https://example.com/search?checkin=2026-01-17&checkout=2026-01-19",
+            "{\"date\":\"2026-01-17\",\"id\":\"12026-01-170\"}", "application/json");
+
+        LoadRequest shifted = shift.rewrite(recorded, new HashMap<>());
+
+        Assert.assertEquals(shifted.getUrl(), "https://example.com/search?checkin=2026-03-08&checkout=2026-03-10");
+        Assert.assertEquals(shifted.getBody(), "{\"date\":\"2026-03-08\",\"id\":\"12026-01-170\"}",
+            "Digits that only contain a date are left alone");
+    }
+
+    @Test
+    @Severity(SeverityLevel.CRITICAL)
+    @Description("Hundreds of protocol users replay the journey with their own session token and cookie")
+    public void testReplayAtConcurrency() throws IOException {
+        HarScript script = HarScript.parse(har, Collections.emptySet(), API_TYPES);
+        HarReplay replay = new HarReplay(script, LoadProfile.rampUp(200, 1000, 2000), 1.0, 100, 0, 10000)
+            .withCookies()
+            .correlate("token", TOKEN_REGEX);
+
+        HarReplay.ReplayResult result = replay.run("Stub HAR Replay");
+        HarReplay.attachToAllure(result, script);
+
+        Assert.assertEquals(result.getLoad().getPeakUsers(), 200);
+        Assert.assertTrue(result.getIterationsCompleted() >= 200, "Every user should finish at least one journey, got "
+            + result.getIterationsCompleted());
+        Assert.assertEquals(result.getLoad().getOverall().getErrors(), 0, "Booking only succeeds with the live token and cookie");
+        Assert.assertEquals(result.getStatusMismatches(), 0);
+        Assert.assertTrue(result.getCorrelations().get("token") >= result.getIterationsCompleted());
+        Assert.assertEquals(result.getLoad().getRequests().size(), 4, "Latencies are kept per replayed request");
+        Assert.assertTrue(result.getMeanIterationMs() >= 68,
+            "Journeys keep the recorded gaps, mean was " + result.getMeanIterationMs() + "ms");
+    }
+
+    @Test
+    @Severity(SeverityLevel.NORMAL)
+    @Description("Without correlation the recorded token is rejected and shows up as a status mismatch")
+    public void testMissingCorrelationShowsAsMismatch() throws IOException {
+        HarScript script = HarScript.parse(har, Collections.emptySet(), API_TYPES);
+        HarReplay.ReplayResult result = new HarReplay(script, LoadProfile.rampUp(10, 0, 1000), 0, 50, 0, 10000)
+            .run("Stub HAR Replay Uncorrelated");
+
+        Assert.assertTrue(result.getStatusMismatches() > 0);
+        Assert.assertEquals(result.getStatusMismatches(), result.getLoad().getOverall().getErrors(),
+            "Only the booking fails, and every failure differs from the recorded 200");
+    }
+
+    @Test
+    @Severity(SeverityLevel.NORMAL)
+    @Description("Configured HAR replay against the recorded hosts")
+    public void testConfiguredHarReplay() throws IOException {
+        if (!HarReplay.isEnabled()) {
+            throw new SkipException("HAR replay disabled (har.replay.enabled=false)");
+        }
+
+        HarReplay replay = HarReplay.fromConfig();
+        HarReplay.ReplayResult result = replay.run("Hotel Journey Replay");
+        HarReplay.attachToAllure(result, replay.getScript());
+
+        Assert.assertTrue(result.getIterationsCompleted() > 0, "Replay should complete journeys");
+    }
+}
@@ -0,0 +1,173 @@
+package com.choice.testing.tests.load;
+
+import com.choice.testing.load.ApiScenarioCapture;
+import com.choice.testing.load.HttpLoadGenerator;
+import com.choice.testing.load.LoadProfile;
+import com.choice.testing.load.LoadRequest;
+import io.qameta.allure.Description;
+import io.qameta.allure.Epic;
+import io.qameta.allure.Feature;
+import io.qameta.allure.Severity;
+import io.qameta.allure.SeverityLevel;
+import org.testng.Assert;
+import org.testng.SkipException;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Drives the load generator against an embedded stub server so profiles, pacing and
+ * latency recording can be checked without a browser or the real site.
+ */
+@Epic("Performance Testing")
+@Feature("HTTP Load Generation")
+public class HttpLoadGeneratorTest {
+
+    private LoadStubServer server;
+    private String baseUrl;
+
+    @BeforeClass
+    public void startStubServer() throws IOException {
+        server = new LoadStubServer();
+        baseUrl = server.baseUrl();
+        System.out.println("🧪 Load stub server on " + baseUrl);
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void stopStubServer() {
+        if (server != null) {
+            server.stop();
+        }
+    }
+
+    private List<LoadRequest> searchScenario() {
+        return Arrays.asList(
+            LoadRequest.get("Hotel Search", baseUrl + "/api/search?destination=Orlando"),
+            LoadRequest.post("Room Rates", baseUrl + "/api/rates", "{\"hotelId\":\"FL123\"}", "application/json"));
+    }
+
+    private HttpLoadGenerator generator(LoadProfile profile, List<LoadRequest> scenario, long thinkTimeMs) {
+        return new HttpLoadGenerator(profile, scenario, HttpLoadGenerator.Engine.resolve("auto"), 0, 10000, thinkTimeMs);
+    }
+
+    @Test
+    @Severity(SeverityLevel.NORMAL)
+    @Description("Load profiles parse from config syntax and give the expected user counts over time")
+    public void testProfileParsing() {
+        LoadProfile ramp = LoadProfile.parse("ramp:users=2000,ramp=60s,hold=2m");
+        Assert.assertEquals(ramp.getDurationMs(), 180_000);
+        Assert.assertEquals(ramp.usersAt(30_000), 1000);
+        Assert.assertEquals(ramp.usersAt(90_000), 2000);
+
+        LoadProfile rate = LoadProfile.parse("rate:rps=500,users=100,duration=30s");
+        Assert.assertEquals(rate.pacingNanos(100), 200_000_000L, "100 users at 500 req/s start one request every 200ms each");
+
+        LoadProfile step = LoadProfile.parse("step:start=100,step=50,every=500ms,steps=4");
+        Assert.assertEquals(step.usersAt(0), 100);
+        Assert.assertEquals(step.usersAt(1200), 200);
+        Assert.assertEquals(step.usersAt(5000), 250, "Users stay at the last step");
+        Assert.assertEquals(step.peakUsers(), 250);
+
+        Assert.expectThrows(IllegalArgumentException.class, () -> LoadProfile.parse("spike:users=10"));
+        Assert.expectThrows(IllegalArgumentException.class, () -> LoadProfile.parse("rate:users=10,duration=5s"));
+    }
+
+    @Test
+    @Severity(SeverityLevel.CRITICAL)
+    @Description("Constant-rate profile holds the target throughput and records every response")
+    public void testConstantRateProfile() {
+        HttpLoadGenerator.LoadResult result = generator(LoadProfile.constantRate(200, 50, 3000), searchScenario(), 0)
+            .run("Stub Constant Rate");
+
+        Assert.assertEquals(result.getOverall().getErrors(), 0, "Stub never fails");
+        Assert.assertEquals(result.getHistogram().getTotalCount(), result.getOverall().getRequests(),
+            "Every request should have a recorded latency");
+        Assert.assertEquals(result.getThroughputPerSecond(), 200, 40, "Throughput should track the target rate");
+        Assert.assertEquals(result.getRequests().size(), 2, "Latencies are kept per request name");
+        Assert.assertTrue(result.getOverall().getP50Ms() >= LoadStubServer.STUB_DELAY_MS,
+            "Median latency cannot be below the stub delay: " + result.getOverall().getP50Ms());
+    }
+
+    @Test
+    @Severity(SeverityLevel.NORMAL)
+    @Description("Ramp-up profile adds users gradually up to the target")
+    public void testRampUpProfile() {
+        HttpLoadGenerator.LoadResult result = generator(LoadProfile.rampUp(200, 2000, 1000), searchScenario(), 10)
+            .run("Stub Ramp Up");
+
+        Assert.assertEquals(result.getPeakUsers(), 200);
+        List<HttpLoadGenerator.IntervalSample> timeline = result.getTimeline();
+        Assert.assertTrue(timeline.size() >= 3, "Expected one sample per second");
+        Assert.assertTrue(timeline.get(0).getActiveUsers() < timeline.get(timeline.size() - 1).getActiveUsers(),
+            "Users should grow over the ramp");
+        Assert.assertTrue(timeline.get(0).getRequestsPerSecond() < timeline.get(2).getRequestsPerSecond(),
+            "Throughput should grow with the users");
+    }
+
+    @Test
+    @Severity(SeverityLevel.NORMAL)
+    @Description("Step profile raises the user count at each step boundary")
+    public void testStepProfile() {
+        HttpLoadGenerator.LoadResult result = generator(LoadProfile.step(10, 20, 1000, 3), searchScenario(), 5)
+            .run("Stub Step");
+
+        Assert.assertEquals(result.getPeakUsers(), 50);
+        int previous = 0;
+        for (HttpLoadGenerator.IntervalSample sample : result.getTimeline()) {
+            Assert.assertTrue(sample.getActiveUsers() >= previous, "Step profile never removes users");
+            Assert.assertEquals((sample.getActiveUsers() - 10) % 20, 0, "Users move in whole steps");
+            previous = sample.getActiveUsers();
+        }
+    }
+
+    @Test
+    @Severity(SeverityLevel.CRITICAL)
+    @Description("Thousands of concurrent virtual users on one pooled client")
+    public void testThousandsOfConcurrentUsers() {
+        List<LoadRequest> slow = Collections.singletonList(LoadRequest.get("Slow Search", baseUrl + "/api/slow"));
+        HttpLoadGenerator.LoadResult result = generator(LoadProfile.rampUp(2000, 500, 2500), slow, 0)
+            .run("Stub Concurrency");
+        HttpLoadGenerator.attachToAllure(result);
+
+        Assert.assertEquals(result.getPeakUsers(), 2000);
+        Assert.assertTrue(result.getPeakInFlight() >= 1500,
+            "Most users should have a request outstanding at once, peak was " + result.getPeakInFlight());
+        Assert.assertEquals(result.getOverall().getErrors(), 0);
+    }
+
+    @Test
+    @Severity(SeverityLevel.NORMAL)
+    @Description("HTTP error responses are counted as errors but keep their latency")
+    public void testErrorResponsesCounted() {
+        List<LoadRequest> failing = Collections.singletonList(LoadRequest.get("Failing Search", baseUrl + "/api/error"));
+        HttpLoadGenerator.LoadResult result = generator(LoadProfile.constantRate(50, 10, 1000), failing, 0)
+            .run("Stub Errors");
+
+        Assert.assertTrue(result.getOverall().getRequests() > 0);
+        Assert.assertEquals(result.getOverall().getErrors(), result.getOverall().getRequests());
+        Assert.assertEquals(result.getHistogram().getTotalCount(), result.getOverall().getRequests());
+    }
+
+    @Test
+    @Severity(SeverityLevel.NORMAL)
+    @Description("Configured load profile against the hotel search endpoints")
+    public void testHotelSearchLoad() throws IOException {
+        if (!HttpLoadGenerator.isEnabled()) {
+            throw new SkipException("Load generation disabled (load.enabled=false)");
+        }
+
+        HttpLoadGenerator.LoadResult result = HttpLoadGenerator.fromConfig().run("Hotel Search");
+        HttpLoadGenerator.attachToAllure(result);
+        ApiScenarioCapture.ApiScenario scenario = ApiScenarioCapture.configuredScenario();
+        if (scenario != null) {
+            ApiScenarioCapture.attachDriftToAllure(ApiScenarioCapture.detectDrift(scenario, result));
+        }
+
+        Assert.assertTrue(result.getOverall().getRequests() > 0, "Load run should send requests");
+    }
+}
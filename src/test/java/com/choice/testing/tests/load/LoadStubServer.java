@@ -0,0 +1,103 @@
+package com.choice.testing.tests.load;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Embedded stand-in for the hotel search endpoints, so load tests need neither a browser nor the real site.
+ *
+ * - /api/search, /api/rates and /api/hotels/... answer after STUB_DELAY_MS
+ * - /api/slow answers after SLOW_STUB_DELAY_MS
+ * - /api/error answers 500 immediately
+ * - /api/ping answers 200 immediately
+ * - /api/session issues a token in the body and a sid cookie
+ * - /api/book answers 200 only with a token=... query and sid cookie that /api/session issued, 403 otherwise
+ *
+ * stall() freezes every endpoint for a while, as a GC pause or a lock convoy on the server would.
+ */
+class LoadStubServer {
+
+    static final long STUB_DELAY_MS = 20;
+    static final long SLOW_STUB_DELAY_MS = 500;
+
+    private final HttpServer server;
+    private final ExecutorService serverThreads;
+    private final Set<String> issuedTokens = ConcurrentHashMap.newKeySet();
+    private volatile long stalledUntilMillis;
+
+    LoadStubServer() throws IOException {
+        // The JDK server closes keep-alive connections beyond 200 idle ones, which would make
+        // pooled connections go stale at the concurrency these tests use
+        System.setProperty("sun.net.httpserver.maxIdleConnections", "10000");
+
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 4096);
+        server.createContext("/api/search", exchange -> respond(exchange, 200, STUB_DELAY_MS, "{\"hotels\":[]}"));
+        server.createContext("/api/rates", exchange -> respond(exchange, 200, STUB_DELAY_MS, "{\"rates\":[]}"));
+        server.createContext("/api/hotels", exchange -> respond(exchange, 200, STUB_DELAY_MS, "{\"hotel\":{}}"));
+        server.createContext("/api/slow", exchange -> respond(exchange, 200, SLOW_STUB_DELAY_MS, "{}"));
+        server.createContext("/api/error", exchange -> respond(exchange, 500, 0, "{\"error\":true}"));
+        server.createContext("/api/ping", exchange -> respond(exchange, 200, 0, "{}"));
+        server.createContext("/api/session", exchange -> {
+            String token = UUID.randomUUID().toString();
+            String sid = UUID.randomUUID().toString();
+            issuedTokens.add(token);
+            issuedTokens.add(sid);
+            exchange.getResponseHeaders().add("Set-Cookie", "sid=" + sid + "; Path=/; HttpOnly");
+            respond(exchange, 200, 0, "{\"token\":\"" + token + "\"}");
+        });
+        server.createContext("/api/book", exchange -> {
+            String query = exchange.getRequestURI().getRawQuery();
+            String cookie = exchange.getRequestHeaders().getFirst("Cookie");
+            boolean tokenIssued = query != null && query.startsWith("token=") && issuedTokens.contains(query.substring(6));
+            boolean sidIssued = cookie != null && cookie.contains("sid=") && issuedTokens.contains(cookie.replaceAll(".*sid=([^;]+).*", "$1"));
+            respond(exchange, tokenIssued && sidIssued ? 200 : 403, 0, "{}");
+        });
+        serverThreads = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "load-stub-server");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(serverThreads);
+        server.start();
+    }
+
+    String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    /**
+     * Hold every response that would be sent in the next stallMs until the stall ends
+     */
+    void stall(long stallMs) {
+        stalledUntilMillis = System.currentTimeMillis() + stallMs;
+    }
+
+    void stop() {
+        server.stop(0);
+        serverThreads.shutdownNow();
+    }
+
+    private void respond(HttpExchange exchange, int status, long delayMs, String body) throws IOException {
+        try {
+            Thread.sleep(Math.max(delayMs, stalledUntilMillis - System.currentTimeMillis()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
@@ -1,12 +1,21 @@
 package com.choice.testing.tests.performance;
 
 import com.choice.testing.base.BaseTest;
+import com.choice.testing.config.ConfigManager;
 import com.choice.testing.drivers.DriverManager;
 import com.choice.testing.pages.ChoiceHotelsHomePage;
+import com.choice.testing.pages.HotelDetailsPage;
+import com.choice.testing.pages.HotelSearchResultsPage;
+import com.choice.testing.utils.BackendLatencyInterceptor;
 import com.choice.testing.utils.LighthouseHelper;
 import com.choice.testing.utils.LighthouseRunner;
+import com.choice.testing.utils.MemoryLeakDetector;
 import com.choice.testing.utils.AllurePerformanceReporter;
 import com.choice.testing.utils.PerformanceRegressionTracker;
+import com.choice.testing.utils.ScrollSmoothnessBenchmark;
+import com.choice.testing.utils.SmartWait;
+import com.choice.testing.utils.ThirdPartyImpactExperiment;
+import com.choice.testing.utils.ThrottlingSweep;
 import io.qameta.allure.Description;
 import io.qameta.allure.Epic;
 import io.qameta.allure.Feature;
@@ -14,10 +23,14 @@ import io.qameta.allure.Step;
 import io.qameta.allure.Severity;
 import io.qameta.allure.SeverityLevel;
 import org.testng.Assert;
+import org.testng.SkipException;
 import org.testng.annotations.Test;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 /**
  * Comprehensive performance testing showcasing all Lighthouse integration features:
@@ -76,9 +89,6 @@ public class ComprehensivePerformanceTest extends BaseTest {
             
             // Log this run's results
             System.out.println("📊 Run " + run + " Performance: " + String.format("%.1f%%", metrics.getPerformanceScore() * 100));
-            
-            // Reduced wait between runs
-            Thread.sleep(500);
         }
         
         // Generate trend analysis report
@@ -136,6 +146,121 @@ public class ComprehensivePerformanceTest extends BaseTest {
         System.out.println("⚡ Core Web Vitals - FCP: " + String.format("%.0f", finalMetrics.getFirstContentfulPaint()) + "ms, LCP: " + String.format("%.0f", finalMetrics.getLargestContentfulPaint()) + "ms");
     }
 
+    @Test
+    @Severity(SeverityLevel.NORMAL)
+    @Description("Homepage LCP/TBT sensitivity across a CPU slowdown x network grid, with knee points")
+    public void testThrottlingSensitivitySweep() {
+        if (!ThrottlingSweep.isEnabled()) {
+            throw new SkipException("Throttling sweep disabled (throttling.sweep.enabled=false)");
+        }
+        
+        // Runs in its own pool of warm browsers; the test's own session is not used
+        ThrottlingSweep.SweepResult result = ThrottlingSweep.sweepPage("Homepage", ConfigManager.getProperty("base.url"));
+        ThrottlingSweep.attachToAllure(result);
+        
+        for (ThrottlingSweep.SensitivityCurve curve : result.disproportionateCurves()) {
+            System.out.println("⚠️ " + curve.getMetric() + " on " + curve.getNetwork() + " degrades disproportionately beyond "
+                + curve.getKneeSlowdown() + "x CPU slowdown (" + String.format("%.1f", curve.getKneeRatio()) + "x steeper)");
+        }
+        Assert.assertFalse(result.getCurves().isEmpty(), "Sweep should produce at least one sensitivity curve");
+    }
+
+    @Test
+    @Severity(SeverityLevel.NORMAL)
+    @Description("Rank third-party hosts by their LCP/TBT/transfer cost using paired blocked/unblocked loads")
+    public void testThirdPartyImpact() {
+        if (!ThirdPartyImpactExperiment.isEnabled()) {
+            throw new SkipException("Third-party experiment disabled (thirdparty.experiment.enabled=false)");
+        }
+        
+        // The first load lets the network recorder discover which third-party hosts the page uses
+        navigateToChoiceHotels();
+        SmartWait.waitForPageSettled(DriverManager.getWebDriver(), SmartWait.getDefaultTimeout());
+        
+        ThirdPartyImpactExperiment.ExperimentResult result =
+            ThirdPartyImpactExperiment.run("Homepage", ConfigManager.getProperty("base.url"));
+        ThirdPartyImpactExperiment.attachToAllure(result);
+        
+        for (ThirdPartyImpactExperiment.OriginImpact impact : result.getImpacts()) {
+            System.out.println(String.format("🧪 %s: LCP %+.0f ± %.0fms, TBT %+.0f ± %.0fms, %.1f KB",
+                impact.getHost(), impact.getLcpCostMs(), impact.getLcpCiMs(),
+                impact.getTbtCostMs(), impact.getTbtCiMs(), impact.getTransferCostKb()));
+        }
+    }
+
+    @Test
+    @Severity(SeverityLevel.NORMAL)
+    @Description("Measure how added latency on one backend endpoint propagates to LCP and INP of the search journey")
+    public void testBackendLatencySensitivity() {
+        if (!BackendLatencyInterceptor.isSensitivityEnabled()) {
+            throw new SkipException("Backend sensitivity disabled (backend.sensitivity.enabled=false)");
+        }
+        
+        List<Long> latencies = new ArrayList<>();
+        for (String value : ConfigManager.getProperty("backend.sensitivity.latencies.ms", "0,250,500,1000,2000").split(",")) {
+            latencies.add(Long.parseLong(value.trim()));
+        }
+        String pattern = ConfigManager.getProperty("backend.sensitivity.pattern", "*/api/*");
+        
+        BackendLatencyInterceptor.SensitivityResult result = BackendLatencyInterceptor.sweepLatency(
+            "Hotel Search", pattern, latencies, ConfigManager.getIntProperty("backend.sensitivity.runs", 3),
+            driver -> {
+                ChoiceHotelsHomePage homePage = new ChoiceHotelsHomePage();
+                homePage.navigateToHomePage();
+                homePage.performHotelSearch("New York", 7, 9, 1, 2);
+            });
+        BackendLatencyInterceptor.attachToAllure(result);
+        
+        Assert.assertFalse(result.getLevels().isEmpty(), "Sensitivity sweep should produce levels");
+    }
+
+    @Test
+    @Severity(SeverityLevel.NORMAL)
+    @Description("Repeat open-details-and-back on the search results and check JS heap and DOM for steady growth")
+    public void testMemoryLeakSoak() {
+        if (!MemoryLeakDetector.isEnabled()) {
+            throw new SkipException("Memory leak soak disabled (leak.soak.enabled=false)");
+        }
+        
+        ChoiceHotelsHomePage homePage = new ChoiceHotelsHomePage();
+        homePage.navigateToHomePage();
+        homePage.performHotelSearch("New York", 7, 9, 1, 2);
+        
+        MemoryLeakDetector.LeakReport report = MemoryLeakDetector.soak("Hotel Details Round Trip", driver -> {
+            new HotelSearchResultsPage().selectRandomHotelAndViewDetails();
+            new HotelDetailsPage().isOnHotelDetailsPage();
+            driver.navigate().back();
+        });
+        MemoryLeakDetector.attachToAllure(report);
+        
+        Assert.assertNotEquals(report.getVerdict(), MemoryLeakDetector.Verdict.LEAK,
+            "Objects retained on every iteration: " + report.getGrowingConstructors().stream()
+                .limit(3).map(MemoryLeakDetector.ConstructorGrowth::getConstructor).collect(Collectors.joining(", ")));
+    }
+
+    @Test
+    @Severity(SeverityLevel.NORMAL)
+    @Description("Dropped frames, p95 frame time and long animation frames while scrolling the results and switching to grid view")
+    public void testSearchResultsSmoothness() {
+        if (!ScrollSmoothnessBenchmark.isEnabled()) {
+            throw new SkipException("Smoothness benchmark disabled (smoothness.enabled=false)");
+        }
+        
+        ChoiceHotelsHomePage homePage = new ChoiceHotelsHomePage();
+        homePage.navigateToHomePage();
+        homePage.performHotelSearch("New York", 7, 9, 1, 2);
+        
+        HotelSearchResultsPage resultsPage = new HotelSearchResultsPage();
+        ScrollSmoothnessBenchmark.SmoothnessResult scroll = resultsPage.measureScrollSmoothness();
+        ScrollSmoothnessBenchmark.attachToAllure(scroll);
+        ScrollSmoothnessBenchmark.SmoothnessResult gridToggle = resultsPage.measureGridViewTransition();
+        ScrollSmoothnessBenchmark.attachToAllure(gridToggle);
+        
+        Assert.assertTrue(scroll.getFrames() > 1, "Frames should be sampled during the scroll");
+        Assert.assertTrue(scroll.isSmooth(), String.format("Results scroll dropped %.1f%% of frames, p95 %.1f ms",
+            scroll.getDroppedFramePercent(), scroll.getP95FrameMs()));
+    }
+
     // Helper Methods
 
     @Step("Navigate to Choice Hotels homepage")
@@ -155,11 +280,7 @@ public class ComprehensivePerformanceTest extends BaseTest {
         DriverManager.getWebDriver().get(url);
         
         // Wait for page load
-        try {
-            Thread.sleep(3000);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        }
+        SmartWait.waitForPageSettled(DriverManager.getWebDriver(), SmartWait.getDefaultTimeout());
         
         System.out.println("🌐 Navigated to: " + url);
     }
@@ -259,8 +380,6 @@ public class ComprehensivePerformanceTest extends BaseTest {
             
             System.out.println("📊 Demo run " + i + " performance: " + 
                 String.format("%.1f%%", metrics.getPerformanceScore() * 100));
-                
-            Thread.sleep(1000);
         }
         
         System.out.println("🎯 Regression detection demonstration completed");
@@ -281,7 +400,7 @@ public class ComprehensivePerformanceTest extends BaseTest {
     private void clickFirstSearchResult() throws Exception {
         // This would need to be implemented based on your page objects
         // For demo purposes, we'll just simulate it
-        Thread.sleep(2000);
+        SmartWait.waitForDomQuiescence(DriverManager.getWebDriver(), SmartWait.getDefaultTimeout());
         System.out.println("🖱️ Clicked first search result (simulated)");
     }
 
@@ -289,7 +408,7 @@ public class ComprehensivePerformanceTest extends BaseTest {
     private void refreshPage() {
         try {
             DriverManager.getWebDriver().navigate().refresh();
-            Thread.sleep(3000); // Wait for page load
+            SmartWait.waitForPageSettled(DriverManager.getWebDriver(), SmartWait.getDefaultTimeout());
             System.out.println("🔄 Page refreshed");
         } catch (Exception e) {
             System.out.println("⚠️ Page refresh failed: " + e.getMessage());
@@ -324,7 +443,7 @@ public class ComprehensivePerformanceTest extends BaseTest {
         
         // Perform all actions first, then single audit
         performHotelSearch("Miami, FL");
-        Thread.sleep(1000); // Reduced wait time
+        SmartWait.waitForPageSettled(DriverManager.getWebDriver(), SmartWait.getDefaultTimeout());
         
         // Single performance-only audit for the entire journey
         LighthouseRunner.LighthouseMetrics metrics = LighthouseHelper.auditPerformanceOnly();
@@ -381,7 +500,7 @@ public class ComprehensivePerformanceTest extends BaseTest {
     private void refreshPageOptimized() {
         try {
             DriverManager.getWebDriver().navigate().refresh();
-            Thread.sleep(1500); // Reduced from 3000ms to 1500ms
+            SmartWait.waitForPageSettled(DriverManager.getWebDriver(), SmartWait.getDefaultTimeout());
             System.out.println("🔄 Page refreshed (optimized)");
         } catch (Exception e) {
             System.out.println("⚠️ Page refresh failed: " + e.getMessage());
@@ -392,12 +511,7 @@ public class ComprehensivePerformanceTest extends BaseTest {
     private void navigateToUrlOptimized(String url) {
         DriverManager.getWebDriver().get(url);
         
-        // Reduced wait time from 3000ms to 1500ms
-        try {
-            Thread.sleep(1500);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        }
+        SmartWait.waitForPageSettled(DriverManager.getWebDriver(), SmartWait.getDefaultTimeout());
         
         System.out.println("🌐 Navigated to: " + url + " (optimized)");
     }
@@ -0,0 +1,169 @@
+package com.choice.testing.tests.performance;
+
+import com.choice.testing.base.BaseTest;
+import com.choice.testing.drivers.DriverManager;
+import com.choice.testing.pages.PageProbe;
+import io.qameta.allure.Allure;
+import io.qameta.allure.Description;
+import io.qameta.allure.Epic;
+import io.qameta.allure.Feature;
+import io.qameta.allure.Severity;
+import io.qameta.allure.SeverityLevel;
+import io.qameta.allure.Step;
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.support.events.EventFiringDecorator;
+import org.openqa.selenium.support.events.WebDriverListener;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compares bulk reads through PageProbe with the per-element WebDriver calls the
+ * page objects used before, on a local fixture page so the network is out of the picture.
+ */
+@Epic("Performance Testing")
+@Feature("Page Probe")
+public class PageProbeBenchmarkTest extends BaseTest {
+
+    private static final int ITERATIONS = 25;
+
+    /**
+     * Counts every command sent through the decorated driver and its elements
+     */
+    private static class CommandCounter implements WebDriverListener {
+        private int commands;
+
+        @Override
+        public void beforeAnyWebDriverCall(WebDriver driver, Method method, Object[] args) {
+            commands++;
+        }
+
+        @Override
+        public void beforeAnyWebElementCall(WebElement element, Method method, Object[] args) {
+            commands++;
+        }
+    }
+
+    @Test
+    @Severity(SeverityLevel.NORMAL)
+    @Description("Single-script PageProbe vs per-element findElements/isDisplayed/getText on a fixture page")
+    public void testPageProbeRoundTripSavings() {
+        WebDriver driver = DriverManager.getWebDriver();
+        driver.get(getClass().getClassLoader().getResource("fixtures/page-probe-fixture.html").toString());
+
+        Map<String, String> selectors = fixtureSelectors();
+
+        CommandCounter perElementCounter = new CommandCounter();
+        WebDriver perElementDriver = new EventFiringDecorator<>(perElementCounter).decorate(driver);
+        CommandCounter probeCounter = new CommandCounter();
+        WebDriver probeDriver = new EventFiringDecorator<>(probeCounter).decorate(driver);
+
+        // Absent selectors would otherwise sit out the implicit wait on every findElements,
+        // so it is turned off (as AdaptiveLocator does) to measure round trips only
+        Duration implicitWait = driver.manage().timeouts().getImplicitWaitTimeout();
+        driver.manage().timeouts().implicitlyWait(Duration.ZERO);
+
+        Map<String, Integer> perElementCounts;
+        PageProbe.ProbeResult probeResult;
+        long[] perElementMs = new long[ITERATIONS];
+        long[] probeMs = new long[ITERATIONS];
+        try {
+            // Warm up both paths once so the first-call cost is not in the numbers
+            perElementCounts = readPerElement(perElementDriver, selectors);
+            probeResult = PageProbe.probe(probeDriver, selectors);
+            perElementCounter.commands = 0;
+            probeCounter.commands = 0;
+
+            for (int i = 0; i < ITERATIONS; i++) {
+                long start = System.nanoTime();
+                readPerElement(perElementDriver, selectors);
+                perElementMs[i] = (System.nanoTime() - start) / 1_000_000L;
+
+                start = System.nanoTime();
+                PageProbe.probe(probeDriver, selectors);
+                probeMs[i] = (System.nanoTime() - start) / 1_000_000L;
+            }
+        } finally {
+            driver.manage().timeouts().implicitlyWait(implicitWait);
+        }
+
+        double perElementCommands = perElementCounter.commands / (double) ITERATIONS;
+        double probeCommands = probeCounter.commands / (double) ITERATIONS;
+        attachBenchmarkReport(selectors.size(), perElementCommands, probeCommands, median(perElementMs), median(probeMs));
+
+        for (Map.Entry<String, Integer> expected : perElementCounts.entrySet()) {
+            Assert.assertEquals(probeResult.getCount(expected.getKey()), (int) expected.getValue(),
+                "PageProbe count should match findElements for " + expected.getKey());
+        }
+        Assert.assertEquals(probeCommands, 1.0, "PageProbe should use a single WebDriver command");
+        Assert.assertTrue(perElementCommands > selectors.size(),
+            "Per-element reads should need more than one command per selector");
+    }
+
+    private Map<String, String> fixtureSelectors() {
+        Map<String, String> selectors = new LinkedHashMap<>();
+        selectors.put("name", "h1.property-header-h1");
+        selectors.put("address", ".headband-address.sticky");
+        selectors.put("phone", ".headband-phone span:nth-child(2)");
+        selectors.put("rating", ".hotel-rating, .property-rating, .rating, .stars");
+        selectors.put("price", ".headband .main-price .price");
+        selectors.put("viewRoomsButton", "button.choice-button.primary_cta[data-track-id='CheckAvailability']");
+        selectors.put("roomCards", ".property-rooms-grid-view-card");
+        selectors.put("hotelCards", "li.search-result-grid-view-card");
+        selectors.put("availabilityButtons", "a[data-track-id*='CheckAvailability']");
+        selectors.put("listings", ".listing");
+        selectors.put("noResults", ".no-results, .no-hotels-found");
+        return selectors;
+    }
+
+    /**
+     * The pattern the page objects used before PageProbe: find, then isDisplayed and getText on the first match
+     */
+    private Map<String, Integer> readPerElement(WebDriver driver, Map<String, String> selectors) {
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        for (Map.Entry<String, String> selector : selectors.entrySet()) {
+            List<WebElement> elements = driver.findElements(By.cssSelector(selector.getValue()));
+            counts.put(selector.getKey(), elements.size());
+            if (!elements.isEmpty() && elements.get(0).isDisplayed()) {
+                elements.get(0).getText();
+            }
+        }
+        return counts;
+    }
+
+    @Step("Attach page probe benchmark results")
+    private void attachBenchmarkReport(int selectorCount, double perElementCommands, double probeCommands,
+                                       long perElementMedianMs, long probeMedianMs) {
+        StringBuilder report = new StringBuilder();
+        report.append("# Page Probe Benchmark\n\n");
+        report.append("Selectors: ").append(selectorCount).append(", iterations: ").append(ITERATIONS).append("\n\n");
+        report.append("| Approach | Commands / read | Median time |\n");
+        report.append("|----------|-----------------|-------------|\n");
+        report.append("| Per-element | ").append(String.format("%.1f", perElementCommands)).append(" | ")
+              .append(perElementMedianMs).append(" ms |\n");
+        report.append("| PageProbe | ").append(String.format("%.1f", probeCommands)).append(" | ")
+              .append(probeMedianMs).append(" ms |\n");
+
+        Allure.addAttachment("Page Probe Benchmark", "text/markdown",
+            new ByteArrayInputStream(report.toString().getBytes(StandardCharsets.UTF_8)), ".md");
+        System.out.println("📊 Per-element: " + String.format("%.1f", perElementCommands) + " commands, "
+            + perElementMedianMs + " ms | PageProbe: " + String.format("%.1f", probeCommands) + " commands, "
+            + probeMedianMs + " ms");
+    }
+
+    private long median(long[] values) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+}
@@ -2,6 +2,7 @@ package com.choice.testing.tests.performance;
 
 import com.choice.testing.drivers.DriverManager;
 import com.choice.testing.utils.LighthouseRunner;
+import com.choice.testing.utils.SmartWait;
 import io.qameta.allure.Description;
 import io.qameta.allure.Epic;
 import io.qameta.allure.Feature;
@@ -116,12 +117,9 @@ public class PerformanceTest {
             ((org.openqa.selenium.JavascriptExecutor) webDriver)
                 .executeScript("return document.readyState").equals("complete"));
         
-        // Additional wait for any dynamic content
-        try {
-            Thread.sleep(3000);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        }
+        // Wait for dynamic content instead of a fixed delay
+        SmartWait.waitForNetworkIdle(driver, SmartWait.getDefaultTimeout());
+        SmartWait.waitForDomQuiescence(driver, SmartWait.getDefaultTimeout());
         
         System.out.println("✅ Page fully loaded");
     }
@@ -140,7 +138,7 @@ public class PerformanceTest {
             destinationInput.clear();
             destinationInput.sendKeys(destination);
             
-            Thread.sleep(1000); // Allow for autocomplete
+            SmartWait.waitForDomQuiescence(driver, SmartWait.getDefaultTimeout()); // Allow for autocomplete
             
             var searchButton = driver.findElement(org.openqa.selenium.By.cssSelector(
                 "button[data-track-id='FindHotelsBTN'], button[type='submit'], .search-btn"));